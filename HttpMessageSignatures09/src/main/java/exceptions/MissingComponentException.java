@@ -0,0 +1,59 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package exceptions;
+
+/**
+ * MissingComponentException is thrown if a covered field is not contained in the message, or a covered dictionary
+ * member (key parameter) is not contained in the field. A missing field cannot be signed as an empty value
+ * (RFC 9421 section 2.5), no stack trace is recorded for received messages.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class MissingComponentException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** identifier of the missing component */
+    private final String componentId;
+
+    /**
+     *
+     * @param errorMessage
+     * @param componentId
+     */
+    public MissingComponentException(String errorMessage, String componentId) {
+        super(errorMessage + ": " + componentId);
+        this.componentId = componentId;
+    }
+
+    /**
+     * @return the identifier of the missing component
+     */
+    public String getComponentId() {
+        return componentId;
+    }
+
+    /** (non-Javadoc)
+     * @see java.lang.Throwable#fillInStackTrace()
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package exceptions;
+
+/**
+ * SignatureParseException is thrown if the Signature or Signature-Input field of a message is malformed
+ * or exceeds one of the configured limits.
+ * It is an ordinary rejection of received fields, so no stack trace is recorded.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class SignatureParseException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Reason for the rejection of the fields.
+     */
+    public enum Reason {
+        /** the combined field value is longer than allowed */
+        HEADER_TOO_LARGE,
+        /** the field contains more signature labels than allowed */
+        TOO_MANY_LABELS,
+        /** a signature covers more components than allowed */
+        TOO_MANY_COMPONENTS,
+        /** a signature or component has more parameters than allowed */
+        TOO_MANY_PARAMETERS,
+        /** the field is not a valid dictionary */
+        MALFORMED_FIELD,
+        /** a member of the field does not have the expected type */
+        INVALID_MEMBER
+    }
+
+    /** reason for the rejection */
+    private final Reason reason;
+
+    /**
+     *
+     * @param reason
+     * @param errorMessage
+     */
+    public SignatureParseException(Reason reason, String errorMessage) {
+        super(errorMessage, null, false, false);
+        this.reason = reason;
+    }
+
+    /**
+     * @return the reason for the rejection
+     */
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package exceptions;
+
+/**
+ * StructuredFieldParseException is thrown if a field value is not a valid structured field (RFC 8941).
+ * The position identifies the error, no stack trace is recorded for malformed received fields.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class StructuredFieldParseException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    /** position in the field value at which parsing failed */
+    private final int position;
+
+    /**
+     *
+     * @param errorMessage
+     * @param position
+     */
+    public StructuredFieldParseException(String errorMessage, int position) {
+        super(errorMessage + " at position " + position);
+        this.position = position;
+    }
+
+    /**
+     * @return the position in the field value at which parsing failed
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /** (non-Javadoc)
+     * @see java.lang.Throwable#fillInStackTrace()
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package exceptions;
+
+import java.io.IOException;
+
+/**
+ * TrailerSignatureException is thrown by a verifying body stream if the signature sent in the trailers of the
+ * message is not valid. Like the ContentDigestMismatchException it reaches the application through its read calls.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TrailerSignatureException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     *
+     * @param errorMessage
+     */
+    public TrailerSignatureException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    /**
+     *
+     * @param errorMessage
+     * @param cause
+     */
+    public TrailerSignatureException(String errorMessage, Throwable cause) {
+        super(errorMessage, cause);
+    }
+}
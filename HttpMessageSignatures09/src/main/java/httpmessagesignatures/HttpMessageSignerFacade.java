@@ -16,6 +16,9 @@
 */
 package httpmessagesignatures;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.SocketException;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
@@ -25,9 +28,14 @@ import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.http.Header;
 
 import exceptions.AmbiguousSignatureLableException;
+import signature.components.ContentCoding;
 import signature.components.KeyMap;
+import signature.messages.SignableMessage;
 import signature.messages.SignedHttpRequest;
 import signature.messages.SignedHttpResponse;
 
@@ -84,15 +92,146 @@ public class HttpMessageSignerFacade {
      *@return Returns boolean value whether the signature on the request is valid.
      * @throws Exception
      */
-    public static boolean verifyRequest(SignedHttpRequest request, List<KeyMap> keys) throws Exception {
+    public static boolean verifyRequest(SignableMessage request, List<KeyMap> keys) throws Exception {
         return RequestVerifier.verifyRequest(request, keys);
     }
 
+    /**
+     *@return Returns boolean value whether the signature on the request is valid.
+     * @throws exceptions.SignatureParseException if the signature fields exceed the limits of the settings
+     * @throws Exception
+     */
+    public static boolean verifyRequest(SignableMessage request, List<KeyMap> keys, VerificationSettings settings)
+            throws Exception {
+        return RequestVerifier.verifyRequest(request, keys, settings);
+    }
+
     /**
      *@return Returns boolean value whether the signature on the response is valid.
      * @throws Exception
      */
-    public static boolean verifyResponse(SignedHttpResponse response, List<KeyMap> keys) throws Exception {
+    public static boolean verifyResponse(SignableMessage response, List<KeyMap> keys) throws Exception {
         return ResponseVerifier.verifyResponse(response, keys);
     }
+
+    /**
+     *@return Returns boolean value whether the signature on the response is valid.
+     * @throws exceptions.SignatureParseException if the signature fields exceed the limits of the settings
+     * @throws Exception
+     */
+    public static boolean verifyResponse(SignableMessage response, List<KeyMap> keys,
+            VerificationSettings settings) throws Exception {
+        return ResponseVerifier.verifyResponse(response, keys, settings);
+    }
+
+    /**
+     * Verification of a request without exceptions for ordinary rejections, e.g. under attack traffic.
+     *@return Returns the outcome of every signature selected by the policy, the reason of a rejection
+     *        and the time spent in the phases of the verification.
+     */
+    public static VerificationResult verifyRequestResult(SignableMessage request, List<KeyMap> keys,
+            VerificationSettings settings) {
+        return RequestVerifier.verifyRequestResult(request, keys, settings, true);
+    }
+
+    /**
+     * Verification of a response without exceptions for ordinary rejections, e.g. under attack traffic.
+     *@return Returns the outcome of every signature selected by the policy, the reason of a rejection
+     *        and the time spent in the phases of the verification.
+     */
+    public static VerificationResult verifyResponseResult(SignableMessage response, List<KeyMap> keys,
+            VerificationSettings settings) {
+        return ResponseVerifier.verifyResponseResult(response, keys, settings, true);
+    }
+
+    /**
+     * First stage of the streaming verification: the signatures are verified without reading the body.
+     * If content-digest is covered, the body must then be read through verifiedBodyStream.
+     *@return Returns boolean value whether the signature on the request is valid.
+     * @throws Exception
+     */
+    public static boolean verifyRequestHeaders(SignableMessage request, List<KeyMap> keys,
+            VerificationSettings settings) throws Exception {
+        return RequestVerifier.verifyRequest(request, keys, settings, false);
+    }
+
+    /**
+     * First stage of the streaming verification: the signatures are verified without reading the body.
+     * If content-digest is covered, the body must then be read through verifiedBodyStream.
+     *@return Returns boolean value whether the signature on the response is valid.
+     * @throws Exception
+     */
+    public static boolean verifyResponseHeaders(SignableMessage response, List<KeyMap> keys,
+            VerificationSettings settings) throws Exception {
+        return ResponseVerifier.verifyResponse(response, keys, settings, false);
+    }
+
+    /**
+     * Second stage of the streaming verification. The returned stream digests the body while the application reads
+     * it, memory use does not depend on the body size. At the end of the stream it throws a
+     * ContentDigestMismatchException instead of returning -1 if the body does not match the content-digest field.
+     * @param message message verified by verifyRequestHeaders or verifyResponseHeaders
+     * @param body stream of the message body, e.g. the servlet input stream
+     * @return stream of the body to be read by the application
+     * @throws NoSuchAlgorithmException
+     * @throws exceptions.ContentDigestMismatchException if the content-digest field is missing, malformed or has no
+     *         supported algorithm
+     */
+    public static InputStream verifiedBodyStream(SignableMessage message, InputStream body)
+            throws NoSuchAlgorithmException, IOException {
+        return Verifier.verifyingBodyStream(message, body);
+    }
+
+    /**
+     * Streaming signature with trailers: the content-digest is computed while the body is written, the
+     * Content-Digest, Signature-Input and Signature fields are created as trailers when the stream is closed.
+     * Covered content-digest must have the tr parameter. If the response has a Content-Encoding of gzip or deflate,
+     * the unencoded body is written and compressed by the stream, the content-digest covers the compressed octets.
+     * @param response to be signed, its headers have to be sent before the body
+     * @param privateKeyMaterial
+     * @param body stream the body is written to, e.g. the servlet output stream
+     * @return stream of the body, its getTrailerFields can be passed to the container
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static TrailerSigningOutputStream signResponseStreaming(SignedHttpResponse response,
+            byte[] privateKeyMaterial, OutputStream body) throws NoSuchAlgorithmException, IOException {
+        return ResponseSigner.signResponseStreaming(response, privateKeyMaterial, body);
+    }
+
+    /**
+     * Streaming verification of a message whose signature or content-digest is sent as trailers. The returned
+     * stream throws a TrailerSignatureException or a ContentDigestMismatchException at the end of the body if the
+     * trailers are not valid.
+     * @param message message whose headers have been received
+     * @param body stream of the message body
+     * @param trailers supplies the trailers once the body has been read
+     * @param keys public keys of the signers
+     * @param settings limits for the verification
+     * @return stream of the body to be read by the application
+     * @throws NoSuchAlgorithmException
+     */
+    public static TrailerVerifyingInputStream verifiedTrailerStream(SignableMessage message, InputStream body,
+            Supplier<Header[]> trailers, List<KeyMap> keys, VerificationSettings settings)
+            throws NoSuchAlgorithmException {
+        return new TrailerVerifyingInputStream(message, body, trailers, keys, settings);
+    }
+
+    /**
+     * Decodes a verified body stream according to the Content-Encoding field of the message. The content-digest is
+     * verified over the encoded octets before they are decoded, the body is decompressed only once.
+     * @param message message with the Content-Encoding field
+     * @param verifiedBody stream returned by verifiedBodyStream or verifiedTrailerStream
+     * @return stream of the decoded body
+     * @throws IOException if the content coding is not supported
+     */
+    public static InputStream decodedBodyStream(SignableMessage message, InputStream verifiedBody)
+            throws IOException {
+        ContentCoding coding = ContentCoding.forHeader(message.getHeaderIndex().getCombinedValue("content-encoding"));
+        if (coding == null) {
+            throw new IOException("Content-Encoding not supported: "
+                    + message.getHeaderIndex().getCombinedValue("content-encoding"));
+        }
+        return coding.decoder(verifiedBody);
+    }
 }
@@ -34,7 +34,9 @@ import exceptions.AmbiguousSignatureLableException;
 import signature.components.Component;
 import signature.components.SignatureParameter;
 import signature.messages.SignedHttpRequest;
-import signaturebase.HttpFieldTransformer;
+import signature.metrics.Metrics;
+import signature.metrics.SignatureMetrics.Operation;
+import signature.metrics.SignatureMetrics.Phase;
 import signaturebase.SignaturBaseCreator;
 import signaturebase.SignaturBaseCreatorRequest;
 
@@ -65,14 +67,17 @@ public class RequestSigner extends Signer {
             InvalidAlgorithmParameterException, InvalidKeySpecException, SignatureException, SocketException,
             UnknownHostException {
 
-        HttpFieldTransformer.canonicalizeHTTPHeader(request);
         SignatureParameter signatureParameter = request.getSignatureParams();
         String signLabel = signatureParameter.getSignLabel();
         List<Component> coveredHeaders = signatureParameter.getCoveredHeaders();
 
+        long start = System.nanoTime();
         checkConditions(request, signLabel);
+        addContentDigest(request, coveredHeaders);
 
+        long baseStart = System.nanoTime();
         SignaturBaseCreator baseCreator = new SignaturBaseCreatorRequest(coveredHeaders, request, signatureParameter);
+        Metrics.recordPhaseSince(Operation.SIGN, Phase.BASE, signatureParameter.getAlgorithm(), baseStart);
 
         byte[] signatureBase = baseCreator.getSignaturebase();
         request.setSignatureBase(new String(signatureBase, StandardCharsets.UTF_8));
@@ -83,7 +88,7 @@ public class RequestSigner extends Signer {
         if (request.containsHeader("Signature-Input")) {
             Header signatureInputHeader = request.getFirstHeader("Signature-Input");
             String oldValue = signatureInputHeader.getValue();
-            String newValue = oldValue + "," + "\n" + signLabel + "= " + baseCreator.signatureInput;
+            String newValue = oldValue + ", " + signLabel + "=" + baseCreator.signatureInput;
             request.removeHeaders("Signature-Input");
             request.addHeader("Signature-Input", newValue);
             request.setSignatureInput(newValue);
@@ -96,7 +101,7 @@ public class RequestSigner extends Signer {
             Header signatureHeader = request.getFirstHeader("Signature");
             String oldValue = signatureHeader.getValue();
 
-            String newValue = oldValue + "," + "\n" + signLabel + "=:" + signatureStr + ":";
+            String newValue = oldValue + ", " + signLabel + "=:" + signatureStr + ":";
             request.removeHeaders("Signature");
             request.addHeader("Signature", newValue);
 
@@ -104,6 +109,7 @@ public class RequestSigner extends Signer {
             request.addHeader("Signature", signLabel + "=:" + signatureStr + ":");
         }
 
+        recordSigned(signatureParameter, start);
         return request;
     }
 
@@ -16,27 +16,19 @@
 */
 package httpmessagesignatures;
 
-import java.net.InetAddress;
 import java.net.URISyntaxException;
-import java.net.UnknownHostException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.http.Header;
 
 import exceptions.NoSuchSignatureException;
-import signature.components.Component;
+import exceptions.SignatureParseException;
 import signature.components.KeyMap;
-import signature.components.SignatureParameter;
-import signature.messages.SignedHttpRequest;
-import signaturebase.SignaturBaseCreator;
-import signaturebase.SignaturBaseCreatorRequest;
+import signature.messages.SignableMessage;
 
 /**
  * Verifier performs the verification of a request.
@@ -49,7 +41,7 @@ public class RequestVerifier extends Verifier {
 
     /**
      * Parse the Signature and Signature-Input fields and extract the signatures to be verified.
-     * @param SignedHttpRequest to validate.
+     * @param request to validate, e.g. a SignedHttpRequest or an adapter of another HTTP library.
      * @param List of public keys.
      * @return Returns true, if the signature is valid.
      * @throws NoSuchSignatureException
@@ -59,124 +51,75 @@ public class RequestVerifier extends Verifier {
      * @throws InvalidKeySpecException
      * @throws SignatureException
      * @throws InvalidAlgorithmParameterException
+     * @throws SignatureParseException
      */
 
-    protected static boolean verifyRequest(SignedHttpRequest request, List<KeyMap> keys)
+    protected static boolean verifyRequest(SignableMessage request, List<KeyMap> keys)
             throws NoSuchSignatureException, NoSuchAlgorithmException, URISyntaxException, InvalidKeyException,
-            InvalidAlgorithmParameterException, SignatureException, InvalidKeySpecException {
-
-        String host = request.getURI().getHost();
-        boolean verify = false;
-
-        // enable safe Transformation
-        request = (SignedHttpRequest) transformMessage(request);
-
-        // get Signature Labels and their Input
-        Header signatureInputHeader = request.getFirstHeader("Signature-Input");
-        Map<String, String> labelsAndInput = getSignatureLabelsAndInput(signatureInputHeader);
-        List<String> sigLabels = new ArrayList<>();
-        for (Map.Entry<String, String> entry : labelsAndInput.entrySet()) {
-            String signLabel = entry.getKey();
-
-            sigLabels.add(signLabel);
-
-            // Section 3.2 step 2 anaylize Signatur-Input
-            List<Component> coveredHeaders = getCoveredHeaders(signatureInputHeader);
-            Map<String, String> signatureParameterMap = extractSignatureParameter(signatureInputHeader, signLabel);
-
-            //Step 3 get Signature as ByteArray
-            String signature = getSiganture(request, entry.getKey());
-
-            //Step 4: Check if signature meets all requirements.
-            analyzeSiganturParamater(signatureParameterMap);
-            String algorithm = signatureParameterMap.get("alg");
-            Long created = Long.parseLong(signatureParameterMap.get("created"));
-
-            String nonce = signatureParameterMap.get("nonce");
-            Long expires = null;
-            String keyId = signatureParameterMap.get("keyid");
-            SignatureParameter params;
-            if (signatureParameterMap.get("expires") != null) {
-
-                expires = Long.valueOf(signatureParameterMap.get("expires"));
-                params = new SignatureParameter(algorithm, keyId, nonce, expires, signLabel, coveredHeaders);
-
-            } else {
-                params = new SignatureParameter(algorithm, keyId, nonce, signLabel, coveredHeaders);
-            }
-            params.setCreated(created);
-
-            String dnsTarget = signatureParameterMap.get("dns-target");
-            if (dnsTarget != null) {
-                if (!isDnsTargetChanged(dnsTarget, host)) {
-                    return false;
-                }
-                params.setDnsTarget(dnsTarget);
-            }
-
-            //Step 5: Determine the verification key material for this signature.
-
-            byte[] publicKey = null;
-            for (KeyMap keyMap : keys) {
-                if (keyMap.getKeyId().equals(params.getKeyId())) {
-                    publicKey = keyMap.getPublicKey();
-                }
-            }
-
-            if (publicKey == null) {
-                //No such key available
-                throw new InvalidKeyException();
-            }
-
-            SignaturBaseCreator baseCreator = new SignaturBaseCreatorRequest(coveredHeaders, request, params);
-            byte[] signatureBase = baseCreator.getSignaturebase();
-
-            // Step 8: Verify
-            verify = verify(signatureBase, signature, publicKey, params.getAlgorithm());
-
-            //verify message body
-            if (checkContentDigestIncluded(coveredHeaders)) {
-                String contentDigestValue = request.getFirstHeader("content-digest").getValue();
-                boolean bodyhash = verifyBody(contentDigestValue, request.getMessageBody());
-                if (!bodyhash) {
-                    return false;
-                }
+            InvalidAlgorithmParameterException, SignatureException, InvalidKeySpecException, SignatureParseException {
+        return verifyRequest(request, keys, new VerificationSettings());
+    }
 
-            }
+    /**
+     * Parse the Signature and Signature-Input fields within the limits of the settings
+     * and extract the signatures to be verified.
+     * @param request to validate, e.g. a SignedHttpRequest or an adapter of another HTTP library.
+     * @param List of public keys.
+     * @param settings Limits for the verification.
+     * @return Returns true, if the signature is valid.
+     * @throws NoSuchSignatureException
+     * @throws URISyntaxException
+     * @throws NoSuchAlgorithmException
+     * @throws InvalidKeyException
+     * @throws InvalidKeySpecException
+     * @throws SignatureException
+     * @throws InvalidAlgorithmParameterException
+     * @throws SignatureParseException if the fields are malformed or exceed a limit
+     */
+    protected static boolean verifyRequest(SignableMessage request, List<KeyMap> keys,
+            VerificationSettings settings)
+            throws NoSuchSignatureException, NoSuchAlgorithmException, URISyntaxException, InvalidKeyException,
+            InvalidAlgorithmParameterException, SignatureException, InvalidKeySpecException, SignatureParseException {
+        return verifyRequest(request, keys, settings, true);
+    }
 
-        }
+    /**
+     * @param request to validate, e.g. a SignedHttpRequest or an adapter of another HTTP library.
+     * @param List of public keys.
+     * @param settings Limits for the verification.
+     * @param checkBody false for the first stage of the streaming verification: a covered content-digest field
+     *        is not compared with the body, the body has to be read through verifyingBodyStream.
+     * @return Returns true, if the signature is valid.
+     * @throws NoSuchSignatureException
+     * @throws URISyntaxException
+     * @throws NoSuchAlgorithmException
+     * @throws InvalidKeyException
+     * @throws InvalidKeySpecException
+     * @throws SignatureException
+     * @throws InvalidAlgorithmParameterException
+     * @throws SignatureParseException if the fields are malformed or exceed a limit
+     */
+    protected static boolean verifyRequest(SignableMessage request, List<KeyMap> keys,
+            VerificationSettings settings, boolean checkBody)
+            throws NoSuchSignatureException, NoSuchAlgorithmException, URISyntaxException, InvalidKeyException,
+            InvalidAlgorithmParameterException, SignatureException, InvalidKeySpecException, SignatureParseException {
 
-        return verify;
+        // Section 3.2 steps 2 to 8 for the labels selected by the policy
+        return verifySignatures(request, keys, settings, checkBody);
 
     }
 
     /**
-     * Checks whether the dns-target matches the host.
-     * @param targetIp is the IP address contained in the dns-target parameter.
-     * @param host contains the hostname.
-     * @return Returns true if the IP address matches the given host.
+     * Verification without exceptions for rejected requests.
+     * @param request to validate, e.g. a SignedHttpRequest or an adapter of another HTTP library.
+     * @param List of public keys.
+     * @param settings Limits for the verification.
+     * @param checkBody false for the first stage of the streaming verification
+     * @return Returns the outcome of every selected signature and the time of the phases.
      */
-    private static boolean isDnsTargetChanged(String targetIp, String host) {
-        try {
-
-            String localHostName = InetAddress.getLocalHost().getHostName();
-            InetAddress[] addresses;
-            //check wether host is localhost
-            if ((host != null) && host.equals("localhost")) {
-                addresses = InetAddress.getAllByName(host);
-            } else {
-                addresses = InetAddress.getAllByName(localHostName);
-            }
-
-            for (InetAddress addresse : addresses) {
-                if (addresse.getHostAddress().equals(targetIp)) {
-                    return true;
-                }
-            }
-        } catch (UnknownHostException e) {
-            e.printStackTrace();
-        }
-        return false;
+    protected static VerificationResult verifyRequestResult(SignableMessage request, List<KeyMap> keys,
+            VerificationSettings settings, boolean checkBody) {
+        return evaluateSignatures(request, keys, settings, checkBody);
     }
 
 }
@@ -16,6 +16,8 @@
  */
 package httpmessagesignatures;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidAlgorithmParameterException;
@@ -32,9 +34,13 @@ import org.apache.http.NameValuePair;
 
 import exceptions.AmbiguousSignatureLableException;
 import signature.components.Component;
+import signature.components.ContentCoding;
 import signature.components.SignatureParameter;
+import signature.messages.HeaderIndex;
 import signature.messages.SignedHttpResponse;
-import signaturebase.HttpFieldTransformer;
+import signature.metrics.Metrics;
+import signature.metrics.SignatureMetrics.Operation;
+import signature.metrics.SignatureMetrics.Phase;
 import signaturebase.SignaturBaseCreator;
 import signaturebase.SignaturBaseCreatorResponse;
 
@@ -65,26 +71,60 @@ public class ResponseSigner extends Signer {
     protected static SignedHttpResponse signResponse(SignedHttpResponse response, byte[] privateKeyMaterial)
             throws AmbiguousSignatureLableException, NoSuchAlgorithmException, URISyntaxException, InvalidKeyException,
             InvalidAlgorithmParameterException, InvalidKeySpecException, SignatureException {
-        HttpFieldTransformer.canonicalizeHTTPHeader(response);
+        return signResponse(response, privateKeyMaterial, false);
+    }
+
+    /**
+     * Sign a HTTP response.
+     * @param SignedHttpResponse to be signed. The response contains the parameters required for the signature.
+     * @param trailers true to add the Signature-Input and Signature fields as trailers of a streamed response.
+     * @return SignedHttpResponse with attached signature.
+     * @throws AmbiguousSignatureLableException
+     * @throws URISyntaxException
+     * @throws NoSuchAlgorithmException
+     * @throws SignatureException
+     * @throws InvalidKeySpecException
+     * @throws InvalidAlgorithmParameterException
+     * @throws InvalidKeyException
+     */
+    protected static SignedHttpResponse signResponse(SignedHttpResponse response, byte[] privateKeyMaterial,
+            boolean trailers) throws AmbiguousSignatureLableException, NoSuchAlgorithmException, URISyntaxException,
+            InvalidKeyException, InvalidAlgorithmParameterException, InvalidKeySpecException, SignatureException {
         SignatureParameter signatureParameter = response.getSignatureParams();
         String signLabel = signatureParameter.getSignLabel();
         coveredHeaders = signatureParameter.getCoveredHeaders();
         extractRealtedSigantureLabels(response, coveredHeaders);
 
+        long start = System.nanoTime();
         checkConditions(response, signLabel);
+        addContentDigest(response, coveredHeaders);
 
+        long baseStart = System.nanoTime();
         SignaturBaseCreator baseCreator = new SignaturBaseCreatorResponse(coveredHeaders, response, signatureParameter);
+        Metrics.recordPhaseSince(Operation.SIGN, Phase.BASE, signatureParameter.getAlgorithm(), baseStart);
 
         byte[] signatureBase = baseCreator.getSignaturebase();
         response.setSignatureBase(new String(signatureBase, StandardCharsets.UTF_8));
         byte[] signature = sign(signatureBase, privateKeyMaterial, signatureParameter.getAlgorithm());
         String signatureStr = Base64.getEncoder().encodeToString(signature);
 
+        if (trailers) {
+            String signatureInput = appendTrailerMember(response, "Signature-Input",
+                    signLabel + "=" + baseCreator.signatureInput);
+            response.setTrailer("Signature-Input", signatureInput);
+            response.setSignatureInput(signatureInput);
+            String sig = appendTrailerMember(response, "Signature", signLabel + "=:" + signatureStr + ":");
+            response.setTrailer("Signature", sig);
+            response.setSignature(sig);
+            recordSigned(signatureParameter, start);
+            return response;
+        }
+
         //create 'Signature-Input' HTTP Field
         if (response.containsHeader("Signature-Input")) {
             Header signatureInputHeader = response.getFirstHeader("Signature-Input");
             String oldValue = signatureInputHeader.getValue();
-            String newValue = oldValue + "," + "\n" + signLabel + "=" + baseCreator.signatureInput;
+            String newValue = oldValue + ", " + signLabel + "=" + baseCreator.signatureInput;
             response.removeHeaders("Signature-Input");
             response.addHeader("Signature-Input", newValue);
             response.setSignatureInput(newValue);
@@ -98,7 +138,7 @@ public class ResponseSigner extends Signer {
         if (response.containsHeader("Signature")) {
             Header signatureHeader = response.getFirstHeader("Signature");
             String oldValue = signatureHeader.getValue();
-            String newValue = oldValue + "," + "\n" + signLabel + "=:" + signatureStr + ":";
+            String newValue = oldValue + ", " + signLabel + "=:" + signatureStr + ":";
             response.removeHeaders("Signature");
             response.addHeader("Signature", newValue);
             response.setSignature(newValue);
@@ -108,9 +148,47 @@ public class ResponseSigner extends Signer {
             response.setSignature(sig);
         }
 
+        recordSigned(signatureParameter, start);
         return response;
     }
 
+    /**
+     * @param response
+     * @param name name of a dictionary trailer field
+     * @param member member to be added
+     * @return the value of the trailer field with the added member
+     */
+    private static String appendTrailerMember(SignedHttpResponse response, String name, String member) {
+        HeaderIndex trailers = response.getTrailerIndex();
+        String oldValue = trailers != null ? trailers.getCombinedValue(name) : null;
+        return oldValue != null ? oldValue + ", " + member : member;
+    }
+
+    /**
+     * Streaming signature: the returned stream computes the content-digest while the body is written.
+     * The body is encoded with the coding of the Content-Encoding field, the digest covers the encoded octets.
+     * @param response to be signed, content-digest must be covered as trailer (tr parameter) if it is covered.
+     * @param privateKeyMaterial
+     * @param body stream the body is written to
+     * @return stream creating the trailers when it is finished or closed
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    protected static TrailerSigningOutputStream signResponseStreaming(SignedHttpResponse response,
+            byte[] privateKeyMaterial, OutputStream body) throws NoSuchAlgorithmException, IOException {
+        for (Component component : response.getSignatureParams().getCoveredHeaders()) {
+            if (component.getComponentId().equals("content-digest") && !component.isTrailer()) {
+                throw new IllegalArgumentException("content-digest of a streamed response must be a trailer (tr)");
+            }
+        }
+        ContentCoding coding = ContentCoding.forHeader(response.getHeaderIndex().getCombinedValue("content-encoding"));
+        if (coding == null) {
+            throw new IllegalArgumentException("Content-Encoding of a streamed response is not supported");
+        }
+        return new TrailerSigningOutputStream(response, privateKeyMaterial, body,
+                selectContentDigestAlgorithm(response), coding);
+    }
+
     /**
     * Request-Response Signature Binding (draft 10):
     * Extract the signature label to which the signature binding refers. Change label in the coveredHeaders list.
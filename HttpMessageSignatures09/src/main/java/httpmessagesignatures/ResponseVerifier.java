@@ -16,19 +16,10 @@
  */
 package httpmessagesignatures;
 
-import java.security.InvalidKeyException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.http.Header;
-
-import signature.components.Component;
 import signature.components.KeyMap;
-import signature.components.SignatureParameter;
-import signature.messages.SignedHttpResponse;
-import signaturebase.SignaturBaseCreator;
-import signaturebase.SignaturBaseCreatorResponse;
+import signature.messages.SignableMessage;
 
 /**
  * Verifier performs the verification of a response.
@@ -39,86 +30,56 @@ import signaturebase.SignaturBaseCreatorResponse;
  */
 public class ResponseVerifier extends Verifier {
 
-    /** List contains the identifiers of the components covered by the signature. */
-    static List<Component> coveredHeaders;
-
     /**
      * Parse the Signature and Signature-Input fields and extract the signatures to be verified.
-     * @param SignedHttpResponse to validate.
+     * @param response to validate, e.g. a SignedHttpResponse or an adapter of another HTTP library.
      * @param List of public keys.
      * @return Returns true, if the signature is valid.
      * @throws Exception
      */
-    protected static boolean verifyResponse(SignedHttpResponse response, List<KeyMap> keys) throws Exception {
-        boolean verify = false;
-
-        // enable safe Transformation
-        response = (SignedHttpResponse) transformMessage(response);
-        Header signatureInputHeader = response.getFirstHeader("Signature-Input");
-
-        // get Signature Labels and their Input
-        Map<String, String> labelsAndInput = getSignatureLabelsAndInput(signatureInputHeader);
-        List<String> sigLabels = new ArrayList<>();
-        for (Map.Entry<String, String> entry : labelsAndInput.entrySet()) {
-            String signLabel = entry.getKey();
-            sigLabels.add(signLabel);
-
-            // Section 3.2 step 2 anaylize Signatur-Input
-            coveredHeaders = getCoveredHeaders(signatureInputHeader);
-            Map<String, String> signatureParameterMap = extractSignatureParameter(signatureInputHeader, signLabel);
-
-            // get Signature as ByteArray
-            String signature = getSiganture(response, entry.getKey());
-
-            // Check if signature meets all requirements.
-            analyzeSiganturParamater(signatureParameterMap);
-            String algorithm = signatureParameterMap.get("alg");
-            Long created = Long.parseLong(signatureParameterMap.get("created"));
-            String nonce = signatureParameterMap.get("nonce");
-            String keyId = signatureParameterMap.get("keyid");
-
-            SignatureParameter params;
-            if (signatureParameterMap.get("expires") != null) {
-
-                Long expires = Long.valueOf(signatureParameterMap.get("expires"));
-                params = new SignatureParameter(algorithm, keyId, nonce, expires, signLabel, coveredHeaders);
-
-            } else {
-                params = new SignatureParameter(algorithm, keyId, nonce, signLabel, coveredHeaders);
-            }
-            params.setCreated(created);
-            //Determine the verification key material for this signature.
-            byte[] publicKey = null;
-            for (KeyMap keyMap : keys) {
-                if (keyMap.getKeyId().equals(params.getKeyId())) {
-                    publicKey = keyMap.getPublicKey();
-
-                }
-            }
-
-            if (publicKey == null) {
-                //No such key available
-                throw new InvalidKeyException();
-            }
-
-            SignaturBaseCreator baseCreator = new SignaturBaseCreatorResponse(coveredHeaders, response, params);
-            byte[] signatureBase = baseCreator.getSignaturebase();
-
-            // Step 8: Verify
-            verify = verify(signatureBase, signature, publicKey, params.getAlgorithm());
+    protected static boolean verifyResponse(SignableMessage response, List<KeyMap> keys) throws Exception {
+        return verifyResponse(response, keys, new VerificationSettings());
+    }
 
-            //verify message body
-            if (checkContentDigestIncluded(coveredHeaders)) {
-                String contentDigestValue = response.getFirstHeader("content-digest").getValue();
-                boolean bodyhash = verifyBody(contentDigestValue, response.getMessageBody());
-                if (!bodyhash) {
-                    return false;
-                }
-            }
+    /**
+     * Parse the Signature and Signature-Input fields within the limits of the settings
+     * and extract the signatures to be verified.
+     * @param response to validate, e.g. a SignedHttpResponse or an adapter of another HTTP library.
+     * @param List of public keys.
+     * @param settings Limits for the verification.
+     * @return Returns true, if the signature is valid.
+     * @throws Exception
+     */
+    protected static boolean verifyResponse(SignableMessage response, List<KeyMap> keys,
+            VerificationSettings settings) throws Exception {
+        return verifyResponse(response, keys, settings, true);
+    }
 
-        }
+    /**
+     * @param response to validate, e.g. a SignedHttpResponse or an adapter of another HTTP library.
+     * @param List of public keys.
+     * @param settings Limits for the verification.
+     * @param checkBody false for the first stage of the streaming verification: a covered content-digest field
+     *        is not compared with the body, the body has to be read through verifyingBodyStream.
+     * @return Returns true, if the signature is valid.
+     * @throws Exception
+     */
+    protected static boolean verifyResponse(SignableMessage response, List<KeyMap> keys,
+            VerificationSettings settings, boolean checkBody) throws Exception {
+        return verifySignatures(response, keys, settings, checkBody);
+    }
 
-        return verify;
+    /**
+     * Verification without exceptions for rejected responses.
+     * @param response to validate, e.g. a SignedHttpResponse or an adapter of another HTTP library.
+     * @param List of public keys.
+     * @param settings Limits for the verification.
+     * @param checkBody false for the first stage of the streaming verification
+     * @return Returns the outcome of every selected signature and the time of the phases.
+     */
+    protected static VerificationResult verifyResponseResult(SignableMessage response, List<KeyMap> keys,
+            VerificationSettings settings, boolean checkBody) {
+        return evaluateSignatures(response, keys, settings, checkBody);
     }
 
 }
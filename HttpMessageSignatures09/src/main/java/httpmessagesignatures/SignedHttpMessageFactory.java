@@ -19,10 +19,8 @@ package httpmessagesignatures;
 import java.io.IOException;
 import java.net.URISyntaxException;
 
-import org.apache.http.HeaderIterator;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
-import org.apache.http.util.EntityUtils;
 
 import signature.components.SignatureParameter;
 import signature.messages.SignedHttpRequest;
@@ -53,11 +51,7 @@ public abstract class SignedHttpMessageFactory {
                 request.getRequestLine().getUri(), signatureParams);
 
         //Add all headers of the request to be signed to the signed HTTP request.
-        HeaderIterator headerIterator = request.headerIterator();
-        while (headerIterator.hasNext()) {
-            signedRequest.addHeader(headerIterator.nextHeader());
-
-        }
+        signedRequest.setHeaders(request.getAllHeaders());
 
         return signedRequest;
     }
@@ -77,10 +71,7 @@ public abstract class SignedHttpMessageFactory {
                 request.getRequestLine().getUri(), signatureParams, messageBody);
 
         //Add all headers of the request to be signed to the signed HTTP request.
-        HeaderIterator headerIterator = request.headerIterator();
-        while (headerIterator.hasNext()) {
-            signedRequest.addHeader(headerIterator.nextHeader());
-        }
+        signedRequest.setHeaders(request.getAllHeaders());
 
         return signedRequest;
     }
@@ -99,10 +90,7 @@ public abstract class SignedHttpMessageFactory {
                 request.getRequestLine().getUri(), null, messageBody);
 
         //Add all headers of the request to be signed to the signed HTTP request.
-        HeaderIterator headerIterator = request.headerIterator();
-        while (headerIterator.hasNext()) {
-            signedRequest.addHeader(headerIterator.nextHeader());
-        }
+        signedRequest.setHeaders(request.getAllHeaders());
 
         return signedRequest;
     }
@@ -120,10 +108,7 @@ public abstract class SignedHttpMessageFactory {
                 request.getRequestLine().getUri(), null);
 
         //Add all headers of the request to be signed to the signed HTTP request.
-        HeaderIterator headerIterator = request.headerIterator();
-        while (headerIterator.hasNext()) {
-            signedRequest.addHeader(headerIterator.nextHeader());
-        }
+        signedRequest.setHeaders(request.getAllHeaders());
 
         return signedRequest;
     }
@@ -136,20 +121,13 @@ public abstract class SignedHttpMessageFactory {
      */
     public static SignedHttpResponse createSignedHttpResponse(HttpResponse response, SignatureParameter signatureParams,
             HttpRequest request) throws IOException {
-        SignedHttpResponse signedResponse;
-        //Extract message body
-        if (response.getEntity() != null) {
-            signedResponse = new SignedHttpResponse(signatureParams, response.getStatusLine(),
-                    EntityUtils.toString(response.getEntity()), request);
-        } else {
-            signedResponse = new SignedHttpResponse(signatureParams, response.getStatusLine(), null, request);
-        }
+        SignedHttpResponse signedResponse = new SignedHttpResponse(signatureParams, response.getStatusLine(), null,
+                request);
+        //the message body is only read if it is needed for the content-digest
+        signedResponse.setBodySource(response);
 
         //Add all headers of the response to be signed to the signed HTTP response.
-        HeaderIterator headerIterator = response.headerIterator();
-        while (headerIterator.hasNext()) {
-            signedResponse.addHeader(headerIterator.nextHeader());
-        }
+        signedResponse.setHeaders(response.getAllHeaders());
 
         return signedResponse;
     }
@@ -161,20 +139,12 @@ public abstract class SignedHttpMessageFactory {
      */
     public static SignedHttpResponse createSignedHttpResponse(HttpResponse response, SignatureParameter signatureParams)
             throws IOException {
-        SignedHttpResponse signedResponse;
-        //Extract message body
-        if (response.getEntity() != null) {
-            signedResponse = new SignedHttpResponse(signatureParams, response.getStatusLine(),
-                    EntityUtils.toString(response.getEntity()));
-        } else {
-            signedResponse = new SignedHttpResponse(signatureParams, response.getStatusLine(), null);
-        }
+        SignedHttpResponse signedResponse = new SignedHttpResponse(signatureParams, response.getStatusLine(), null);
+        //the message body is only read if it is needed for the content-digest
+        signedResponse.setBodySource(response);
 
         //Add all headers of the response to be signed to the signed HTTP response.
-        HeaderIterator headerIterator = response.headerIterator();
-        while (headerIterator.hasNext()) {
-            signedResponse.addHeader(headerIterator.nextHeader());
-        }
+        signedResponse.setHeaders(response.getAllHeaders());
 
         return signedResponse;
     }
@@ -186,18 +156,10 @@ public abstract class SignedHttpMessageFactory {
      * @return signedResponse
      */
     public static SignedHttpResponse createSignedHttpResponse(HttpResponse response) throws IOException {
-        SignedHttpResponse signedResponse;
-        if (response.getEntity() != null) {
-            signedResponse = new SignedHttpResponse(null, response.getStatusLine(),
-                    EntityUtils.toString(response.getEntity()));
-        } else {
-            signedResponse = new SignedHttpResponse(null, response.getStatusLine(), null);
-        }
-
-        HeaderIterator headerIterator = response.headerIterator();
-        while (headerIterator.hasNext()) {
-            signedResponse.addHeader(headerIterator.nextHeader());
-        }
+        SignedHttpResponse signedResponse = new SignedHttpResponse(null, response.getStatusLine(), null);
+        signedResponse.setBodySource(response);
+
+        signedResponse.setHeaders(response.getAllHeaders());
 
         return signedResponse;
     }
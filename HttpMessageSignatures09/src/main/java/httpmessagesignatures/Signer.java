@@ -28,6 +28,7 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.MGF1ParameterSpec;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.security.spec.PSSParameterSpec;
+import java.util.List;
 
 import org.apache.http.HttpMessage;
 import org.bouncycastle.crypto.digests.SHA256Digest;
@@ -36,6 +37,20 @@ import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
 import exceptions.AmbiguousSignatureLableException;
+import exceptions.StructuredFieldParseException;
+import signature.components.Component;
+import signature.components.ContentDigestCache;
+import signature.components.DigestAlgorithm;
+import signature.components.SHAEncoder;
+import signature.components.SignatureParameter;
+import signature.messages.HeaderIndex;
+import signature.messages.SignedHttpMessage;
+import signature.metrics.Metrics;
+import signature.metrics.SignatureMetrics.Operation;
+import signature.metrics.SignatureMetrics.Phase;
+import signature.structuredfields.SfDictionary;
+import signature.structuredfields.StructuredFieldParser;
+import signature.structuredfields.StructuredFieldType;
 
 /**
  * Signer performs the signing of a HTTP message.
@@ -62,6 +77,21 @@ public abstract class Signer {
     protected static byte[] sign(byte[] signatureBase, byte[] privateKeyMaterial, String algorithm)
             throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeySpecException,
             InvalidKeyException, SignatureException {
+        long start = System.nanoTime();
+        byte[] signature = createSignature(signatureBase, privateKeyMaterial, algorithm);
+        Metrics.recordPhaseSince(Operation.SIGN, Phase.CRYPTO, algorithm, start);
+        return signature;
+    }
+
+    /**
+     * @param signatureBase
+     * @param privateKeyMaterial
+     * @param algorithm
+     * @return signature as byte array
+     */
+    private static byte[] createSignature(byte[] signatureBase, byte[] privateKeyMaterial, String algorithm)
+            throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeySpecException,
+            InvalidKeyException, SignatureException {
 
         //create Key from bytes
         PrivateKey privateKey = null;
@@ -117,6 +147,95 @@ public abstract class Signer {
         }
     }
 
+    /**
+     * Records the latency of a created signature.
+     * @param params parameters of the signature
+     * @param start System.nanoTime at the start of the signing
+     */
+    protected static void recordSigned(SignatureParameter params, long start) {
+        Metrics.get().recordLatency(Operation.SIGN, params.getAlgorithm(), params.getKeyId(), true,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Creates the content-digest field if it is covered by the signature
+     * and the message has a body but no content-digest field yet.
+     * @param message
+     * @param coveredHeaders List of the covered components.
+     * @throws NoSuchAlgorithmException
+     */
+    protected static void addContentDigest(SignedHttpMessage message, List<Component> coveredHeaders)
+            throws NoSuchAlgorithmException {
+        for (Component component : coveredHeaders) {
+            //the body is only streamed if the content-digest field has to be created
+            if (component.getComponentId().equals("content-digest") && !component.isTrailer()
+                    && !message.getHeaderIndex().contains("content-digest")) {
+                long start = System.nanoTime();
+                DigestAlgorithm algorithm = selectContentDigestAlgorithm(message);
+                String contentDigest = createContentDigest(message, algorithm);
+                //tagged with the digest algorithm, the time does not depend on the signature algorithm
+                Metrics.recordPhaseSince(Operation.SIGN, Phase.DIGEST, algorithm.getKey(), start);
+                if (contentDigest != null) {
+                    message.addHeader("content-digest", contentDigest);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * The content-digest of a body with an identity is taken from the cache of the signature parameters,
+     * the body is only digested on a miss.
+     * @param message
+     * @param algorithm
+     * @return value of the content-digest field, null if the message has no body
+     * @throws NoSuchAlgorithmException
+     */
+    private static String createContentDigest(SignedHttpMessage message, DigestAlgorithm algorithm)
+            throws NoSuchAlgorithmException {
+        ContentDigestCache cache = message.getSignatureParams().getContentDigestCache();
+        String identity = cache != null ? message.getBodyIdentity() : null;
+        if (identity != null) {
+            String cached = cache.get(identity, algorithm);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] digest = message.digestBody(algorithm);
+        if (digest == null) {
+            return null;
+        }
+        String contentDigest = SHAEncoder.contentDigestMember(algorithm, digest);
+        if (identity != null) {
+            cache.put(identity, algorithm, contentDigest);
+        }
+        return contentDigest;
+    }
+
+    /**
+     * The algorithm of the signature parameters is used unless the peer prefers another one
+     * in its Want-Content-Digest field. A malformed Want-Content-Digest field is ignored.
+     * @param message
+     * @return algorithm of the content-digest field
+     */
+    protected static DigestAlgorithm selectContentDigestAlgorithm(SignedHttpMessage message) {
+        SignatureParameter params = message.getSignatureParams();
+        DigestAlgorithm configured = params.getContentDigestAlgorithm() != null ? params.getContentDigestAlgorithm()
+                : DigestAlgorithm.SHA_256;
+        try {
+            SfDictionary preferences = null;
+            if (params.getWantContentDigest() != null) {
+                preferences = StructuredFieldParser.parseDictionary(params.getWantContentDigest());
+            } else if (message.getRelatedRequest() != null) {
+                preferences = (SfDictionary) message.getRelatedRequest().getHeaderIndex()
+                        .getStructuredField("want-content-digest", StructuredFieldType.DICTIONARY);
+            }
+            return DigestAlgorithm.select(preferences, configured);
+        } catch (StructuredFieldParseException e) {
+            return configured;
+        }
+    }
+
     /**
      * Signature label must be unique.
      * @param message
@@ -126,9 +245,9 @@ public abstract class Signer {
     protected static void checkConditions(HttpMessage message, String signLabel)
             throws AmbiguousSignatureLableException {
 
-        if (message.containsHeader("Signature-Input")
-                && (message.getFirstHeader("Signature-Input").getValue().contains(" " + signLabel + "=")
-                        || (message.getFirstHeader("Signature-Input").getValue().startsWith(signLabel + "=")))) {
+        String signatureInput = HeaderIndex.of(message).getCombinedValue("signature-input");
+        if ((signatureInput != null) && (signatureInput.contains(" " + signLabel + "=")
+                || (signatureInput.startsWith(signLabel + "=")))) {
 
             throw new AmbiguousSignatureLableException("Signature label must be unique.");
         }
@@ -0,0 +1,247 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package httpmessagesignatures;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.security.GeneralSecurityException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.http.Header;
+
+import exceptions.AmbiguousSignatureLableException;
+import signature.components.ContentCoding;
+import signature.components.DigestAlgorithm;
+import signature.components.SHAEncoder;
+import signature.messages.SignedHttpResponse;
+import signature.metrics.Metrics;
+
+/**
+ * Stream of a response body whose Content-Digest and Signature fields are sent as trailers.
+ * The body is digested while it is written, so it is neither buffered nor read twice. If the response has a
+ * Content-Encoding of gzip or deflate, the application writes the unencoded body: it is compressed by this stream
+ * and the digest is computed over the compressed octets while the compression runs. When the stream is finished
+ * or closed, the Content-Digest trailer is added and the response is signed into the Signature-Input and Signature
+ * trailers. The Trailer header announcing these fields is added to the response when the stream is created.
+ *
+ * HttpCore 4.4 cannot send trailers, the container sends them: getTrailerFields can be passed to
+ * HttpServletResponse.setTrailerFields (Servlet 4.0) or to the trailers of an HTTP/2 stream.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TrailerSigningOutputStream extends FilterOutputStream {
+
+    /** response to be signed */
+    private final SignedHttpResponse response;
+    /** private key of the signature */
+    private final byte[] privateKeyMaterial;
+    /** algorithm of the content-digest trailer */
+    private final DigestAlgorithm algorithm;
+    /** digesting stream of the encoded body */
+    private final CountingDigestOutputStream digestStream;
+    /** content coding applied to the body */
+    private final ContentCoding coding;
+    /** true after the trailers have been created */
+    private boolean finished;
+    /** failure of the creation of the trailers, rethrown by finish and getTrailerFields */
+    private IOException failure;
+
+    /**
+     * Constructor.
+     * @param response to be signed
+     * @param privateKeyMaterial
+     * @param body stream the body is written to
+     * @param algorithm algorithm of the content-digest trailer
+     * @param coding content coding applied to the body
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    TrailerSigningOutputStream(SignedHttpResponse response, byte[] privateKeyMaterial, OutputStream body,
+            DigestAlgorithm algorithm, ContentCoding coding) throws NoSuchAlgorithmException, IOException {
+        this(response, privateKeyMaterial, new CountingDigestOutputStream(body, algorithm.newMessageDigest()), algorithm,
+                coding);
+    }
+
+    /**
+     * @param digestStream digesting stream in front of the connection
+     */
+    private TrailerSigningOutputStream(SignedHttpResponse response, byte[] privateKeyMaterial,
+            CountingDigestOutputStream digestStream, DigestAlgorithm algorithm, ContentCoding coding)
+            throws IOException {
+        super(coding.encoder(digestStream));
+        this.response = response;
+        this.privateKeyMaterial = privateKeyMaterial;
+        this.algorithm = algorithm;
+        this.digestStream = digestStream;
+        this.coding = coding;
+        response.setHeader("Trailer", "Content-Digest, Signature-Input, Signature");
+    }
+
+    /** (non-Javadoc)
+     * @see java.io.FilterOutputStream#write(int)
+     */
+    @Override
+    public void write(int b) throws IOException {
+        checkNotFinished();
+        out.write(b);
+    }
+
+    /**
+     * The chunk is written at once, FilterOutputStream would write it byte by byte.
+     * @see java.io.FilterOutputStream#write(byte[], int, int)
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkNotFinished();
+        out.write(b, off, len);
+    }
+
+    /**
+     * Completes the body and creates the trailers. The underlying stream is flushed but not closed, so the
+     * trailers can be handed to the container before the response is completed. If the trailers cannot be
+     * created, the failure is thrown again by every later call, the digest of the body is used up.
+     * @throws IOException if the response cannot be signed
+     */
+    public void finish() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (finished) {
+            return;
+        }
+        try {
+            createTrailers();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        } catch (RuntimeException e) {
+            failure = new IOException("Response trailers could not be signed", e);
+            throw failure;
+        }
+        finished = true;
+    }
+
+    /**
+     * Completes the body, adds the content-digest trailer and signs the response into the signature trailers.
+     * @throws IOException if the body cannot be completed or the response cannot be signed
+     */
+    private void createTrailers() throws IOException {
+        if (out instanceof DeflaterOutputStream) {
+            //writes the remaining compressed data through the digest
+            ((DeflaterOutputStream) out).finish();
+        }
+        flush();
+        Metrics.get().recordBodyBytes(digestStream.bytes);
+        response.setTrailer("Content-Digest",
+                SHAEncoder.contentDigestMember(algorithm, digestStream.getMessageDigest().digest()));
+        try {
+            ResponseSigner.signResponse(response, privateKeyMaterial, true);
+        } catch (GeneralSecurityException | URISyntaxException | AmbiguousSignatureLableException e) {
+            throw new IOException("Response trailers could not be signed", e);
+        }
+    }
+
+    /**
+     * Creates the trailers before the underlying stream is closed.
+     * @see java.io.FilterOutputStream#close()
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @return the trailer fields by name, available after the stream has been finished
+     * @throws IllegalStateException if the stream has not been finished or the trailers could not be created
+     */
+    public Map<String, String> getTrailerFields() {
+        if (failure != null) {
+            throw new IllegalStateException("Trailers could not be created", failure);
+        }
+        if (!finished) {
+            throw new IllegalStateException("Trailers are created when the body stream is finished");
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (Header trailer : response.getTrailers()) {
+            String value = fields.get(trailer.getName());
+            fields.put(trailer.getName(), value != null ? value + ", " + trailer.getValue() : trailer.getValue());
+        }
+        return fields;
+    }
+
+    /**
+     * @return the content coding applied to the body
+     */
+    public ContentCoding getContentCoding() {
+        return coding;
+    }
+
+    /**
+     * @return the signed response, its trailers are set after the stream has been finished
+     */
+    public SignedHttpResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @throws IOException if the body is written after the trailers have been created or failed
+     */
+    private void checkNotFinished() throws IOException {
+        if (finished || (failure != null)) {
+            throw new IOException("Body stream already finished");
+        }
+    }
+
+    /**
+     * Digesting stream which counts the octets written through it.
+     */
+    private static final class CountingDigestOutputStream extends DigestOutputStream {
+
+        /** number of octets digested */
+        private long bytes;
+
+        CountingDigestOutputStream(OutputStream stream, MessageDigest digest) {
+            super(stream, digest);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            super.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            bytes += len;
+        }
+    }
+
+}
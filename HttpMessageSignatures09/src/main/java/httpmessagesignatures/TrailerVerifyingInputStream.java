@@ -0,0 +1,237 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package httpmessagesignatures;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.http.Header;
+
+import exceptions.ContentDigestMismatchException;
+import exceptions.StructuredFieldParseException;
+import exceptions.TrailerSignatureException;
+import signature.components.ContentDigestVerifier;
+import signature.components.DigestAlgorithm;
+import signature.components.DigestingInputStream;
+import signature.components.KeyMap;
+import signature.messages.HeaderIndex;
+import signature.messages.SignableMessage;
+import signature.structuredfields.SfDictionary;
+import signature.structuredfields.StructuredFieldType;
+
+/**
+ * Stream of a message body whose Content-Digest and Signature fields are received as trailers.
+ * The body is digested with the accepted algorithms while the application reads it, the trailers are only known
+ * at the end of the body. When the end of the stream is reached, the trailers are taken from the supplier, the
+ * signature is verified and the content-digest is compared with the digests of the body. If either fails, the read
+ * reaching the end throws instead of returning -1.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TrailerVerifyingInputStream extends DigestingInputStream {
+
+    /** message whose headers have been received */
+    private final SignableMessage message;
+    /** supplies the trailers once the body has been read, e.g. HttpServletRequest::getTrailerFields */
+    private final Supplier<Header[]> trailers;
+    /** public keys of the signers */
+    private final List<KeyMap> keys;
+    /** limits for the verification */
+    private final VerificationSettings settings;
+    /** failure of the verification, null until the end of the stream or if the message is valid */
+    private IOException failure;
+    /** true after the trailers have been verified */
+    private boolean verified;
+
+    /**
+     * Constructor.
+     * @param message message whose headers have been received
+     * @param body stream of the message body
+     * @param trailers supplies the trailers once the body has been read
+     * @param keys public keys of the signers
+     * @param settings limits for the verification
+     * @throws NoSuchAlgorithmException
+     */
+    protected TrailerVerifyingInputStream(SignableMessage message, InputStream body, Supplier<Header[]> trailers,
+            List<KeyMap> keys, VerificationSettings settings) throws NoSuchAlgorithmException {
+        super(body, digestAlgorithms(message, settings));
+        this.message = message;
+        this.trailers = trailers;
+        this.keys = keys;
+        this.settings = settings;
+    }
+
+    /**
+     * @return true if the end of the stream has been reached and the signature and content-digest are valid
+     */
+    public boolean isVerified() {
+        return verified;
+    }
+
+    /**
+     * Verifies the trailers once and throws on every read at the end of the stream if they are not valid.
+     * @see signature.components.DigestingInputStream#endOfStream(java.util.Map)
+     */
+    @Override
+    protected void endOfStream(Map<DigestAlgorithm, byte[]> bodyDigests) throws IOException {
+        if (!verified && (failure == null)) {
+            failure = verifyTrailers(new MessageWithTrailers(message, trailers.get(), bodyDigests), bodyDigests);
+            verified = failure == null;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The accepted algorithms the peer may use: a response follows the Want-Content-Digest field of its request.
+     * A malformed Want-Content-Digest field is ignored, as by the signer.
+     * @param message message whose headers have been received
+     * @param settings
+     * @return the algorithms of the digests computed while the body is read
+     */
+    private static Set<DigestAlgorithm> digestAlgorithms(SignableMessage message, VerificationSettings settings) {
+        EnumSet<DigestAlgorithm> algorithms = EnumSet.copyOf(settings.getTrailerDigestAlgorithms());
+        SignableMessage request = message.getRelatedRequest();
+        if (request == null) {
+            return algorithms;
+        }
+        try {
+            SfDictionary preferences = (SfDictionary) request.getHeaderIndex()
+                    .getStructuredField("want-content-digest", StructuredFieldType.DICTIONARY);
+            EnumSet<DigestAlgorithm> announced = EnumSet.copyOf(algorithms);
+            announced.retainAll(DigestAlgorithm.candidates(preferences));
+            //a peer using none of them fails with any of the accepted algorithms
+            return announced.isEmpty() ? algorithms : announced;
+        } catch (StructuredFieldParseException e) {
+            return algorithms;
+        }
+    }
+
+    /**
+     * @param view message with the received trailers
+     * @param bodyDigests digests of the body by algorithm
+     * @return the failure of the verification, null if the message is valid
+     */
+    private IOException verifyTrailers(SignableMessage view, Map<DigestAlgorithm, byte[]> bodyDigests) {
+        boolean signatureValid;
+        try {
+            signatureValid = view.getStatusCode() != -1
+                    ? ResponseVerifier.verifyResponse(view, keys, settings, false)
+                    : RequestVerifier.verifyRequest(view, keys, settings, false);
+        } catch (Exception e) {
+            return new TrailerSignatureException("Signature of the message could not be verified", e);
+        }
+        if (!signatureValid) {
+            return new TrailerSignatureException("Signature of the message is not valid");
+        }
+        SfDictionary contentDigest = Verifier.getContentDigest(view);
+        if (contentDigest == null) {
+            return new ContentDigestMismatchException("Content-Digest field is missing or malformed");
+        }
+        ContentDigestVerifier verifier = ContentDigestVerifier.of(contentDigest);
+        if (!verifier.isSupported()) {
+            return new ContentDigestMismatchException("Content-Digest field has no supported algorithm");
+        }
+        if (!getDigestAlgorithms().containsAll(verifier.getAlgorithms())) {
+            return new ContentDigestMismatchException("Content-Digest field has an algorithm that is not accepted");
+        }
+        if (!verifier.verify(bodyDigests)) {
+            return new ContentDigestMismatchException("Message body does not match the Content-Digest field");
+        }
+        return null;
+    }
+
+    /**
+     * View of the received message with its trailers, the body has already been digested.
+     */
+    private static final class MessageWithTrailers implements SignableMessage {
+
+        /** message whose headers have been received */
+        private final SignableMessage message;
+        /** trailers received after the body */
+        private final HeaderIndex trailerIndex;
+        /** digests of the body by algorithm */
+        private final Map<DigestAlgorithm, byte[]> digests;
+
+        MessageWithTrailers(SignableMessage message, Header[] trailers, Map<DigestAlgorithm, byte[]> digests) {
+            this.message = message;
+            this.trailerIndex = new HeaderIndex(trailers != null ? trailers : new Header[0]);
+            this.digests = digests;
+        }
+
+        @Override
+        public String getMethod() {
+            return message.getMethod();
+        }
+
+        @Override
+        public URI getTargetUri() {
+            return message.getTargetUri();
+        }
+
+        @Override
+        public int getStatusCode() {
+            return message.getStatusCode();
+        }
+
+        @Override
+        public HeaderIndex getHeaderIndex() {
+            return message.getHeaderIndex();
+        }
+
+        @Override
+        public HeaderIndex getTrailerIndex() {
+            return trailerIndex;
+        }
+
+        /**
+         * The body has been streamed to the application, only its digests are kept.
+         * @see signature.messages.SignableMessage#getMessageBody()
+         */
+        @Override
+        public String getMessageBody() {
+            return null;
+        }
+
+        @Override
+        public Map<DigestAlgorithm, byte[]> digestBody(Collection<DigestAlgorithm> algorithms) {
+            Map<DigestAlgorithm, byte[]> result = new EnumMap<>(DigestAlgorithm.class);
+            for (DigestAlgorithm algorithm : algorithms) {
+                result.put(algorithm, digests.get(algorithm));
+            }
+            return result;
+        }
+
+        @Override
+        public SignableMessage getRelatedRequest() {
+            return message.getRelatedRequest();
+        }
+    }
+
+}
@@ -0,0 +1,349 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package httpmessagesignatures;
+
+import java.net.URISyntaxException;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.List;
+
+import exceptions.MissingComponentException;
+import httpmessagesignatures.VerificationResult.FailureReason;
+import httpmessagesignatures.VerificationResult.LabelResult;
+import httpmessagesignatures.VerificationResult.Phase;
+import httpmessagesignatures.VerificationResult.Status;
+import signature.components.Component;
+import signature.components.KeyMap;
+import signature.components.SignatureEntry;
+import signature.components.SignatureParameter;
+import signature.messages.SignableMessage;
+import signature.replay.ReplayStore;
+import signaturebase.SignaturBaseCreator;
+import signaturebase.SignaturBaseCreatorRequest;
+import signaturebase.SignaturBaseCreatorResponse;
+
+/**
+ * Verification of one signature of a message as ordered stages, see VerificationStage.
+ * Each stage decides on its own, the first failing stage ends the verification. A body too large for the
+ * BODY_DIGEST stage is digested after all other stages succeeded.
+ * A failing stage reports its reason, no exception is created for an ordinary rejection.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+final class VerificationPipeline {
+
+    /** message to be verified */
+    private final SignableMessage message;
+    /** signature to be verified */
+    private final SignatureEntry signatureEntry;
+    /** public keys of the signers */
+    private final List<KeyMap> keys;
+    /** order of the stages and their limits */
+    private final VerificationSettings settings;
+    /** false for the first stage of the streaming verification, the body is verified by the body stream */
+    private final boolean checkBody;
+
+    /** covered components, set by the PARSE stage */
+    private List<Component> coveredHeaders;
+    /** signature bytes, set by the PARSE stage */
+    private byte[] signature;
+    /** parameters of the signature, set by the PARSE stage */
+    private SignatureParameter params;
+    /** key of the signer, looked up once */
+    private byte[] publicKey;
+    /** true if the body has been verified */
+    private boolean bodyVerified;
+    /** time in nanoseconds by phase, shared by the signatures of a message */
+    private final long[] nanos;
+
+    /**
+     * Constructor.
+     * @param message message to be verified
+     * @param signatureEntry signature to be verified
+     * @param keys public keys of the signers
+     * @param settings order of the stages and their limits
+     * @param checkBody false if the body is verified by the body stream
+     * @param nanos time in nanoseconds by phase, the time of this signature is added
+     */
+    VerificationPipeline(SignableMessage message, SignatureEntry signatureEntry, List<KeyMap> keys,
+            VerificationSettings settings, boolean checkBody, long[] nanos) {
+        this.message = message;
+        this.signatureEntry = signatureEntry;
+        this.keys = keys;
+        this.settings = settings;
+        this.checkBody = checkBody;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Runs the stages in the configured order.
+     * @return outcome of the signature, with the reason and stage of a failure
+     */
+    LabelResult verify() {
+        VerificationStage stage = VerificationStage.PARSE;
+        try {
+            for (VerificationStage next : settings.getStageOrder()) {
+                if (next == VerificationStage.REPLAY) {
+                    //large bodies are digested last, but before the nonce is recorded: a tampered body must not
+                    //use up the nonce of the genuine message
+                    stage = VerificationStage.BODY_DIGEST;
+                    if (isBodyCheckRequired() && !verifyBody()) {
+                        return invalid(FailureReason.BODY_DIGEST_MISMATCH, stage, null);
+                    }
+                }
+                stage = next;
+                FailureReason reason = runStage(stage);
+                if (reason != null) {
+                    return invalid(reason, stage, null);
+                }
+            }
+        } catch (GeneralSecurityException | URISyntaxException e) {
+            return invalid(FailureReason.ERROR, stage, e);
+        }
+        return new LabelResult(signatureEntry.getLabel(), Status.VALID, null, null, null);
+    }
+
+    /**
+     * @param stage
+     * @return reason of the failure, null if the stage succeeded
+     * @throws GeneralSecurityException if the signature or body cannot be verified, e.g. malformed key material
+     * @throws URISyntaxException if the signature base cannot be created
+     */
+    FailureReason runStage(VerificationStage stage) throws GeneralSecurityException, URISyntaxException {
+        switch (stage) {
+            case PARSE:
+                long start = System.nanoTime();
+                try {
+                    return parse();
+                } finally {
+                    addNanos(Phase.PARSE, start);
+                }
+            case TIME_WINDOW:
+                return checkTimeWindow();
+            case ALGORITHM:
+                return settings.getAllowedAlgorithms().contains(signatureEntry.getAlgorithm())
+                        && Verifier.supportedSignatureAlgorithms.contains(signatureEntry.getAlgorithm()) ? null
+                                : FailureReason.ALGORITHM_NOT_ALLOWED;
+            case KEY:
+                return getPublicKey() != null ? null : FailureReason.UNKNOWN_KEY;
+            case BODY_DIGEST:
+                return !isBodyCheckRequired() || !isSmallBody() || verifyBody() ? null
+                        : FailureReason.BODY_DIGEST_MISMATCH;
+            case DNS_TARGET:
+                return isDnsTargetValid() ? null : FailureReason.DNS_TARGET_MISMATCH;
+            case SIGNATURE:
+                return verifySignature();
+            case REPLAY:
+                return checkReplay();
+            default:
+                throw new IllegalArgumentException("Unknown verification stage " + stage);
+        }
+    }
+
+    /**
+     * @return the parameters of the signature, null before the PARSE stage
+     */
+    SignatureParameter getParams() {
+        return params;
+    }
+
+    /**
+     * The PARSE stage: the signature and its parameters.
+     * @return reason of the failure, null if the signature can be verified
+     */
+    private FailureReason parse() {
+        signature = signatureEntry.getSignature();
+        if (signature == null) {
+            //the signature label does not refer to an existing signature
+            return FailureReason.MISSING_SIGNATURE;
+        }
+        Object created = signatureEntry.getParameters().get("created");
+        if (created == null) {
+            return FailureReason.MISSING_CREATED;
+        }
+        Object expires = signatureEntry.getParameters().get("expires");
+        if (!(created instanceof Long) || ((expires != null) && !(expires instanceof Long))) {
+            return FailureReason.INVALID_PARAMETER;
+        }
+        coveredHeaders = signatureEntry.getCoveredComponents();
+        params = Verifier.createSignatureParameter(signatureEntry, coveredHeaders);
+        //the parameter is part of the signature base, it is checked by the DNS_TARGET stage
+        if (signatureEntry.getParameter("dns-target") != null) {
+            params.setDnsTarget(signatureEntry.getParameter("dns-target"));
+        }
+        return null;
+    }
+
+    /**
+     * @return reason if created or expires are outside the window of the settings, null otherwise
+     */
+    private FailureReason checkTimeWindow() {
+        long now = Instant.now().getEpochSecond();
+        Long expires = signatureEntry.getExpires();
+        if ((expires != null) && (now > expires)) {
+            return FailureReason.EXPIRED;
+        }
+        long created = params.getCreated();
+        if (created > now + settings.getClockSkewSeconds()) {
+            return FailureReason.NOT_YET_VALID;
+        }
+        Long maxAge = settings.getMaxAgeSeconds();
+        return (maxAge == null) || (now - created <= maxAge + settings.getClockSkewSeconds()) ? null
+                : FailureReason.TOO_OLD;
+    }
+
+    /**
+     * The SIGNATURE stage: signature base creation and cryptographic verification.
+     * @return reason if a covered component is missing or the signature does not match, null otherwise
+     * @throws GeneralSecurityException
+     * @throws URISyntaxException
+     */
+    private FailureReason verifySignature() throws GeneralSecurityException, URISyntaxException {
+        byte[] key = getPublicKey();
+        if (key == null) {
+            return FailureReason.UNKNOWN_KEY;
+        }
+        long start = System.nanoTime();
+        SignaturBaseCreator baseCreator;
+        try {
+            baseCreator = message.getStatusCode() == -1
+                    ? new SignaturBaseCreatorRequest(coveredHeaders, message, params)
+                    : new SignaturBaseCreatorResponse(coveredHeaders, message, params);
+        } catch (MissingComponentException e) {
+            return FailureReason.MISSING_COMPONENT;
+        } finally {
+            addNanos(Phase.BASE, start);
+        }
+        byte[] signatureBase = baseCreator.getSignaturebase();
+        start = System.nanoTime();
+        try {
+            return Verifier.verify(signatureBase, signature, key, params.getAlgorithm()) ? null
+                    : FailureReason.SIGNATURE_MISMATCH;
+        } finally {
+            addNanos(Phase.CRYPTO, start);
+        }
+    }
+
+    /**
+     * The nonce is remembered as long as the signature would be accepted by the TIME_WINDOW stage.
+     * @return reason if the nonce is a replay or missing, null if no replay store is set or the nonce is new
+     */
+    private FailureReason checkReplay() {
+        ReplayStore replayStore = settings.getReplayStore();
+        if (replayStore == null) {
+            return null;
+        }
+        String nonce = signatureEntry.getNonce();
+        if (nonce == null) {
+            return settings.isNonceRequired() ? FailureReason.NONCE_MISSING : null;
+        }
+        long created = params.getCreated();
+        long retainUntil;
+        if (signatureEntry.getExpires() != null) {
+            retainUntil = signatureEntry.getExpires();
+        } else if (settings.getMaxAgeSeconds() != null) {
+            retainUntil = created + settings.getMaxAgeSeconds() + settings.getClockSkewSeconds();
+        } else {
+            retainUntil = Math.max(created, Instant.now().getEpochSecond()) + settings.getNonceRetentionSeconds();
+        }
+        return replayStore.checkAndRecord(signatureEntry.getKeyId(), nonce, retainUntil) ? null
+                : FailureReason.REPLAYED;
+    }
+
+    /**
+     * @return the key of the signer, null if there is no key for the keyid of the signature
+     */
+    private byte[] getPublicKey() {
+        if (publicKey == null) {
+            for (KeyMap keyMap : keys) {
+                if (keyMap.getKeyId().equals(params.getKeyId())) {
+                    publicKey = keyMap.getPublicKey();
+                }
+            }
+        }
+        return publicKey;
+    }
+
+    /**
+     * @return true if the dns-target parameter is missing or matches the host of a request
+     */
+    private boolean isDnsTargetValid() {
+        String dnsTarget = signatureEntry.getParameter("dns-target");
+        if ((dnsTarget == null) || (message.getStatusCode() != -1)) {
+            return true;
+        }
+        return settings.getDnsResolver().isLocalAddress(dnsTarget, message.getTargetUri().getHost());
+    }
+
+    /**
+     * @return true if content-digest is covered and the body has not been verified yet
+     */
+    private boolean isBodyCheckRequired() {
+        return checkBody && !bodyVerified && Verifier.checkContentDigestIncluded(coveredHeaders);
+    }
+
+    /**
+     * @return true if the Content-Length of the message is within the limit of the BODY_DIGEST stage
+     */
+    private boolean isSmallBody() {
+        String contentLength = message.getHeaderIndex().getFirstValue("content-length");
+        if (contentLength == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(contentLength.trim()) <= settings.getEarlyBodyDigestLimit();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the body matches the content-digest field, false if the field has no supported algorithm
+     * @throws NoSuchAlgorithmException
+     */
+    private boolean verifyBody() throws NoSuchAlgorithmException {
+        long start = System.nanoTime();
+        try {
+            bodyVerified = Verifier.verifyBody(message);
+        } finally {
+            addNanos(Phase.DIGEST, start);
+        }
+        return bodyVerified;
+    }
+
+    /**
+     * @param reason
+     * @param stage
+     * @param error unexpected exception of reason ERROR
+     * @return outcome of the failed signature
+     */
+    private LabelResult invalid(FailureReason reason, VerificationStage stage, Exception error) {
+        return new LabelResult(signatureEntry.getLabel(), Status.INVALID, reason, stage, error);
+    }
+
+    /**
+     * @param phase
+     * @param start System.nanoTime at the start of the phase
+     */
+    private void addNanos(Phase phase, long start) {
+        nanos[phase.ordinal()] += System.nanoTime() - start;
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package httpmessagesignatures;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import signature.components.Component;
+import signature.components.SignatureEntry;
+
+/**
+ * Policy selecting the signatures of a message that are verified and deciding when the message is accepted.
+ * Only labels matching the policy are verified: the label, the keyid and the covered components are checked before
+ * any signature base is created. The verification stops as soon as the policy is satisfied (ANY: one valid
+ * signature) or cannot be satisfied anymore (ALL: one invalid signature).
+ *
+ * Example: require any signature from keyid X or Y covering @method, @target-uri and content-digest:
+ * <pre>
+ * VerificationPolicy policy = VerificationPolicy.requireAny();
+ * policy.setKeyIds(Arrays.asList("X", "Y"));
+ * policy.setRequiredComponents(Arrays.asList("@method", "@target-uri", "content-digest"));
+ * </pre>
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class VerificationPolicy {
+
+    /**
+     * Number of matching signatures that have to be valid.
+     */
+    public enum Requirement {
+        /** one valid matching signature accepts the message */
+        ANY,
+        /** all matching signatures have to be valid */
+        ALL
+    }
+
+    /** relative cost of the verification by algorithm, cheaper signatures are verified first for ANY */
+    private static final List<String> ALGORITHMS_BY_COST = Arrays.asList("hmac-sha256", "ed25519",
+            "ecdsa-p256-sha256", "rsa-pss-sha512");
+
+    /** number of matching signatures that have to be valid */
+    private Requirement requirement;
+    /** labels to be verified, empty for any label */
+    private Set<String> labels = Collections.emptySet();
+    /** accepted keyids, empty for any keyid */
+    private Set<String> keyIds = Collections.emptySet();
+    /** component identifiers a signature has to cover, lowercase */
+    private Set<String> requiredComponents = Collections.emptySet();
+
+    /**
+     * Constructor.
+     * @param requirement number of matching signatures that have to be valid
+     */
+    public VerificationPolicy(Requirement requirement) {
+        this.requirement = requirement;
+    }
+
+    /**
+     * @return policy accepting a message if one matching signature is valid
+     */
+    public static VerificationPolicy requireAny() {
+        return new VerificationPolicy(Requirement.ANY);
+    }
+
+    /**
+     * Without further restrictions, this is the default policy: every signature of the message is verified.
+     * @return policy accepting a message if all matching signatures are valid
+     */
+    public static VerificationPolicy requireAll() {
+        return new VerificationPolicy(Requirement.ALL);
+    }
+
+    /**
+     * @param signatureEntry
+     * @return true if the signature is selected by the policy
+     */
+    public boolean matches(SignatureEntry signatureEntry) {
+        if (!labels.isEmpty() && !labels.contains(signatureEntry.getLabel())) {
+            return false;
+        }
+        if (!keyIds.isEmpty() && !keyIds.contains(signatureEntry.getKeyId())) {
+            return false;
+        }
+        if (!requiredComponents.isEmpty()) {
+            Set<String> covered = new LinkedHashSet<>();
+            for (Component component : signatureEntry.getCoveredComponents()) {
+                covered.add(component.getComponentId().toLowerCase(Locale.ROOT));
+            }
+            return covered.containsAll(requiredComponents);
+        }
+        return true;
+    }
+
+    /**
+     * @param signatureEntries signatures of the message in the order of the Signature-Input field
+     * @return the signatures to be verified; for ANY ordered by the cost of their algorithm
+     */
+    public List<SignatureEntry> select(Collection<SignatureEntry> signatureEntries) {
+        List<SignatureEntry> selected = new ArrayList<>();
+        for (SignatureEntry signatureEntry : signatureEntries) {
+            if (matches(signatureEntry)) {
+                selected.add(signatureEntry);
+            }
+        }
+        if (requirement == Requirement.ANY) {
+            //stable sort, signatures of the same cost keep their order
+            selected.sort(Comparator.comparingInt(VerificationPolicy::cost));
+        }
+        return selected;
+    }
+
+    /**
+     * @param signatureEntry
+     * @return relative cost of the verification
+     */
+    private static int cost(SignatureEntry signatureEntry) {
+        int cost = ALGORITHMS_BY_COST.indexOf(signatureEntry.getAlgorithm());
+        return cost >= 0 ? cost : ALGORITHMS_BY_COST.size();
+    }
+
+    /**
+     * @return the number of matching signatures that have to be valid
+     */
+    public Requirement getRequirement() {
+        return requirement;
+    }
+
+    /**
+     * @param requirement the number of matching signatures that have to be valid
+     */
+    public void setRequirement(Requirement requirement) {
+        this.requirement = requirement;
+    }
+
+    /**
+     * @return the labels to be verified, empty for any label
+     */
+    public Set<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * @param labels the labels to be verified, empty for any label
+     */
+    public void setLabels(Collection<String> labels) {
+        this.labels = Collections.unmodifiableSet(new LinkedHashSet<>(labels));
+    }
+
+    /**
+     * @return the accepted keyids, empty for any keyid
+     */
+    public Set<String> getKeyIds() {
+        return keyIds;
+    }
+
+    /**
+     * @param keyIds the accepted keyids, empty for any keyid
+     */
+    public void setKeyIds(Collection<String> keyIds) {
+        this.keyIds = Collections.unmodifiableSet(new LinkedHashSet<>(keyIds));
+    }
+
+    /**
+     * @return the component identifiers a signature has to cover
+     */
+    public Set<String> getRequiredComponents() {
+        return requiredComponents;
+    }
+
+    /**
+     * @param requiredComponents the component identifiers a signature has to cover, e.g. @method or content-digest
+     */
+    public void setRequiredComponents(Collection<String> requiredComponents) {
+        Set<String> components = new LinkedHashSet<>();
+        for (String component : requiredComponents) {
+            components.add(component.toLowerCase(Locale.ROOT));
+        }
+        this.requiredComponents = Collections.unmodifiableSet(components);
+    }
+
+}
@@ -0,0 +1,274 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package httpmessagesignatures;
+
+import java.util.Collections;
+import java.util.List;
+
+import exceptions.SignatureParseException;
+
+/**
+ * Outcome of the verification of a message without exceptions for ordinary rejections: the status of every
+ * signature selected by the policy, the reason and stage of a failure and the time spent in the phases of the
+ * verification.
+ *
+ * Labels after the one deciding the policy are not verified. Only unexpected failures of the cryptographic
+ * providers or the signature base keep their exception, with reason ERROR.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public final class VerificationResult {
+
+    /**
+     * Status of one signature.
+     */
+    public enum Status {
+        /** all stages succeeded */
+        VALID,
+        /** a stage failed */
+        INVALID,
+        /** not verified, the policy was decided by another signature */
+        NOT_VERIFIED
+    }
+
+    /**
+     * Reason for the rejection of a signature or the message.
+     */
+    public enum FailureReason {
+        /** the Signature or Signature-Input field is malformed or exceeds a limit, see getParseReason */
+        MALFORMED_FIELDS,
+        /** the message has no signature selected by the policy */
+        NO_MATCHING_SIGNATURE,
+        /** the Signature field has no signature for the label */
+        MISSING_SIGNATURE,
+        /** the Signature-Input has no created parameter */
+        MISSING_CREATED,
+        /** created or expires is not an integer */
+        INVALID_PARAMETER,
+        /** the expires parameter has passed */
+        EXPIRED,
+        /** created is in the future, beyond the clock skew */
+        NOT_YET_VALID,
+        /** created is older than the maximum age */
+        TOO_OLD,
+        /** the algorithm is not allowed or not supported */
+        ALGORITHM_NOT_ALLOWED,
+        /** there is no key for the keyid */
+        UNKNOWN_KEY,
+        /** the body does not match the covered content-digest field */
+        BODY_DIGEST_MISMATCH,
+        /** a covered field or dictionary member is not contained in the message */
+        MISSING_COMPONENT,
+        /** the dns-target parameter does not refer to this host */
+        DNS_TARGET_MISMATCH,
+        /** the signature does not match the signature base */
+        SIGNATURE_MISMATCH,
+        /** the nonce has been seen before */
+        REPLAYED,
+        /** the signature has no nonce, but the settings require one */
+        NONCE_MISSING,
+        /** unexpected failure of the verification, see LabelResult.getError */
+        ERROR
+    }
+
+    /**
+     * Phases of the verification that are timed.
+     */
+    public enum Phase {
+        /** parsing the signature fields and parameters */
+        PARSE,
+        /** creating the signature bases */
+        BASE,
+        /** digesting the body */
+        DIGEST,
+        /** cryptographic verification of the signatures */
+        CRYPTO
+    }
+
+    /**
+     * Outcome of one signature.
+     */
+    public static final class LabelResult {
+
+        /** label of the signature */
+        private final String label;
+        /** status of the signature */
+        private final Status status;
+        /** reason of an invalid signature, null otherwise */
+        private final FailureReason reason;
+        /** stage that failed, null if none failed */
+        private final VerificationStage stage;
+        /** unexpected exception of reason ERROR, null otherwise */
+        private final Exception error;
+
+        LabelResult(String label, Status status, FailureReason reason, VerificationStage stage, Exception error) {
+            this.label = label;
+            this.status = status;
+            this.reason = reason;
+            this.stage = stage;
+            this.error = error;
+        }
+
+        /**
+         * @return the label of the signature
+         */
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * @return the status of the signature
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * @return the reason of an invalid signature, null otherwise
+         */
+        public FailureReason getReason() {
+            return reason;
+        }
+
+        /**
+         * @return the stage that failed, null if none failed
+         */
+        public VerificationStage getStage() {
+            return stage;
+        }
+
+        /**
+         * @return the unexpected exception of reason ERROR, null otherwise
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        /** (non-Javadoc)
+         * @see java.lang.Object#toString()
+         */
+        @Override
+        public String toString() {
+            return status == Status.INVALID ? label + "=" + status + "(" + reason + " in " + stage + ")"
+                    : label + "=" + status;
+        }
+    }
+
+    /** true if the message is accepted */
+    private final boolean valid;
+    /** reason for the rejection of the message, null if it is accepted */
+    private final FailureReason reason;
+    /** reason of malformed signature fields, null otherwise */
+    private final SignatureParseException.Reason parseReason;
+    /** outcomes of the signatures selected by the policy in order of verification */
+    private final List<LabelResult> labelResults;
+    /** time in nanoseconds by phase */
+    private final long[] nanos;
+
+    /**
+     * @param valid true if the message is accepted
+     * @param reason reason for the rejection of the message, null if it is accepted
+     * @param parseReason reason of malformed signature fields, null otherwise
+     * @param labelResults outcomes of the selected signatures
+     * @param nanos time in nanoseconds indexed by the ordinal of the phase
+     */
+    VerificationResult(boolean valid, FailureReason reason, SignatureParseException.Reason parseReason,
+            List<LabelResult> labelResults, long[] nanos) {
+        this.valid = valid;
+        this.reason = reason;
+        this.parseReason = parseReason;
+        this.labelResults = Collections.unmodifiableList(labelResults);
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return true if the message is accepted by the policy
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * @return the reason for the rejection of the message: the reason of the deciding signature, MALFORMED_FIELDS
+     *         or NO_MATCHING_SIGNATURE; null if the message is accepted
+     */
+    public FailureReason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the reason of malformed signature fields, null otherwise
+     */
+    public SignatureParseException.Reason getParseReason() {
+        return parseReason;
+    }
+
+    /**
+     * @return the outcomes of the signatures selected by the policy in order of verification
+     */
+    public List<LabelResult> getLabelResults() {
+        return labelResults;
+    }
+
+    /**
+     * @param label
+     * @return the outcome of the signature, null if it was not selected by the policy
+     */
+    public LabelResult getLabelResult(String label) {
+        for (LabelResult labelResult : labelResults) {
+            if (labelResult.getLabel().equals(label)) {
+                return labelResult;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param phase
+     * @return the time in nanoseconds spent in the phase
+     */
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @return the time in nanoseconds spent in all phases
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (long phaseNanos : nanos) {
+            total += phaseNanos;
+        }
+        return total;
+    }
+
+    /** (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(valid ? "valid" : "invalid (" + reason + ")");
+        builder.append(' ').append(labelResults);
+        for (Phase phase : Phase.values()) {
+            builder.append(' ').append(phase).append('=').append(getNanos(phase)).append("ns");
+        }
+        return builder.toString();
+    }
+
+}
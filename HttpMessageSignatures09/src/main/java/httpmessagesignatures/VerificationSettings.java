@@ -0,0 +1,311 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package httpmessagesignatures;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import signature.components.DigestAlgorithm;
+import signature.dns.DnsResolver;
+import signature.replay.ReplayStore;
+import signature.structuredfields.StructuredFieldLimits;
+
+/**
+ * Settings for the verification of a message.
+ * The limits bound the work spent on the Signature and Signature-Input fields of a message,
+ * messages exceeding them are rejected before any signature base is created.
+ * The stage order, the allowed algorithms and the time window configure the verification pipeline,
+ * the policy selects the signatures to be verified.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class VerificationSettings {
+
+    /** maximum number of signature labels */
+    private int maxLabels = 8;
+    /** maximum number of covered components per signature */
+    private int maxComponents = 32;
+    /** maximum number of parameters per signature or component */
+    private int maxParameters = 16;
+    /** maximum number of characters of the Signature and the Signature-Input field each */
+    private int maxHeaderLength = 16384;
+    /** order of the verification stages */
+    private List<VerificationStage> stageOrder = VerificationStage.DEFAULT_ORDER;
+    /** algorithms accepted by the ALGORITHM stage */
+    private Set<String> allowedAlgorithms = Collections
+            .unmodifiableSet(new LinkedHashSet<>(Verifier.supportedSignatureAlgorithms));
+    /** tolerated difference of the clocks for the created parameter in seconds */
+    private long clockSkewSeconds = 60;
+    /** maximum age of a signature in seconds, null if the age is not limited */
+    private Long maxAgeSeconds;
+    /** maximum Content-Length of a body digested by the BODY_DIGEST stage, larger bodies are digested last */
+    private long earlyBodyDigestLimit = 64 * 1024;
+    /** selection of the verified signatures, by default all signatures have to be valid */
+    private VerificationPolicy policy = VerificationPolicy.requireAll();
+    /** store of the seen nonces, null if replays are not detected */
+    private ReplayStore replayStore;
+    /** true if signatures without nonce are rejected by the REPLAY stage */
+    private boolean nonceRequired;
+    /** time in seconds a nonce is remembered if neither expires nor a maximum age limit the signature */
+    private long nonceRetentionSeconds = 300;
+    /** resolver of the dns-target parameter, null for the default resolver */
+    private DnsResolver dnsResolver;
+    /** algorithms digested by a stream whose content-digest is received as a trailer */
+    private Set<DigestAlgorithm> trailerDigestAlgorithms = Collections
+            .unmodifiableSet(EnumSet.allOf(DigestAlgorithm.class));
+
+    /**
+     * @return the maximum number of signature labels
+     */
+    public int getMaxLabels() {
+        return maxLabels;
+    }
+
+    /**
+     * @param maxLabels the maximum number of signature labels to set
+     */
+    public void setMaxLabels(int maxLabels) {
+        this.maxLabels = maxLabels;
+    }
+
+    /**
+     * @return the maximum number of covered components per signature
+     */
+    public int getMaxComponents() {
+        return maxComponents;
+    }
+
+    /**
+     * @param maxComponents the maximum number of covered components per signature to set
+     */
+    public void setMaxComponents(int maxComponents) {
+        this.maxComponents = maxComponents;
+    }
+
+    /**
+     * @return the maximum number of parameters per signature or component
+     */
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+
+    /**
+     * @param maxParameters the maximum number of parameters per signature or component to set
+     */
+    public void setMaxParameters(int maxParameters) {
+        this.maxParameters = maxParameters;
+    }
+
+    /**
+     * @return the maximum number of characters of the Signature and the Signature-Input field each
+     */
+    public int getMaxHeaderLength() {
+        return maxHeaderLength;
+    }
+
+    /**
+     * @param maxHeaderLength the maximum number of characters of the Signature and the Signature-Input field to set
+     */
+    public void setMaxHeaderLength(int maxHeaderLength) {
+        this.maxHeaderLength = maxHeaderLength;
+    }
+
+    /**
+     * @return the order of the verification stages, PARSE is always the first and REPLAY the last stage
+     */
+    public List<VerificationStage> getStageOrder() {
+        return stageOrder;
+    }
+
+    /**
+     * No stage can be skipped: stages missing in the order are appended in their default order.
+     * @param stageOrder the order of the verification stages to set
+     */
+    public void setStageOrder(List<VerificationStage> stageOrder) {
+        Set<VerificationStage> order = new LinkedHashSet<>();
+        order.add(VerificationStage.PARSE);
+        order.addAll(stageOrder);
+        order.addAll(VerificationStage.DEFAULT_ORDER);
+        order.remove(VerificationStage.REPLAY);
+        order.add(VerificationStage.REPLAY);
+        this.stageOrder = Collections.unmodifiableList(new ArrayList<>(order));
+    }
+
+    /**
+     * @return the algorithms accepted by the ALGORITHM stage
+     */
+    public Set<String> getAllowedAlgorithms() {
+        return allowedAlgorithms;
+    }
+
+    /**
+     * @param allowedAlgorithms the algorithms accepted by the ALGORITHM stage, e.g. only asymmetric algorithms
+     */
+    public void setAllowedAlgorithms(Collection<String> allowedAlgorithms) {
+        this.allowedAlgorithms = Collections.unmodifiableSet(new LinkedHashSet<>(allowedAlgorithms));
+    }
+
+    /**
+     * @return the tolerated difference of the clocks for the created parameter in seconds
+     */
+    public long getClockSkewSeconds() {
+        return clockSkewSeconds;
+    }
+
+    /**
+     * @param clockSkewSeconds the tolerated difference of the clocks for the created parameter in seconds
+     */
+    public void setClockSkewSeconds(long clockSkewSeconds) {
+        this.clockSkewSeconds = clockSkewSeconds;
+    }
+
+    /**
+     * @return the maximum age of a signature in seconds, null if the age is not limited
+     */
+    public Long getMaxAgeSeconds() {
+        return maxAgeSeconds;
+    }
+
+    /**
+     * @param maxAgeSeconds the maximum age of a signature in seconds, null if the age is not limited
+     */
+    public void setMaxAgeSeconds(Long maxAgeSeconds) {
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /**
+     * @return the maximum Content-Length of a body digested by the BODY_DIGEST stage
+     */
+    public long getEarlyBodyDigestLimit() {
+        return earlyBodyDigestLimit;
+    }
+
+    /**
+     * Bodies without Content-Length or larger than the limit are digested after the signature has been verified.
+     * @param earlyBodyDigestLimit the maximum Content-Length of a body digested by the BODY_DIGEST stage
+     */
+    public void setEarlyBodyDigestLimit(long earlyBodyDigestLimit) {
+        this.earlyBodyDigestLimit = earlyBodyDigestLimit;
+    }
+
+    /**
+     * @return the policy selecting the verified signatures
+     */
+    public VerificationPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @param policy the policy selecting the verified signatures
+     */
+    public void setPolicy(VerificationPolicy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * @return the store of the seen nonces, null if replays are not detected
+     */
+    public ReplayStore getReplayStore() {
+        return replayStore;
+    }
+
+    /**
+     * @param replayStore the store of the seen nonces, e.g. a ShardedReplayCache shared by all verifications
+     */
+    public void setReplayStore(ReplayStore replayStore) {
+        this.replayStore = replayStore;
+    }
+
+    /**
+     * @return true if signatures without nonce are rejected when a replay store is set
+     */
+    public boolean isNonceRequired() {
+        return nonceRequired;
+    }
+
+    /**
+     * @param nonceRequired true if signatures without nonce are rejected when a replay store is set
+     */
+    public void setNonceRequired(boolean nonceRequired) {
+        this.nonceRequired = nonceRequired;
+    }
+
+    /**
+     * @return the time in seconds a nonce is remembered if neither expires nor a maximum age limit the signature
+     */
+    public long getNonceRetentionSeconds() {
+        return nonceRetentionSeconds;
+    }
+
+    /**
+     * A replay after this time is not detected, the maximum age should be set instead.
+     * @param nonceRetentionSeconds the time in seconds a nonce is remembered if neither expires nor a maximum age
+     *        limit the signature
+     */
+    public void setNonceRetentionSeconds(long nonceRetentionSeconds) {
+        this.nonceRetentionSeconds = nonceRetentionSeconds;
+    }
+
+    /**
+     * @return the resolver of the local addresses compared with the dns-target parameter
+     */
+    public DnsResolver getDnsResolver() {
+        return dnsResolver != null ? dnsResolver : DnsResolver.getDefault();
+    }
+
+    /**
+     * @param dnsResolver the resolver of the local addresses compared with the dns-target parameter,
+     *        null for the default resolver
+     */
+    public void setDnsResolver(DnsResolver dnsResolver) {
+        this.dnsResolver = dnsResolver;
+    }
+
+    /**
+     * @return the algorithms digested by a stream whose content-digest is received as a trailer
+     */
+    public Set<DigestAlgorithm> getTrailerDigestAlgorithms() {
+        return trailerDigestAlgorithms;
+    }
+
+    /**
+     * The trailer is only known at the end of the body, so the body is digested with every accepted algorithm
+     * the peer may use. Restricting them saves a digest per algorithm and octet.
+     * @param trailerDigestAlgorithms the algorithms accepted in a Content-Digest trailer, at least one
+     */
+    public void setTrailerDigestAlgorithms(Collection<DigestAlgorithm> trailerDigestAlgorithms) {
+        if (trailerDigestAlgorithms.isEmpty()) {
+            throw new IllegalArgumentException("At least one digest algorithm has to be accepted");
+        }
+        this.trailerDigestAlgorithms = Collections.unmodifiableSet(EnumSet.copyOf(trailerDigestAlgorithms));
+    }
+
+    /**
+     * @return the limits for parsing the Signature and Signature-Input fields
+     */
+    public StructuredFieldLimits getParseLimits() {
+        return new StructuredFieldLimits(maxLabels, maxComponents, maxParameters);
+    }
+
+}
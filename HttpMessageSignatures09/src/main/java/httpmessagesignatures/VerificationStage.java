@@ -0,0 +1,54 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package httpmessagesignatures;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Stages of the verification of a signature. The stages are run in the order of the VerificationSettings,
+ * the first failing stage ends the verification of the message. The default order runs the cheap checks first,
+ * so a failing message costs as little as possible; the asymmetric verification is run last.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public enum VerificationStage {
+    /** the signature exists and the Signature-Input has a created parameter; always run first */
+    PARSE,
+    /** the signature has not expired, created is not in the future and within the maximum age */
+    TIME_WINDOW,
+    /** the algorithm of the signature is allowed */
+    ALGORITHM,
+    /** a key exists for the keyid of the signature */
+    KEY,
+    /** a covered content-digest matches a small body; larger bodies are checked after all stages */
+    BODY_DIGEST,
+    /** the dns-target parameter of a request matches the host, requires a DNS lookup */
+    DNS_TARGET,
+    /** signature base creation and cryptographic verification */
+    SIGNATURE,
+    /** the nonce has not been seen before; always run last, so forged signatures cannot consume nonces */
+    REPLAY;
+
+    /** cheap checks first, the crypto last */
+    public static final List<VerificationStage> DEFAULT_ORDER = Collections.unmodifiableList(Arrays.asList(PARSE,
+            TIME_WINDOW, ALGORITHM, KEY, BODY_DIGEST, SIGNATURE, DNS_TARGET, REPLAY));
+
+}
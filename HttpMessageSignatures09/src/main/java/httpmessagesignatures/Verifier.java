@@ -16,6 +16,8 @@
 */
 package httpmessagesignatures;
 
+import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.KeyFactory;
@@ -31,26 +33,35 @@ import java.security.spec.X509EncodedKeySpec;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Base64;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.http.Header;
-import org.apache.http.HeaderElement;
-import org.apache.http.HttpMessage;
-import org.apache.http.NameValuePair;
-import org.apache.http.message.BasicHeader;
 import org.bouncycastle.crypto.digests.SHA256Digest;
 import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.params.KeyParameter;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
+import exceptions.ContentDigestMismatchException;
 import exceptions.NoSuchSignatureException;
+import exceptions.SignatureParseException;
+import exceptions.StructuredFieldParseException;
+import httpmessagesignatures.VerificationResult.FailureReason;
+import httpmessagesignatures.VerificationResult.LabelResult;
+import httpmessagesignatures.VerificationResult.Phase;
+import httpmessagesignatures.VerificationResult.Status;
 import signature.components.Component;
-import signature.components.SHAEncoder;
-import signaturebase.HttpFieldTransformer;
+import signature.components.ContentDigestVerifier;
+import signature.components.KeyMap;
+import signature.components.SignatureEntry;
+import signature.components.SignatureParameter;
+import signature.messages.HeaderIndex;
+import signature.messages.SignableMessage;
+import signature.metrics.Metrics;
+import signature.metrics.SignatureMetrics;
+import signature.metrics.SignatureMetrics.Operation;
+import signature.structuredfields.SfDictionary;
+import signature.structuredfields.StructuredFieldType;
 
 /**
  * Verifier performs the verification of a HTTP message.
@@ -62,11 +73,15 @@ import signaturebase.HttpFieldTransformer;
  */
 public abstract class Verifier {
 
-    protected static List<String> supportedSignatureAlgorithms = Arrays.asList("RSASSA-PSS", "ecdsa-p256-sha256",
+    protected static List<String> supportedSignatureAlgorithms = Arrays.asList("rsa-pss-sha512", "ecdsa-p256-sha256",
             "hmac-sha256", "ed25519");
 
+    /** metrics tag of an alg parameter that is not supported or missing */
+    protected static final String OTHER_ALGORITHM = "other";
+
     /**
      * @param signatureBase
+     * @param signature decoded signature bytes
      * @param publicKey
      * @param algorithm
      * @return
@@ -76,7 +91,7 @@ public abstract class Verifier {
      * @throws SignatureException
      * @throws InvalidKeySpecException
      */
-    protected static boolean verify(byte[] signatureBase, String signature, byte[] publicKeyMaterial, String algorithm)
+    protected static boolean verify(byte[] signatureBase, byte[] signature, byte[] publicKeyMaterial, String algorithm)
             throws NoSuchAlgorithmException, InvalidAlgorithmParameterException, InvalidKeyException,
             SignatureException, InvalidKeySpecException {
         PublicKey publicKey;
@@ -94,8 +109,7 @@ public abstract class Verifier {
                 publicSignature.initVerify(publicKey);
                 publicSignature.update(signatureBase);
 
-                byte[] signatureBytesRSAPSS = Base64.getDecoder().decode(signature);
-                boolean verifyRSA = publicSignature.verify(signatureBytesRSAPSS);
+                boolean verifyRSA = publicSignature.verify(signature);
 
                 return verifyRSA;
 
@@ -108,8 +122,7 @@ public abstract class Verifier {
                 publicSignature.initVerify(publicKey);
                 publicSignature.update(signatureBase);
 
-                byte[] signatureBytesEC = Base64.getDecoder().decode(signature);
-                boolean verifyECDSA = publicSignature.verify(signatureBytesEC);
+                boolean verifyECDSA = publicSignature.verify(signature);
 
                 return verifyECDSA;
 
@@ -120,8 +133,7 @@ public abstract class Verifier {
 
                 byte[] newSignature = new byte[hMac.getMacSize()];
                 hMac.doFinal(newSignature, 0);
-                byte[] originSignature = Base64.getDecoder().decode(signature);
-                boolean verifyHMAC = Arrays.equals(originSignature, newSignature);
+                boolean verifyHMAC = Arrays.equals(signature, newSignature);
                 return verifyHMAC;
 
             case "ed25519":
@@ -132,8 +144,7 @@ public abstract class Verifier {
                 publicSignature.initVerify(publicKey);
                 publicSignature.update(signatureBase);
 
-                byte[] signatureBytesEd = Base64.getDecoder().decode(signature);
-                boolean verifyED = publicSignature.verify(signatureBytesEd);
+                boolean verifyED = publicSignature.verify(signature);
 
                 return verifyED;
 
@@ -146,22 +157,19 @@ public abstract class Verifier {
 
     /**
      *
-     * @param signatureParameter
+     * @param signatureEntry
      * @return
-     * @throws Exception
      */
-    protected static boolean analyzeSiganturParamater(Map<String, String> signatureParameter) {
+    protected static boolean analyzeSiganturParamater(SignatureEntry signatureEntry) {
 
         //If an expired field is included, check if the signature has expired
-        if (signatureParameter.containsKey("expires")) {
-            long expires = Long.valueOf(signatureParameter.get("expires"));
-            if (Instant.now().getEpochSecond() > expires) {
-                return false;
-            }
+        Long expires = signatureEntry.getExpires();
+        if ((expires != null) && (Instant.now().getEpochSecond() > expires)) {
+            return false;
         }
 
         //check whether the signature algorithm used is supported
-        if (!(supportedSignatureAlgorithms.contains(signatureParameter.get("algorithm")))) {
+        if (!(supportedSignatureAlgorithms.contains(signatureEntry.getAlgorithm()))) {
             return false;
         }
         return true;
@@ -169,166 +177,329 @@ public abstract class Verifier {
     }
 
     /**
-     * extract Signature-Labels
-     * @return Returns the signature label along with its signature-input.
+     * Parse the Signature-Input and Signature fields once, within the limits of the settings.
+     * @param message
+     * @param settings
+     * @return Returns the signatures of the message by label.
+     * @throws SignatureParseException if the fields are malformed or exceed a limit
      */
-    protected static Map<String, String> getSignatureLabelsAndInput(Header header) {
-
-        Map<String, String> labelsAndInput = new HashMap<>();
-        HeaderElement[] sigInput = header.getElements();
-        for (HeaderElement element : sigInput) {
-            String sigLabel = element.getName();
-            String signatureInput = element.getValue();
-            NameValuePair[] parameters = element.getParameters();
+    protected static Map<String, SignatureEntry> getSignatureEntries(SignableMessage message,
+            VerificationSettings settings) throws SignatureParseException {
+        return SignatureEntry.parse(getSignatureFields(message), settings.getParseLimits(),
+                settings.getMaxHeaderLength());
+    }
 
-            for (NameValuePair param : parameters) {
-                signatureInput = signatureInput + ";" + param;
+    /**
+     * Verifies the signatures selected by the policy of the settings. Each signature runs through the stages of the
+     * verification pipeline; the verification stops as soon as the policy is satisfied or cannot be satisfied.
+     * @param message
+     * @param keys public keys of the signers
+     * @param settings limits, stages and policy of the verification
+     * @param checkBody false if the body is verified by the body stream
+     * @return true if the policy is satisfied; false if no signature matches the policy
+     * @throws SignatureParseException if the fields are malformed or exceed a limit
+     * @throws NoSuchSignatureException
+     * @throws InvalidKeyException if there is no key for the keyid of a selected signature
+     * @throws NoSuchAlgorithmException
+     * @throws URISyntaxException
+     * @throws InvalidAlgorithmParameterException
+     * @throws InvalidKeySpecException
+     * @throws SignatureException
+     */
+    protected static boolean verifySignatures(SignableMessage message, List<KeyMap> keys,
+            VerificationSettings settings, boolean checkBody) throws SignatureParseException,
+            NoSuchSignatureException, InvalidKeyException, NoSuchAlgorithmException, URISyntaxException,
+            InvalidAlgorithmParameterException, InvalidKeySpecException, SignatureException {
+        long[] nanos = new long[Phase.values().length];
+        long start = System.nanoTime();
+        // get Signature Labels and their Input, both fields are parsed once
+        Map<String, SignatureEntry> signatureEntries;
+        try {
+            signatureEntries = getSignatureEntries(message, settings);
+        } catch (SignatureParseException e) {
+            recordMalformed(System.nanoTime() - start);
+            throw e;
+        }
+        nanos[Phase.PARSE.ordinal()] += System.nanoTime() - start;
+        VerificationResult result = verifySignatures(message, signatureEntries, keys, settings, checkBody, nanos);
+        if (!result.isValid()) {
+            //rejections formerly reported by exceptions
+            for (LabelResult labelResult : result.getLabelResults()) {
+                if (labelResult.getStatus() == Status.INVALID) {
+                    throwRejection(labelResult);
+                }
             }
-            labelsAndInput.put(sigLabel, signatureInput);
         }
-
-        return labelsAndInput;
+        return result.isValid();
     }
 
     /**
-     *extract signature parameters
-     * @param signLabel
-     * @return Returns extracted signature parameter.
+     * Verifies the signatures selected by the policy of the settings like verifySignatures, but reports every
+     * rejection in the result instead of an exception.
+     * @param message
+     * @param keys public keys of the signers
+     * @param settings limits, stages and policy of the verification
+     * @param checkBody false if the body is verified by the body stream
+     * @return outcome of the selected signatures with the time of the phases
      */
-    protected static Map<String, String> extractSignatureParameter(Header entry, String signatureLabel) {
+    protected static VerificationResult evaluateSignatures(SignableMessage message, List<KeyMap> keys,
+            VerificationSettings settings, boolean checkBody) {
+        long[] nanos = new long[Phase.values().length];
+        long start = System.nanoTime();
+        Map<String, SignatureEntry> signatureEntries;
+        try {
+            signatureEntries = getSignatureEntries(message, settings);
+        } catch (SignatureParseException e) {
+            nanos[Phase.PARSE.ordinal()] += System.nanoTime() - start;
+            recordMalformed(nanos[Phase.PARSE.ordinal()]);
+            return new VerificationResult(false, FailureReason.MALFORMED_FIELDS, e.getReason(),
+                    new ArrayList<>(), nanos);
+        }
+        nanos[Phase.PARSE.ordinal()] += System.nanoTime() - start;
+        return verifySignatures(message, signatureEntries, keys, settings, checkBody, nanos);
+    }
 
-        Map<String, String> signatureParameter = new HashMap<>();
-        HeaderElement[] signaturElements = entry.getElements();
+    /**
+     * Runs the signatures selected by the policy through the stages of the verification pipeline until the policy
+     * is satisfied or cannot be satisfied.
+     * @param message
+     * @param signatureEntries parsed signatures of the message
+     * @param keys
+     * @param settings
+     * @param checkBody
+     * @param nanos time in nanoseconds by phase
+     * @return outcome of the selected signatures
+     */
+    private static VerificationResult verifySignatures(SignableMessage message,
+            Map<String, SignatureEntry> signatureEntries, List<KeyMap> keys, VerificationSettings settings,
+            boolean checkBody, long[] nanos) {
+        SignatureMetrics metrics = Metrics.get();
+        metrics.recordPhase(Operation.VERIFY, SignatureMetrics.Phase.PARSE, null, nanos[Phase.PARSE.ordinal()]);
+        VerificationPolicy policy = settings.getPolicy();
+        List<SignatureEntry> selected = policy.select(signatureEntries.values());
+        List<LabelResult> labelResults = new ArrayList<>(selected.size());
+        if (selected.isEmpty()) {
+            metrics.recordFailure(FailureReason.NO_MATCHING_SIGNATURE.name());
+            return new VerificationResult(false, FailureReason.NO_MATCHING_SIGNATURE, null, labelResults, nanos);
+        }
+        boolean any = policy.getRequirement() == VerificationPolicy.Requirement.ANY;
+        boolean recorded = metrics != SignatureMetrics.NOOP;
+        Boolean decision = null;
+        FailureReason reason = null;
+        for (SignatureEntry signatureEntry : selected) {
+            if (decision != null) {
+                labelResults.add(new LabelResult(signatureEntry.getLabel(), Status.NOT_VERIFIED, null, null, null));
+                continue;
+            }
+            //the time by phase of the signature is only taken if it is recorded
+            long[] before = recorded ? nanos.clone() : null;
+            long start = System.nanoTime();
+            LabelResult labelResult = new VerificationPipeline(message, signatureEntry, keys, settings, checkBody,
+                    nanos).verify();
+            long elapsed = System.nanoTime() - start;
+            labelResults.add(labelResult);
+            boolean valid = labelResult.getStatus() == Status.VALID;
+            if (!valid) {
+                reason = labelResult.getReason();
+                metrics.recordFailure(reason.name());
+            }
+            if (recorded) {
+                recordLabel(metrics, signatureEntry, valid, elapsed, before, nanos);
+            }
+            if (valid == any) {
+                //ANY is satisfied by a valid signature, ALL cannot be satisfied after an invalid one
+                decision = valid;
+            }
+        }
+        boolean valid = decision != null ? decision : !any;
+        return new VerificationResult(valid, valid ? null : reason, null, labelResults, nanos);
+    }
 
-        for (HeaderElement element : signaturElements) {
-            if (element.getName().equals(signatureLabel)) {
-                NameValuePair[] parameters = element.getParameters();
+    /**
+     * Records the latency of a verified signature and the time of its phases.
+     * @param metrics
+     * @param signatureEntry verified signature
+     * @param valid true if the signature is valid
+     * @param elapsed duration of the verification of the signature
+     * @param before time by phase before the verification of the signature
+     * @param after time by phase after the verification of the signature
+     */
+    private static void recordLabel(SignatureMetrics metrics, SignatureEntry signatureEntry, boolean valid,
+            long elapsed, long[] before, long[] after) {
+        //the alg parameter is sent by the client, any other value is recorded under one tag
+        String algorithm = supportedSignatureAlgorithms.contains(signatureEntry.getAlgorithm())
+                ? signatureEntry.getAlgorithm() : OTHER_ALGORITHM;
+        metrics.recordLatency(Operation.VERIFY, algorithm, signatureEntry.getKeyId(), valid, elapsed);
+        for (Phase phase : Phase.values()) {
+            long nanos = after[phase.ordinal()] - before[phase.ordinal()];
+            if ((phase != Phase.PARSE) && (nanos > 0)) {
+                metrics.recordPhase(Operation.VERIFY, SignatureMetrics.Phase.valueOf(phase.name()), algorithm, nanos);
+            }
+        }
+    }
 
-                for (NameValuePair param : parameters) {
-                    if (!param.getName().startsWith("req")) {
-                        signatureParameter.put(param.getName(), param.getValue());
-                    }
+    /**
+     * Records the rejection of malformed signature fields.
+     * @param parseNanos time spent parsing the fields
+     */
+    private static void recordMalformed(long parseNanos) {
+        SignatureMetrics metrics = Metrics.get();
+        metrics.recordPhase(Operation.VERIFY, SignatureMetrics.Phase.PARSE, null, parseNanos);
+        metrics.recordFailure(FailureReason.MALFORMED_FIELDS.name());
+    }
 
+    /**
+     * Throws the exception a rejection was reported with before the VerificationResult, if any.
+     * @param labelResult invalid signature
+     * @throws NoSuchSignatureException if the label does not refer to a signature
+     * @throws InvalidKeyException if there is no key for the keyid
+     * @throws NoSuchAlgorithmException
+     * @throws URISyntaxException
+     * @throws InvalidAlgorithmParameterException
+     * @throws InvalidKeySpecException
+     * @throws SignatureException
+     */
+    private static void throwRejection(LabelResult labelResult) throws NoSuchSignatureException,
+            InvalidKeyException, NoSuchAlgorithmException, URISyntaxException, InvalidAlgorithmParameterException,
+            InvalidKeySpecException, SignatureException {
+        switch (labelResult.getReason()) {
+            case MISSING_SIGNATURE:
+                throw new NoSuchSignatureException("No signature found for the label " + labelResult.getLabel());
+            case MISSING_CREATED:
+                throw new IllegalArgumentException("Signature " + labelResult.getLabel() + " has no created parameter");
+            case INVALID_PARAMETER:
+                throw new IllegalArgumentException("Parameter created or expires of " + labelResult.getLabel()
+                        + " is not an integer");
+            case UNKNOWN_KEY:
+                //No such key available
+                throw new InvalidKeyException();
+            case ERROR:
+                Exception error = labelResult.getError();
+                if (error instanceof URISyntaxException) {
+                    throw (URISyntaxException) error;
+                } else if (error instanceof NoSuchAlgorithmException) {
+                    throw (NoSuchAlgorithmException) error;
+                } else if (error instanceof InvalidKeyException) {
+                    throw (InvalidKeyException) error;
+                } else if (error instanceof InvalidAlgorithmParameterException) {
+                    throw (InvalidAlgorithmParameterException) error;
+                } else if (error instanceof InvalidKeySpecException) {
+                    throw (InvalidKeySpecException) error;
+                } else if (error instanceof SignatureException) {
+                    throw (SignatureException) error;
                 }
-            }
-
+                throw new SignatureException(error);
+            default:
+                break;
         }
-        return signatureParameter;
+    }
 
+    /**
+     * The signature fields of a streamed message can be sent as trailers.
+     * @param message
+     * @return the trailers if only they contain a Signature-Input field, otherwise the headers
+     */
+    protected static HeaderIndex getSignatureFields(SignableMessage message) {
+        HeaderIndex headers = message.getHeaderIndex();
+        HeaderIndex trailers = message.getTrailerIndex();
+        if (!headers.contains("signature-input") && (trailers != null) && trailers.contains("signature-input")) {
+            return trailers;
+        }
+        return headers;
     }
 
     /**
      *
-     * @param message
-     * @param signatureLabel
-     * @return Signature as String
+     * @param signatureEntry
+     * @return Signature bytes
      * @throws NoSuchSignatureException
      */
-    protected static String getSiganture(HttpMessage message, String signatureLabel) throws NoSuchSignatureException {
-
-        Header signatureHeader = message.getFirstHeader("Signature");
-        HeaderElement[] signaturElements = signatureHeader.getElements();
-
-        for (HeaderElement element : signaturElements) {
-            if (element.getName().equals(signatureLabel)) {
-                String signature = element.getValue();
-                signature = signature.substring(1, signature.length() - 1);
-                return signature;
-            }
+    protected static byte[] getSiganture(SignatureEntry signatureEntry) throws NoSuchSignatureException {
+        byte[] signature = signatureEntry.getSignature();
+        if (signature == null) {
+            //if the signature label does not refer to an existing signature
+            throw new NoSuchSignatureException("No signature found for the label " + signatureEntry.getLabel());
         }
-        //if the signature label does not refer to an existing signature
-        throw new NoSuchSignatureException("No signature found for the label " + signatureLabel);
-
+        return signature;
     }
 
     /**
-     *
-     * @param message
-     * @return message with transformed header field names
+     * Create the signature parameters of a received signature.
+     * @param signatureEntry
+     * @param coveredHeaders List of the covered components.
+     * @return SignatureParameter
      */
-    protected static HttpMessage transformMessage(HttpMessage message) {
-        message = HttpFieldTransformer.canonicalizeHTTPHeader(message);
-        return message;
+    protected static SignatureParameter createSignatureParameter(SignatureEntry signatureEntry,
+            List<Component> coveredHeaders) {
+        SignatureParameter params = new SignatureParameter(signatureEntry.getAlgorithm(), signatureEntry.getKeyId(),
+                signatureEntry.getNonce(), null, signatureEntry.getLabel(), coveredHeaders);
+        Long created = signatureEntry.getCreated();
+        if (created == null) {
+            throw new IllegalArgumentException("Signature " + signatureEntry.getLabel() + " has no created parameter");
+        }
+        params.setCreated(created);
+        params.setExpires(signatureEntry.getExpires());
+        return params;
     }
 
     /**
-     *
-     * @param contentDigestValue
-     * @param messageBody
-     * @return Returns true if the hash value of the message body is valid.
+     * Verifies every member of the content-digest field with a supported algorithm.
+     * The body is passed once through all digests, it is not read into a String if the message can avoid it.
+     * @param message
+     * @return Returns true if the hash values of the message body are valid, false if the content-digest field has
+     *         no supported algorithm
      * @throws NoSuchAlgorithmException
      */
-    protected static boolean verifyBody(String contentDigestValue, String messageBody) throws NoSuchAlgorithmException {
-        //determination hash function
-        int endPos = contentDigestValue.indexOf("=");
-        String sha = contentDigestValue.substring(0, endPos);
-        String bodyHash;
-        switch (sha) {
-            case "sha-256":
-                bodyHash = SHAEncoder.hash256(messageBody);
-                break;
-            case "sha-512":
-                bodyHash = SHAEncoder.hash512(messageBody);
-                break;
-            default:
-                throw new NoSuchAlgorithmException();
+    protected static boolean verifyBody(SignableMessage message) throws NoSuchAlgorithmException {
+        SfDictionary contentDigest = getContentDigest(message);
+        if (contentDigest == null) {
+            return false;
         }
-
-        //remove prefix
-        contentDigestValue = contentDigestValue.substring(9);
-        return contentDigestValue.equals(bodyHash);
+        ContentDigestVerifier verifier = ContentDigestVerifier.of(contentDigest);
+        if (!verifier.isSupported()) {
+            return false;
+        }
+        return verifier.verify(message.digestBody(verifier.getAlgorithms()));
 
     }
 
     /**
-     * Extract the ids of the covered components from the signature input header.
-     * @param signatureInput
-     * @return List of coveredHeaders.
+     * Second stage of the streaming verification: the body is verified while the application reads it.
+     * @param message whose signature has been verified without the body
+     * @param body stream of the message body
+     * @return stream throwing a ContentDigestMismatchException at the end if the body does not match
+     * @throws NoSuchAlgorithmException
+     * @throws ContentDigestMismatchException if the content-digest field is missing, malformed or has no supported
+     *         algorithm
      */
-    protected static List<Component> getCoveredHeaders(Header signatureInput) {
-        List<Component> coveredHeaders = new ArrayList<>();
-
-        String value = signatureInput.getValue();
-        int startPos = value.indexOf("(") + 1;
-        int endPos = value.indexOf(")");
-        value = value.substring(startPos, endPos);
-        value = value.replaceAll("\"", "");
-        value = value.replace(" ", ", ");
-        coveredHeaders = extractComponent(value.toLowerCase(), coveredHeaders);
-
-        return coveredHeaders;
+    protected static InputStream verifyingBodyStream(SignableMessage message, InputStream body)
+            throws NoSuchAlgorithmException, ContentDigestMismatchException {
+        SfDictionary contentDigest = getContentDigest(message);
+        if (contentDigest == null) {
+            throw new ContentDigestMismatchException("Content-Digest field is missing or malformed");
+        }
+        ContentDigestVerifier verifier = ContentDigestVerifier.of(contentDigest);
+        if (!verifier.isSupported()) {
+            throw new ContentDigestMismatchException("Content-Digest field has no supported algorithm");
+        }
+        return verifier.verifyingStream(body);
     }
 
     /**
-     * Get the components from the inner list of the signature input
-     * @param value
+     * @param message
+     * @return the content-digest field, taken from the trailers if there is no such header;
+     *         null if it is missing or malformed
      */
-    private static List<Component> extractComponent(String value, List<Component> coveredHeaders) {
-
-        Header extractHeader = new BasicHeader("", value);
-        HeaderElement[] elements = extractHeader.getElements();
-
-        for (HeaderElement element : elements) {
-            String componentId = null;
-            NameValuePair[] parameters = null;
-            NameValuePair parameter = null;
-            boolean req = false;
-            componentId = element.getName();
-            parameters = element.getParameters();
-
-            //check if req parameter is included
-            for (NameValuePair nameValuePair : parameters) {
-                if (nameValuePair.getName().equals("req")) {
-                    req = true;
-                } else {
-                    parameter = nameValuePair;
-                }
-            }
-
-            coveredHeaders.add(new Component(componentId, parameter, req));
+    protected static SfDictionary getContentDigest(SignableMessage message) {
+        HeaderIndex fields = message.getHeaderIndex();
+        if (!fields.contains("content-digest") && (message.getTrailerIndex() != null)) {
+            fields = message.getTrailerIndex();
+        }
+        try {
+            return (SfDictionary) fields.getStructuredField("content-digest", StructuredFieldType.DICTIONARY);
+        } catch (StructuredFieldParseException e) {
+            return null;
         }
-        return coveredHeaders;
-
     }
 
     /**
@@ -85,6 +85,20 @@ public class Component {
         return req;
     }
 
+    /**
+     * @return true if the component is a trailer field (tr parameter, section 2.1.4)
+     */
+    public boolean isTrailer() {
+        if (parameters != null) {
+            for (NameValuePair parameter : parameters) {
+                if ((parameter != null) && parameter.getName().equals("tr")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * @return the value
      */
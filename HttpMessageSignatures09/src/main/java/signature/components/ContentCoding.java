@@ -0,0 +1,153 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.components;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Content codings of the Content-Encoding field (RFC 9110 section 8.4.1) supported by the streaming body pipeline.
+ * The Content-Digest field covers the encoded octets, so the digest is computed behind the encoder when a body is
+ * sent and in front of the decoder when it is received. Each octet passes the coder and the digest once.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public enum ContentCoding {
+    IDENTITY("identity"), GZIP("gzip"), DEFLATE("deflate");
+
+    /** token of the coding in the Content-Encoding field */
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * @return token of the coding in the Content-Encoding field
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @param contentEncoding value of the Content-Encoding field, may be null
+     * @return the coding of the field, IDENTITY if there is none; null if the coding is not supported
+     *         or several codings are applied
+     */
+    public static ContentCoding forHeader(String contentEncoding) {
+        if ((contentEncoding == null) || contentEncoding.trim().isEmpty()) {
+            return IDENTITY;
+        }
+        String value = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (value.equals("x-gzip")) {
+            return GZIP;
+        }
+        for (ContentCoding coding : values()) {
+            if (coding.token.equals(value)) {
+                return coding;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The encoder has to be finished (DeflaterOutputStream.finish) or closed before the digest of the encoded
+     * octets is complete.
+     * @param encoded stream receiving the encoded octets, e.g. a digesting stream in front of the connection
+     * @return stream the unencoded body is written to
+     * @throws IOException
+     */
+    public OutputStream encoder(OutputStream encoded) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(encoded, SHAEncoder.BUFFER_SIZE);
+            case DEFLATE:
+                //the deflate coding is the zlib format (RFC 1950)
+                return new DeflaterOutputStream(encoded);
+            default:
+                return encoded;
+        }
+    }
+
+    /**
+     * The encoded stream is read to its end after the decoder has finished, so a digesting stream reaches its end
+     * and verifies the content-digest.
+     * @param encoded stream of the encoded octets, e.g. a verifying body stream
+     * @return stream of the decoded body
+     * @throws IOException
+     */
+    public InputStream decoder(InputStream encoded) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new DrainingInputStream(new GZIPInputStream(encoded, SHAEncoder.BUFFER_SIZE), encoded);
+            case DEFLATE:
+                return new DrainingInputStream(new InflaterInputStream(encoded), encoded);
+            default:
+                return encoded;
+        }
+    }
+
+    /**
+     * Decoder reading the remaining encoded octets when the decoded body ends. The decoders stop at the end of
+     * the compressed data and may leave octets unread.
+     */
+    private static final class DrainingInputStream extends FilterInputStream {
+
+        /** stream of the encoded octets */
+        private final InputStream encoded;
+
+        DrainingInputStream(InputStream decoder, InputStream encoded) {
+            super(decoder);
+            this.encoded = encoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value == -1) {
+                drain();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+                drain();
+            }
+            return read;
+        }
+
+        private void drain() throws IOException {
+            byte[] buffer = new byte[SHAEncoder.BUFFER_SIZE];
+            while (encoded.read(buffer) != -1) {
+                //the octets are only passed to the digests
+            }
+        }
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.components;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import signature.metrics.Metrics;
+
+/**
+ * Bounded cache of Content-Digest members for bodies that are served repeatedly, e.g. static documents.
+ * Entries are keyed by an identity of the body: a strong ETag scoped by the resource and content coding, a file
+ * path with its modification time and size, or a key supplied by the application. On a hit the body is not read
+ * at all. The identity must change whenever the octets of the body change; the cache does not check this.
+ *
+ * The cache is bounded by a number of entries and by an estimate of the memory used by the entries, the least
+ * recently used entries are evicted first. The cache is thread-safe and can be shared by all signers.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class ContentDigestCache {
+
+    /** estimated memory of an entry without its strings: map entry, key and value objects */
+    static final long ENTRY_OVERHEAD = 96;
+
+    /** maximum number of entries */
+    private final int maxEntries;
+    /** maximum estimated memory of all entries in bytes */
+    private final long maxBytes;
+    /** entries in access order, guarded by this */
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** estimated memory of all entries in bytes, guarded by this */
+    private long bytes;
+
+    /** number of lookups that found an entry */
+    private final LongAdder hits = new LongAdder();
+    /** number of lookups that found no entry */
+    private final LongAdder misses = new LongAdder();
+    /** number of evicted entries */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param maxEntries maximum number of entries
+     * @param maxBytes maximum estimated memory of all entries in bytes
+     */
+    public ContentDigestCache(int maxEntries, long maxBytes) {
+        if ((maxEntries <= 0) || (maxBytes <= 0)) {
+            throw new IllegalArgumentException("Bounds of the cache must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * An entity-tag is only unique per resource and representation, the key is scoped by both.
+     * @param etag value of the ETag field
+     * @param resource effective request URI of the resource, e.g. //example.com/foo?a=b
+     * @param contentEncoding value of the Content-Encoding field, null for the identity coding
+     * @return identity of the body, null for a missing or weak ETag (a weak ETag does not identify the octets)
+     *         or an unknown resource
+     */
+    public static String etagKey(String etag, String resource, String contentEncoding) {
+        if ((etag == null) || etag.trim().isEmpty() || etag.trim().startsWith("W/") || (resource == null)) {
+            return null;
+        }
+        String coding = contentEncoding != null ? contentEncoding.trim().toLowerCase(Locale.ROOT) : "";
+        //neither the entity-tag nor the URI contain spaces, the key is unambiguous
+        return "etag:" + coding + " " + etag.trim() + " " + resource;
+    }
+
+    /**
+     * @param file file the body is served from
+     * @return identity of the body from the path, modification time and size of the file
+     * @throws IOException
+     */
+    public static String fileKey(Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return "file:" + file.toAbsolutePath().normalize() + ";" + attributes.lastModifiedTime().toMillis() + ";"
+                + attributes.size();
+    }
+
+    /**
+     * @param key key of the body supplied by the application, e.g. name and version of a document
+     * @return identity of the body
+     */
+    public static String applicationKey(String key) {
+        return "app:" + key;
+    }
+
+    /**
+     * @param identity identity of the body
+     * @param algorithm
+     * @return the cached Content-Digest member, null if there is none
+     */
+    public String get(String identity, DigestAlgorithm algorithm) {
+        String member;
+        synchronized (this) {
+            member = entries.get(cacheKey(identity, algorithm));
+        }
+        if (member != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        Metrics.get().recordCacheAccess("content-digest", member != null);
+        return member;
+    }
+
+    /**
+     * @param identity identity of the body
+     * @param algorithm
+     * @param member Content-Digest member of the body
+     */
+    public void put(String identity, DigestAlgorithm algorithm, String member) {
+        String key = cacheKey(identity, algorithm);
+        long size = size(key, member);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            String old = entries.put(key, member);
+            if (old != null) {
+                bytes -= size(key, old);
+            }
+            bytes += size;
+            Iterator<Map.Entry<String, String>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries) || (bytes > maxBytes)) {
+                Map.Entry<String, String> entry = eldest.next();
+                bytes -= size(entry.getKey(), entry.getValue());
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * @param identity identity of a body that has changed
+     */
+    public synchronized void invalidate(String identity) {
+        for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+            String key = cacheKey(identity, algorithm);
+            String old = entries.remove(key);
+            if (old != null) {
+                bytes -= size(key, old);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries, the statistics are kept.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return estimated memory of all entries in bytes
+     */
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return number of lookups that found an entry
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that found no entry
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of entries evicted because of the bounds
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return share of the lookups that found an entry, 0 if there was no lookup
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @param identity
+     * @param algorithm
+     * @return key of the entry
+     */
+    private static String cacheKey(String identity, DigestAlgorithm algorithm) {
+        return algorithm.getKey() + " " + identity;
+    }
+
+    /**
+     * @param key
+     * @param member
+     * @return estimated memory of an entry in bytes
+     */
+    private static long size(String key, String member) {
+        return ENTRY_OVERHEAD + 2L * (key.length() + member.length());
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.components;
+
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import signature.structuredfields.SfByteSequence;
+import signature.structuredfields.SfDictionary;
+import signature.structuredfields.SfItem;
+import signature.structuredfields.SfMember;
+
+/**
+ * Verifies the members of a Content-Digest field (RFC 9530) against the digests of a message body.
+ * All members with a supported algorithm are checked, members with unknown algorithms are ignored.
+ * A field without a supported member never verifies.
+ * The body is digested once for all algorithms and the digests are compared in constant time.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class ContentDigestVerifier {
+
+    /** expected digests by algorithm, null for a member that is not a valid byte sequence */
+    private final Map<DigestAlgorithm, byte[]> expected;
+
+    /**
+     * Constructor.
+     * @param expected
+     */
+    private ContentDigestVerifier(Map<DigestAlgorithm, byte[]> expected) {
+        this.expected = expected;
+    }
+
+    /**
+     * @param contentDigest dictionary of the Content-Digest field
+     * @return verifier of the members with a supported algorithm, see isSupported
+     */
+    public static ContentDigestVerifier of(SfDictionary contentDigest) {
+        Map<DigestAlgorithm, byte[]> expected = new EnumMap<>(DigestAlgorithm.class);
+        for (Map.Entry<String, SfMember> member : contentDigest.getMembers().entrySet()) {
+            DigestAlgorithm algorithm = DigestAlgorithm.forKey(member.getKey());
+            if (algorithm != null) {
+                expected.put(algorithm, expectedDigest(member.getValue()));
+            }
+        }
+        return new ContentDigestVerifier(expected);
+    }
+
+    /**
+     * @return true if the field has at least one member with a supported algorithm
+     */
+    public boolean isSupported() {
+        return !expected.isEmpty();
+    }
+
+    /**
+     * @return the algorithms of the digests to be computed
+     */
+    public Set<DigestAlgorithm> getAlgorithms() {
+        return Collections.unmodifiableSet(expected.keySet());
+    }
+
+    /**
+     * @param digests digests of the message body by algorithm
+     * @return true if the digest of every supported member matches, false if there is no supported member
+     */
+    public boolean verify(Map<DigestAlgorithm, byte[]> digests) {
+        if ((digests == null) || !isSupported()) {
+            return false;
+        }
+        boolean valid = true;
+        //all members are compared, the result does not depend on which member differs
+        for (Map.Entry<DigestAlgorithm, byte[]> member : expected.entrySet()) {
+            byte[] digest = digests.get(member.getKey());
+            valid &= (member.getValue() != null) && (digest != null) && MessageDigest.isEqual(member.getValue(), digest);
+        }
+        return valid;
+    }
+
+    /**
+     * @param body stream of the message body
+     * @return stream verifying the body against the Content-Digest field at the end of the stream
+     * @throws NoSuchAlgorithmException
+     */
+    public DigestVerifyingInputStream verifyingStream(InputStream body) throws NoSuchAlgorithmException {
+        return new DigestVerifyingInputStream(body, this);
+    }
+
+    /**
+     * @param member
+     * @return the bytes of a byte sequence member, null if the member is not a valid byte sequence
+     */
+    private static byte[] expectedDigest(SfMember member) {
+        if (!(member instanceof SfItem) || !(((SfItem) member).getValue() instanceof SfByteSequence)) {
+            return null;
+        }
+        try {
+            return ((SfByteSequence) ((SfItem) member).getValue()).getBytes();
+        } catch (IllegalArgumentException e) {
+            //invalid base64
+            return null;
+        }
+    }
+
+}
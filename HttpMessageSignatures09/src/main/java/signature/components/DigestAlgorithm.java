@@ -0,0 +1,135 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.components;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.Map;
+
+import signature.structuredfields.SfDictionary;
+import signature.structuredfields.SfItem;
+import signature.structuredfields.SfMember;
+
+/**
+ * Hash algorithms of the Content-Digest field (RFC 9530 section 5).
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public enum DigestAlgorithm {
+    SHA_256("sha-256", "SHA-256"), SHA_512("sha-512", "SHA-512");
+
+    /** key of the algorithm in the Content-Digest dictionary */
+    private final String key;
+    /** name of the algorithm in the Java Cryptography Architecture */
+    private final String jcaName;
+
+    DigestAlgorithm(String key, String jcaName) {
+        this.key = key;
+        this.jcaName = jcaName;
+    }
+
+    /**
+     * @return key of the algorithm in the Content-Digest dictionary
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return new MessageDigest of the algorithm
+     * @throws NoSuchAlgorithmException
+     */
+    public MessageDigest newMessageDigest() throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance(jcaName);
+    }
+
+    /**
+     * Selects the algorithm with the highest preference of a Want-Content-Digest field (RFC 9530 section 4).
+     * Preferences are integers from 0 to 10, 0 means not acceptable: an algorithm with weight 0 is only used if
+     * the peer excludes all supported algorithms, since the covered Content-Digest field needs one.
+     * @param preferences dictionary of the Want-Content-Digest field, may be null
+     * @param preferred algorithm used if the peer has no supported preference and in case of a tie
+     * @return the selected algorithm
+     */
+    public static DigestAlgorithm select(SfDictionary preferences, DigestAlgorithm preferred) {
+        if (preferences == null) {
+            return preferred;
+        }
+        DigestAlgorithm selected = null;
+        long selectedWeight = 0;
+        EnumSet<DigestAlgorithm> excluded = EnumSet.noneOf(DigestAlgorithm.class);
+        for (Map.Entry<String, SfMember> member : preferences.getMembers().entrySet()) {
+            DigestAlgorithm algorithm = forKey(member.getKey());
+            if ((algorithm == null) || !(member.getValue() instanceof SfItem)) {
+                continue;
+            }
+            Object weight = ((SfItem) member.getValue()).getValue();
+            if (!(weight instanceof Long)) {
+                continue;
+            }
+            long value = (Long) weight;
+            if (value <= 0) {
+                excluded.add(algorithm);
+            } else if ((value > selectedWeight) || ((value == selectedWeight) && (algorithm == preferred))) {
+                selected = algorithm;
+                selectedWeight = value;
+            }
+        }
+        if (selected != null) {
+            return selected;
+        }
+        if (!excluded.contains(preferred)) {
+            return preferred;
+        }
+        //next supported algorithm the peer has not excluded
+        for (DigestAlgorithm algorithm : values()) {
+            if (!excluded.contains(algorithm)) {
+                return algorithm;
+            }
+        }
+        return preferred;
+    }
+
+    /**
+     * Algorithms a peer following the Want-Content-Digest field may use, whatever algorithm it prefers itself.
+     * @param preferences dictionary of the Want-Content-Digest field, may be null
+     * @return the algorithms select returns for any preferred algorithm
+     */
+    public static EnumSet<DigestAlgorithm> candidates(SfDictionary preferences) {
+        EnumSet<DigestAlgorithm> candidates = EnumSet.noneOf(DigestAlgorithm.class);
+        for (DigestAlgorithm preferred : values()) {
+            candidates.add(select(preferences, preferred));
+        }
+        return candidates;
+    }
+
+    /**
+     * @param key key of the algorithm in the Content-Digest dictionary
+     * @return the algorithm, null if the algorithm is not supported
+     */
+    public static DigestAlgorithm forKey(String key) {
+        for (DigestAlgorithm algorithm : values()) {
+            if (algorithm.key.equals(key)) {
+                return algorithm;
+            }
+        }
+        return null;
+    }
+}
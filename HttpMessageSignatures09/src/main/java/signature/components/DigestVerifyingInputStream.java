@@ -0,0 +1,75 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.components;
+
+import java.io.InputStream;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+import exceptions.ContentDigestMismatchException;
+
+/**
+ * Stream of a message body that is verified against the Content-Digest field while the application reads it.
+ * The body is not buffered: every chunk read is passed to the digests, and at the end of the stream the digests are
+ * compared. If they do not match, the read reaching the end throws a ContentDigestMismatchException instead of
+ * returning -1, so the application must not commit its processing before the end of the stream has been read.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class DigestVerifyingInputStream extends DigestingInputStream {
+
+    /** verifier of the Content-Digest field */
+    private final ContentDigestVerifier verifier;
+    /** null until the end of the stream has been reached, then the verification result */
+    private Boolean verified;
+
+    /**
+     * Constructor.
+     * @param body stream of the message body
+     * @param verifier verifier of the Content-Digest field
+     * @throws NoSuchAlgorithmException
+     */
+    public DigestVerifyingInputStream(InputStream body, ContentDigestVerifier verifier)
+            throws NoSuchAlgorithmException {
+        super(body, verifier.getAlgorithms());
+        this.verifier = verifier;
+    }
+
+    /**
+     * @return true if the end of the stream has been reached and the body matches the Content-Digest field
+     */
+    public boolean isVerified() {
+        return Boolean.TRUE.equals(verified);
+    }
+
+    /**
+     * Compares the digests once and throws on every read at the end of the stream if they do not match.
+     * @see signature.components.DigestingInputStream#endOfStream(java.util.Map)
+     */
+    @Override
+    protected void endOfStream(Map<DigestAlgorithm, byte[]> bodyDigests) throws ContentDigestMismatchException {
+        if (verified == null) {
+            verified = verifier.verify(bodyDigests);
+        }
+        if (!verified) {
+            throw new ContentDigestMismatchException("Message body does not match the Content-Digest field");
+        }
+    }
+
+}
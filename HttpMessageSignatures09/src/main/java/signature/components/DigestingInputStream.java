@@ -0,0 +1,172 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.components;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+import signature.metrics.Metrics;
+
+/**
+ * Stream of a message body that is digested while the application reads it. Every chunk read is passed to the
+ * digests of the given algorithms, skipped octets are read and digested as well. When the end of the stream is
+ * reached, the digests are completed once and handed to endOfStream on every read returning -1, so a subclass can
+ * throw instead of signalling the end of a body that is not valid.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public abstract class DigestingInputStream extends FilterInputStream {
+
+    /** running digests by algorithm */
+    private final Map<DigestAlgorithm, MessageDigest> digests = new EnumMap<>(DigestAlgorithm.class);
+    /** completed digests by algorithm, null until the end of the stream has been reached */
+    private Map<DigestAlgorithm, byte[]> result;
+    /** number of body octets digested */
+    private long bytes;
+
+    /**
+     * Constructor.
+     * @param body stream of the message body
+     * @param algorithms algorithms of the digests to be computed
+     * @throws NoSuchAlgorithmException
+     */
+    protected DigestingInputStream(InputStream body, Collection<DigestAlgorithm> algorithms)
+            throws NoSuchAlgorithmException {
+        super(body);
+        for (DigestAlgorithm algorithm : algorithms) {
+            digests.put(algorithm, algorithm.newMessageDigest());
+        }
+    }
+
+    /** (non-Javadoc)
+     * @see java.io.FilterInputStream#read()
+     */
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value == -1) {
+            endOfStream(complete());
+        } else {
+            for (MessageDigest digest : digests.values()) {
+                digest.update((byte) value);
+            }
+            bytes++;
+        }
+        return value;
+    }
+
+    /** (non-Javadoc)
+     * @see java.io.FilterInputStream#read(byte[], int, int)
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read == -1) {
+            endOfStream(complete());
+        } else {
+            for (MessageDigest digest : digests.values()) {
+                digest.update(b, off, read);
+            }
+            bytes += read;
+        }
+        return read;
+    }
+
+    /**
+     * Skipped bytes are read, they have to be digested.
+     * @see java.io.FilterInputStream#skip(long)
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(SHAEncoder.BUFFER_SIZE, Math.max(n, 0))];
+        long skipped = 0;
+        while (skipped < n) {
+            int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (read == -1) {
+                break;
+            }
+            skipped += read;
+        }
+        return skipped;
+    }
+
+    /** (non-Javadoc)
+     * @see java.io.FilterInputStream#markSupported()
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /** (non-Javadoc)
+     * @see java.io.FilterInputStream#mark(int)
+     */
+    @Override
+    public synchronized void mark(int readlimit) {
+        //not supported, the digests cannot be reset
+    }
+
+    /** (non-Javadoc)
+     * @see java.io.FilterInputStream#reset()
+     */
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    /**
+     * @return the algorithms of the digests computed while the body is read
+     */
+    public Set<DigestAlgorithm> getDigestAlgorithms() {
+        return Collections.unmodifiableSet(digests.keySet());
+    }
+
+    /**
+     * Called on every read reaching the end of the stream, a subclass verifies the body once and throws on every
+     * call if it is not valid.
+     * @param bodyDigests digests of the body by algorithm, the same map on every call
+     * @throws IOException if the body is not valid
+     */
+    protected abstract void endOfStream(Map<DigestAlgorithm, byte[]> bodyDigests) throws IOException;
+
+    /**
+     * Completes the digests once.
+     * @return digests of the body by algorithm
+     */
+    private Map<DigestAlgorithm, byte[]> complete() {
+        if (result == null) {
+            Map<DigestAlgorithm, byte[]> completed = new EnumMap<>(DigestAlgorithm.class);
+            for (Map.Entry<DigestAlgorithm, MessageDigest> digest : digests.entrySet()) {
+                completed.put(digest.getKey(), digest.getValue().digest());
+            }
+            result = Collections.unmodifiableMap(completed);
+            Metrics.get().recordBodyBytes(bytes);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.components;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases memory-mapped buffers explicitly instead of waiting for the garbage collector, so the mappings of
+ * large files do not pile up and mapped files can be deleted (on Windows a mapped file cannot be deleted).
+ * Uses sun.misc.Unsafe.invokeCleaner on Java 9 and later and the cleaner of the buffer on Java 8; if neither is
+ * accessible the buffer is left to the garbage collector.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public final class MappedBuffers {
+
+    /** Unsafe instance of Java 9 and later, null if it is not available */
+    private static final Object UNSAFE;
+    /** Unsafe.invokeCleaner(ByteBuffer), null if it is not available */
+    private static final Method INVOKE_CLEANER;
+    /** DirectBuffer.cleaner() of Java 8, null if it is not available */
+    private static final Method CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        Method cleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            invokeCleaner = null;
+            try {
+                cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            } catch (ReflectiveOperationException | RuntimeException e2) {
+                //left to the garbage collector
+            }
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+        CLEANER = cleaner;
+    }
+
+    private MappedBuffers() {
+        throw new IllegalStateException("MappedBuffers class");
+    }
+
+    /**
+     * Unmaps the buffer. It must not be accessed afterwards, neither directly nor through a duplicate or slice.
+     * @param buffer mapped buffer, null is ignored
+     */
+    public static void unmap(MappedByteBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            if (INVOKE_CLEANER != null) {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } else if (CLEANER != null) {
+                Object cleaner = CLEANER.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            //left to the garbage collector
+        }
+    }
+
+}
@@ -16,10 +16,28 @@
 */
 package signature.components;
 
-import java.nio.charset.StandardCharsets;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+import org.apache.http.HttpEntity;
+
+import signature.messages.BodyCharset;
+
+import signature.metrics.Metrics;
 
 /**
  * Encoder hashs an input using the supported SHA functions SHA-256 and SHA-512.
@@ -30,31 +48,293 @@ import java.util.Base64;
  */
 public class SHAEncoder {
 
+    /** size of the buffer used to read a body stream */
+    public static final int BUFFER_SIZE = 8192;
+    /** size of the file regions mapped into memory at once */
+    public static final long MAPPED_REGION_SIZE = 64L * 1024 * 1024;
+
     private SHAEncoder() {
         throw new IllegalStateException("SHAEncoder class");
     }
 
     /**
-    * String hashed with SHA-256 hash function.
+    * Octets of the String in the default body charset (UTF-8, see BodyCharset) hashed with SHA-256 hash function.
     * @param the String to be hashed.
     * @return String of the hash
     */
     public static String hash256(String input) throws NoSuchAlgorithmException {
         MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        byte[] hash = digest.digest(input.getBytes(StandardCharsets.US_ASCII));
+        byte[] hash = digest.digest(input.getBytes(BodyCharset.DEFAULT));
         //add colon to identify end of hash value
         return Base64.getEncoder().encodeToString(hash) + ":";
     }
 
     /**
-     * String hashed with SHA-512 hash function.
+     * Octets of the String in the default body charset (UTF-8, see BodyCharset) hashed with SHA-512 hash function.
      * @param the String to be hashed.
      * @return String of the hash
      */
     public static String hash512(String input) throws NoSuchAlgorithmException {
         MessageDigest digest = MessageDigest.getInstance("SHA-512");
-        byte[] hash = digest.digest(input.getBytes(StandardCharsets.US_ASCII));
+        byte[] hash = digest.digest(input.getBytes(BodyCharset.DEFAULT));
         //add colon to identify end of hash value
         return Base64.getEncoder().encodeToString(hash) + ":";
     }
+
+    /**
+     * Remaining octets of a heap or direct buffer hashed without copying them, the position of the buffer is not
+     * changed.
+     * @param algorithm
+     * @param input
+     * @return the digest of the remaining octets
+     * @throws NoSuchAlgorithmException
+     */
+    public static byte[] digest(DigestAlgorithm algorithm, ByteBuffer input) throws NoSuchAlgorithmException {
+        return digest(EnumSet.of(algorithm), input).get(algorithm);
+    }
+
+    /**
+     * Remaining octets of a buffer hashed with several algorithms in one pass, every chunk of BUFFER_SIZE octets is
+     * fed to all digests before the next one.
+     * @param algorithms
+     * @param input
+     * @return the digests by algorithm
+     * @throws NoSuchAlgorithmException
+     */
+    public static Map<DigestAlgorithm, byte[]> digest(Collection<DigestAlgorithm> algorithms, ByteBuffer input)
+            throws NoSuchAlgorithmException {
+        Map<DigestAlgorithm, MessageDigest> digests = newDigests(algorithms);
+        ByteBuffer chunk = input.duplicate();
+        int end = chunk.limit();
+        while (chunk.position() < end) {
+            int start = chunk.position();
+            int chunkEnd = (int) Math.min((long) start + BUFFER_SIZE, end);
+            for (MessageDigest digest : digests.values()) {
+                chunk.limit(chunkEnd).position(start);
+                digest.update(chunk);
+            }
+        }
+        Metrics.get().recordBodyBytes(input.remaining());
+        return complete(digests);
+    }
+
+    /**
+     * Stream hashed incrementally with a fixed-size buffer, the stream is read to its end but not closed.
+     * @param algorithm
+     * @param input
+     * @return the digest of the stream
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static byte[] digest(DigestAlgorithm algorithm, InputStream input)
+            throws NoSuchAlgorithmException, IOException {
+        return digest(EnumSet.of(algorithm), input).get(algorithm);
+    }
+
+    /**
+     * Stream hashed with several algorithms in one pass, every buffer is fed to all digests.
+     * @param algorithms
+     * @param input
+     * @return the digests by algorithm
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static Map<DigestAlgorithm, byte[]> digest(Collection<DigestAlgorithm> algorithms, InputStream input)
+            throws NoSuchAlgorithmException, IOException {
+        Map<DigestAlgorithm, MessageDigest> digests = newDigests(algorithms);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long bytes = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            for (MessageDigest digest : digests.values()) {
+                digest.update(buffer, 0, read);
+            }
+            bytes += read;
+        }
+        Metrics.get().recordBodyBytes(bytes);
+        return complete(digests);
+    }
+
+    /**
+     * Content of an entity hashed incrementally. A non-repeatable entity is consumed.
+     * The content of a file-backed entity (e.g. FileEntity) is hashed from the memory-mapped file.
+     * @param algorithm
+     * @param entity
+     * @return the digest of the content
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static byte[] digest(DigestAlgorithm algorithm, HttpEntity entity)
+            throws NoSuchAlgorithmException, IOException {
+        return digest(EnumSet.of(algorithm), entity).get(algorithm);
+    }
+
+    /**
+     * Content of an entity hashed with several algorithms in one pass.
+     * An entity that produces its content only when it is written (e.g. GzipCompressingEntity) is written through
+     * the digests, so the digests cover the encoded octets and nothing is buffered.
+     * @param algorithms
+     * @param entity
+     * @return the digests by algorithm
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static Map<DigestAlgorithm, byte[]> digest(Collection<DigestAlgorithm> algorithms, HttpEntity entity)
+            throws NoSuchAlgorithmException, IOException {
+        InputStream content;
+        try {
+            content = entity.getContent();
+        } catch (UnsupportedOperationException e) {
+            return digestWritten(algorithms, entity);
+        }
+        try (InputStream input = content) {
+            if (input instanceof FileInputStream) {
+                return digest(algorithms, ((FileInputStream) input).getChannel());
+            }
+            return digest(algorithms, input);
+        }
+    }
+
+    /**
+     * @param algorithms
+     * @param entity
+     * @return the digests of the octets written by the entity
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    private static Map<DigestAlgorithm, byte[]> digestWritten(Collection<DigestAlgorithm> algorithms,
+            HttpEntity entity) throws NoSuchAlgorithmException, IOException {
+        Map<DigestAlgorithm, MessageDigest> digests = newDigests(algorithms);
+        long[] bytes = new long[1];
+        entity.writeTo(new OutputStream() {
+
+            @Override
+            public void write(int b) {
+                for (MessageDigest digest : digests.values()) {
+                    digest.update((byte) b);
+                }
+                bytes[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                for (MessageDigest digest : digests.values()) {
+                    digest.update(b, off, len);
+                }
+                bytes[0] += len;
+            }
+        });
+        Metrics.get().recordBodyBytes(bytes[0]);
+        return complete(digests);
+    }
+
+    /**
+     * File hashed from memory-mapped regions, the content is not copied onto the heap.
+     * @param algorithm
+     * @param file
+     * @return the digest of the file
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static byte[] digest(DigestAlgorithm algorithm, Path file) throws NoSuchAlgorithmException, IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return digest(EnumSet.of(algorithm), channel).get(algorithm);
+        }
+    }
+
+    /**
+     * Channel hashed from its current position to its end using memory-mapped regions of at most
+     * MAPPED_REGION_SIZE bytes. The position of the channel is not changed.
+     * @param algorithm
+     * @param channel
+     * @return the digest of the remaining content of the channel
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static byte[] digest(DigestAlgorithm algorithm, FileChannel channel)
+            throws NoSuchAlgorithmException, IOException {
+        return digest(EnumSet.of(algorithm), channel).get(algorithm);
+    }
+
+    /**
+     * Channel hashed with several algorithms in one pass, every mapped region is fed to all digests.
+     * @param algorithms
+     * @param channel
+     * @return the digests by algorithm
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static Map<DigestAlgorithm, byte[]> digest(Collection<DigestAlgorithm> algorithms, FileChannel channel)
+            throws NoSuchAlgorithmException, IOException {
+        return digest(algorithms, channel, MAPPED_REGION_SIZE);
+    }
+
+    /**
+     * Channel hashed with several algorithms in one pass from mapped regions of the given size. Each region is
+     * unmapped as soon as it has been digested.
+     * @param algorithms
+     * @param channel
+     * @param regionSize maximum size of a mapped region
+     * @return the digests by algorithm
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    public static Map<DigestAlgorithm, byte[]> digest(Collection<DigestAlgorithm> algorithms, FileChannel channel,
+            long regionSize) throws NoSuchAlgorithmException, IOException {
+        if (regionSize <= 0) {
+            throw new IllegalArgumentException("Region size must be positive");
+        }
+        Map<DigestAlgorithm, MessageDigest> digests = newDigests(algorithms);
+        long size = channel.size();
+        long position = channel.position();
+        while (position < size) {
+            long length = Math.min(regionSize, size - position);
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            try {
+                for (MessageDigest digest : digests.values()) {
+                    digest.update(region.duplicate());
+                }
+            } finally {
+                MappedBuffers.unmap(region);
+            }
+            position += length;
+        }
+        Metrics.get().recordBodyBytes(Math.max(size - channel.position(), 0));
+        return complete(digests);
+    }
+
+    /**
+     * @param algorithms
+     * @return new MessageDigest by algorithm
+     * @throws NoSuchAlgorithmException
+     */
+    private static Map<DigestAlgorithm, MessageDigest> newDigests(Collection<DigestAlgorithm> algorithms)
+            throws NoSuchAlgorithmException {
+        Map<DigestAlgorithm, MessageDigest> digests = new EnumMap<>(DigestAlgorithm.class);
+        for (DigestAlgorithm algorithm : algorithms) {
+            digests.put(algorithm, algorithm.newMessageDigest());
+        }
+        return digests;
+    }
+
+    /**
+     * @param digests
+     * @return the completed digests by algorithm
+     */
+    private static Map<DigestAlgorithm, byte[]> complete(Map<DigestAlgorithm, MessageDigest> digests) {
+        Map<DigestAlgorithm, byte[]> result = new EnumMap<>(DigestAlgorithm.class);
+        for (Map.Entry<DigestAlgorithm, MessageDigest> digest : digests.entrySet()) {
+            result.put(digest.getKey(), digest.getValue().digest());
+        }
+        return result;
+    }
+
+    /**
+     * @param algorithm
+     * @param digest
+     * @return member of the Content-Digest field, e.g. sha-256=:base64:
+     */
+    public static String contentDigestMember(DigestAlgorithm algorithm, byte[] digest) {
+        return algorithm.getKey() + "=:" + Base64.getEncoder().encodeToString(digest) + ":";
+    }
 }
@@ -0,0 +1,294 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.components;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.http.NameValuePair;
+import org.apache.http.message.BasicNameValuePair;
+
+import exceptions.SignatureParseException;
+import exceptions.SignatureParseException.Reason;
+import signature.messages.HeaderIndex;
+import signature.structuredfields.SfByteSequence;
+import signature.structuredfields.SfDictionary;
+import signature.structuredfields.SfInnerList;
+import signature.structuredfields.SfItem;
+import signature.structuredfields.SfMember;
+import signature.structuredfields.StructuredFieldLimits;
+import signature.structuredfields.StructuredFieldParser;
+import signature.structuredfields.StructuredFieldSerializer;
+
+/**
+ * Immutable model of one signature of a message: the label, the covered components and the signature parameters
+ * from the Signature-Input field and the signature bytes from the Signature field (section 4.1 and 4.2).
+ * Both fields are parsed once as dictionaries, see {@link #parse(HeaderIndex, StructuredFieldLimits, int)}.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class SignatureEntry {
+
+    /** label of the signature */
+    private final String label;
+    /** covered components as parsed, copied for every call of getCoveredComponents */
+    private final List<SfItem> components;
+    /** signature parameters in field order */
+    private final Map<String, Object> parameters;
+    /** signature bytes, null if the Signature field does not contain the label */
+    private final byte[] signature;
+
+    /**
+     * Constructor.
+     * @param label
+     * @param components
+     * @param parameters
+     * @param signature
+     */
+    private SignatureEntry(String label, List<SfItem> components, Map<String, Object> parameters, byte[] signature) {
+        this.label = label;
+        this.components = components;
+        this.parameters = parameters;
+        this.signature = signature;
+    }
+
+    /**
+     * Parses the Signature-Input and Signature fields of a message without limits.
+     * @param headers Index of the message headers.
+     * @return the signatures by label in the order of the Signature-Input field, empty if the field is missing
+     * @throws SignatureParseException if one of the fields is malformed
+     */
+    public static Map<String, SignatureEntry> parse(HeaderIndex headers) throws SignatureParseException {
+        return parse(headers, StructuredFieldLimits.UNLIMITED, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parses the Signature-Input and Signature fields of a message.
+     * The limits are enforced while parsing, the parse stops at the first label, component or parameter exceeding
+     * them. The parsed fields are stored in the header index for the creation of the signature base.
+     * @param headers Index of the message headers.
+     * @param limits maximum number of labels (members), components (inner list items) and parameters
+     * @param maxHeaderLength maximum number of characters of each field
+     * @return the signatures by label in the order of the Signature-Input field, empty if the field is missing
+     * @throws SignatureParseException if one of the fields is malformed or exceeds a limit
+     */
+    public static Map<String, SignatureEntry> parse(HeaderIndex headers, StructuredFieldLimits limits,
+            int maxHeaderLength) throws SignatureParseException {
+        SfDictionary inputs = parseField(headers, "signature-input", limits, maxHeaderLength);
+        if (inputs == null) {
+            return Collections.emptyMap();
+        }
+        SfDictionary signatures = parseField(headers, "signature", limits, maxHeaderLength);
+
+        Map<String, SignatureEntry> entries = new LinkedHashMap<>();
+        for (Map.Entry<String, SfMember> input : inputs.getMembers().entrySet()) {
+            String label = input.getKey();
+            if (!(input.getValue() instanceof SfInnerList)) {
+                throw new SignatureParseException(Reason.INVALID_MEMBER,
+                        "Signature-Input of " + label + " is not an inner list");
+            }
+            SfInnerList covered = (SfInnerList) input.getValue();
+
+            byte[] signature = null;
+            SfMember signatureMember = signatures != null ? signatures.get(label) : null;
+            if (signatureMember != null) {
+                Object value = signatureMember instanceof SfItem ? ((SfItem) signatureMember).getValue() : null;
+                if (!(value instanceof SfByteSequence)) {
+                    throw new SignatureParseException(Reason.INVALID_MEMBER,
+                            "Signature of " + label + " is not a byte sequence");
+                }
+                try {
+                    signature = ((SfByteSequence) value).getBytes();
+                } catch (IllegalArgumentException e) {
+                    throw new SignatureParseException(Reason.INVALID_MEMBER,
+                            "Signature of " + label + " is not valid base64");
+                }
+            }
+            entries.put(label, new SignatureEntry(label, covered.getItems(), covered.getParameters(), signature));
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * @param headers
+     * @param name
+     * @param limits
+     * @param maxHeaderLength
+     * @return the parsed dictionary, null if the message does not contain the field
+     * @throws SignatureParseException if the field is malformed or exceeds a limit
+     */
+    private static SfDictionary parseField(HeaderIndex headers, String name, StructuredFieldLimits limits,
+            int maxHeaderLength) throws SignatureParseException {
+        if (!headers.contains(name)) {
+            return null;
+        }
+        //checked before the values are combined
+        if (headers.getValueLength(name) > maxHeaderLength) {
+            throw new SignatureParseException(Reason.HEADER_TOO_LARGE, name + " exceeds " + maxHeaderLength
+                    + " characters");
+        }
+        StructuredFieldParser parser = new StructuredFieldParser(headers.getCombinedValue(name), limits);
+        SfDictionary dictionary = parser.dictionary();
+        if (dictionary == null) {
+            Reason reason = Reason.MALFORMED_FIELD;
+            if (parser.getExceededLimit() != null) {
+                switch (parser.getExceededLimit()) {
+                    case MEMBERS:
+                        reason = Reason.TOO_MANY_LABELS;
+                        break;
+                    case INNER_LIST_ITEMS:
+                        reason = Reason.TOO_MANY_COMPONENTS;
+                        break;
+                    default:
+                        reason = Reason.TOO_MANY_PARAMETERS;
+                }
+            }
+            throw new SignatureParseException(reason,
+                    name + ": " + parser.getError() + " at position " + parser.getErrorPosition());
+        }
+        headers.cacheStructuredField(name, dictionary);
+        return dictionary;
+    }
+
+    /**
+     * @return the label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * The components are created for every call, because the signature base creator sets their values.
+     * @return new list of the covered components
+     */
+    public List<Component> getCoveredComponents() {
+        List<Component> covered = new ArrayList<>(components.size());
+        for (SfItem item : components) {
+            String componentId = item.getValue().toString().toLowerCase(Locale.ROOT);
+            boolean req = false;
+            NameValuePair parameter = null;
+            for (Map.Entry<String, Object> entry : item.getParameters().entrySet()) {
+                if (entry.getKey().equals("req")) {
+                    req = true;
+                } else {
+                    parameter = new BasicNameValuePair(entry.getKey(), parameterValue(entry.getValue()));
+                }
+            }
+            if (parameter != null) {
+                covered.add(new Component(componentId, parameter, req));
+            } else {
+                covered.add(new Component(componentId, req));
+            }
+        }
+        return covered;
+    }
+
+    /**
+     * @return the signature parameters in field order
+     */
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @param name
+     * @return the parameter as string, null if the parameter is not contained
+     */
+    public String getParameter(String name) {
+        Object value = parameters.get(name);
+        return value != null ? parameterValue(value) : null;
+    }
+
+    /**
+     * @param name
+     * @return the integer parameter, null if the parameter is not contained
+     * @throws IllegalArgumentException if the parameter is not an integer
+     */
+    public Long getLongParameter(String name) {
+        Object value = parameters.get(name);
+        if ((value == null) || (value instanceof Long)) {
+            return (Long) value;
+        }
+        throw new IllegalArgumentException("Parameter " + name + " of " + label + " is not an integer");
+    }
+
+    /**
+     * @return the alg parameter
+     */
+    public String getAlgorithm() {
+        return getParameter("alg");
+    }
+
+    /**
+     * @return the keyid parameter
+     */
+    public String getKeyId() {
+        return getParameter("keyid");
+    }
+
+    /**
+     * @return the nonce parameter
+     */
+    public String getNonce() {
+        return getParameter("nonce");
+    }
+
+    /**
+     * @return the created parameter
+     */
+    public Long getCreated() {
+        return getLongParameter("created");
+    }
+
+    /**
+     * @return the expires parameter
+     */
+    public Long getExpires() {
+        return getLongParameter("expires");
+    }
+
+    /**
+     * @return the signature bytes, null if the Signature field does not contain the label
+     */
+    public byte[] getSignature() {
+        return signature != null ? signature.clone() : null;
+    }
+
+    /**
+     * Strings and tokens are returned as they are, flags (boolean true) as null.
+     * @param value
+     * @return value of a parameter as string
+     */
+    private static String parameterValue(Object value) {
+        if (Boolean.TRUE.equals(value)) {
+            return null;
+        }
+        if (value instanceof CharSequence) {
+            return value.toString();
+        }
+        StringBuilder builder = new StringBuilder();
+        StructuredFieldSerializer.serializeBareItem(value, builder);
+        return builder.toString();
+    }
+
+}
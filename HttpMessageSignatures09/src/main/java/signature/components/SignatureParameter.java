@@ -66,6 +66,21 @@ public class SignatureParameter {
      */
     private String dnsTarget;
 
+    /**
+     * Algorithm of the content-digest field created when signing.
+     */
+    private DigestAlgorithm contentDigestAlgorithm = DigestAlgorithm.SHA_256;
+
+    /**
+     * Optional: Want-Content-Digest field of the peer, its preferences override contentDigestAlgorithm.
+     */
+    private String wantContentDigest;
+
+    /**
+     * Optional: cache of the content-digest fields of bodies served repeatedly.
+     */
+    private ContentDigestCache contentDigestCache;
+
     /**
      * Constructor.
      * @param algorithm Algorithm used for the signature.
@@ -196,6 +211,11 @@ public class SignatureParameter {
         this.created = created;
     }
 
+    //for Verifying: a received signature may have expired, the expiry is checked by the verifier
+    public void setExpires(Long expires) {
+        this.expires = expires;
+    }
+
     /**
      * @return the expires
      */
@@ -263,4 +283,48 @@ public class SignatureParameter {
         this.dnsTarget = dnsTarget;
     }
 
+    /**
+     * @return the algorithm of the content-digest field created when signing
+     */
+    public DigestAlgorithm getContentDigestAlgorithm() {
+        return contentDigestAlgorithm;
+    }
+
+    /**
+     * @param contentDigestAlgorithm the algorithm of the content-digest field created when signing
+     */
+    public void setContentDigestAlgorithm(DigestAlgorithm contentDigestAlgorithm) {
+        this.contentDigestAlgorithm = contentDigestAlgorithm;
+    }
+
+    /**
+     * @return the Want-Content-Digest field of the peer, null if not set
+     */
+    public String getWantContentDigest() {
+        return wantContentDigest;
+    }
+
+    /**
+     * A response to a related request uses the Want-Content-Digest field of the request if none is set.
+     * @param wantContentDigest the Want-Content-Digest field of the peer, e.g. taken from a previous response
+     */
+    public void setWantContentDigest(String wantContentDigest) {
+        this.wantContentDigest = wantContentDigest;
+    }
+
+    /**
+     * @return the cache of the content-digest fields, null if not set
+     */
+    public ContentDigestCache getContentDigestCache() {
+        return contentDigestCache;
+    }
+
+    /**
+     * The cache is only used for messages with a body identity, see SignedHttpMessage.getBodyIdentity.
+     * @param contentDigestCache the cache of the content-digest fields, may be shared by several signatures
+     */
+    public void setContentDigestCache(ContentDigestCache contentDigestCache) {
+        this.contentDigestCache = contentDigestCache;
+    }
+
 }
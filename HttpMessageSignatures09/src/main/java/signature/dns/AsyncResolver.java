@@ -0,0 +1,58 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolves host names without blocking the caller, e.g. with an asynchronous DNS client.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+@FunctionalInterface
+public interface AsyncResolver {
+
+    /**
+     * @param host host name or IP address literal
+     * @return future of the addresses of the host, completed exceptionally with an UnknownHostException if the
+     *         host cannot be resolved
+     */
+    CompletableFuture<List<InetAddress>> resolve(String host);
+
+    /**
+     * @param executor executor of the blocking lookups
+     * @return resolver calling the resolver of the operating system with InetAddress.getAllByName
+     */
+    static AsyncResolver system(Executor executor) {
+        return host -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return Arrays.asList(InetAddress.getAllByName(host));
+            } catch (UnknownHostException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+}
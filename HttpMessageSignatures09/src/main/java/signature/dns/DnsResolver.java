@@ -0,0 +1,390 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.dns;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import signature.metrics.Metrics;
+
+/**
+ * Cache of the DNS lookups of the dns-target parameter.
+ *
+ * Resolved addresses are kept for the TTL, failed lookups for the negative TTL. Expired addresses are still returned
+ * while they are refreshed in the background, and kept if the refresh fails; it is retried after the negative TTL.
+ * A lookup without resolved addresses waits for the resolver, at most for the lookup timeout, also if another
+ * thread has started it. Concurrent lookups of a host share one request to the resolver.
+ *
+ * The addresses of the local host are computed once and refreshed in the background after the local refresh
+ * interval, so that changes of the network interfaces are taken over; refreshLocalAddresses updates them at once.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class DnsResolver {
+
+    /** addresses of a missing host, as returned by InetAddress.getByName(null) */
+    private static final List<InetAddress> LOOPBACK = Collections.singletonList(InetAddress.getLoopbackAddress());
+    /** resolver shared by the signers and verifiers */
+    private static volatile DnsResolver defaultResolver;
+
+    /** resolver of the host names */
+    private final AsyncResolver resolver;
+    /** executor of the refresh of the local addresses */
+    private final Executor executor;
+    /** time in seconds resolved addresses are cached */
+    private final long ttlSeconds;
+    /** time in seconds failed lookups are cached */
+    private final long negativeTtlSeconds;
+    /** time in milliseconds the first lookup of a host waits for the resolver */
+    private final long lookupTimeoutMillis;
+    /** time in seconds after which the local addresses are refreshed */
+    private final long localRefreshSeconds;
+    /** clock of the TTL */
+    private final Clock clock;
+    /** cached lookups by host name */
+    private final ConcurrentHashMap<String, Entry> cache = new ConcurrentHashMap<>();
+    /** true while the local addresses are refreshed */
+    private final AtomicBoolean localRefreshRunning = new AtomicBoolean();
+    /** addresses of the local host, null until computed */
+    private volatile LocalAddresses localAddresses;
+
+    /**
+     * @param resolver resolver of the host names
+     * @param executor executor of the refresh of the local addresses
+     * @param ttlSeconds time in seconds resolved addresses are cached
+     * @param negativeTtlSeconds time in seconds failed lookups are cached
+     * @param lookupTimeoutMillis time in milliseconds the first lookup of a host waits for the resolver
+     * @param localRefreshSeconds time in seconds after which the local addresses are refreshed
+     * @param clock clock of the TTL
+     */
+    public DnsResolver(AsyncResolver resolver, Executor executor, long ttlSeconds, long negativeTtlSeconds,
+            long lookupTimeoutMillis, long localRefreshSeconds, Clock clock) {
+        this.resolver = resolver;
+        this.executor = executor;
+        this.ttlSeconds = ttlSeconds;
+        this.negativeTtlSeconds = negativeTtlSeconds;
+        this.lookupTimeoutMillis = lookupTimeoutMillis;
+        this.localRefreshSeconds = localRefreshSeconds;
+        this.clock = clock;
+    }
+
+    /**
+     * @return resolver shared by the signers and verifiers: the resolver of the operating system on daemon
+     *         threads, with the TTLs of the security properties networkaddress.cache.ttl and
+     *         networkaddress.cache.negative.ttl
+     */
+    public static DnsResolver getDefault() {
+        DnsResolver resolver = defaultResolver;
+        if (resolver == null) {
+            synchronized (DnsResolver.class) {
+                resolver = defaultResolver;
+                if (resolver == null) {
+                    ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+                        Thread thread = new Thread(runnable, "dns-resolver");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    resolver = new DnsResolver(AsyncResolver.system(executor), executor,
+                            securityProperty("networkaddress.cache.ttl", 30),
+                            securityProperty("networkaddress.cache.negative.ttl", 10), 5000, 60,
+                            Clock.systemUTC());
+                    defaultResolver = resolver;
+                }
+            }
+        }
+        return resolver;
+    }
+
+    /**
+     * @param resolver resolver shared by the signers and verifiers
+     */
+    public static void setDefault(DnsResolver resolver) {
+        defaultResolver = resolver;
+    }
+
+    /**
+     * @param host host name, null for the loopback address like InetAddress.getByName, e.g. for the origin-form
+     *        target of a request
+     * @return addresses of the host, cached or expired while being refreshed; empty if the host cannot be resolved
+     */
+    public List<InetAddress> resolve(String host) {
+        if (host == null) {
+            return LOOPBACK;
+        }
+        long now = clock.millis();
+        Entry entry = cache.get(host);
+        //an expired entry is refreshed, it is not a hit
+        Metrics.get().recordCacheAccess("dns", (entry != null) && (now < entry.expiresAt));
+        if (entry == null) {
+            return await(lookup(host, null));
+        }
+        CompletableFuture<List<InetAddress>> refresh = now >= entry.expiresAt ? lookup(host, entry) : entry.refresh;
+        if (entry.addresses.isEmpty() && (refresh != null)) {
+            //no addresses to serve meanwhile, e.g. the first lookup of another thread is pending
+            return await(refresh);
+        }
+        return entry.addresses;
+    }
+
+    /**
+     * @param host host name, null for the loopback address
+     * @return future of the addresses of the host, completed at once if they are cached
+     */
+    public CompletableFuture<List<InetAddress>> resolveAsync(String host) {
+        if (host == null) {
+            return CompletableFuture.completedFuture(LOOPBACK);
+        }
+        long now = clock.millis();
+        Entry entry = cache.get(host);
+        Metrics.get().recordCacheAccess("dns", (entry != null) && (now < entry.expiresAt));
+        if (entry == null) {
+            return lookup(host, null);
+        }
+        CompletableFuture<List<InetAddress>> refresh = now >= entry.expiresAt ? lookup(host, entry) : entry.refresh;
+        if (entry.addresses.isEmpty() && (refresh != null)) {
+            return refresh;
+        }
+        return CompletableFuture.completedFuture(entry.addresses);
+    }
+
+    /**
+     * @param host host name, null for the loopback address
+     * @return first address of the host as text, null if the host cannot be resolved
+     */
+    public String getHostAddress(String host) {
+        List<InetAddress> addresses = resolve(host);
+        return addresses.isEmpty() ? null : addresses.get(0).getHostAddress();
+    }
+
+    /**
+     * Checks whether the dns-target of a request refers to this host.
+     * @param targetIp IP address of the dns-target parameter
+     * @param host host of the target URI: for localhost or no host (origin-form) the loopback addresses are
+     *        compared, else the addresses of the local host name and the network interfaces
+     * @return true if the IP address is an address of this host
+     */
+    public boolean isLocalAddress(String targetIp, String host) {
+        LocalAddresses local = getLocalAddresses();
+        return ((host == null) || "localhost".equals(host)) ? local.loopback.contains(targetIp)
+                : local.host.contains(targetIp);
+    }
+
+    /**
+     * Computes the local addresses again, e.g. after a change of the network configuration.
+     */
+    public void refreshLocalAddresses() {
+        localAddresses = computeLocalAddresses(clock.millis());
+    }
+
+    /**
+     * Removes all cached lookups.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * @return local addresses, computed once and refreshed in the background
+     */
+    private LocalAddresses getLocalAddresses() {
+        LocalAddresses local = localAddresses;
+        if (local == null) {
+            refreshLocalAddresses();
+            return localAddresses;
+        }
+        long now = clock.millis();
+        if ((now - local.computedAt >= TimeUnit.SECONDS.toMillis(localRefreshSeconds))
+                && localRefreshRunning.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        refreshLocalAddresses();
+                    } finally {
+                        localRefreshRunning.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                localRefreshRunning.set(false);
+            }
+        }
+        return local;
+    }
+
+    /**
+     * Starts the lookup of a host unless it is already running.
+     * @param host
+     * @param current cached entry, null if there is none
+     * @return future of the addresses, completed with the previous addresses or an empty list if the lookup fails
+     */
+    private CompletableFuture<List<InetAddress>> lookup(String host, Entry current) {
+        Entry running = current != null ? current : cache.get(host);
+        if ((running != null) && (running.refresh != null)) {
+            return running.refresh;
+        }
+        CompletableFuture<List<InetAddress>> refresh = new CompletableFuture<>();
+        Entry pending = new Entry(running != null ? running.addresses : Collections.emptyList(),
+                running != null ? running.expiresAt : 0, refresh);
+        boolean started = running == null ? (cache.putIfAbsent(host, pending) == null)
+                : cache.replace(host, running, pending);
+        if (!started) {
+            //another thread started the lookup meanwhile
+            Entry other = cache.get(host);
+            return (other != null) && (other.refresh != null) ? other.refresh
+                    : CompletableFuture.completedFuture(other != null ? other.addresses : Collections.emptyList());
+        }
+        CompletableFuture<List<InetAddress>> resolved;
+        try {
+            resolved = resolver.resolve(host);
+        } catch (RuntimeException e) {
+            resolved = new CompletableFuture<>();
+            resolved.completeExceptionally(e);
+        }
+        resolved.whenComplete((addresses, error) -> {
+            long now = clock.millis();
+            boolean failed = (error != null) || (addresses == null) || addresses.isEmpty();
+            //stale addresses are kept if the refresh fails, they are refreshed again after the negative TTL
+            List<InetAddress> result = failed ? pending.addresses : addresses;
+            long ttl = failed ? negativeTtlSeconds : ttlSeconds;
+            cache.put(host, new Entry(result, now + TimeUnit.SECONDS.toMillis(ttl), null));
+            refresh.complete(result);
+        });
+        return refresh;
+    }
+
+    /**
+     * @param lookup
+     * @return addresses of the lookup, empty if it fails or exceeds the lookup timeout
+     */
+    private List<InetAddress> await(CompletableFuture<List<InetAddress>> lookup) {
+        try {
+            return lookup.get(lookupTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            //the lookup goes on in the background and is cached when it completes
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @param now
+     * @return addresses of the local host name, the network interfaces and localhost
+     */
+    private static LocalAddresses computeLocalAddresses(long now) {
+        Set<String> loopback = new HashSet<>();
+        Set<String> host = new HashSet<>();
+        try {
+            for (InetAddress address : InetAddress.getAllByName("localhost")) {
+                loopback.add(address.getHostAddress());
+            }
+        } catch (UnknownHostException e) {
+            //no loopback addresses
+        }
+        try {
+            for (InetAddress address : InetAddress.getAllByName(InetAddress.getLocalHost().getHostName())) {
+                host.add(address.getHostAddress());
+            }
+        } catch (UnknownHostException e) {
+            //the local host name is not resolvable, the addresses of the interfaces remain
+        }
+        try {
+            for (NetworkInterface networkInterface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (networkInterface.isUp() && !networkInterface.isLoopback()) {
+                    for (InetAddress address : Collections.list(networkInterface.getInetAddresses())) {
+                        host.add(address.getHostAddress());
+                    }
+                }
+            }
+        } catch (SocketException e) {
+            //the addresses of the local host name remain
+        }
+        return new LocalAddresses(loopback, host, now);
+    }
+
+    /**
+     * @param name
+     * @param defaultValue
+     * @return value of the security property, the default value if it is not set or negative (cache forever)
+     */
+    private static long securityProperty(String name, long defaultValue) {
+        String value = Security.getProperty(name);
+        try {
+            long seconds = value != null ? Long.parseLong(value.trim()) : defaultValue;
+            return seconds >= 0 ? seconds : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Cached lookup of a host.
+     */
+    private static final class Entry {
+
+        /** addresses of the host, empty if the lookup failed */
+        final List<InetAddress> addresses;
+        /** time in epoch milliseconds until which the addresses are valid */
+        final long expiresAt;
+        /** running lookup, null if there is none */
+        final CompletableFuture<List<InetAddress>> refresh;
+
+        Entry(List<InetAddress> addresses, long expiresAt, CompletableFuture<List<InetAddress>> refresh) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+            this.refresh = refresh;
+        }
+    }
+
+    /**
+     * Addresses of the local host.
+     */
+    private static final class LocalAddresses {
+
+        /** addresses of localhost */
+        final Set<String> loopback;
+        /** addresses of the local host name and the network interfaces */
+        final Set<String> host;
+        /** time in epoch milliseconds of the computation */
+        final long computedAt;
+
+        LocalAddresses(Set<String> loopback, Set<String> host, long computedAt) {
+            this.loopback = loopback;
+            this.host = host;
+            this.computedAt = computedAt;
+        }
+    }
+
+}
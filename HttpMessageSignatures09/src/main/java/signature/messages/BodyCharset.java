@@ -0,0 +1,72 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.messages;
+
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+import org.apache.http.ParseException;
+import org.apache.http.entity.ContentType;
+
+/**
+ * The one rule for the charset of a message body that is given as String: the charset parameter of the
+ * Content-Type field, UTF-8 if there is none. Digests are always computed over octets; the rule only decides how a
+ * String body is encoded into them and how received octets are decoded, so all message adapters and the String
+ * helpers of SHAEncoder and SignaturBaseCreator produce the same digest for the same body.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public final class BodyCharset {
+
+    /** charset of a body without charset parameter */
+    public static final Charset DEFAULT = StandardCharsets.UTF_8;
+
+    private BodyCharset() {
+        throw new IllegalStateException("BodyCharset class");
+    }
+
+    /**
+     * @param headers header fields of the message
+     * @return charset of the Content-Type field, DEFAULT if the field has no valid charset parameter
+     */
+    public static Charset of(HeaderIndex headers) {
+        return forContentType(headers.getFirstValue("content-type"));
+    }
+
+    /**
+     * @param contentType value of the Content-Type field, may be null
+     * @return charset of the field, DEFAULT if the field has no valid charset parameter
+     */
+    public static Charset forContentType(String contentType) {
+        if (contentType != null) {
+            try {
+                Charset charset = ContentType.parse(contentType).getCharset();
+                if (charset != null) {
+                    return charset;
+                }
+            } catch (ParseException | UnsupportedCharsetException | IllegalCharsetNameException e) {
+                //malformed field or unsupported charset: the default is used
+            }
+        }
+        return DEFAULT;
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.messages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+import signature.components.DigestAlgorithm;
+import signature.components.SHAEncoder;
+
+/**
+ * Entity wrapper computing the digest of the content while it is streamed, e.g. by the HTTP client
+ * or by the application. The content is never buffered; the digest is available once the content has been
+ * read or written completely.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class DigestingHttpEntity extends HttpEntityWrapper {
+
+    /** algorithm of the digest */
+    private final DigestAlgorithm algorithm;
+    /** digest of the content, null until the content has been streamed completely */
+    private volatile byte[] digest;
+
+    /**
+     * Constructor.
+     * @param wrappedEntity
+     * @param algorithm
+     * @throws NoSuchAlgorithmException
+     */
+    public DigestingHttpEntity(HttpEntity wrappedEntity, DigestAlgorithm algorithm) throws NoSuchAlgorithmException {
+        super(wrappedEntity);
+        //fail early if the algorithm is not available
+        algorithm.newMessageDigest();
+        this.algorithm = algorithm;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.entity.HttpEntityWrapper#getContent()
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return new CompletingDigestInputStream(wrappedEntity.getContent(), newMessageDigest());
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.entity.HttpEntityWrapper#writeTo(java.io.OutputStream)
+     */
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        DigestOutputStream digestStream = new DigestOutputStream(outStream, newMessageDigest());
+        wrappedEntity.writeTo(digestStream);
+        digestStream.flush();
+        digest = digestStream.getMessageDigest().digest();
+    }
+
+    /**
+     * @return the algorithm of the digest
+     */
+    public DigestAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @return the digest of the content, null if the content has not been streamed completely
+     */
+    public byte[] getDigest() {
+        byte[] value = digest;
+        return value != null ? value.clone() : null;
+    }
+
+    /**
+     * @return member of the Content-Digest field, null if the content has not been streamed completely
+     */
+    public String getContentDigestMember() {
+        byte[] value = digest;
+        return value != null ? SHAEncoder.contentDigestMember(algorithm, value) : null;
+    }
+
+    /**
+     * @return new MessageDigest of the algorithm
+     */
+    private MessageDigest newMessageDigest() {
+        try {
+            return algorithm.newMessageDigest();
+        } catch (NoSuchAlgorithmException e) {
+            //checked in the constructor
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * DigestInputStream storing the digest in the entity when the end of the stream is reached.
+     */
+    private class CompletingDigestInputStream extends DigestInputStream {
+
+        /** true if the digest has been stored */
+        private boolean completed;
+
+        CompletingDigestInputStream(InputStream stream, MessageDigest digest) {
+            super(stream, digest);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value == -1) {
+                complete();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+                complete();
+            }
+            return read;
+        }
+
+        private void complete() {
+            if (!completed) {
+                completed = true;
+                DigestingHttpEntity.this.digest = getMessageDigest().digest();
+            }
+        }
+    }
+
+}
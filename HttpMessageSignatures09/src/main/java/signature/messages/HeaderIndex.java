@@ -0,0 +1,406 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.messages;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.http.Header;
+import org.apache.http.HttpMessage;
+
+import exceptions.StructuredFieldParseException;
+import signature.structuredfields.StructuredField;
+import signature.structuredfields.StructuredFieldParser;
+import signature.structuredfields.StructuredFieldType;
+
+/**
+ * Case-insensitive index of the header fields of a message.
+ * The headers are scanned once: the field names are hashed into an open-addressing table
+ * and the values of each field name are stored as one contiguous range, in message order.
+ * Structured field values are parsed at most once per field name and type.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class HeaderIndex {
+
+    /** order in which the type of an unknown structured field is tried, the most specific type first */
+    private static final StructuredFieldType[] GUESSED_TYPES = {StructuredFieldType.ITEM, StructuredFieldType.LIST,
+        StructuredFieldType.DICTIONARY};
+
+    /** lowercase field name of each distinct name */
+    private final String[] names;
+    /** hash of each distinct name */
+    private final int[] hashes;
+    /** open-addressing table: id of the distinct name + 1, 0 marks a free slot */
+    private final int[] table;
+    /** all field values, grouped by field name */
+    private final String[] values;
+    /** start of the value range of each name; the range of name i ends at rangeStart[i + 1] */
+    private final int[] rangeStart;
+    /** combined values (section 2.1), created on first access */
+    private final String[] combinedValues;
+    /** parsed structured fields or ParseFailures by name id and type, created on first access */
+    private Object[] structuredFields;
+    /** number of distinct field names */
+    private final int size;
+
+    /**
+     * Constructor.
+     * @param headers All header fields of the message.
+     */
+    public HeaderIndex(Header[] headers) {
+        this(namesOf(headers), valuesOf(headers));
+    }
+
+    /**
+     * Constructor for messages that do not use HttpCore headers.
+     * @param fieldNames names of all header fields of the message in message order
+     * @param fieldValues values of all header fields, fieldValues[i] belongs to fieldNames[i]
+     */
+    public HeaderIndex(String[] fieldNames, String[] fieldValues) {
+        int count = fieldNames.length;
+        table = new int[tableSize(count)];
+        int mask = table.length - 1;
+
+        String[] distinctNames = new String[count];
+        int[] distinctHashes = new int[count];
+        int[] nameIds = new int[count];
+        int[] valueCounts = new int[count + 1];
+        int distinct = 0;
+
+        for (int i = 0; i < count; i++) {
+            String name = fieldNames[i];
+            int hash = hash(name);
+            int slot = hash & mask;
+            int id = -1;
+            while (table[slot] != 0) {
+                int candidate = table[slot] - 1;
+                if ((distinctHashes[candidate] == hash) && distinctNames[candidate].equalsIgnoreCase(name)) {
+                    id = candidate;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (id < 0) {
+                id = distinct++;
+                distinctNames[id] = name.toLowerCase(Locale.ROOT);
+                distinctHashes[id] = hash;
+                table[slot] = id + 1;
+            }
+            nameIds[i] = id;
+            valueCounts[id + 1]++;
+        }
+
+        //prefix sums: start of the value range of each name
+        for (int i = 1; i <= distinct; i++) {
+            valueCounts[i] += valueCounts[i - 1];
+        }
+        rangeStart = Arrays.copyOf(valueCounts, distinct + 1);
+
+        values = new String[count];
+        int[] next = Arrays.copyOf(rangeStart, distinct);
+        for (int i = 0; i < count; i++) {
+            values[next[nameIds[i]]++] = fieldValues[i];
+        }
+
+        names = Arrays.copyOf(distinctNames, distinct);
+        hashes = Arrays.copyOf(distinctHashes, distinct);
+        combinedValues = new String[distinct];
+        size = distinct;
+    }
+
+    /**
+     * Returns the index of the message. The index of a SignedHttpMessage is reused as long as its headers are unchanged.
+     * @param message
+     * @return HeaderIndex of the message
+     */
+    public static HeaderIndex of(HttpMessage message) {
+        if (message instanceof SignedHttpMessage) {
+            return ((SignedHttpMessage) message).getHeaderIndex();
+        }
+        return new HeaderIndex(message.getAllHeaders());
+    }
+
+    /**
+     * @param name field name (case-insensitive)
+     * @return true if the message contains a field with this name
+     */
+    public boolean contains(String name) {
+        return find(name) >= 0;
+    }
+
+    /**
+     * @param name field name (case-insensitive)
+     * @return value of the first field with this name, null if there is no such field
+     */
+    public String getFirstValue(String name) {
+        int id = find(name);
+        if (id < 0) {
+            return null;
+        }
+        return values[rangeStart[id]];
+    }
+
+    /**
+     * @param name field name (case-insensitive)
+     * @return values of all fields with this name in message order, empty if there is no such field
+     */
+    public List<String> getValues(String name) {
+        int id = find(name);
+        if (id < 0) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(values).subList(rangeStart[id], rangeStart[id + 1]));
+    }
+
+    /**
+     * Multiple fields with the same name are combined into one value (section 2.1).
+     * @param name field name (case-insensitive)
+     * @return combined value, null if there is no such field
+     */
+    public String getCombinedValue(String name) {
+        int id = find(name);
+        if (id < 0) {
+            return null;
+        }
+        String combined = combinedValues[id];
+        if (combined == null) {
+            int start = rangeStart[id];
+            int end = rangeStart[id + 1];
+            if ((end - start) == 1) {
+                combined = values[start];
+            } else {
+                StringBuilder builder = new StringBuilder();
+                for (int i = start; i < end; i++) {
+                    if (i > start) {
+                        builder.append(", ");
+                    }
+                    builder.append(values[i]);
+                }
+                combined = builder.toString();
+            }
+            combinedValues[id] = combined;
+        }
+        return combined;
+    }
+
+    /**
+     * Parses the combined value of a field as structured field of the given type (RFC 8941).
+     * The result, or the parse failure, is cached for further calls; a cached failure is thrown as new exception.
+     * The type of a field that is not known must be given by the caller, see StructuredFieldType.forField.
+     * @param name field name (case-insensitive)
+     * @param type top-level type of the field
+     * @return the structured field, null if there is no such field
+     * @throws StructuredFieldParseException if the field value is not a valid structured field of this type
+     */
+    public StructuredField getStructuredField(String name, StructuredFieldType type) {
+        int id = find(name);
+        if (id < 0) {
+            return null;
+        }
+        if (structuredFields == null) {
+            structuredFields = new Object[size * StructuredFieldType.values().length];
+        }
+        int slot = (id * StructuredFieldType.values().length) + type.ordinal();
+        Object cached = structuredFields[slot];
+        if (cached == null) {
+            StructuredFieldParser parser = new StructuredFieldParser(getCombinedValue(name));
+            StructuredField field = parser.parse(type);
+            cached = field != null ? field
+                    : new ParseFailure(names[id] + ": " + parser.getError(), parser.getErrorPosition());
+            structuredFields[slot] = cached;
+        }
+        if (cached instanceof ParseFailure) {
+            ParseFailure failure = (ParseFailure) cached;
+            throw new StructuredFieldParseException(failure.message, failure.position);
+        }
+        return (StructuredField) cached;
+    }
+
+    /**
+     * Stores a field that was parsed outside of the index, e.g. with limits, for further calls of getStructuredField.
+     * @param name field name (case-insensitive)
+     * @param field the parsed combined value of the field
+     */
+    public void cacheStructuredField(String name, StructuredField field) {
+        int id = find(name);
+        if (id < 0) {
+            return;
+        }
+        if (structuredFields == null) {
+            structuredFields = new Object[size * StructuredFieldType.values().length];
+        }
+        structuredFields[(id * StructuredFieldType.values().length) + field.getType().ordinal()] = field;
+    }
+
+    /**
+     * @param name field name (case-insensitive)
+     * @return number of characters of the combined value of the field including the separators of repeated fields,
+     *         0 if there is no such field; the combined value is not created
+     */
+    public int getValueLength(String name) {
+        int id = find(name);
+        if (id < 0) {
+            return 0;
+        }
+        int start = rangeStart[id];
+        int end = rangeStart[id + 1];
+        //", " between the values of repeated fields
+        int length = 2 * (end - start - 1);
+        for (int i = start; i < end; i++) {
+            length += values[i] != null ? values[i].length() : 0;
+        }
+        return length;
+    }
+
+    /**
+     * Parses the combined value of a field as structured field.
+     * Known fields are parsed with their registered type. The type of other fields is determined by trying item,
+     * list and dictionary in this order, so that e.g. a token is not taken as a dictionary with one boolean member;
+     * callers knowing the type of the field use getStructuredField(name, type).
+     * @param name field name (case-insensitive)
+     * @return the structured field, null if there is no such field
+     * @throws StructuredFieldParseException if the field value is not a valid structured field
+     */
+    public StructuredField getStructuredField(String name) {
+        StructuredFieldType known = StructuredFieldType.forField(name);
+        if (known != null) {
+            return getStructuredField(name, known);
+        }
+        StructuredFieldParseException failure = null;
+        for (StructuredFieldType type : GUESSED_TYPES) {
+            try {
+                return getStructuredField(name, type);
+            } catch (StructuredFieldParseException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * @return lowercase names of all fields in the order of their first occurrence
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * @return number of distinct field names
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param name
+     * @return id of the distinct name, -1 if the name is not contained
+     */
+    private int find(String name) {
+        if (name == null) {
+            return -1;
+        }
+        int hash = hash(name);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            int id = table[slot] - 1;
+            if ((hashes[id] == hash) && names[id].equalsIgnoreCase(name)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @param headers
+     * @return names of the headers
+     */
+    private static String[] namesOf(Header[] headers) {
+        String[] fieldNames = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            fieldNames[i] = headers[i].getName();
+        }
+        return fieldNames;
+    }
+
+    /**
+     * @param headers
+     * @return values of the headers
+     */
+    private static String[] valuesOf(Header[] headers) {
+        String[] fieldValues = new String[headers.length];
+        for (int i = 0; i < headers.length; i++) {
+            fieldValues[i] = headers[i].getValue();
+        }
+        return fieldValues;
+    }
+
+    /**
+     * Case-insensitive hash of a field name, computed without creating a lowercase copy.
+     * @param name
+     * @return hash
+     */
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c >= 'A') && (c <= 'Z')) {
+                c = (char) (c + ('a' - 'A'));
+            } else if (c > 127) {
+                c = Character.toLowerCase(c);
+            }
+            hash = (31 * hash) + c;
+        }
+        //spread the higher bits, the table is indexed with the lower bits
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Cached failure of parsing a structured field.
+     */
+    private static final class ParseFailure {
+
+        /** message of the failure */
+        private final String message;
+        /** position in the field value at which parsing failed */
+        private final int position;
+
+        ParseFailure(String message, int position) {
+            this.message = message;
+            this.position = position;
+        }
+    }
+
+    /**
+     * @param count number of fields
+     * @return power of two with a load factor of at most 0.5
+     */
+    private static int tableSize(int count) {
+        int size = 8;
+        while (size < (count * 2)) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.messages;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.http.HttpMessage;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+
+import signature.components.DigestAlgorithm;
+
+/**
+ * Adapter of an HttpCore request or response to a SignableMessage.
+ * The message is wrapped in place: the header index refers to the headers of the message
+ * and the body is only read when it is accessed. A non-repeatable entity is spooled and set on the message,
+ * so the body can still be consumed afterwards.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class HttpCoreMessage implements SignableMessage {
+
+    /** wrapped message */
+    private final HttpMessage message;
+    /** related request of a response */
+    private final SignableMessage relatedRequest;
+    /** target URI of a request, parsed on first access */
+    private URI targetUri;
+    /** index of the header fields, created on first access */
+    private HeaderIndex headerIndex;
+    /** octets of the message body, read on first access */
+    private ByteBuffer messageBodyBytes;
+    /** decoded message body */
+    private String messageBody;
+    /** true if the body has been read */
+    private boolean bodyRead;
+
+    /**
+     * Constructor.
+     * @param message
+     * @param relatedRequest
+     */
+    private HttpCoreMessage(HttpMessage message, SignableMessage relatedRequest) {
+        this.message = message;
+        this.relatedRequest = relatedRequest;
+    }
+
+    /**
+     * @param request
+     * @return view of the request
+     */
+    public static SignableMessage of(HttpRequest request) {
+        if (request instanceof SignableMessage) {
+            return (SignableMessage) request;
+        }
+        return new HttpCoreMessage(request, null);
+    }
+
+    /**
+     * @param response
+     * @return view of the response
+     */
+    public static SignableMessage of(HttpResponse response) {
+        return of(response, null);
+    }
+
+    /**
+     * @param response
+     * @param relatedRequest request the response is related to (Request-Response Signature Binding), may be null
+     * @return view of the response
+     */
+    public static SignableMessage of(HttpResponse response, HttpRequest relatedRequest) {
+        if ((response instanceof SignableMessage) && (relatedRequest == null)) {
+            return (SignableMessage) response;
+        }
+        return new HttpCoreMessage(response, relatedRequest != null ? of(relatedRequest) : null);
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getMethod()
+     */
+    @Override
+    public String getMethod() {
+        if (message instanceof HttpRequest) {
+            return ((HttpRequest) message).getRequestLine().getMethod();
+        }
+        return null;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getTargetUri()
+     */
+    @Override
+    public URI getTargetUri() {
+        if ((targetUri == null) && (message instanceof HttpRequest)) {
+            try {
+                targetUri = new URI(((HttpRequest) message).getRequestLine().getUri());
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("Invalid target URI", e);
+            }
+        }
+        return targetUri;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getStatusCode()
+     */
+    @Override
+    public int getStatusCode() {
+        if (message instanceof HttpResponse) {
+            return ((HttpResponse) message).getStatusLine().getStatusCode();
+        }
+        return -1;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getHeaderIndex()
+     */
+    @Override
+    public HeaderIndex getHeaderIndex() {
+        if (headerIndex == null) {
+            headerIndex = HeaderIndex.of(message);
+        }
+        return headerIndex;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getMessageBody()
+     */
+    @Override
+    public String getMessageBody() {
+        if (messageBody == null) {
+            ByteBuffer body = getMessageBodyBytes();
+            if (body != null) {
+                messageBody = MessageEntities.decode(body, BodyCharset.of(getHeaderIndex()));
+            }
+        }
+        return messageBody;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getMessageBodyBytes()
+     */
+    @Override
+    public ByteBuffer getMessageBodyBytes() {
+        if (!bodyRead) {
+            try {
+                messageBodyBytes = MessageEntities.readBody(message);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bodyRead = true;
+        }
+        return messageBodyBytes != null ? messageBodyBytes.duplicate() : null;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#digestBody(java.util.Collection)
+     */
+    @Override
+    public Map<DigestAlgorithm, byte[]> digestBody(Collection<DigestAlgorithm> algorithms)
+            throws NoSuchAlgorithmException {
+        if (bodyRead) {
+            return SignableMessage.super.digestBody(algorithms);
+        }
+        //stream the entity instead of reading the body
+        try {
+            return MessageEntities.digestEntity(message, algorithms);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getRelatedRequest()
+     */
+    @Override
+    public SignableMessage getRelatedRequest() {
+        return relatedRequest;
+    }
+
+}
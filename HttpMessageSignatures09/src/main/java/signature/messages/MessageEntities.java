@@ -0,0 +1,170 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.messages;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpMessage;
+import org.apache.http.HttpResponse;
+import org.apache.http.util.EntityUtils;
+
+import signature.components.ContentCoding;
+import signature.components.DigestAlgorithm;
+import signature.components.SHAEncoder;
+import signature.metrics.Metrics;
+
+/**
+ * Access to the entity of an HttpCore message for the message body.
+ * The entity is only read when the body is actually needed. A repeatable entity is digested from its content,
+ * a non-repeatable entity is digested while it is spooled into a repeatable copy that is set on its message,
+ * so the application can still consume it and then close it to delete a spool file; see SpooledHttpEntity.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+final class MessageEntities {
+
+    /**
+     * Private constructor.
+     */
+    private MessageEntities() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * @param message
+     * @return the entity of a response or an entity enclosing request, null if the message has no entity
+     */
+    static HttpEntity getEntity(HttpMessage message) {
+        if (message instanceof HttpResponse) {
+            return ((HttpResponse) message).getEntity();
+        }
+        if (message instanceof HttpEntityEnclosingRequest) {
+            return ((HttpEntityEnclosingRequest) message).getEntity();
+        }
+        return null;
+    }
+
+    /**
+     * Returns an entity that can be read repeatedly. A non-repeatable entity is spooled and replaces the entity of
+     * the message. An entity encoding its content while it is written (e.g. GzipCompressingEntity) is spooled as
+     * well: the body is compressed once and the spooled octets are both digested and sent.
+     * @param message
+     * @return repeatable entity of the message, null if the message has no entity
+     * @throws IOException
+     */
+    static HttpEntity getRepeatableEntity(HttpMessage message) throws IOException {
+        HttpEntity entity = getEntity(message);
+        if ((entity == null) || (entity.isRepeatable() && !encodesOnWrite(entity))) {
+            return entity;
+        }
+        HttpEntity spooled = SpooledHttpEntity.spool(entity, Collections.emptyList());
+        setEntity(message, spooled);
+        return spooled;
+    }
+
+    /**
+     * Digests the content of the entity in one pass. A repeatable entity is streamed, or mapped if it is backed by
+     * a file; only an entity that cannot be read again is spooled, in the same pass, so it can still be sent or
+     * consumed afterwards.
+     * @param message
+     * @param algorithms
+     * @return the digests by algorithm, null if the message has no entity
+     * @throws IOException
+     * @throws NoSuchAlgorithmException
+     */
+    static Map<DigestAlgorithm, byte[]> digestEntity(HttpMessage message, Collection<DigestAlgorithm> algorithms)
+            throws IOException, NoSuchAlgorithmException {
+        HttpEntity entity = getEntity(message);
+        if (entity == null) {
+            return null;
+        }
+        if (entity.isRepeatable() && !encodesOnWrite(entity)) {
+            return SHAEncoder.digest(algorithms, entity);
+        }
+        Map<DigestAlgorithm, MessageDigest> digests = new EnumMap<>(DigestAlgorithm.class);
+        for (DigestAlgorithm algorithm : algorithms) {
+            digests.put(algorithm, algorithm.newMessageDigest());
+        }
+        HttpEntity spooled = SpooledHttpEntity.spool(entity, digests.values());
+        setEntity(message, spooled);
+        Metrics.get().recordBodyBytes(spooled.getContentLength());
+        Map<DigestAlgorithm, byte[]> result = new EnumMap<>(DigestAlgorithm.class);
+        for (Map.Entry<DigestAlgorithm, MessageDigest> digest : digests.entrySet()) {
+            result.put(digest.getKey(), digest.getValue().digest());
+        }
+        return result;
+    }
+
+    /**
+     * @param message response or entity enclosing request
+     * @param entity new entity of the message
+     */
+    private static void setEntity(HttpMessage message, HttpEntity entity) {
+        if (message instanceof HttpResponse) {
+            ((HttpResponse) message).setEntity(entity);
+        } else {
+            ((HttpEntityEnclosingRequest) message).setEntity(entity);
+        }
+    }
+
+    /**
+     * @param entity
+     * @return true if the entity has a content coding but no known length, i.e. the coding is applied on write
+     */
+    private static boolean encodesOnWrite(HttpEntity entity) {
+        Header contentEncoding = entity.getContentEncoding();
+        return (entity.getContentLength() < 0) && (contentEncoding != null)
+                && (ContentCoding.forHeader(contentEncoding.getValue()) != ContentCoding.IDENTITY);
+    }
+
+    /**
+     * @param message
+     * @return the octets of the message body as read-only buffer, null if the message has no entity
+     * @throws IOException
+     */
+    static ByteBuffer readBody(HttpMessage message) throws IOException {
+        HttpEntity entity = getRepeatableEntity(message);
+        if (entity == null) {
+            return null;
+        }
+        byte[] body = EntityUtils.toByteArray(entity);
+        return body != null ? ByteBuffer.wrap(body).asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * @param body
+     * @param charset
+     * @return the decoded body, the position of the buffer is not changed
+     */
+    static String decode(ByteBuffer body, Charset charset) {
+        return charset.decode(body.duplicate()).toString();
+    }
+
+}
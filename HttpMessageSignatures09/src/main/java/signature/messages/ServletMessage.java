@@ -0,0 +1,302 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.messages;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import signature.components.DigestAlgorithm;
+import signature.components.SHAEncoder;
+
+/**
+ * Adapter of a servlet request or response to a SignableMessage.
+ * The header fields are read from the servlet container once, when the header index is first accessed.
+ * The body of a request is read from its input stream on first access, so the adapter must be used before
+ * the application reads the stream (or on a request wrapper that caches the body). The content-digest is computed
+ * while the stream is read, without holding the body; the body is only held on the heap if it is accessed
+ * through getMessageBody, up to a maximum size. To verify large bodies while the application reads them, use
+ * HttpMessageSignerFacade.verifyingBodyStream instead.
+ * The body of a response cannot be read from the servlet API and has to be passed to the adapter.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class ServletMessage implements SignableMessage {
+
+    /** default maximum number of octets of a request body held on the heap */
+    public static final int DEFAULT_MAX_BODY_SIZE = 1024 * 1024;
+
+    /** wrapped request, null for a response */
+    private final HttpServletRequest request;
+    /** wrapped response, null for a request */
+    private final HttpServletResponse response;
+    /** related request of a response */
+    private final SignableMessage relatedRequest;
+    /** target URI of a request, created on first access */
+    private URI targetUri;
+    /** index of the header fields, created on first access */
+    private HeaderIndex headerIndex;
+    /** message body */
+    private String messageBody;
+    /** octets of the message body */
+    private ByteBuffer messageBodyBytes;
+    /** true if the body is known */
+    private boolean bodyRead;
+    /** true if the body has been digested from the input stream without being held */
+    private boolean bodyStreamed;
+    /** maximum number of octets of a request body held on the heap */
+    private final int maxBodySize;
+
+    /**
+     * Constructor.
+     * @param request
+     * @param response
+     * @param relatedRequest
+     * @param maxBodySize
+     */
+    private ServletMessage(HttpServletRequest request, HttpServletResponse response, SignableMessage relatedRequest,
+            int maxBodySize) {
+        this.request = request;
+        this.response = response;
+        this.relatedRequest = relatedRequest;
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * @param request
+     * @return view of the request, holding at most DEFAULT_MAX_BODY_SIZE octets of the body
+     */
+    public static SignableMessage of(HttpServletRequest request) {
+        return of(request, DEFAULT_MAX_BODY_SIZE);
+    }
+
+    /**
+     * @param request
+     * @param maxBodySize maximum number of octets of the body held on the heap by getMessageBody
+     * @return view of the request
+     */
+    public static SignableMessage of(HttpServletRequest request, int maxBodySize) {
+        return new ServletMessage(request, null, null, maxBodySize);
+    }
+
+    /**
+     * @param response
+     * @param responseBody body written to the response, may be null
+     * @param relatedRequest request the response is related to (Request-Response Signature Binding), may be null
+     * @return view of the response
+     */
+    public static SignableMessage of(HttpServletResponse response, String responseBody,
+            HttpServletRequest relatedRequest) {
+        ServletMessage message = new ServletMessage(null, response, relatedRequest != null ? of(relatedRequest) : null,
+                DEFAULT_MAX_BODY_SIZE);
+        message.messageBody = responseBody;
+        message.bodyRead = true;
+        return message;
+    }
+
+    /**
+     * @param response
+     * @param responseBody octets written to the response, may be null; the array is not copied
+     * @param relatedRequest request the response is related to (Request-Response Signature Binding), may be null
+     * @return view of the response
+     */
+    public static SignableMessage of(HttpServletResponse response, byte[] responseBody,
+            HttpServletRequest relatedRequest) {
+        ServletMessage message = new ServletMessage(null, response, relatedRequest != null ? of(relatedRequest) : null,
+                DEFAULT_MAX_BODY_SIZE);
+        message.messageBodyBytes = responseBody != null ? ByteBuffer.wrap(responseBody).asReadOnlyBuffer() : null;
+        message.bodyRead = true;
+        return message;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getMethod()
+     */
+    @Override
+    public String getMethod() {
+        return request != null ? request.getMethod() : null;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getTargetUri()
+     */
+    @Override
+    public URI getTargetUri() {
+        if ((targetUri == null) && (request != null)) {
+            StringBuffer url = request.getRequestURL();
+            if (request.getQueryString() != null) {
+                url.append('?').append(request.getQueryString());
+            }
+            try {
+                targetUri = new URI(url.toString());
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("Invalid target URI", e);
+            }
+        }
+        return targetUri;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getStatusCode()
+     */
+    @Override
+    public int getStatusCode() {
+        return response != null ? response.getStatus() : -1;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getHeaderIndex()
+     */
+    @Override
+    public HeaderIndex getHeaderIndex() {
+        if (headerIndex == null) {
+            List<String> names = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            if (request != null) {
+                Enumeration<String> headerNames = request.getHeaderNames();
+                while ((headerNames != null) && headerNames.hasMoreElements()) {
+                    String name = headerNames.nextElement();
+                    Enumeration<String> headerValues = request.getHeaders(name);
+                    while (headerValues.hasMoreElements()) {
+                        names.add(name);
+                        values.add(headerValues.nextElement());
+                    }
+                }
+            } else {
+                for (String name : response.getHeaderNames()) {
+                    Collection<String> headerValues = response.getHeaders(name);
+                    for (String value : headerValues) {
+                        names.add(name);
+                        values.add(value);
+                    }
+                }
+            }
+            headerIndex = new HeaderIndex(names.toArray(new String[0]), values.toArray(new String[0]));
+        }
+        return headerIndex;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getMessageBody()
+     */
+    @Override
+    public String getMessageBody() {
+        if (messageBody == null) {
+            ByteBuffer body = getMessageBodyBytes();
+            if (body != null) {
+                messageBody = MessageEntities.decode(body, BodyCharset.of(getHeaderIndex()));
+            }
+        }
+        return messageBody;
+    }
+
+    /**
+     * @see signature.messages.SignableMessage#getMessageBodyBytes()
+     * @throws UncheckedIOException if the request body cannot be read or exceeds the maximum size
+     * @throws IllegalStateException if the request body has already been digested from the input stream
+     */
+    @Override
+    public ByteBuffer getMessageBodyBytes() {
+        if (bodyStreamed) {
+            throw new IllegalStateException("The request body has been digested from its input stream");
+        }
+        if (!bodyRead) {
+            try {
+                messageBodyBytes = readBody();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            bodyRead = true;
+        }
+        if ((messageBodyBytes == null) && (messageBody != null)) {
+            messageBodyBytes = ByteBuffer.wrap(messageBody.getBytes(BodyCharset.of(getHeaderIndex())))
+                    .asReadOnlyBuffer();
+        }
+        return messageBodyBytes != null ? messageBodyBytes.duplicate() : null;
+    }
+
+    /**
+     * A request body that has not been read yet is digested from the input stream, it is not held on the heap.
+     * @see signature.messages.SignableMessage#digestBody(java.util.Collection)
+     */
+    @Override
+    public Map<DigestAlgorithm, byte[]> digestBody(Collection<DigestAlgorithm> algorithms)
+            throws NoSuchAlgorithmException {
+        if (bodyRead) {
+            return SignableMessage.super.digestBody(algorithms);
+        }
+        bodyRead = true;
+        bodyStreamed = true;
+        try (PushbackInputStream in = new PushbackInputStream(request.getInputStream())) {
+            int first = in.read();
+            if (first == -1) {
+                return null;
+            }
+            in.unread(first);
+            return SHAEncoder.digest(algorithms, in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getRelatedRequest()
+     */
+    @Override
+    public SignableMessage getRelatedRequest() {
+        return relatedRequest;
+    }
+
+    /**
+     * @return the octets of the body of the request, null if the body is empty
+     * @throws IOException if the body cannot be read or exceeds the maximum size
+     */
+    private ByteBuffer readBody() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = request.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > maxBodySize) {
+                    throw new IOException("Request body exceeds " + maxBodySize + " octets");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        if (body.size() == 0) {
+            return null;
+        }
+        return ByteBuffer.wrap(body.toByteArray()).asReadOnlyBuffer();
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.messages;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Map;
+
+import signature.components.DigestAlgorithm;
+import signature.components.SHAEncoder;
+
+/**
+ * Read-only view of an HTTP message for creating and verifying the signature base.
+ * Adapters wrap the messages of the different HTTP libraries in place, the headers and the body are not copied.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public interface SignableMessage {
+
+    /**
+     * @return the request method, null for a response
+     */
+    String getMethod();
+
+    /**
+     * @return the target URI of the request, null for a response
+     */
+    URI getTargetUri();
+
+    /**
+     * @return the status code of the response, -1 for a request
+     */
+    int getStatusCode();
+
+    /**
+     * @return index of the header fields of the message
+     */
+    HeaderIndex getHeaderIndex();
+
+    /**
+     * @return index of the trailer fields of the message, null if the message has no trailers (yet)
+     */
+    default HeaderIndex getTrailerIndex() {
+        return null;
+    }
+
+    /**
+     * @return the message body, null if the message has no body
+     */
+    String getMessageBody();
+
+    /**
+     * The digest of the body is computed over these octets. The default encodes the body with the charset of
+     * BodyCharset, adapters return the octets of the message without decoding them.
+     * @return read-only buffer with the octets of the message body, null if the message has no body
+     */
+    default ByteBuffer getMessageBodyBytes() {
+        String body = getMessageBody();
+        return body != null ? ByteBuffer.wrap(body.getBytes(BodyCharset.of(getHeaderIndex()))).asReadOnlyBuffer()
+                : null;
+    }
+
+    /**
+     * Computes the digest of the message body. Adapters with access to the entity stream it with a fixed-size
+     * buffer instead of reading the whole body into a String.
+     * @param algorithm
+     * @return the digest of the message body, null if the message has no body
+     * @throws NoSuchAlgorithmException
+     */
+    default byte[] digestBody(DigestAlgorithm algorithm) throws NoSuchAlgorithmException {
+        Map<DigestAlgorithm, byte[]> digests = digestBody(EnumSet.of(algorithm));
+        return digests != null ? digests.get(algorithm) : null;
+    }
+
+    /**
+     * Computes the digests of the message body with several algorithms, the body is only passed once.
+     * @param algorithms
+     * @return the digests of the message body by algorithm, null if the message has no body
+     * @throws NoSuchAlgorithmException
+     */
+    default Map<DigestAlgorithm, byte[]> digestBody(Collection<DigestAlgorithm> algorithms)
+            throws NoSuchAlgorithmException {
+        ByteBuffer body = getMessageBodyBytes();
+        return body != null ? SHAEncoder.digest(algorithms, body) : null;
+    }
+
+    /**
+     * @return the request a response is related to (Request-Response Signature Binding), null if there is none
+     */
+    default SignableMessage getRelatedRequest() {
+        return null;
+    }
+
+}
@@ -16,8 +16,23 @@
 */
 package signature.messages;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.HttpMessage;
 import org.apache.http.message.AbstractHttpMessage;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.HeaderGroup;
 
+import signature.components.ContentDigestCache;
+import signature.components.DigestAlgorithm;
 import signature.components.SignatureParameter;
 
 /**
@@ -27,7 +42,7 @@ import signature.components.SignatureParameter;
  * @company Koerber Pharma Software GmbH
  * @created 23.05.2022
  */
-public abstract class SignedHttpMessage extends AbstractHttpMessage {
+public abstract class SignedHttpMessage extends AbstractHttpMessage implements SignableMessage {
 
     /** signature parameter: contain all parameters belonging to the signature */
     protected SignatureParameter signatureParams;
@@ -37,8 +52,20 @@ public abstract class SignedHttpMessage extends AbstractHttpMessage {
     private String signatureInput;
     /** signaturebase */
     private String signatureBase;
-    /** message body */
+    /** message body, decoded from messageBodyBytes on first access */
     protected String messageBody;
+    /** octets of the message body, encoded from messageBody on first access */
+    private ByteBuffer messageBodyBytes;
+    /** index of the header fields, rebuilt after the headers have been changed */
+    private HeaderIndex headerIndex;
+    /** trailer fields, sent after a streamed body */
+    private final HeaderGroup trailers = new HeaderGroup();
+    /** index of the trailer fields, rebuilt after the trailers have been changed */
+    private HeaderIndex trailerIndex;
+    /** original message whose entity is read on first access of the message body */
+    private HttpMessage bodySource;
+    /** identity of the body for the content-digest cache */
+    private String bodyIdentity;
 
     /**
      * Constructor.
@@ -99,13 +126,286 @@ public abstract class SignedHttpMessage extends AbstractHttpMessage {
     }
 
     /**
+     * @return index of the current header fields of the message
+     */
+    @Override
+    public HeaderIndex getHeaderIndex() {
+        if (headerIndex == null) {
+            headerIndex = new HeaderIndex(getAllHeaders());
+        }
+        return headerIndex;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.message.AbstractHttpMessage#addHeader(org.apache.http.Header)
+     */
+    @Override
+    public void addHeader(Header header) {
+        super.addHeader(header);
+        headerIndex = null;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.message.AbstractHttpMessage#addHeader(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void addHeader(String name, String value) {
+        super.addHeader(name, value);
+        headerIndex = null;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.message.AbstractHttpMessage#setHeader(org.apache.http.Header)
+     */
+    @Override
+    public void setHeader(Header header) {
+        super.setHeader(header);
+        headerIndex = null;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.message.AbstractHttpMessage#setHeader(java.lang.String, java.lang.String)
+     */
+    @Override
+    public void setHeader(String name, String value) {
+        super.setHeader(name, value);
+        headerIndex = null;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.message.AbstractHttpMessage#setHeaders(org.apache.http.Header[])
+     */
+    @Override
+    public void setHeaders(Header[] headers) {
+        super.setHeaders(headers);
+        headerIndex = null;
+    }
+
+    /**
+     * @param name
+     * @param value
+     */
+    public void addTrailer(String name, String value) {
+        trailers.addHeader(new BasicHeader(name, value));
+        trailerIndex = null;
+    }
+
+    /**
+     * @param name
+     * @param value
+     */
+    public void setTrailer(String name, String value) {
+        trailers.updateHeader(new BasicHeader(name, value));
+        trailerIndex = null;
+    }
+
+    /**
+     * @param trailerFields the trailer fields of the message, replaces the current trailers
+     */
+    public void setTrailers(Header[] trailerFields) {
+        trailers.setHeaders(trailerFields);
+        trailerIndex = null;
+    }
+
+    /**
+     * @return the trailer fields of the message
+     */
+    public Header[] getTrailers() {
+        return trailers.getAllHeaders();
+    }
+
+    /**
+     * @return index of the trailer fields, null if the message has no trailers
+     */
+    @Override
+    public HeaderIndex getTrailerIndex() {
+        if ((trailerIndex == null) && trailers.iterator().hasNext()) {
+            trailerIndex = new HeaderIndex(trailers.getAllHeaders());
+        }
+        return trailerIndex;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.message.AbstractHttpMessage#removeHeader(org.apache.http.Header)
+     */
+    @Override
+    public void removeHeader(Header header) {
+        super.removeHeader(header);
+        headerIndex = null;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.message.AbstractHttpMessage#removeHeaders(java.lang.String)
+     */
+    @Override
+    public void removeHeaders(String name) {
+        super.removeHeaders(name);
+        headerIndex = null;
+    }
+
+    /**
+     * @param bodyIdentity identity of the body for the content-digest cache, e.g. ContentDigestCache.fileKey;
+     *        it must change whenever the octets of the body change
+     */
+    public void setBodyIdentity(String bodyIdentity) {
+        this.bodyIdentity = bodyIdentity;
+    }
+
+    /**
+     * @return identity of the body for the content-digest cache: the identity set by the application, otherwise
+     *         derived from a strong ETag field, the effective request URI and the content coding; null if the body
+     *         has no identity, e.g. a response without its request, or if the response has no content
+     */
+    public String getBodyIdentity() {
+        if (isWithoutContent()) {
+            //the ETag of a 304 or HEAD response identifies the selected representation, not the empty body
+            return null;
+        }
+        if (bodyIdentity != null) {
+            return bodyIdentity;
+        }
+        return ContentDigestCache.etagKey(getHeaderIndex().getFirstValue("etag"), getResource(),
+                getHeaderIndex().getCombinedValue("content-encoding"));
+    }
+
+    /**
+     * @return true for a response that never has content: 1xx, 204, 304 and the response to HEAD
+     */
+    private boolean isWithoutContent() {
+        int status = getStatusCode();
+        if (status < 0) {
+            return false;
+        }
+        if ((status < 200) || (status == 204) || (status == 304)) {
+            return true;
+        }
+        return (getRelatedRequest() != null) && "HEAD".equalsIgnoreCase(getRelatedRequest().getMethod());
+    }
+
+    /**
+     * @return effective request URI of the resource without scheme, e.g. //example.com/foo?a=b; null if it is
+     *         not known
+     */
+    private String getResource() {
+        SignableMessage request = getRelatedRequest() != null ? getRelatedRequest() : this;
+        URI target = request.getTargetUri();
+        if (target == null) {
+            return null;
+        }
+        String authority = target.getRawAuthority();
+        if (authority == null) {
+            //origin-form of the request line, the authority is taken from the Host field
+            authority = request.getHeaderIndex().getFirstValue("host");
+            if (authority == null) {
+                return null;
+            }
+        }
+        String path = (target.getRawPath() == null) || target.getRawPath().isEmpty() ? "/" : target.getRawPath();
+        String query = target.getRawQuery() != null ? "?" + target.getRawQuery() : "";
+        return "//" + authority.trim().toLowerCase(Locale.ROOT) + path + query;
+    }
+
+    /**
+     * The entity of the source message is only read if the message body is accessed,
+     * e.g. because content-digest is covered and has to be computed or verified.
+     * Otherwise the entity stays untouched and can be streamed by the application.
+     * @param bodySource response or entity enclosing request providing the message body
+     */
+    public void setBodySource(HttpMessage bodySource) {
+        this.bodySource = bodySource;
+    }
+
+    /**
+     * Reads the body from the source message once. A non-repeatable entity is spooled and set on the source message.
+     * @return the octets of the body of the source message, null if there is no source or entity
+     */
+    protected ByteBuffer readBodySource() {
+        if (bodySource == null) {
+            return null;
+        }
+        try {
+            return MessageEntities.readBody(bodySource);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            bodySource = null;
+        }
+    }
+
+    /**
+     * The entity of the source message is streamed if the body has not been read yet.
+     * @see signature.messages.SignableMessage#digestBody(java.util.Collection)
+     */
+    @Override
+    public Map<DigestAlgorithm, byte[]> digestBody(Collection<DigestAlgorithm> algorithms)
+            throws NoSuchAlgorithmException {
+        if ((messageBody != null) || (messageBodyBytes != null) || (bodySource == null)) {
+            return SignableMessage.super.digestBody(algorithms);
+        }
+        try {
+            return MessageEntities.digestEntity(bodySource, algorithms);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The body is encoded with the charset of the Content-Type field (default UTF-8) when its octets are needed.
      * @param messageBody
      */
-    public abstract void setMessageBody(String messageBody);
+    public void setMessageBody(String messageBody) {
+        this.messageBody = messageBody;
+        messageBodyBytes = null;
+        bodySource = null;
+    }
 
     /**
-     * @return the messageBody
+     * The array is not copied and must not be changed afterwards.
+     * @param messageBody octets of the message body
      */
-    public abstract String getMessageBody();
+    public void setMessageBody(byte[] messageBody) {
+        setMessageBody(messageBody != null ? ByteBuffer.wrap(messageBody) : null);
+    }
+
+    /**
+     * The remaining octets of the buffer are the body, the buffer may be direct. It is not copied and
+     * must not be changed afterwards.
+     * @param messageBody octets of the message body
+     */
+    public void setMessageBody(ByteBuffer messageBody) {
+        messageBodyBytes = messageBody != null ? messageBody.slice().asReadOnlyBuffer() : null;
+        this.messageBody = null;
+        bodySource = null;
+    }
+
+    /**
+     * @return the messageBody, decoded with the charset of the Content-Type field (default UTF-8)
+     */
+    @Override
+    public String getMessageBody() {
+        if (messageBody == null) {
+            ByteBuffer body = getMessageBodyBytes();
+            if (body != null) {
+                messageBody = MessageEntities.decode(body, BodyCharset.of(getHeaderIndex()));
+            }
+        }
+        return messageBody;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getMessageBodyBytes()
+     */
+    @Override
+    public ByteBuffer getMessageBodyBytes() {
+        if (messageBodyBytes == null) {
+            if (messageBody != null) {
+                messageBodyBytes = ByteBuffer
+                        .wrap(messageBody.getBytes(BodyCharset.of(getHeaderIndex()))).asReadOnlyBuffer();
+            } else {
+                messageBodyBytes = readBodySource();
+            }
+        }
+        return messageBodyBytes != null ? messageBodyBytes.duplicate() : null;
+    }
 
 }
@@ -16,10 +16,8 @@
 */
 package signature.messages;
 
-import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.UnknownHostException;
 
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpVersion;
@@ -27,6 +25,7 @@ import org.apache.http.ProtocolVersion;
 import org.apache.http.message.BasicRequestLine;
 
 import signature.components.SignatureParameter;
+import signature.dns.DnsResolver;
 
 /**
  * SignedHttpRequest contains attributes of a signed request.
@@ -99,6 +98,7 @@ public class SignedHttpRequest extends SignedHttpMessage implements HttpRequest
     /**
      * @return the method
      */
+    @Override
     public String getMethod() {
         return method;
     }
@@ -129,36 +129,39 @@ public class SignedHttpRequest extends SignedHttpMessage implements HttpRequest
         return uri;
     }
 
-    /**
-    * @param messageBody
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getTargetUri()
      */
     @Override
-    public void setMessageBody(String messageBody) {
-        this.messageBody = messageBody;
-
+    public URI getTargetUri() {
+        return uri;
     }
 
-    /**
-     * return the messageBody
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getStatusCode()
      */
     @Override
-    public String getMessageBody() {
-
-        return messageBody;
+    public int getStatusCode() {
+        return -1;
     }
 
     /** (non-Javadoc)
-     * set dns-target parameter
+     * set dns-target parameter with the cached lookups of the default resolver
      */
     public void setDnsTarget() {
-        try {
+        setDnsTarget(DnsResolver.getDefault());
+    }
 
-            String host = uri.getHost();
-            super.signatureParams.setDnsTarget(InetAddress.getByName(host).getHostAddress());
-        } catch (UnknownHostException e) {
-            e.printStackTrace();
+    /**
+     * Sets the dns-target parameter to the address of the target host, or to the loopback address for an
+     * origin-form target without a host; it is not set if the host cannot be resolved.
+     * @param resolver resolver of the target host
+     */
+    public void setDnsTarget(DnsResolver resolver) {
+        String address = resolver.getHostAddress(uri.getHost());
+        if (address != null) {
+            super.signatureParams.setDnsTarget(address);
         }
-
     }
 
 }
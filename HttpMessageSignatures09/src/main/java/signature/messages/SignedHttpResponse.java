@@ -16,6 +16,7 @@
 */
 package signature.messages;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Locale;
 
@@ -237,21 +238,35 @@ public class SignedHttpResponse extends SignedHttpMessage implements HttpRespons
     }
 
     /** (non-Javadoc)
-     * @see signature.messages.SignedHttpMessage#setMessageBody(java.lang.String)
+     * @see signature.messages.SignableMessage#getRelatedRequest()
      */
     @Override
-    public void setMessageBody(String messageBody) {
-        this.messageBody = messageBody;
+    public SignableMessage getRelatedRequest() {
+        return relatedRequest != null ? HttpCoreMessage.of(relatedRequest) : null;
+    }
 
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getMethod()
+     */
+    @Override
+    public String getMethod() {
+        return null;
     }
 
     /** (non-Javadoc)
-     * @see signature.messages.SignedHttpMessage#getMessageBody()
+     * @see signature.messages.SignableMessage#getTargetUri()
      */
     @Override
-    public String getMessageBody() {
+    public URI getTargetUri() {
+        return null;
+    }
 
-        return messageBody;
+    /** (non-Javadoc)
+     * @see signature.messages.SignableMessage#getStatusCode()
+     */
+    @Override
+    public int getStatusCode() {
+        return getStatusLine().getStatusCode();
     }
 
     /**
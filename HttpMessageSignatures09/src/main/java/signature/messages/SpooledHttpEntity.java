@@ -0,0 +1,282 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.messages;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.AbstractHttpEntity;
+
+/**
+ * Repeatable copy of a non-repeatable entity, made while the content is digested in the same pass.
+ * Content up to MEMORY_THRESHOLD octets is kept on the heap, larger content is spooled to a temporary file,
+ * so a large body is neither held in memory nor read twice. The file is deleted when the entity is closed, e.g. by
+ * the application once the message has been sent or consumed. The file of an entity that is not closed is deleted
+ * once the entity is no longer referenced; such stale files are removed when the next body is spooled.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+final class SpooledHttpEntity extends AbstractHttpEntity implements Closeable {
+
+    /** content up to this number of octets is kept on the heap */
+    static final int MEMORY_THRESHOLD = 64 * 1024;
+
+    /** entities that are no longer referenced */
+    private static final ReferenceQueue<SpooledHttpEntity> RELEASED = new ReferenceQueue<>();
+    /** references to the entities with a spool file, kept until the file is deleted */
+    private static final Set<SpoolFile> SPOOL_FILES = ConcurrentHashMap.newKeySet();
+
+    /** content kept on the heap, null if the content is in the file */
+    private final byte[] content;
+    /** spool file, null if the content is kept on the heap */
+    private final File file;
+    /** number of octets of the content */
+    private final long length;
+    /** reference deleting the spool file, null if the content is kept on the heap or the file has been deleted */
+    private SpoolFile spoolFile;
+
+    /**
+     * @param source entity whose content type, encoding and chunking are taken over
+     * @param content
+     * @param file
+     * @param length
+     */
+    private SpooledHttpEntity(HttpEntity source, byte[] content, File file, long length) {
+        this.content = content;
+        this.file = file;
+        this.length = length;
+        setContentType(source.getContentType());
+        setContentEncoding(source.getContentEncoding());
+        setChunked(source.isChunked());
+    }
+
+    /**
+     * Writes the entity through the digests into a spool. An entity that encodes its content while it is written
+     * (e.g. GzipCompressingEntity) is spooled in its encoded form.
+     * @param entity non-repeatable entity, it is consumed
+     * @param digests digests updated with the octets of the content
+     * @return repeatable entity with the same content
+     * @throws IOException
+     */
+    static SpooledHttpEntity spool(HttpEntity entity, Collection<MessageDigest> digests) throws IOException {
+        deleteReleasedFiles();
+        SpoolOutputStream spool = new SpoolOutputStream(digests);
+        boolean spooled = false;
+        try {
+            entity.writeTo(spool);
+            spooled = true;
+        } finally {
+            spool.close();
+            if (!spooled && (spool.file != null)) {
+                spool.file.delete();
+            }
+        }
+        SpooledHttpEntity copy = new SpooledHttpEntity(entity,
+                spool.file == null ? Arrays.copyOf(spool.buffer, spool.count) : null, spool.file, spool.length);
+        if (spool.file != null) {
+            copy.spoolFile = new SpoolFile(copy, spool.file);
+            SPOOL_FILES.add(copy.spoolFile);
+        }
+        return copy;
+    }
+
+    /**
+     * @return true if the content has been spooled to a file
+     */
+    boolean isSpooledToFile() {
+        return file != null;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.HttpEntity#isRepeatable()
+     */
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.HttpEntity#getContentLength()
+     */
+    @Override
+    public long getContentLength() {
+        return length;
+    }
+
+    /**
+     * The stream of a spooled file is a FileInputStream, so the content can be digested from the mapped file.
+     * @see org.apache.http.HttpEntity#getContent()
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return file != null ? new FileInputStream(checkFile()) : new ByteArrayInputStream(content);
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.HttpEntity#writeTo(java.io.OutputStream)
+     */
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        if (file == null) {
+            outStream.write(content);
+            return;
+        }
+        try (InputStream input = new FileInputStream(checkFile())) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                outStream.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /** (non-Javadoc)
+     * @see org.apache.http.HttpEntity#isStreaming()
+     */
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    /**
+     * Deletes the spool file at once; the content cannot be read afterwards. Content kept on the heap stays
+     * readable.
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public synchronized void close() {
+        if (spoolFile != null) {
+            SPOOL_FILES.remove(spoolFile);
+            spoolFile.clear();
+            spoolFile = null;
+            file.delete();
+        }
+    }
+
+    /**
+     * @return the spool file
+     * @throws IOException if the file has been deleted by close
+     */
+    private synchronized File checkFile() throws IOException {
+        if (spoolFile == null) {
+            throw new IOException("Spooled content has been released");
+        }
+        return file;
+    }
+
+    /**
+     * Deletes the spool files of the entities that are no longer referenced.
+     */
+    private static void deleteReleasedFiles() {
+        Reference<? extends SpooledHttpEntity> released;
+        while ((released = RELEASED.poll()) != null) {
+            SpoolFile spoolFile = (SpoolFile) released;
+            SPOOL_FILES.remove(spoolFile);
+            spoolFile.file.delete();
+        }
+    }
+
+    /**
+     * Reference deleting the spool file of an entity once the entity is no longer referenced.
+     */
+    private static final class SpoolFile extends PhantomReference<SpooledHttpEntity> {
+
+        /** spool file of the entity */
+        private final File file;
+
+        SpoolFile(SpooledHttpEntity entity, File file) {
+            super(entity, RELEASED);
+            this.file = file;
+        }
+    }
+
+    /**
+     * Stream updating the digests and keeping the octets on the heap until MEMORY_THRESHOLD is exceeded.
+     */
+    private static final class SpoolOutputStream extends OutputStream {
+
+        /** digests of the content */
+        private final Collection<MessageDigest> digests;
+        /** octets on the heap */
+        private byte[] buffer = new byte[1024];
+        /** number of octets in the buffer */
+        private int count;
+        /** number of octets written */
+        private long length;
+        /** spool file, created when the threshold is exceeded */
+        private File file;
+        /** stream of the spool file */
+        private OutputStream fileStream;
+
+        SpoolOutputStream(Collection<MessageDigest> digests) {
+            this.digests = digests;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            for (MessageDigest digest : digests) {
+                digest.update(b, off, len);
+            }
+            length += len;
+            if ((fileStream == null) && ((count + len) > MEMORY_THRESHOLD)) {
+                file = File.createTempFile("http-body", ".spool");
+                fileStream = new FileOutputStream(file);
+                fileStream.write(buffer, 0, count);
+                buffer = null;
+            }
+            if (fileStream != null) {
+                fileStream.write(b, off, len);
+                return;
+            }
+            if ((count + len) > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(Math.max(buffer.length * 2, count + len), MEMORY_THRESHOLD));
+            }
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileStream != null) {
+                fileStream.close();
+            }
+        }
+    }
+
+}
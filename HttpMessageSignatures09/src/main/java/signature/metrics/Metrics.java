@@ -0,0 +1,61 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.metrics;
+
+/**
+ * Holds the metrics implementation of the signers and verifiers; by default nothing is recorded.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public final class Metrics {
+
+    /** metrics of the signers and verifiers */
+    private static volatile SignatureMetrics metrics = SignatureMetrics.NOOP;
+
+    private Metrics() {
+        throw new IllegalStateException("Metrics class");
+    }
+
+    /**
+     * @return the metrics of the signers and verifiers
+     */
+    public static SignatureMetrics get() {
+        return metrics;
+    }
+
+    /**
+     * @param signatureMetrics the metrics of the signers and verifiers, null to record nothing
+     */
+    public static void set(SignatureMetrics signatureMetrics) {
+        metrics = signatureMetrics != null ? signatureMetrics : SignatureMetrics.NOOP;
+    }
+
+    /**
+     * Records the time since the start of a phase, unlike SignatureMetrics.recordPhase taking the duration.
+     * @param operation
+     * @param phase
+     * @param algorithm
+     * @param start System.nanoTime at the start of the phase
+     */
+    public static void recordPhaseSince(SignatureMetrics.Operation operation, SignatureMetrics.Phase phase,
+            String algorithm, long start) {
+        metrics.recordPhase(operation, phase, algorithm, System.nanoTime() - start);
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Adapter of the metrics to a Micrometer registry. Micrometer is an optional dependency, it is only needed if this
+ * adapter is used:
+ * <pre>
+ * Metrics.set(new MicrometerMetrics(registry, false));
+ * </pre>
+ *
+ * Meters: http.signature.latency (timer, tags operation, algorithm, outcome and optionally keyid),
+ * http.signature.phase (timer, tags operation, phase, algorithm), http.signature.failures (counter, tag reason),
+ * http.signature.body.bytes (counter) and http.signature.cache.requests (counter, tags cache, result).
+ * The timers publish percentile histograms. The meters are looked up once and kept by their tags.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class MicrometerMetrics implements SignatureMetrics {
+
+    /** registry of the meters */
+    private final MeterRegistry registry;
+    /** true if the latency is tagged with the keyid, only for a bounded number of keyids */
+    private final boolean keyIdTags;
+    /** timers by their tags */
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    /** counters by their tags */
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    /** counter of the digested body octets */
+    private final Counter bodyBytes;
+
+    /**
+     * @param registry registry of the meters
+     * @param keyIdTags true if the latency is tagged with the keyid, only for a bounded number of keyids
+     */
+    public MicrometerMetrics(MeterRegistry registry, boolean keyIdTags) {
+        this.registry = registry;
+        this.keyIdTags = keyIdTags;
+        this.bodyBytes = Counter.builder("http.signature.body.bytes").baseUnit("bytes")
+                .description("Body octets passed through the content digests").register(registry);
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordLatency(signature.metrics.SignatureMetrics.Operation,
+     *      java.lang.String, java.lang.String, boolean, long)
+     */
+    @Override
+    public void recordLatency(Operation operation, String algorithm, String keyId, boolean success, long nanos) {
+        String alg = tagValue(algorithm);
+        String outcome = success ? "success" : "failure";
+        String keyIdTag = keyIdTags ? tagValue(keyId) : null;
+        String key = "latency|" + operation + "|" + alg + "|" + outcome + "|" + keyIdTag;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> {
+                Timer.Builder builder = Timer.builder("http.signature.latency").tag("operation", tagValue(operation))
+                        .tag("algorithm", alg).tag("outcome", outcome).publishPercentileHistogram()
+                        .description("Duration of signing or verifying one signature");
+                if (keyIdTag != null) {
+                    builder.tag("keyid", keyIdTag);
+                }
+                return builder.register(registry);
+            });
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordPhase(signature.metrics.SignatureMetrics.Operation,
+     *      signature.metrics.SignatureMetrics.Phase, java.lang.String, long)
+     */
+    @Override
+    public void recordPhase(Operation operation, Phase phase, String algorithm, long nanos) {
+        String alg = tagValue(algorithm);
+        String key = "phase|" + operation + "|" + phase + "|" + alg;
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> Timer.builder("http.signature.phase")
+                    .tag("operation", tagValue(operation)).tag("phase", tagValue(phase)).tag("algorithm", alg)
+                    .publishPercentileHistogram().description("Duration of a phase of signing or verifying")
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordFailure(java.lang.String)
+     */
+    @Override
+    public void recordFailure(String reason) {
+        String key = "failure|" + reason;
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> Counter.builder("http.signature.failures")
+                    .tag("reason", tagValue(reason)).description("Rejected signatures and messages")
+                    .register(registry));
+        }
+        counter.increment();
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordBodyBytes(long)
+     */
+    @Override
+    public void recordBodyBytes(long bytes) {
+        bodyBytes.increment(bytes);
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordCacheAccess(java.lang.String, boolean)
+     */
+    @Override
+    public void recordCacheAccess(String cache, boolean hit) {
+        String result = hit ? "hit" : "miss";
+        String key = "cache|" + cache + "|" + result;
+        Counter counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> Counter.builder("http.signature.cache.requests")
+                    .tag("cache", tagValue(cache)).tag("result", result).description("Lookups in the caches")
+                    .register(registry));
+        }
+        counter.increment();
+    }
+
+    /**
+     * @param value
+     * @return lowercase tag value, none for null
+     */
+    private static String tagValue(Object value) {
+        return value != null ? value.toString().toLowerCase(Locale.ROOT) : StripedMetrics.NONE;
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.metrics;
+
+/**
+ * Metrics SPI of the signing and verification. Implementations are called on the request path of every message,
+ * they must be thread-safe and must not block; see StripedMetrics and MicrometerMetrics. The implementation in use
+ * is set with Metrics.set, all methods do nothing by default.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public interface SignatureMetrics {
+
+    /** metrics recording nothing */
+    SignatureMetrics NOOP = new SignatureMetrics() {
+    };
+
+    /**
+     * Operations on a message.
+     */
+    enum Operation {
+        SIGN, VERIFY
+    }
+
+    /**
+     * Phases of an operation.
+     */
+    enum Phase {
+        /** parsing the signature fields and parameters, verification only */
+        PARSE,
+        /** creating the signature base */
+        BASE,
+        /** digesting the body for the content-digest field */
+        DIGEST,
+        /** cryptographic signing or verification */
+        CRYPTO
+    }
+
+    /**
+     * @param operation
+     * @param algorithm algorithm of the signature, null if it is not known
+     * @param keyId keyid of the signature, null if it is not known
+     * @param success true if the message was signed or the signature is valid
+     * @param nanos duration of the operation for one signature
+     */
+    default void recordLatency(Operation operation, String algorithm, String keyId, boolean success, long nanos) {
+    }
+
+    /**
+     * @param operation
+     * @param phase
+     * @param algorithm algorithm of the signature, the digest algorithm for the Content-Digest of a signer or null
+     *            for the parsing of the signature fields
+     * @param nanos duration of the phase
+     */
+    default void recordPhase(Operation operation, Phase phase, String algorithm, long nanos) {
+    }
+
+    /**
+     * @param reason reason for the rejection of a signature or message, see VerificationResult.FailureReason
+     */
+    default void recordFailure(String reason) {
+    }
+
+    /**
+     * @param bytes number of body octets passed through the digests
+     */
+    default void recordBodyBytes(long bytes) {
+    }
+
+    /**
+     * @param cache name of the cache, e.g. content-digest or dns
+     * @param hit true if the value was taken from the cache
+     */
+    default void recordCacheAccess(String cache, boolean hit) {
+    }
+
+}
@@ -0,0 +1,301 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.metrics;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics recorded in memory without further dependencies, e.g. for a management endpoint. All values are striped
+ * counters (LongAdder), so concurrent recording does not contend on a shared variable.
+ *
+ * Latencies are kept per operation and algorithm in histograms with power-of-two buckets, phases per operation,
+ * phase and algorithm. Operations are counted per keyid up to a maximum number of keyids, further keyids are counted
+ * as "other".
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class StripedMetrics implements SignatureMetrics {
+
+    /** algorithm or keyid of a value that is not known */
+    public static final String NONE = "none";
+    /** keyid of the operations beyond the maximum number of keyids */
+    public static final String OTHER = "other";
+
+    /** maximum number of keyids counted separately */
+    private final int maxKeyIds;
+    /** latency by algorithm, indexed by the operation */
+    private final ConcurrentHashMap<String, LatencyHistogram>[] latencies;
+    /** phase durations by algorithm, indexed by the operation and the phase */
+    private final ConcurrentHashMap<String, LatencyHistogram>[][] phases;
+    /** operations by keyid, indexed by the operation */
+    private final ConcurrentHashMap<String, LongAdder>[] keyIds;
+    /** failures by reason */
+    private final ConcurrentHashMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+    /** body octets digested */
+    private final LongAdder bodyBytes = new LongAdder();
+    /** hits and misses by cache */
+    private final ConcurrentHashMap<String, LongAdder[]> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor counting up to 1000 keyids.
+     */
+    public StripedMetrics() {
+        this(1000);
+    }
+
+    /**
+     * @param maxKeyIds maximum number of keyids counted separately
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public StripedMetrics(int maxKeyIds) {
+        this.maxKeyIds = maxKeyIds;
+        int operations = Operation.values().length;
+        latencies = new ConcurrentHashMap[operations];
+        phases = new ConcurrentHashMap[operations][Phase.values().length];
+        keyIds = new ConcurrentHashMap[operations];
+        for (int operation = 0; operation < operations; operation++) {
+            latencies[operation] = new ConcurrentHashMap<>();
+            keyIds[operation] = new ConcurrentHashMap<>();
+            for (int phase = 0; phase < Phase.values().length; phase++) {
+                phases[operation][phase] = new ConcurrentHashMap<>();
+            }
+        }
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordLatency(signature.metrics.SignatureMetrics.Operation,
+     *      java.lang.String, java.lang.String, boolean, long)
+     */
+    @Override
+    public void recordLatency(Operation operation, String algorithm, String keyId, boolean success, long nanos) {
+        histogram(latencies[operation.ordinal()], algorithm).record(nanos);
+        ConcurrentHashMap<String, LongAdder> counts = keyIds[operation.ordinal()];
+        String key = keyId != null ? keyId : NONE;
+        LongAdder count = counts.get(key);
+        if (count == null) {
+            count = counts.computeIfAbsent(counts.size() < maxKeyIds ? key : OTHER, k -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordPhase(signature.metrics.SignatureMetrics.Operation,
+     *      signature.metrics.SignatureMetrics.Phase, java.lang.String, long)
+     */
+    @Override
+    public void recordPhase(Operation operation, Phase phase, String algorithm, long nanos) {
+        histogram(phases[operation.ordinal()][phase.ordinal()], algorithm).record(nanos);
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordFailure(java.lang.String)
+     */
+    @Override
+    public void recordFailure(String reason) {
+        counter(failures, reason).increment();
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordBodyBytes(long)
+     */
+    @Override
+    public void recordBodyBytes(long bytes) {
+        bodyBytes.add(bytes);
+    }
+
+    /** (non-Javadoc)
+     * @see signature.metrics.SignatureMetrics#recordCacheAccess(java.lang.String, boolean)
+     */
+    @Override
+    public void recordCacheAccess(String cache, boolean hit) {
+        LongAdder[] counts = caches.get(cache);
+        if (counts == null) {
+            counts = caches.computeIfAbsent(cache, key -> new LongAdder[] {new LongAdder(), new LongAdder()});
+        }
+        counts[hit ? 0 : 1].increment();
+    }
+
+    /**
+     * @param operation
+     * @param algorithm algorithm of the signatures, null for the operations without known algorithm
+     * @return latency histogram of the operation, null if nothing has been recorded
+     */
+    public LatencyHistogram getLatency(Operation operation, String algorithm) {
+        return latencies[operation.ordinal()].get(algorithm != null ? algorithm : NONE);
+    }
+
+    /**
+     * @param operation
+     * @param phase
+     * @param algorithm algorithm of the signatures, null for the parsing of the signature fields
+     * @return histogram of the phase, null if nothing has been recorded
+     */
+    public LatencyHistogram getPhase(Operation operation, Phase phase, String algorithm) {
+        return phases[operation.ordinal()][phase.ordinal()].get(algorithm != null ? algorithm : NONE);
+    }
+
+    /**
+     * @param operation
+     * @return number of operations by keyid
+     */
+    public Map<String, Long> getKeyIdCounts(Operation operation) {
+        Map<String, Long> counts = new HashMap<>();
+        keyIds[operation.ordinal()].forEach((keyId, count) -> counts.put(keyId, count.sum()));
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * @param reason
+     * @return number of failures with the reason
+     */
+    public long getFailureCount(String reason) {
+        LongAdder count = failures.get(reason);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * @return number of body octets digested
+     */
+    public long getBodyBytes() {
+        return bodyBytes.sum();
+    }
+
+    /**
+     * @param cache
+     * @return share of the accesses of the cache that were hits, 0 if it has not been accessed
+     */
+    public double getHitRate(String cache) {
+        LongAdder[] counts = caches.get(cache);
+        if (counts == null) {
+            return 0;
+        }
+        long hits = counts[0].sum();
+        long total = hits + counts[1].sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @param histograms
+     * @param algorithm
+     * @return histogram of the algorithm, created on first use
+     */
+    private static LatencyHistogram histogram(ConcurrentHashMap<String, LatencyHistogram> histograms,
+            String algorithm) {
+        String key = algorithm != null ? algorithm : NONE;
+        LatencyHistogram histogram = histograms.get(key);
+        return histogram != null ? histogram : histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    /**
+     * @param counters
+     * @param name
+     * @return counter of the name, created on first use
+     */
+    private static LongAdder counter(ConcurrentHashMap<String, LongAdder> counters, String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /**
+     * Histogram of durations with a bucket per power of two nanoseconds.
+     */
+    public static final class LatencyHistogram {
+
+        /** number of buckets, the last one holds all longer durations (above about 9 minutes) */
+        public static final int BUCKETS = 40;
+
+        /** counts by bucket: bucket i holds the durations below 2^(i+1) ns */
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+        /** sum of the durations */
+        private final LongAdder totalNanos = new LongAdder();
+
+        LatencyHistogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * @param nanos duration
+         */
+        void record(long nanos) {
+            int bucket = 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1));
+            buckets[Math.min(bucket, BUCKETS - 1)].increment();
+            totalNanos.add(Math.max(nanos, 0));
+        }
+
+        /**
+         * @return number of recorded durations
+         */
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        /**
+         * @return sum of the recorded durations in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * @return counts by bucket, bucket i holds the durations from 2^i to below 2^(i+1) ns
+         */
+        public long[] getBucketCounts() {
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return upper bound in nanoseconds of the bucket containing the percentile, 0 if nothing was recorded
+         */
+        public long getPercentileNanos(double percentile) {
+            long[] counts = getBucketCounts();
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(rank, 1)) {
+                    return (1L << (i + 1)) - 1;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+}
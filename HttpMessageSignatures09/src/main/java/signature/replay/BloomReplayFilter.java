@@ -0,0 +1,241 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.replay;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Probabilistic replay store of fixed size for very high nonce rates: a ring of Bloom filters, each holding the
+ * nonces retained until a time bucket. The ring covers the maximum validity of a signature, the filter of a bucket
+ * is cleared and reused when its time has passed.
+ *
+ * A new nonce is never taken for a replay with a probability of the false positive rate, then a valid message is
+ * rejected; a replay is always detected within the validity. The false positive rate is shared by the buckets of
+ * the ring. A nonce that has to be retained beyond the maximum validity is rejected, the ring cannot remember it
+ * long enough: the maximum validity has to cover the expires parameter, the maximum age and the nonce retention of
+ * the verification settings.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class BloomReplayFilter implements ReplayStore {
+
+    /** number of stripes, a power of two; a nonce is always checked and recorded with the lock of its stripe */
+    private static final int STRIPES = 64;
+
+    /** maximum time in seconds a nonce is remembered */
+    private final long maxValiditySeconds;
+    /** length of a time bucket in seconds */
+    private final long bucketSeconds;
+    /** filters of the ring, the filter of a bucket is at the bucket number modulo the ring size */
+    private final Filter[] ring;
+    /** bits of each filter */
+    private final long bits;
+    /** hash functions of each filter */
+    private final int hashCount;
+    /** seed of the hash */
+    private final long seed = new SecureRandom().nextLong();
+    /** clock of the expiry */
+    private final Clock clock;
+    /** locks of the stripes */
+    private final Object[] stripeLocks = new Object[STRIPES];
+    /** latest bucket of the ring */
+    private volatile long lastBucket = Long.MIN_VALUE;
+
+    /**
+     * @param maxValiditySeconds maximum time in seconds a nonce is remembered, the validity of the signatures
+     * @param bucketSeconds length of a time bucket in seconds
+     * @param peakNoncesPerSecond maximum number of nonces recorded per second
+     * @param falsePositiveRate probability that a new nonce is taken for a replay
+     * @param clock clock of the expiry
+     */
+    public BloomReplayFilter(long maxValiditySeconds, long bucketSeconds, long peakNoncesPerSecond,
+            double falsePositiveRate, Clock clock) {
+        if (maxValiditySeconds <= 0 || bucketSeconds <= 0 || peakNoncesPerSecond <= 0) {
+            throw new IllegalArgumentException("Validity, bucket length and nonce rate must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+        }
+        this.maxValiditySeconds = maxValiditySeconds;
+        this.bucketSeconds = bucketSeconds;
+        this.clock = clock;
+        //buckets from the current time up to the end of the validity
+        int bucketCount = (int) ((maxValiditySeconds + bucketSeconds - 1) / bucketSeconds) + 1;
+        //a lookup checks every bucket, each bucket gets its share of the false positive rate
+        double bucketRate = falsePositiveRate / bucketCount;
+        //at a fixed retention the nonces recorded within one bucket length expire in the same bucket
+        double expected = (double) peakNoncesPerSecond * bucketSeconds;
+        long optimalBits = (long) Math.ceil(-expected * Math.log(bucketRate) / (Math.log(2) * Math.log(2)));
+        this.bits = ((optimalBits + 63) / 64) * 64;
+        this.hashCount = Math.max(1, (int) Math.round((bits / expected) * Math.log(2)));
+        if (bits / 64 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter of a bucket exceeds the maximum size");
+        }
+        this.ring = new Filter[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            ring[i] = new Filter((int) (bits / 64));
+        }
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * A nonce retained beyond the maximum validity is rejected like a replay: it would be forgotten while the
+     * signature is still valid.
+     * @see signature.replay.ReplayStore#checkAndRecord(java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public boolean checkAndRecord(String keyId, String nonce, long retainUntil) {
+        long now = clock.instant().getEpochSecond();
+        if (retainUntil - now > maxValiditySeconds) {
+            return false;
+        }
+        long current = Math.floorDiv(now, bucketSeconds);
+        advance(current);
+        String id = keyId != null ? keyId : "";
+        long hash1 = MappedReplayStore.hash(seed, id, nonce);
+        long hash2 = MappedReplayStore.hash(~seed * 0x9E3779B97F4A7C15L, id, nonce) | 1;
+        //within the ring: the ring covers the buckets up to the end of the maximum validity
+        long target = Math.max(Math.floorDiv(retainUntil, bucketSeconds), current);
+        synchronized (stripeLocks[(int) (hash1 >>> 58) & (STRIPES - 1)]) {
+            for (long bucket = current; bucket < current + ring.length; bucket++) {
+                Filter filter = ring[(int) Math.floorMod(bucket, (long) ring.length)];
+                if ((filter.bucket == bucket) && filter.mightContain(hash1, hash2)) {
+                    return false;
+                }
+            }
+            Filter filter = ring[(int) Math.floorMod(target, (long) ring.length)];
+            if (filter.bucket != target) {
+                //the filter is being reused by a concurrent advance
+                return false;
+            }
+            filter.put(hash1, hash2);
+            return true;
+        }
+    }
+
+    /**
+     * @return size of the filters in bytes
+     */
+    public long getMemoryBytes() {
+        return (bits / 8) * ring.length;
+    }
+
+    /**
+     * @return number of filters in the ring
+     */
+    public int getBucketCount() {
+        return ring.length;
+    }
+
+    /**
+     * @return number of hash functions of a filter
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * Clears the filters of passed buckets and assigns them to the buckets entering the ring.
+     * @param current bucket of the current time
+     */
+    private void advance(long current) {
+        long last = current + ring.length - 1;
+        if (lastBucket >= last) {
+            return;
+        }
+        synchronized (ring) {
+            long first = Math.max(lastBucket + 1, current);
+            for (long bucket = first; bucket <= last; bucket++) {
+                Filter filter = ring[(int) Math.floorMod(bucket, (long) ring.length)];
+                filter.bucket = Long.MIN_VALUE;
+                filter.clear();
+                filter.bucket = bucket;
+            }
+            lastBucket = last;
+        }
+    }
+
+    /**
+     * Bloom filter of one bucket. The bits are set atomically, nonces of different stripes share the words.
+     */
+    private final class Filter {
+
+        /** bits of the filter */
+        private final AtomicLongArray words;
+        /** bucket of the filter, Long.MIN_VALUE while it is cleared */
+        private volatile long bucket = Long.MIN_VALUE;
+
+        Filter(int wordCount) {
+            this.words = new AtomicLongArray(wordCount);
+        }
+
+        /**
+         * @param hash1
+         * @param hash2
+         * @return true if all bits of the nonce are set
+         */
+        boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                long index = index(hash1, hash2, i);
+                if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param hash1
+         * @param hash2
+         */
+        void put(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                long index = index(hash1, hash2, i);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long value = words.get(word);
+                while (((value & mask) == 0) && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < words.length(); i++) {
+                words.set(i, 0);
+            }
+        }
+
+        /**
+         * Double hashing of the bit positions.
+         * @param hash1
+         * @param hash2
+         * @param i number of the hash function
+         * @return position of the bit
+         */
+        private long index(long hash1, long hash2, int i) {
+            return ((hash1 + (i * hash2)) >>> 1) % bits;
+        }
+    }
+
+}
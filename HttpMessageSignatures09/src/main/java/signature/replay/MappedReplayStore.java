@@ -0,0 +1,495 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import signature.components.MappedBuffers;
+
+/**
+ * Replay store persisting the nonces in a memory-mapped table file, so a restart does not open a replay window
+ * for signatures that are still valid.
+ *
+ * The table is one hash table of fixed size in its file: the nonces are looked up and recorded directly in the
+ * mapped file, on startup the table is only mapped, nothing is read or replayed. Every slot holds the retention
+ * time of its nonce, a slot whose nonce has expired is reused by a later nonce. A lookup probes at most
+ * MAX_PROBES slots, independent of the number of nonces and of their retention times. If all probed slots hold
+ * live nonces, the table is replaced by a table of twice the size holding only the live nonces.
+ *
+ * A nonce is identified by a 128-bit hash of keyid and nonce with a random seed of the store. The table is split
+ * into stripes by the hash, a stripe is guarded by a lock, so check and record are atomic per nonce. Growing and
+ * closing the table exclude all lookups: the mapping is released explicitly and the file channel is closed before
+ * the file of a replaced table is deleted.
+ *
+ * The mapped pages are written back by the operating system, also if the JVM terminates; force writes them to the
+ * storage device.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class MappedReplayStore implements ReplayStore, Closeable {
+
+    /** number of stripes of the table, a power of two */
+    static final int STRIPES = 256;
+    /** maximum number of slots probed for a nonce */
+    static final int MAX_PROBES = 16;
+    /** size of a slot: two longs of the hash and the retention time */
+    static final int SLOT_SIZE = 24;
+    /** size of the header: magic, version, slots and seed */
+    static final int HEADER_SIZE = 64;
+    /** marks a complete table file */
+    private static final int MAGIC = 0x52504c59;
+    /** version of the file format */
+    private static final int VERSION = 2;
+    /** names of the table files: generation of the table */
+    private static final Pattern TABLE_NAME = Pattern.compile("replay-(\\d+)\\.tbl");
+
+    /** directory of the table file */
+    private final Path directory;
+    /** clock of the expiry */
+    private final Clock clock;
+    /** seed of the hash, kept when the table grows */
+    private final long seed;
+    /** locks of the stripes */
+    private final Object[] stripeLocks = new Object[STRIPES];
+    /** shared by lookups, exclusive for growing and closing the table */
+    private final ReentrantReadWriteLock mapping = new ReentrantReadWriteLock();
+    /** mapped table, null after close */
+    private Table table;
+
+    /**
+     * Opens the store and maps its table; files of replaced tables are deleted.
+     * @param directory directory of the table file, created if it does not exist
+     * @param slots initial number of slots, rounded up to a power of two of at least 4096; the table file has
+     *        24 bytes per slot. It should hold the nonces that are live at the same time, otherwise it grows.
+     * @param clock clock of the expiry
+     * @throws IOException
+     */
+    public MappedReplayStore(Path directory, int slots, Clock clock) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripeLocks[i] = new Object();
+        }
+        int tableSlots = Math.max(STRIPES * MAX_PROBES, Integer.highestOneBit(Math.max(1, slots - 1)) << 1);
+        this.table = open(tableSlots);
+        this.seed = table.seed;
+    }
+
+    /**
+     * @throws IllegalStateException if the store has been closed
+     * @see signature.replay.ReplayStore#checkAndRecord(java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public boolean checkAndRecord(String keyId, String nonce, long retainUntil) {
+        long now = clock.instant().getEpochSecond();
+        String id = keyId != null ? keyId : "";
+        long hash1 = hash(seed, id, nonce);
+        long hash2 = hash(~seed * 0x9E3779B97F4A7C15L, id, nonce);
+        int stripe = stripe(hash1);
+        while (true) {
+            Table current;
+            mapping.readLock().lock();
+            try {
+                current = openTable();
+                synchronized (stripeLocks[stripe]) {
+                    Boolean recorded = current.record(stripe, hash1, hash2, Math.max(retainUntil, now), now);
+                    if (recorded != null) {
+                        return recorded;
+                    }
+                }
+            } finally {
+                mapping.readLock().unlock();
+            }
+            //all probed slots hold live nonces
+            try {
+                grow(current, now);
+            } catch (IOException e) {
+                //fail closed: a nonce that cannot be recorded could be replayed
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Writes the mapped table to the storage device.
+     */
+    public void force() {
+        mapping.readLock().lock();
+        try {
+            openTable().buffer.force();
+        } finally {
+            mapping.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of slots of the table
+     */
+    public int getSlotCount() {
+        mapping.readLock().lock();
+        try {
+            return openTable().slots;
+        } finally {
+            mapping.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the table to the storage device, unmaps it and closes its file.
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public void close() {
+        mapping.writeLock().lock();
+        try {
+            if (table != null) {
+                table.buffer.force();
+                table.close();
+                table = null;
+            }
+        } finally {
+            mapping.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Called with the read or write lock of the mapping.
+     * @return the mapped table
+     */
+    private Table openTable() {
+        if (table == null) {
+            throw new IllegalStateException("Replay store is closed");
+        }
+        return table;
+    }
+
+    /**
+     * Replaces the table by a table of twice the size with the live nonces, unless another thread has replaced it.
+     * @param full table without a free slot for a nonce
+     * @param now
+     * @throws IOException
+     */
+    private void grow(Table full, long now) throws IOException {
+        mapping.writeLock().lock();
+        try {
+            if (table != full) {
+                return;
+            }
+            long slots = (long) full.slots * 2;
+            Table grown = Table.create(path(full.generation + 1), slots, seed);
+            while (!full.copyLiveTo(grown, now)) {
+                //the live nonces of a neighbourhood do not fit, a rare case
+                grown.delete();
+                slots *= 2;
+                grown = Table.create(path(full.generation + 1), slots, seed);
+            }
+            grown.commit();
+            table = grown;
+            full.delete();
+        } finally {
+            mapping.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Maps the newest complete table and deletes the other table files.
+     * @param slots slots of a new table
+     * @return the mapped table, a new table with a random seed if there is none
+     * @throws IOException
+     */
+    private Table open(int slots) throws IOException {
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "replay-*.tbl")) {
+            for (Path file : stream) {
+                Matcher matcher = TABLE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(Integer.parseInt(matcher.group(1)), file);
+                }
+            }
+        }
+        Table opened = null;
+        for (Map.Entry<Integer, Path> file : files.descendingMap().entrySet()) {
+            if (opened == null) {
+                //null for a table whose growth has not been completed
+                opened = Table.open(file.getValue(), file.getKey());
+            }
+            if ((opened == null) || (opened.generation != file.getKey())) {
+                Files.deleteIfExists(file.getValue());
+            }
+        }
+        if (opened == null) {
+            opened = Table.create(path(0), slots, new SecureRandom().nextLong());
+            opened.commit();
+        }
+        return opened;
+    }
+
+    /**
+     * @param generation
+     * @return file of the table of the generation
+     */
+    private Path path(int generation) {
+        return directory.resolve("replay-" + generation + ".tbl");
+    }
+
+    /**
+     * @param hash1 first hash of the nonce
+     * @return stripe of the nonce
+     */
+    private static int stripe(long hash1) {
+        return (int) (hash1 >>> 56) & (STRIPES - 1);
+    }
+
+    /**
+     * 64-bit hash of keyid and nonce, the length of the keyid separates both.
+     * @param seed
+     * @param keyId
+     * @param nonce
+     * @return the hash
+     */
+    static long hash(long seed, String keyId, String nonce) {
+        long hash = seed ^ (keyId.length() * 0xC2B2AE3D27D4EB4FL);
+        for (int i = 0; i < keyId.length(); i++) {
+            hash = Long.rotateLeft((hash ^ keyId.charAt(i)) * 0x9E3779B97F4A7C15L, 27);
+        }
+        for (int i = 0; i < nonce.length(); i++) {
+            hash = Long.rotateLeft((hash ^ nonce.charAt(i)) * 0x9E3779B97F4A7C15L, 27);
+        }
+        //finalizer of MurmurHash3
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Hash table of one table file. A slot is empty while its retention time is 0.
+     */
+    static final class Table {
+
+        /** offset of the number of slots in the header */
+        private static final int SLOTS_OFFSET = 8;
+        /** offset of the seed in the header */
+        private static final int SEED_OFFSET = 16;
+
+        /** table file */
+        private final Path file;
+        /** open channel of the file */
+        private final FileChannel channel;
+        /** mapped file */
+        private final MappedByteBuffer buffer;
+        /** generation of the table, incremented when the table grows */
+        private final int generation;
+        /** number of slots */
+        private final int slots;
+        /** slots per stripe */
+        private final int stripeSlots;
+        /** seed of the hash */
+        private final long seed;
+
+        private Table(Path file, FileChannel channel, MappedByteBuffer buffer, int generation) {
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.generation = generation;
+            this.slots = buffer.getInt(SLOTS_OFFSET);
+            this.stripeSlots = slots / STRIPES;
+            this.seed = buffer.getLong(SEED_OFFSET);
+        }
+
+        /**
+         * Creates the table without its magic number, see commit.
+         * @param file
+         * @param slots
+         * @param seed
+         * @return new empty table
+         * @throws IOException
+         */
+        static Table create(Path file, long slots, long seed) throws IOException {
+            long size = HEADER_SIZE + (slots * SLOT_SIZE);
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Replay table exceeds the maximum size of a mapping");
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(SLOTS_OFFSET, (int) slots);
+                buffer.putLong(SEED_OFFSET, seed);
+                return new Table(file, channel, buffer, generationOf(file));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @param file
+         * @param generation
+         * @return mapped existing table, null if the table is not complete
+         * @throws IOException if the file is not a table
+         */
+        static Table open(Path file, int generation) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                if ((buffer.capacity() >= HEADER_SIZE) && (buffer.getInt(0) == 0)) {
+                    MappedBuffers.unmap(buffer);
+                    channel.close();
+                    return null;
+                }
+                if ((buffer.capacity() < HEADER_SIZE) || (buffer.getInt(0) != MAGIC) || (buffer.getInt(4) != VERSION)
+                        || (buffer.capacity() != HEADER_SIZE + ((long) buffer.getInt(SLOTS_OFFSET) * SLOT_SIZE))) {
+                    MappedBuffers.unmap(buffer);
+                    throw new IOException("Not a replay table: " + file);
+                }
+                return new Table(file, channel, buffer, generation);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        /**
+         * @param file
+         * @return generation of the table file
+         */
+        private static int generationOf(Path file) {
+            Matcher matcher = TABLE_NAME.matcher(file.getFileName().toString());
+            return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+        }
+
+        /**
+         * Marks the table as complete after its slots have been written.
+         */
+        void commit() {
+            buffer.force();
+            buffer.putInt(0, MAGIC);
+            buffer.force();
+        }
+
+        /**
+         * Looks up the nonce in at most MAX_PROBES slots and records it in the first empty or expired slot.
+         * Called with the lock of the stripe.
+         * @param stripe
+         * @param hash1
+         * @param hash2
+         * @param retainUntil
+         * @param now
+         * @return true if the nonce has been recorded, false if it is live; null if all probed slots are live
+         */
+        Boolean record(int stripe, long hash1, long hash2, long retainUntil, long now) {
+            int first = (int) hash2 & (stripeSlots - 1);
+            int free = -1;
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                int offset = offset(stripe, (first + probe) & (stripeSlots - 1));
+                long current = buffer.getLong(offset + 16);
+                boolean sameNonce = (current != 0) && (buffer.getLong(offset) == hash1)
+                        && (buffer.getLong(offset + 8) == hash2);
+                if (sameNonce && (current >= now)) {
+                    return Boolean.FALSE;
+                }
+                if ((free < 0) && (current < now)) {
+                    free = offset;
+                }
+                if ((current == 0) || sameNonce) {
+                    //an empty slot ends the probe sequence, a nonce is in at most one slot
+                    break;
+                }
+            }
+            if (free < 0) {
+                return null;
+            }
+            buffer.putLong(free, hash1);
+            buffer.putLong(free + 8, hash2);
+            //the retention time marks the slot as used
+            buffer.putLong(free + 16, retainUntil);
+            return Boolean.TRUE;
+        }
+
+        /**
+         * @param target empty table
+         * @param now
+         * @return false if the live nonces do not fit into the target
+         */
+        boolean copyLiveTo(Table target, long now) {
+            for (int slot = 0; slot < slots; slot++) {
+                int offset = HEADER_SIZE + (slot * SLOT_SIZE);
+                long retainUntil = buffer.getLong(offset + 16);
+                if (retainUntil >= now) {
+                    long hash1 = buffer.getLong(offset);
+                    if (target.record(stripe(hash1), hash1, buffer.getLong(offset + 8), retainUntil, now) == null) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param stripe
+         * @param slot slot in the stripe
+         * @return offset of the slot in the file
+         */
+        private int offset(int stripe, int slot) {
+            return HEADER_SIZE + ((stripe * stripeSlots) + slot) * SLOT_SIZE;
+        }
+
+        /**
+         * Unmaps the table and closes its file, the table must not be accessed afterwards.
+         */
+        void close() {
+            MappedBuffers.unmap(buffer);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                //the mapping has been released, nothing is lost
+            }
+        }
+
+        /**
+         * Unmaps the table, closes and deletes its file.
+         */
+        void delete() {
+            close();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                //deleted again when the store is opened the next time
+            }
+        }
+    }
+
+}
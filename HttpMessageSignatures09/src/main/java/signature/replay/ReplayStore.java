@@ -0,0 +1,41 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.replay;
+
+/**
+ * Store of the nonces of verified signatures for the replay protection.
+ * A nonce is unique per keyid: the same nonce of another signer is not a replay.
+ * Implementations must be thread-safe, the store is consulted by every verification.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public interface ReplayStore {
+
+    /**
+     * Records the nonce if it has not been seen before. Check and record are one atomic operation, so concurrent
+     * verifications of the same message accept it only once.
+     * @param keyId keyid of the signature
+     * @param nonce nonce of the signature
+     * @param retainUntil time in epoch seconds until which the nonce has to be remembered, e.g. the expires
+     *        parameter of the signature
+     * @return true if the nonce is new and has been recorded, false if it is a replay
+     */
+    boolean checkAndRecord(String keyId, String nonce, long retainUntil);
+
+}
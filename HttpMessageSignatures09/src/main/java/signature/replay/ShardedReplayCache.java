@@ -0,0 +1,304 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.replay;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory replay store for millions of live nonces. The nonces are spread by their hash over independent shards,
+ * each guarded by its own lock, so concurrent verifications rarely wait for each other. Every shard expires its
+ * nonces through a hierarchical timing wheel: the wheel is advanced when the shard is accessed, expiring a nonce
+ * costs O(1) and no background thread or full scan is needed.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class ShardedReplayCache implements ReplayStore {
+
+    /** bits of the slot index of a wheel level */
+    static final int WHEEL_BITS = 6;
+    /** slots per wheel level */
+    static final int WHEEL_SLOTS = 1 << WHEEL_BITS;
+    /** levels of the wheel: 1 second, 64 seconds, 68 minutes and 3 days per slot */
+    static final int WHEEL_LEVELS = 4;
+
+    /** shards of the cache, the number is a power of two */
+    private final Shard[] shards;
+    /** clock of the expiry */
+    private final Clock clock;
+
+    /**
+     * Constructor with four shards per available processor.
+     */
+    public ShardedReplayCache() {
+        this(4 * Runtime.getRuntime().availableProcessors(), Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     * @param concurrency expected number of concurrent verifications, rounded up to a power of two shards
+     * @param clock clock of the expiry
+     */
+    public ShardedReplayCache(int concurrency, Clock clock) {
+        int count = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+        this.shards = new Shard[count];
+        long now = clock.instant().getEpochSecond();
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(now);
+        }
+        this.clock = clock;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.replay.ReplayStore#checkAndRecord(java.lang.String, java.lang.String, long)
+     */
+    @Override
+    public boolean checkAndRecord(String keyId, String nonce, long retainUntil) {
+        NonceKey key = new NonceKey(keyId, nonce);
+        return shardOf(key).checkAndRecord(key, retainUntil, clock.instant().getEpochSecond());
+    }
+
+    /**
+     * Expired nonces are removed when their shard is accessed; this also removes those of idle shards.
+     */
+    public void purgeExpired() {
+        long now = clock.instant().getEpochSecond();
+        for (Shard shard : shards) {
+            shard.purge(now);
+        }
+    }
+
+    /**
+     * @return number of recorded nonces, including expired nonces of shards not accessed since their expiry
+     */
+    public long size() {
+        long size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @param key
+     * @return the shard of the key
+     */
+    private Shard shardOf(NonceKey key) {
+        int hash = key.hashCode();
+        //spread the high bits, the low bits select the shard
+        return shards[(hash ^ (hash >>> 16)) & (shards.length - 1)];
+    }
+
+    /**
+     * Nonce of a signer.
+     */
+    static final class NonceKey {
+
+        /** keyid of the signature, empty if the signature has no keyid */
+        private final String keyId;
+        /** nonce of the signature */
+        private final String nonce;
+        /** cached hash */
+        private final int hash;
+
+        NonceKey(String keyId, String nonce) {
+            this.keyId = keyId != null ? keyId : "";
+            this.nonce = nonce;
+            this.hash = 31 * this.keyId.hashCode() + nonce.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof NonceKey)) {
+                return false;
+            }
+            NonceKey other = (NonceKey) obj;
+            return (hash == other.hash) && keyId.equals(other.keyId) && nonce.equals(other.nonce);
+        }
+    }
+
+    /**
+     * Recorded nonce with its expiry. The wheel holds the record itself: a record that has been replaced in the map
+     * is dropped when its slot is reached.
+     */
+    private static final class Record {
+
+        /** recorded nonce */
+        final NonceKey key;
+        /** time in epoch seconds until which the nonce is remembered */
+        final long retainUntil;
+
+        Record(NonceKey key, long retainUntil) {
+            this.key = key;
+            this.retainUntil = retainUntil;
+        }
+    }
+
+    /**
+     * Nonces of one shard with their timing wheel, guarded by the shard.
+     */
+    private static final class Shard {
+
+        /** recorded nonces */
+        private final Map<NonceKey, Record> records = new HashMap<>();
+        /** slots of the wheel by level, a slot is null while it is empty */
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        private final List<Record>[][] wheel = new List[WHEEL_LEVELS][WHEEL_SLOTS];
+        /** time in epoch seconds up to which the wheel has been advanced */
+        private long currentTime;
+
+        Shard(long now) {
+            this.currentTime = now;
+        }
+
+        synchronized boolean checkAndRecord(NonceKey key, long retainUntil, long now) {
+            advance(now);
+            Record existing = records.get(key);
+            if ((existing != null) && (existing.retainUntil >= now)) {
+                return false;
+            }
+            Record record = new Record(key, retainUntil);
+            records.put(key, record);
+            schedule(record);
+            return true;
+        }
+
+        synchronized void purge(long now) {
+            advance(now);
+        }
+
+        synchronized int size() {
+            return records.size();
+        }
+
+        /**
+         * Puts the record into the slot of the lowest level covering its expiry.
+         * @param record
+         */
+        private void schedule(Record record) {
+            long delay = Math.max(record.retainUntil - currentTime, 1);
+            int level = 0;
+            while ((level < WHEEL_LEVELS - 1) && (delay >= (1L << (WHEEL_BITS * (level + 1))))) {
+                level++;
+            }
+            //beyond the last level the record is cascaded again when its slot is reached
+            long time = Math.min(record.retainUntil, currentTime + (1L << (WHEEL_BITS * WHEEL_LEVELS)) - 1);
+            int slot = (int) ((Math.max(time, currentTime + 1) >>> (WHEEL_BITS * level)) & (WHEEL_SLOTS - 1));
+            List<Record> slotRecords = wheel[level][slot];
+            if (slotRecords == null) {
+                slotRecords = new ArrayList<>(4);
+                wheel[level][slot] = slotRecords;
+            }
+            slotRecords.add(record);
+        }
+
+        /**
+         * Advances the wheel second by second; after a long idle time all records are rescheduled at once.
+         * @param now
+         */
+        private void advance(long now) {
+            if (now - currentTime > WHEEL_SLOTS) {
+                rebuild(now);
+                return;
+            }
+            while (currentTime < now) {
+                currentTime++;
+                //cascade the records of the higher levels whose slot is reached
+                for (int level = WHEEL_LEVELS - 1; level > 0; level--) {
+                    if ((currentTime & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                        int slot = (int) ((currentTime >>> (WHEEL_BITS * level)) & (WHEEL_SLOTS - 1));
+                        List<Record> cascaded = takeSlot(level, slot);
+                        if (cascaded != null) {
+                            for (Record record : cascaded) {
+                                if (records.get(record.key) == record) {
+                                    expireOrSchedule(record);
+                                }
+                            }
+                        }
+                    }
+                }
+                List<Record> expired = takeSlot(0, (int) (currentTime & (WHEEL_SLOTS - 1)));
+                if (expired != null) {
+                    for (Record record : expired) {
+                        if (records.get(record.key) == record) {
+                            expireOrSchedule(record);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param record current record of its nonce
+         */
+        private void expireOrSchedule(Record record) {
+            if (record.retainUntil < currentTime) {
+                records.remove(record.key);
+            } else {
+                schedule(record);
+            }
+        }
+
+        /**
+         * @param level
+         * @param slot
+         * @return the records of the slot, null if it is empty; the slot is emptied
+         */
+        private List<Record> takeSlot(int level, int slot) {
+            List<Record> slotRecords = wheel[level][slot];
+            wheel[level][slot] = null;
+            return slotRecords;
+        }
+
+        /**
+         * Removes the expired records and schedules the others in a new wheel.
+         * @param now
+         */
+        private void rebuild(long now) {
+            for (List<Record>[] level : wheel) {
+                Arrays.fill(level, null);
+            }
+            currentTime = now;
+            records.values().removeIf(record -> record.retainUntil < now);
+            for (Record record : records.values()) {
+                schedule(record);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.util.Base64;
+
+/**
+ * Byte sequence (RFC 8941 section 3.3.5).
+ * The base64 text refers to the characters of the parsed field value, the bytes are decoded on first access.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class SfByteSequence {
+
+    /** field value containing the base64 text */
+    private final CharSequence source;
+    /** start of the base64 text */
+    private final int start;
+    /** end of the base64 text (exclusive) */
+    private final int end;
+    /** decoded bytes */
+    private byte[] bytes;
+
+    /**
+     * Constructor.
+     * @param bytes
+     */
+    public SfByteSequence(byte[] bytes) {
+        this.bytes = bytes.clone();
+        source = Base64.getEncoder().encodeToString(bytes);
+        start = 0;
+        end = source.length();
+    }
+
+    /**
+     * Constructor.
+     * @param source
+     * @param start
+     * @param end
+     */
+    SfByteSequence(CharSequence source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @return the decoded bytes
+     */
+    public byte[] getBytes() {
+        if (bytes == null) {
+            byte[] base64 = new byte[end - start];
+            for (int i = start; i < end; i++) {
+                base64[i - start] = (byte) source.charAt(i);
+            }
+            bytes = Base64.getDecoder().decode(base64);
+        }
+        return bytes.clone();
+    }
+
+    /**
+     * @return the base64 text
+     */
+    public String getBase64() {
+        return source.subSequence(start, end).toString();
+    }
+
+    /**
+     * @param builder to which the base64 text is appended
+     */
+    void appendTo(StringBuilder builder) {
+        builder.append(source, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return ":" + getBase64() + ":";
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.util.Map;
+
+/**
+ * Dictionary: ordered map of keys to members (RFC 8941 section 3.2).
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class SfDictionary implements StructuredField {
+
+    /** members by key in field order */
+    private final Map<String, SfMember> members;
+
+    /**
+     * Constructor.
+     * @param members
+     */
+    public SfDictionary(Map<String, SfMember> members) {
+        this.members = members;
+    }
+
+    /**
+     * @param key
+     * @return the member with this key, null if the dictionary does not contain the key
+     */
+    public SfMember get(String key) {
+        return members.get(key);
+    }
+
+    /**
+     * @return the members by key in field order
+     */
+    public Map<String, SfMember> getMembers() {
+        return members;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.StructuredField#serialize(java.lang.StringBuilder)
+     */
+    @Override
+    public void serialize(StringBuilder builder) {
+        boolean first = true;
+        for (Map.Entry<String, SfMember> entry : members.entrySet()) {
+            if (!first) {
+                builder.append(", ");
+            }
+            first = false;
+            builder.append(entry.getKey());
+            SfMember member = entry.getValue();
+            if ((member instanceof SfItem) && Boolean.TRUE.equals(((SfItem) member).getValue())) {
+                //boolean true is omitted, only the parameters are serialized
+                StructuredFieldSerializer.serializeParameters(member.getParameters(), builder);
+            } else {
+                builder.append('=');
+                member.serialize(builder);
+            }
+        }
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.StructuredField#getType()
+     */
+    @Override
+    public StructuredFieldType getType() {
+        return StructuredFieldType.DICTIONARY;
+    }
+
+    @Override
+    public String toString() {
+        return serialize();
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inner list: a list of items with parameters (RFC 8941 section 3.1.1).
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class SfInnerList implements SfMember {
+
+    /** items of the inner list */
+    private final List<SfItem> items;
+    /** parameters of the inner list */
+    private final Map<String, Object> parameters;
+
+    /**
+     * Constructor.
+     * @param items
+     * @param parameters
+     */
+    public SfInnerList(List<SfItem> items, Map<String, Object> parameters) {
+        this.items = items;
+        this.parameters = parameters;
+    }
+
+    /**
+     * @return the items
+     */
+    public List<SfItem> getItems() {
+        return items;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.SfMember#getParameters()
+     */
+    @Override
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.SfMember#serialize(java.lang.StringBuilder)
+     */
+    @Override
+    public void serialize(StringBuilder builder) {
+        builder.append('(');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            items.get(i).serialize(builder);
+        }
+        builder.append(')');
+        StructuredFieldSerializer.serializeParameters(parameters, builder);
+    }
+
+    @Override
+    public String toString() {
+        return serializeMember();
+    }
+
+}
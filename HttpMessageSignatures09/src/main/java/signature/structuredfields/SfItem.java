@@ -0,0 +1,92 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Item of a structured field: a bare item with parameters (RFC 8941 section 3.3).
+ * The bare item is a Long (integer), BigDecimal (decimal), String, SfToken, SfByteSequence or Boolean.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class SfItem implements SfMember, StructuredField {
+
+    /** bare item */
+    private final Object value;
+    /** parameters of the item */
+    private final Map<String, Object> parameters;
+
+    /**
+     * Constructor.
+     * @param value
+     */
+    public SfItem(Object value) {
+        this(value, Collections.emptyMap());
+    }
+
+    /**
+     * Constructor.
+     * @param value
+     * @param parameters
+     */
+    public SfItem(Object value, Map<String, Object> parameters) {
+        this.value = value;
+        this.parameters = parameters;
+    }
+
+    /**
+     * @return the bare item
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.SfMember#getParameters()
+     */
+    @Override
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.StructuredField#serialize(java.lang.StringBuilder)
+     */
+    @Override
+    public void serialize(StringBuilder builder) {
+        StructuredFieldSerializer.serializeBareItem(value, builder);
+        StructuredFieldSerializer.serializeParameters(parameters, builder);
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.StructuredField#getType()
+     */
+    @Override
+    public StructuredFieldType getType() {
+        return StructuredFieldType.ITEM;
+    }
+
+    @Override
+    public String toString() {
+        return serialize();
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.util.List;
+
+/**
+ * List: ordered sequence of members (RFC 8941 section 3.1).
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class SfList implements StructuredField {
+
+    /** members in field order */
+    private final List<SfMember> members;
+
+    /**
+     * Constructor.
+     * @param members
+     */
+    public SfList(List<SfMember> members) {
+        this.members = members;
+    }
+
+    /**
+     * @return the members in field order
+     */
+    public List<SfMember> getMembers() {
+        return members;
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.StructuredField#serialize(java.lang.StringBuilder)
+     */
+    @Override
+    public void serialize(StringBuilder builder) {
+        for (int i = 0; i < members.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            members.get(i).serialize(builder);
+        }
+    }
+
+    /** (non-Javadoc)
+     * @see signature.structuredfields.StructuredField#getType()
+     */
+    @Override
+    public StructuredFieldType getType() {
+        return StructuredFieldType.LIST;
+    }
+
+    @Override
+    public String toString() {
+        return serialize();
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.util.Map;
+
+/**
+ * Member of a list or dictionary: an item or an inner list (RFC 8941 section 3.1 and 3.2).
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public interface SfMember {
+
+    /**
+     * @return the parameters of the member
+     */
+    Map<String, Object> getParameters();
+
+    /**
+     * @param builder to which the serialized member is appended
+     */
+    void serialize(StringBuilder builder);
+
+    /**
+     * @return the serialized member
+     */
+    default String serializeMember() {
+        StringBuilder builder = new StringBuilder();
+        serialize(builder);
+        return builder.toString();
+    }
+
+}
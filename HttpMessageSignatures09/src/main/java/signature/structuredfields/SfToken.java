@@ -0,0 +1,109 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+/**
+ * Token (RFC 8941 section 3.3.4).
+ * The token refers to the characters of the parsed field value, no copy is created until toString is called.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class SfToken implements CharSequence {
+
+    /** field value containing the token */
+    private final CharSequence source;
+    /** start of the token */
+    private final int start;
+    /** end of the token (exclusive) */
+    private final int end;
+
+    /**
+     * Constructor.
+     * @param token
+     */
+    public SfToken(String token) {
+        this(token, 0, token.length());
+    }
+
+    /**
+     * Constructor.
+     * @param source
+     * @param start
+     * @param end
+     */
+    SfToken(CharSequence source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        return source.subSequence(start + from, start + to);
+    }
+
+    /**
+     * @param builder to which the token is appended
+     */
+    void appendTo(StringBuilder builder) {
+        builder.append(source, start, end);
+    }
+
+    @Override
+    public String toString() {
+        return source.subSequence(start, end).toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof SfToken)) {
+            return false;
+        }
+        SfToken other = (SfToken) obj;
+        if (other.length() != length()) {
+            return false;
+        }
+        for (int i = 0; i < length(); i++) {
+            if (charAt(i) != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = (31 * hash) + source.charAt(i);
+        }
+        return hash;
+    }
+
+}
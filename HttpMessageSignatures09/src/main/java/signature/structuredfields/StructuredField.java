@@ -0,0 +1,47 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+/**
+ * Structured field value (RFC 8941): a dictionary, a list or an item.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public interface StructuredField {
+
+    /**
+     * @return the serialized field value (RFC 8941 section 4.1)
+     */
+    default String serialize() {
+        StringBuilder builder = new StringBuilder();
+        serialize(builder);
+        return builder.toString();
+    }
+
+    /**
+     * @param builder to which the serialized field value is appended
+     */
+    void serialize(StringBuilder builder);
+
+    /**
+     * @return the type of the structured field
+     */
+    StructuredFieldType getType();
+
+}
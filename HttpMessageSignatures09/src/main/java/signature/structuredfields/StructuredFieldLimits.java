@@ -0,0 +1,85 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+/**
+ * Limits enforced while parsing a structured field. The parser stops at the first member, item or parameter
+ * that exceeds a limit, so the parse cost of a hostile field value is bounded.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class StructuredFieldLimits {
+
+    /** no limits */
+    public static final StructuredFieldLimits UNLIMITED = new StructuredFieldLimits(Integer.MAX_VALUE,
+            Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Limit that was exceeded.
+     */
+    public enum Limit {
+        /** members of a dictionary or list */
+        MEMBERS,
+        /** items of an inner list */
+        INNER_LIST_ITEMS,
+        /** parameters of an item or inner list */
+        PARAMETERS
+    }
+
+    /** maximum number of top-level members */
+    private final int maxMembers;
+    /** maximum number of items of an inner list */
+    private final int maxInnerListItems;
+    /** maximum number of parameters of an item or inner list */
+    private final int maxParameters;
+
+    /**
+     * Constructor.
+     * @param maxMembers
+     * @param maxInnerListItems
+     * @param maxParameters
+     */
+    public StructuredFieldLimits(int maxMembers, int maxInnerListItems, int maxParameters) {
+        this.maxMembers = maxMembers;
+        this.maxInnerListItems = maxInnerListItems;
+        this.maxParameters = maxParameters;
+    }
+
+    /**
+     * @return the maximum number of top-level members
+     */
+    public int getMaxMembers() {
+        return maxMembers;
+    }
+
+    /**
+     * @return the maximum number of items of an inner list
+     */
+    public int getMaxInnerListItems() {
+        return maxInnerListItems;
+    }
+
+    /**
+     * @return the maximum number of parameters of an item or inner list
+     */
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+
+}
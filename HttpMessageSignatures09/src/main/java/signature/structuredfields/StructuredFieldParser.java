@@ -0,0 +1,594 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import exceptions.StructuredFieldParseException;
+import signature.structuredfields.StructuredFieldLimits.Limit;
+
+/**
+ * Parser for structured fields (RFC 8941 section 4.2).
+ * The field value is parsed in a single pass without intermediate strings; tokens and byte sequences refer to
+ * the characters of the field value.
+ * An instance does not throw on invalid input: the parse methods return null and the error is available via
+ * getError and getErrorPosition. The static methods throw a StructuredFieldParseException instead.
+ * Optional limits stop the parse as soon as a member, item or parameter exceeds them.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class StructuredFieldParser {
+
+    /** field value */
+    private final CharSequence input;
+    /** limits enforced during the parse */
+    private final StructuredFieldLimits limits;
+    /** current position in the field value */
+    private int pos;
+    /** description of the first error, null if no error occurred */
+    private String error;
+    /** position of the first error */
+    private int errorPosition = -1;
+    /** limit that caused the error, null if no limit was exceeded */
+    private Limit exceededLimit;
+
+    /**
+     * Constructor.
+     * @param input field value
+     */
+    public StructuredFieldParser(CharSequence input) {
+        this(input, StructuredFieldLimits.UNLIMITED);
+    }
+
+    /**
+     * Constructor.
+     * @param input field value
+     * @param limits limits enforced during the parse
+     */
+    public StructuredFieldParser(CharSequence input, StructuredFieldLimits limits) {
+        this.input = input;
+        this.limits = limits;
+    }
+
+    /**
+     * @param input field value
+     * @return the parsed dictionary
+     * @throws StructuredFieldParseException if the field value is not a valid dictionary
+     */
+    public static SfDictionary parseDictionary(CharSequence input) {
+        StructuredFieldParser parser = new StructuredFieldParser(input);
+        return parser.orThrow(parser.dictionary());
+    }
+
+    /**
+     * @param input field value
+     * @return the parsed list
+     * @throws StructuredFieldParseException if the field value is not a valid list
+     */
+    public static SfList parseList(CharSequence input) {
+        StructuredFieldParser parser = new StructuredFieldParser(input);
+        return parser.orThrow(parser.list());
+    }
+
+    /**
+     * @param input field value
+     * @return the parsed item
+     * @throws StructuredFieldParseException if the field value is not a valid item
+     */
+    public static SfItem parseItem(CharSequence input) {
+        StructuredFieldParser parser = new StructuredFieldParser(input);
+        return parser.orThrow(parser.item());
+    }
+
+    /**
+     * @param input field value
+     * @param type expected top-level type
+     * @return the parsed field
+     * @throws StructuredFieldParseException if the field value is not a valid field of this type
+     */
+    public static StructuredField parse(CharSequence input, StructuredFieldType type) {
+        StructuredFieldParser parser = new StructuredFieldParser(input);
+        return parser.orThrow(parser.parse(type));
+    }
+
+    /**
+     * Parses the whole field value as the given type.
+     * @param type
+     * @return the parsed field, null if the field value is invalid
+     */
+    public StructuredField parse(StructuredFieldType type) {
+        switch (type) {
+            case DICTIONARY:
+                return dictionary();
+            case LIST:
+                return list();
+            default:
+                return item();
+        }
+    }
+
+    /**
+     * Parses the whole field value as dictionary.
+     * @return the dictionary, null if the field value is invalid
+     */
+    public SfDictionary dictionary() {
+        reset();
+        Map<String, SfMember> members = new LinkedHashMap<>();
+        skipSpaces();
+        while (pos < input.length()) {
+            String key = key();
+            if (key == null) {
+                return null;
+            }
+            SfMember member;
+            if (peek() == '=') {
+                pos++;
+                member = member();
+            } else {
+                Map<String, Object> parameters = parameters();
+                member = parameters == null ? null : new SfItem(Boolean.TRUE, parameters);
+            }
+            if (member == null) {
+                return null;
+            }
+            members.put(key, member);
+            if (members.size() > limits.getMaxMembers()) {
+                return exceeded(Limit.MEMBERS);
+            }
+            if (!nextMember()) {
+                return null;
+            }
+        }
+        return new SfDictionary(Collections.unmodifiableMap(members));
+    }
+
+    /**
+     * Parses the whole field value as list.
+     * @return the list, null if the field value is invalid
+     */
+    public SfList list() {
+        reset();
+        List<SfMember> members = new ArrayList<>();
+        skipSpaces();
+        while (pos < input.length()) {
+            SfMember member = member();
+            if (member == null) {
+                return null;
+            }
+            members.add(member);
+            if (members.size() > limits.getMaxMembers()) {
+                return exceeded(Limit.MEMBERS);
+            }
+            if (!nextMember()) {
+                return null;
+            }
+        }
+        return new SfList(Collections.unmodifiableList(members));
+    }
+
+    /**
+     * Parses the whole field value as item.
+     * @return the item, null if the field value is invalid
+     */
+    public SfItem item() {
+        reset();
+        skipSpaces();
+        SfItem item = parameterizedItem();
+        if (item == null) {
+            return null;
+        }
+        skipSpaces();
+        if (pos < input.length()) {
+            return fail("Unexpected character after item");
+        }
+        return item;
+    }
+
+    /**
+     * @return description of the first error, null if the last parse was successful
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return position of the first error, -1 if the last parse was successful
+     */
+    public int getErrorPosition() {
+        return errorPosition;
+    }
+
+    /**
+     * @return the limit that caused the error, null if no limit was exceeded
+     */
+    public Limit getExceededLimit() {
+        return exceededLimit;
+    }
+
+    /**
+     * Resets the parser to the start of the field value.
+     */
+    private void reset() {
+        pos = 0;
+        error = null;
+        errorPosition = -1;
+        exceededLimit = null;
+    }
+
+    /**
+     * @param result
+     * @return the result
+     * @throws StructuredFieldParseException if an error occurred
+     */
+    private <T> T orThrow(T result) {
+        if (error != null) {
+            throw new StructuredFieldParseException(error, errorPosition);
+        }
+        return result;
+    }
+
+    /**
+     * Records an exceeded limit.
+     * @param limit
+     * @return null
+     */
+    private <T> T exceeded(Limit limit) {
+        if (error == null) {
+            exceededLimit = limit;
+        }
+        return fail("Limit " + limit + " exceeded");
+    }
+
+    /**
+     * Records an error.
+     * @param message
+     * @return null
+     */
+    private <T> T fail(String message) {
+        if (error == null) {
+            error = message;
+            errorPosition = pos;
+        }
+        return null;
+    }
+
+    /**
+     * Skips optional whitespace and the comma between list or dictionary members (section 4.2.1 and 4.2.2).
+     * @return false if the members are not separated correctly
+     */
+    private boolean nextMember() {
+        skipOptionalWhitespace();
+        if (pos >= input.length()) {
+            return true;
+        }
+        if (input.charAt(pos) != ',') {
+            fail("Expected comma");
+            return false;
+        }
+        pos++;
+        skipOptionalWhitespace();
+        if (pos >= input.length()) {
+            fail("Trailing comma");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return an item or inner list with parameters, null if invalid
+     */
+    private SfMember member() {
+        if (peek() == '(') {
+            return innerList();
+        }
+        return parameterizedItem();
+    }
+
+    /**
+     * Parses an inner list (section 4.2.1.2).
+     * @return the inner list, null if invalid
+     */
+    private SfInnerList innerList() {
+        pos++;
+        List<SfItem> items = new ArrayList<>();
+        while (pos < input.length()) {
+            skipSpaces();
+            if (peek() == ')') {
+                pos++;
+                Map<String, Object> parameters = parameters();
+                if (parameters == null) {
+                    return null;
+                }
+                return new SfInnerList(Collections.unmodifiableList(items), parameters);
+            }
+            SfItem item = parameterizedItem();
+            if (item == null) {
+                return null;
+            }
+            items.add(item);
+            if (items.size() > limits.getMaxInnerListItems()) {
+                return exceeded(Limit.INNER_LIST_ITEMS);
+            }
+            char next = peek();
+            if ((next != ' ') && (next != ')')) {
+                return fail("Expected space or closing parenthesis in inner list");
+            }
+        }
+        return fail("Unterminated inner list");
+    }
+
+    /**
+     * Parses a bare item with parameters (section 4.2.3).
+     * @return the item, null if invalid
+     */
+    private SfItem parameterizedItem() {
+        Object value = bareItem();
+        if (value == null) {
+            return null;
+        }
+        Map<String, Object> parameters = parameters();
+        if (parameters == null) {
+            return null;
+        }
+        return new SfItem(value, parameters);
+    }
+
+    /**
+     * Parses parameters (section 4.2.3.2).
+     * @return the parameters, null if invalid
+     */
+    private Map<String, Object> parameters() {
+        Map<String, Object> parameters = null;
+        while (peek() == ';') {
+            pos++;
+            skipSpaces();
+            String key = key();
+            if (key == null) {
+                return null;
+            }
+            Object value = Boolean.TRUE;
+            if (peek() == '=') {
+                pos++;
+                value = bareItem();
+                if (value == null) {
+                    return null;
+                }
+            }
+            if (parameters == null) {
+                parameters = new LinkedHashMap<>();
+            }
+            parameters.put(key, value);
+            if (parameters.size() > limits.getMaxParameters()) {
+                return exceeded(Limit.PARAMETERS);
+            }
+        }
+        return parameters == null ? Collections.<String, Object>emptyMap() : Collections.unmodifiableMap(parameters);
+    }
+
+    /**
+     * Parses a key (section 4.2.3.3).
+     * @return the key, null if invalid
+     */
+    private String key() {
+        int start = pos;
+        char first = peek();
+        if (!(((first >= 'a') && (first <= 'z')) || (first == '*'))) {
+            return fail("Invalid key");
+        }
+        pos++;
+        while (pos < input.length()) {
+            char c = input.charAt(pos);
+            if (((c >= 'a') && (c <= 'z')) || ((c >= '0') && (c <= '9')) || (c == '_') || (c == '-') || (c == '.')
+                    || (c == '*')) {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        return input.subSequence(start, pos).toString();
+    }
+
+    /**
+     * Parses a bare item (section 4.2.3.1).
+     * @return the bare item, null if invalid
+     */
+    private Object bareItem() {
+        char c = peek();
+        if ((c == '-') || ((c >= '0') && (c <= '9'))) {
+            return number();
+        }
+        if (c == '"') {
+            return string();
+        }
+        if (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || (c == '*')) {
+            return token();
+        }
+        if (c == ':') {
+            return byteSequence();
+        }
+        if (c == '?') {
+            return bool();
+        }
+        return fail("Invalid bare item");
+    }
+
+    /**
+     * Parses an integer or decimal (section 4.2.4).
+     * @return Long or BigDecimal, null if invalid
+     */
+    private Object number() {
+        int start = pos;
+        if (peek() == '-') {
+            pos++;
+        }
+        int digitsStart = pos;
+        int dot = -1;
+        while (pos < input.length()) {
+            char c = input.charAt(pos);
+            if ((c >= '0') && (c <= '9')) {
+                pos++;
+            } else if ((c == '.') && (dot < 0)) {
+                if ((pos - digitsStart) > 12) {
+                    return fail("Decimal with too many integer digits");
+                }
+                dot = pos;
+                pos++;
+            } else {
+                break;
+            }
+            if ((dot < 0) && ((pos - digitsStart) > 15)) {
+                return fail("Integer with too many digits");
+            }
+            if ((dot >= 0) && ((pos - digitsStart) > 16)) {
+                return fail("Decimal with too many digits");
+            }
+        }
+        if ((pos == digitsStart) || (dot == digitsStart)) {
+            return fail("Number without digits");
+        }
+        String number = input.subSequence(start, pos).toString();
+        if (dot < 0) {
+            return Long.valueOf(number);
+        }
+        int fractionDigits = pos - dot - 1;
+        if ((fractionDigits < 1) || (fractionDigits > 3)) {
+            return fail("Decimal with invalid number of fractional digits");
+        }
+        return new BigDecimal(number);
+    }
+
+    /**
+     * Parses a string (section 4.2.5).
+     * @return the string, null if invalid
+     */
+    private String string() {
+        pos++;
+        StringBuilder builder = new StringBuilder();
+        while (pos < input.length()) {
+            char c = input.charAt(pos++);
+            if (c == '\\') {
+                char escaped = peek();
+                if ((escaped != '"') && (escaped != '\\')) {
+                    return fail("Invalid escape in string");
+                }
+                builder.append(escaped);
+                pos++;
+            } else if (c == '"') {
+                return builder.toString();
+            } else if ((c < 0x20) || (c > 0x7e)) {
+                pos--;
+                return fail("Invalid character in string");
+            } else {
+                builder.append(c);
+            }
+        }
+        return fail("Unterminated string");
+    }
+
+    /**
+     * Parses a token (section 4.2.6).
+     * @return the token, referring to the field value
+     */
+    private SfToken token() {
+        int start = pos;
+        pos++;
+        while ((pos < input.length()) && isTokenChar(input.charAt(pos))) {
+            pos++;
+        }
+        return new SfToken(input, start, pos);
+    }
+
+    /**
+     * Parses a byte sequence (section 4.2.7).
+     * @return the byte sequence, referring to the field value, null if invalid
+     */
+    private SfByteSequence byteSequence() {
+        pos++;
+        int start = pos;
+        while (pos < input.length()) {
+            char c = input.charAt(pos);
+            if (c == ':') {
+                pos++;
+                return new SfByteSequence(input, start, pos - 1);
+            }
+            if (!(((c >= 'A') && (c <= 'Z')) || ((c >= 'a') && (c <= 'z')) || ((c >= '0') && (c <= '9'))
+                    || (c == '+') || (c == '/') || (c == '='))) {
+                return fail("Invalid character in byte sequence");
+            }
+            pos++;
+        }
+        return fail("Unterminated byte sequence");
+    }
+
+    /**
+     * Parses a boolean (section 4.2.8).
+     * @return the boolean, null if invalid
+     */
+    private Boolean bool() {
+        pos++;
+        char c = peek();
+        if ((c == '1') || (c == '0')) {
+            pos++;
+            return c == '1';
+        }
+        return fail("Invalid boolean");
+    }
+
+    /**
+     * @param c
+     * @return true if the character may be part of a token (tchar, ":" or "/")
+     */
+    private static boolean isTokenChar(char c) {
+        if (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9'))) {
+            return true;
+        }
+        return "!#$%&'*+-.^_`|~:/".indexOf(c) >= 0;
+    }
+
+    /**
+     * @return the current character, 0 at the end of the field value
+     */
+    private char peek() {
+        return pos < input.length() ? input.charAt(pos) : 0;
+    }
+
+    /**
+     * Skips spaces.
+     */
+    private void skipSpaces() {
+        while ((pos < input.length()) && (input.charAt(pos) == ' ')) {
+            pos++;
+        }
+    }
+
+    /**
+     * Skips spaces and horizontal tabs.
+     */
+    private void skipOptionalWhitespace() {
+        while ((pos < input.length()) && ((input.charAt(pos) == ' ') || (input.charAt(pos) == '\t'))) {
+            pos++;
+        }
+    }
+
+}
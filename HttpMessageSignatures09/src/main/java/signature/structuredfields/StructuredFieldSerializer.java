@@ -0,0 +1,113 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+/**
+ * Serialization of bare items and parameters (RFC 8941 section 4.1).
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class StructuredFieldSerializer {
+
+    /**
+     * Private constructor.
+     */
+    private StructuredFieldSerializer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Serializes the parameters (section 4.1.1.2).
+     * Parameters with the value true are serialized without value.
+     * @param parameters
+     * @param builder to which the parameters are appended
+     */
+    public static void serializeParameters(Map<String, Object> parameters, StringBuilder builder) {
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            builder.append(';').append(parameter.getKey());
+            if (!Boolean.TRUE.equals(parameter.getValue())) {
+                builder.append('=');
+                serializeBareItem(parameter.getValue(), builder);
+            }
+        }
+    }
+
+    /**
+     * Serializes a bare item (section 4.1.3.1).
+     * @param value Long, Integer, BigDecimal, String, SfToken, SfByteSequence or Boolean
+     * @param builder to which the bare item is appended
+     */
+    public static void serializeBareItem(Object value, StringBuilder builder) {
+        if ((value instanceof Long) || (value instanceof Integer)) {
+            builder.append(((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            serializeDecimal((BigDecimal) value, builder);
+        } else if (value instanceof String) {
+            serializeString((String) value, builder);
+        } else if (value instanceof SfToken) {
+            ((SfToken) value).appendTo(builder);
+        } else if (value instanceof SfByteSequence) {
+            builder.append(':');
+            ((SfByteSequence) value).appendTo(builder);
+            builder.append(':');
+        } else if (value instanceof Boolean) {
+            builder.append(((Boolean) value).booleanValue() ? "?1" : "?0");
+        } else {
+            throw new IllegalArgumentException("Unsupported bare item: " + value);
+        }
+    }
+
+    /**
+     * Serializes a decimal with at most three fractional digits (section 4.1.5).
+     * @param value
+     * @param builder
+     */
+    private static void serializeDecimal(BigDecimal value, StringBuilder builder) {
+        BigDecimal rounded = value.setScale(3, RoundingMode.HALF_EVEN).stripTrailingZeros();
+        if (rounded.scale() < 1) {
+            rounded = rounded.setScale(1);
+        }
+        builder.append(rounded.toPlainString());
+    }
+
+    /**
+     * Serializes a string (section 4.1.6).
+     * @param value
+     * @param builder
+     */
+    private static void serializeString(String value, StringBuilder builder) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c < 0x20) || (c > 0x7e)) {
+                throw new IllegalArgumentException("Invalid character in string: " + (int) c);
+            }
+            if ((c == '"') || (c == '\\')) {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        builder.append('"');
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signature.structuredfields;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Top-level types of structured fields (RFC 8941 section 3).
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public enum StructuredFieldType {
+    DICTIONARY, LIST, ITEM;
+
+    /** types of the known structured fields by lowercase field name */
+    private static final Map<String, StructuredFieldType> KNOWN_FIELDS = new HashMap<>();
+
+    static {
+        KNOWN_FIELDS.put("signature", DICTIONARY);
+        KNOWN_FIELDS.put("signature-input", DICTIONARY);
+        KNOWN_FIELDS.put("accept-signature", DICTIONARY);
+        KNOWN_FIELDS.put("content-digest", DICTIONARY);
+        KNOWN_FIELDS.put("repr-digest", DICTIONARY);
+        KNOWN_FIELDS.put("want-content-digest", DICTIONARY);
+        KNOWN_FIELDS.put("want-repr-digest", DICTIONARY);
+        KNOWN_FIELDS.put("priority", DICTIONARY);
+        KNOWN_FIELDS.put("cache-status", LIST);
+        KNOWN_FIELDS.put("proxy-status", LIST);
+        KNOWN_FIELDS.put("accept-ch", LIST);
+    }
+
+    /**
+     * @param fieldName
+     * @return type of a known structured field, null if the type of the field is not known
+     */
+    public static StructuredFieldType forField(String fieldName) {
+        return KNOWN_FIELDS.get(fieldName.toLowerCase(Locale.ROOT));
+    }
+}
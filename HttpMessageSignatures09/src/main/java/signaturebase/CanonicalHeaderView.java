@@ -0,0 +1,139 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signaturebase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import signature.components.Component;
+import signature.messages.HeaderIndex;
+import signature.structuredfields.SfDictionary;
+import signature.structuredfields.SfMember;
+import signature.structuredfields.StructuredField;
+import signature.structuredfields.StructuredFieldType;
+
+/**
+ * Read-only canonical view of the header fields covered by a signature.
+ * Only the fields named in the list of covered components are materialized:
+ * field names are lowercased, multiple fields are combined into one value and the values are canonicalized
+ * (section 2.1).
+ * The message itself is not changed.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class CanonicalHeaderView {
+
+    /** combined values of the covered header fields by lowercase field name */
+    private final Map<String, String> fields;
+    /** index of the message headers, parses and caches the structured fields */
+    private final HeaderIndex headers;
+
+    /**
+     * Constructor.
+     * @param headers Index of the message headers.
+     * @param coveredHeaders List of covered components.
+     * @param related true to materialize the components of the related request (req parameter),
+     *        false for the components of the message itself.
+     */
+    CanonicalHeaderView(HeaderIndex headers, List<Component> coveredHeaders, boolean related) {
+        this(headers, coveredHeaders, related, false);
+    }
+
+    /**
+     * Constructor.
+     * @param headers Index of the message headers or trailers.
+     * @param coveredHeaders List of covered components.
+     * @param related true to materialize the components of the related request (req parameter),
+     *        false for the components of the message itself.
+     * @param trailers true to materialize the trailer components (tr parameter), false for the header components.
+     */
+    CanonicalHeaderView(HeaderIndex headers, List<Component> coveredHeaders, boolean related, boolean trailers) {
+        Map<String, String> covered = new HashMap<>();
+        for (Component component : coveredHeaders) {
+            String componentId = component.getComponentId();
+            //derived components are not header fields
+            if (componentId.startsWith("@") || (component.isReq() != related) || (component.isTrailer() != trailers)) {
+                continue;
+            }
+            String name = componentId.toLowerCase(Locale.ROOT);
+            if (!covered.containsKey(name)) {
+                covered.put(name, FieldValueCanonicalizer.canonicalize(headers.getValues(name)));
+            }
+        }
+        fields = Collections.unmodifiableMap(covered);
+        this.headers = headers;
+    }
+
+    /**
+     * @param name field name (case-insensitive)
+     * @return canonical value of the field, null if the field is not covered or not contained in the message
+     */
+    public String get(String name) {
+        return fields.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @param name field name (case-insensitive)
+     * @return true if the field is covered and contained in the message
+     */
+    public boolean contains(String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * Strict serialization of a covered structured field (sf parameter, section 2.1.1).
+     * @param name field name (case-insensitive)
+     * @return serialized field value, null if the field is not covered or not contained in the message
+     * @throws exceptions.StructuredFieldParseException if the field is not a valid structured field
+     */
+    public String getStructured(String name) {
+        if (!contains(name)) {
+            return null;
+        }
+        StructuredField field = headers.getStructuredField(name);
+        return field.serialize();
+    }
+
+    /**
+     * Serialized member of a covered dictionary field (key parameter, section 2.1.2).
+     * @param name field name (case-insensitive)
+     * @param key member key
+     * @return serialized member, null if the field is not covered or does not contain the key
+     * @throws exceptions.StructuredFieldParseException if the field is not a valid dictionary
+     */
+    public String getDictionaryMember(String name, String key) {
+        if (!contains(name)) {
+            return null;
+        }
+        SfDictionary dictionary = (SfDictionary) headers.getStructuredField(name, StructuredFieldType.DICTIONARY);
+        SfMember member = dictionary.get(key);
+        return member != null ? member.serializeMember() : null;
+    }
+
+    /**
+     * @return canonical values of the covered fields by lowercase field name
+     */
+    public Map<String, String> asMap() {
+        return fields;
+    }
+
+}
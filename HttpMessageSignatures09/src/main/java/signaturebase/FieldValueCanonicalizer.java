@@ -0,0 +1,210 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package signaturebase;
+
+import java.util.List;
+
+/**
+ * Canonicalization of HTTP field values (section 2.1) in a single scan over the characters.
+ * Multiple values are joined with ", ", leading and trailing spaces are removed, HTABs and obs-folds are removed.
+ * No intermediate strings are created and no regular expressions are used.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class FieldValueCanonicalizer {
+
+    /** no non-space character seen so far */
+    private static final int LEADING = 0;
+    /** within the value */
+    private static final int VALUE = 1;
+    /** CR seen, possibly the start of an obs-fold */
+    private static final int CR = 2;
+    /** CR LF seen, an obs-fold if followed by SP or HTAB */
+    private static final int CRLF = 3;
+    /** within the whitespace of an obs-fold */
+    private static final int FOLD = 4;
+
+    /** canonicalized value */
+    private final StringBuilder out;
+    /** scanner state */
+    private int state = LEADING;
+    /** spaces that are only written if a further non-space character follows */
+    private int pendingSpaces;
+    /** true if the current CR was preceded by leading whitespace only */
+    private boolean foldLeading;
+
+    private FieldValueCanonicalizer(int capacity) {
+        out = new StringBuilder(capacity);
+    }
+
+    /**
+     * @param value field value, may be null
+     * @return canonicalized value
+     */
+    public static String canonicalize(CharSequence value) {
+        if (value == null) {
+            return "";
+        }
+        FieldValueCanonicalizer canonicalizer = new FieldValueCanonicalizer(value.length());
+        canonicalizer.scan(value, 0, value.length());
+        return canonicalizer.finish();
+    }
+
+    /**
+     * Values of multiple fields with the same name are joined with ", " and canonicalized in one pass.
+     * @param values field values in message order
+     * @return canonicalized value, null if the list is empty
+     */
+    public static String canonicalize(List<? extends CharSequence> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        int capacity = 0;
+        for (CharSequence value : values) {
+            capacity += value.length() + 2;
+        }
+        FieldValueCanonicalizer canonicalizer = new FieldValueCanonicalizer(capacity);
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                canonicalizer.accept(',');
+                canonicalizer.accept(' ');
+            }
+            CharSequence value = values.get(i);
+            canonicalizer.scan(value, 0, value.length());
+        }
+        return canonicalizer.finish();
+    }
+
+    /**
+     * Canonicalization of a field value given as octets (ISO-8859-1).
+     * @param value buffer containing the field value
+     * @param offset start of the field value
+     * @param length length of the field value
+     * @return canonicalized value
+     */
+    public static String canonicalize(byte[] value, int offset, int length) {
+        FieldValueCanonicalizer canonicalizer = new FieldValueCanonicalizer(length);
+        for (int i = offset; i < (offset + length); i++) {
+            canonicalizer.accept((char) (value[i] & 0xFF));
+        }
+        return canonicalizer.finish();
+    }
+
+    /**
+     * @param value
+     * @param start
+     * @param end
+     */
+    private void scan(CharSequence value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            accept(value.charAt(i));
+        }
+    }
+
+    /**
+     * @param c next character of the value
+     */
+    private void accept(char c) {
+        switch (state) {
+            case CR:
+                if (c == '\n') {
+                    state = CRLF;
+                    return;
+                }
+                //a single CR is kept
+                state = VALUE;
+                write('\r');
+                break;
+            case CRLF:
+                if ((c == ' ') || (c == '\t')) {
+                    //obs-fold: CRLF 1*(SP / HTAB) is replaced by one SP, a leading obs-fold is removed
+                    state = FOLD;
+                    if (!foldLeading) {
+                        pendingSpaces++;
+                    }
+                    return;
+                }
+                //a line break without following whitespace is kept
+                state = VALUE;
+                write('\r');
+                write('\n');
+                break;
+            case FOLD:
+                if ((c == ' ') || (c == '\t')) {
+                    return;
+                }
+                state = foldLeading ? LEADING : VALUE;
+                break;
+            default:
+                break;
+        }
+
+        switch (c) {
+            case ' ':
+                //leading spaces are removed, other spaces are written once a further character follows
+                if (state != LEADING) {
+                    pendingSpaces++;
+                }
+                break;
+            case '\t':
+                //HTAB is removed, it ends leading whitespace and keeps the spaces before it
+                state = VALUE;
+                flushSpaces();
+                break;
+            case '\r':
+                //spaces before a line break are kept only if the line break is kept or followed by a character
+                foldLeading = state == LEADING;
+                state = CR;
+                break;
+            default:
+                state = VALUE;
+                write(c);
+                break;
+        }
+    }
+
+    /**
+     * @param c character to be written after the pending spaces
+     */
+    private void write(char c) {
+        flushSpaces();
+        out.append(c);
+    }
+
+    private void flushSpaces() {
+        for (; pendingSpaces > 0; pendingSpaces--) {
+            out.append(' ');
+        }
+    }
+
+    /**
+     * Trailing spaces are dropped.
+     * @return canonicalized value
+     */
+    private String finish() {
+        if (state == CR) {
+            write('\r');
+        } else if (state == CRLF) {
+            write('\r');
+            write('\n');
+        }
+        return out.toString();
+    }
+
+}
@@ -17,7 +17,6 @@
 package signaturebase;
 
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +25,8 @@ import org.apache.http.HeaderIterator;
 import org.apache.http.HttpMessage;
 
 import signature.components.Component;
+import signature.messages.HeaderIndex;
+import signature.messages.SignableMessage;
 
 /**
  * Transformer class for preparation of the header fields for inclusion in the signature base
@@ -41,47 +42,46 @@ public class HttpFieldTransformer {
     }
 
     /**
-     * Preparation of the header field values.
-     * Allow safe transformations.
-     * @param headerList
-     *@return List of canonicalized headers.
+     * Canonical view of the header fields covered by the signature (section 2.1).
+     * The message is not changed.
+     * @param message
+     * @param coveredHeaders List of covered components.
+     * @return View containing the covered header fields of the message.
      */
-    protected static List<Component> canonicalizeHTTPFields(List<Component> coveredHeaders) {
-
-        Iterator<Component> covereHeadersIterator = coveredHeaders.iterator();
-
-        while (covereHeadersIterator.hasNext()) {
-            Component item = covereHeadersIterator.next();
-            //Section 2.1 Step 2 & 3
-            //only for header fields
-            if (!(item.getComponentId().startsWith("@"))) {
-                String value = item.getValue();
-                if (value == null) {
-                    value = " ";
-                }
-                //removal of leading or trailing whitespace
-                while (value.startsWith(" ") && (value.length() > 1)) {
-                    value = value.replaceFirst(" ", "");
-                }
-                while (value.endsWith(" ")) {
-                    value = value.substring(0, value.length() - 1);
-                }
-                //removal of obs-folds
-                value = value.replaceAll("\t", "");
-                item.setValue(value);
+    public static CanonicalHeaderView canonicalHeaderView(SignableMessage message, List<Component> coveredHeaders) {
+        return new CanonicalHeaderView(message.getHeaderIndex(), coveredHeaders, false);
+    }
 
-            }
+    /**
+     * Canonical view of the trailer fields covered with the tr parameter (section 2.1.4).
+     * @param message
+     * @param coveredHeaders List of covered components.
+     * @return View containing the covered trailer fields of the message, empty if the message has no trailers.
+     */
+    public static CanonicalHeaderView trailerView(SignableMessage message, List<Component> coveredHeaders) {
+        HeaderIndex trailers = message.getTrailerIndex();
+        return new CanonicalHeaderView(trailers != null ? trailers : new HeaderIndex(new Header[0]), coveredHeaders,
+                false, true);
+    }
 
-        }
-        return coveredHeaders;
+    /**
+     * Canonical view of the header fields of the related request covered with the req parameter
+     * (Request-Response Signature Binding). The request is not changed.
+     * @param request
+     * @param coveredHeaders List of covered components.
+     * @return View containing the related header fields of the request.
+     */
+    public static CanonicalHeaderView relatedHeaderView(SignableMessage request, List<Component> coveredHeaders) {
+        return new CanonicalHeaderView(request.getHeaderIndex(), coveredHeaders, true);
     }
 
     /**
      * Header names are converted to lowercase.
      * Multiple headers are combined into one (section 2.1).
      * @return Message with prepared header field names
+     * @deprecated Rewrites all headers of the message, use {@link #canonicalHeaderView(SignableMessage, List)}.
      */
-
+    @Deprecated
     public static HttpMessage canonicalizeHTTPHeader(HttpMessage message) {
         HashMap<String, String> headermap = new HashMap<>();
         HeaderIterator headerIteratorCase = message.headerIterator();
@@ -16,6 +16,7 @@
 */
 package signaturebase;
 
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
@@ -23,16 +24,16 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 
-import org.apache.http.Header;
-import org.apache.http.HeaderElement;
-import org.apache.http.HttpRequest;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.utils.URIBuilder;
 
+import exceptions.MissingComponentException;
 import signature.components.Component;
+import signature.components.DigestAlgorithm;
 import signature.components.SHAEncoder;
 import signature.components.SignatureParameter;
-import signature.messages.SignedHttpMessage;
+import signature.messages.BodyCharset;
+import signature.messages.SignableMessage;
 
 /**
  * SignatureBaseCreator for creating the signature base for signing/verifying an HTTP message.
@@ -52,9 +53,9 @@ public abstract class SignaturBaseCreator {
     /** signature-input */
     public String signatureInput;
     /** message to be signed/verified */
-    protected SignedHttpMessage message;
+    protected SignableMessage message;
 
-    SignaturBaseCreator(SignedHttpMessage message) {
+    SignaturBaseCreator(SignableMessage message) {
         this.message = message;
     }
 
@@ -62,15 +63,12 @@ public abstract class SignaturBaseCreator {
 
     /**
      * Extract the query parameters from the URI.
-     * @param Request
+     * @param uri target URI of the request
      * @return HashMap containing the query-params
-     * @throws URISyntaxException
-     * @throws Exception
      */
-    protected HashMap<String, String> getQueryParams(HttpRequest request) throws URISyntaxException {
+    protected HashMap<String, String> getQueryParams(URI uri) {
         HashMap<String, String> query = new HashMap<>();
 
-        String uri = request.getRequestLine().getUri();
         List<NameValuePair> queryParams = new URIBuilder(uri).getQueryParams();
         Iterator<NameValuePair> queryIterator = queryParams.iterator();
 
@@ -97,7 +95,7 @@ public abstract class SignaturBaseCreator {
      * @return Returns the bytes of the signature base
      * @throws NoSuchAlgorithmException
      */
-    protected byte[] createSignatureBaseForMessage(SignedHttpMessage message, SignatureParameter sigparams)
+    protected byte[] createSignatureBaseForMessage(SignableMessage message, SignatureParameter sigparams)
             throws NoSuchAlgorithmException {
         this.message = message;
 
@@ -143,31 +141,22 @@ public abstract class SignaturBaseCreator {
     }
 
     /**
-     * @throws NoSuchAlgorithmException
-     *
+     * Takes the value of a covered content-digest field from the message.
+     * The field is created by the signer, the message is not changed here.
      */
-    private void checkCoveredMessageBody() throws NoSuchAlgorithmException {
+    private void checkCoveredMessageBody() {
         Iterator<Component> coveredHeadersIterator = coveredHeaders.iterator();
         while (coveredHeadersIterator.hasNext()) {
             Component component = coveredHeadersIterator.next();
             String componentId = component.getComponentId();
 
-            if (componentId.equals("content-digest")) {
-
-                //check if request contains a message-body
-                if (message.getMessageBody() != null) {
-                    String body = message.getMessageBody();
-                    //create content-digest Header
-                    if (!message.containsHeader("content-digest")) {
-                        String bodyHash = createContentDigestHeader(body);
-                        component.setValue(bodyHash);
-                        message.addHeader("content-digest", bodyHash);
-                    } else {
-                        component.setValue(message.getFirstHeader("content-digest").getValue());
-                    }
-
+            //a content-digest trailer is taken from the trailers by addHeaders
+            if (componentId.equals("content-digest") && !component.isTrailer()) {
+                String contentDigest = FieldValueCanonicalizer
+                        .canonicalize(message.getHeaderIndex().getValues("content-digest"));
+                if (contentDigest != null) {
+                    component.setValue(contentDigest);
                 }
-
             }
         }
 
@@ -216,47 +205,69 @@ public abstract class SignaturBaseCreator {
      * @param String of message body
      * @throws NoSuchAlgorithmException
      */
-    public String createContentDigestHeader(String body) throws NoSuchAlgorithmException {
+    public static String createContentDigestHeader(String body) throws NoSuchAlgorithmException {
         //256-Sha function is used by default
-        String headerValue = "sha-256=:" + SHAEncoder.hash256(body);
+        return createContentDigestHeader(body, DigestAlgorithm.SHA_256);
+    }
+
+    /**
+     * @param body message body, hashed as octets of the default body charset (UTF-8, see BodyCharset)
+     * @param algorithm digest algorithm
+     * @return value of the content-digest field
+     * @throws NoSuchAlgorithmException
+     */
+    public static String createContentDigestHeader(String body, DigestAlgorithm algorithm)
+            throws NoSuchAlgorithmException {
+        return createContentDigestHeader(body.getBytes(BodyCharset.DEFAULT), algorithm);
+    }
 
-        return headerValue;
+    /**
+     * @param body octets of the message body
+     * @param algorithm digest algorithm
+     * @return value of the content-digest field
+     * @throws NoSuchAlgorithmException
+     */
+    public static String createContentDigestHeader(byte[] body, DigestAlgorithm algorithm)
+            throws NoSuchAlgorithmException {
+        return SHAEncoder.contentDigestMember(algorithm, algorithm.newMessageDigest().digest(body));
     }
 
     /**
      * add Headervalues to component
+     * @throws MissingComponentException if a covered field or dictionary member is not contained in the message
      */
     protected void addHeaders() {
+        //only the covered header fields are canonicalized, the message is not changed
+        CanonicalHeaderView messageHeaders = HttpFieldTransformer.canonicalHeaderView(message, coveredHeaders);
+        CanonicalHeaderView trailers = HttpFieldTransformer.trailerView(message, coveredHeaders);
 
         for (Component component : coveredHeaders) {
             String componentId = component.getComponentId();
-            //only for header fields
+            //only for header and trailer fields
             if (!componentId.contains("@") && (!component.isReq())) {
-                Header componentHeader = message.getFirstHeader(componentId);
-                String value = "";
+                CanonicalHeaderView headers = component.isTrailer() ? trailers : messageHeaders;
+                String headerValue = headers.get(componentId);
+                String value = headerValue;
                 NameValuePair[] parameters = component.getParameter();
-                if ((parameters == null) || (parameters.length == 0)) {
-                    value = componentHeader.getValue();
-                } else {
-
+                if (parameters != null) {
                     for (NameValuePair parameter : parameters) {
                         if (parameter == null) {
-                            value = componentHeader.getValue();
-                        } else {
-                            if (parameter.getName().equals("sf")) {
-                                value = componentHeader.getValue();
-                            } else {
-                                HeaderElement[] elements = componentHeader.getElements();
-                                for (HeaderElement element : elements) {
-                                    if (element.getName().equals(parameter.getValue())) {
-                                        value = element.getValue();
-                                    }
-                                }
-                            }
+                            continue;
+                        }
+                        if (parameter.getName().equals("sf")) {
+                            //strict serialization of the structured field
+                            value = headers.getStructured(componentId);
+                        } else if (parameter.getName().equals("key")) {
+                            //single member of a dictionary field
+                            value = headers.getDictionaryMember(componentId, parameter.getValue());
                         }
-
                     }
                 }
+                if (value == null) {
+                    //an empty field has an empty value, a missing field cannot be signed
+                    throw new MissingComponentException("Covered component is not contained in the message",
+                            componentId);
+                }
                 component.setValue(value);
 
             }
@@ -26,7 +26,7 @@ import org.apache.http.NameValuePair;
 
 import signature.components.Component;
 import signature.components.SignatureParameter;
-import signature.messages.SignedHttpRequest;
+import signature.messages.SignableMessage;
 
 /**
  * Performs specific steps for creating a SignatureBase for a request.
@@ -37,7 +37,7 @@ import signature.messages.SignedHttpRequest;
  */
 public class SignaturBaseCreatorRequest extends SignaturBaseCreator {
     /** request to be signed/verified */
-    private SignedHttpRequest request;
+    private SignableMessage request;
 
     /**
      * Constructor.
@@ -47,7 +47,7 @@ public class SignaturBaseCreatorRequest extends SignaturBaseCreator {
      * @throws URISyntaxException
      * @throws NoSuchAlgorithmException
      */
-    public SignaturBaseCreatorRequest(List<Component> coveredHeaders, SignedHttpRequest request,
+    public SignaturBaseCreatorRequest(List<Component> coveredHeaders, SignableMessage request,
             SignatureParameter params) throws NoSuchAlgorithmException, URISyntaxException {
         super(request);
         this.coveredHeaders = coveredHeaders;
@@ -66,8 +66,6 @@ public class SignaturBaseCreatorRequest extends SignaturBaseCreator {
 
         addHeaders();
         addDerivedComponents();
-        //2.1 merge duplicate headers
-        coveredHeaders = HttpFieldTransformer.canonicalizeHTTPFields(coveredHeaders);
         signaturebase = createSignatureBaseForMessage(request, params);
     }
 
@@ -78,18 +76,19 @@ public class SignaturBaseCreatorRequest extends SignaturBaseCreator {
      */
     private void addDerivedComponents() throws URISyntaxException {
         HashMap<String, String> allQueryParams;
-        URI uri = new URI(request.getRequestLine().getUri());
-        allQueryParams = getQueryParams(request);
+        //the target URI is parsed once by the message
+        URI uri = request.getTargetUri();
+        allQueryParams = getQueryParams(uri);
 
         for (Component component : coveredHeaders) {
             String componentId = component.getComponentId();
             if (componentId.contains("@method")) {
-                component.setValue(request.getRequestLine().getMethod());
+                component.setValue(request.getMethod());
 
             }
 
             if (componentId.contains("@target-uri")) {
-                component.setValue(request.getRequestLine().getUri().toLowerCase());
+                component.setValue(uri.toString().toLowerCase());
             }
 
             if (componentId.contains("@request-target")) {
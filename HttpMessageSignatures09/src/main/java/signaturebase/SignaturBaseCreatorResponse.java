@@ -23,13 +23,12 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 
-import org.apache.http.HeaderElement;
-import org.apache.http.HttpRequest;
 import org.apache.http.NameValuePair;
 
+import exceptions.MissingComponentException;
 import signature.components.Component;
 import signature.components.SignatureParameter;
-import signature.messages.SignedHttpResponse;
+import signature.messages.SignableMessage;
 
 /**
  * Performs specific steps for creating a SignatureBase for a response.
@@ -40,7 +39,7 @@ import signature.messages.SignedHttpResponse;
  */
 public class SignaturBaseCreatorResponse extends SignaturBaseCreator {
     /** response to be signed/verified */
-    private SignedHttpResponse response;
+    private SignableMessage response;
 
     /**
      * Constructor.
@@ -50,7 +49,7 @@ public class SignaturBaseCreatorResponse extends SignaturBaseCreator {
      * @throws URISyntaxException
      * @throws NoSuchAlgorithmException
      */
-    public SignaturBaseCreatorResponse(List<Component> coveredHeaders, SignedHttpResponse response,
+    public SignaturBaseCreatorResponse(List<Component> coveredHeaders, SignableMessage response,
             SignatureParameter params) throws NoSuchAlgorithmException, URISyntaxException {
         super(response);
         this.coveredHeaders = coveredHeaders;
@@ -71,13 +70,12 @@ public class SignaturBaseCreatorResponse extends SignaturBaseCreator {
         addHeaders();
         addDerivedComponent();
 
-        if (response.getRelatedHttpRequest() != null) {
-            relatedDerivedComponents(response);
-            relatedComponents(response);
+        SignableMessage request = response.getRelatedRequest();
+        if (request != null) {
+            relatedDerivedComponents(request);
+            relatedComponents(request);
         }
 
-        //2.1 merge duplicate headers
-        coveredHeaders = HttpFieldTransformer.canonicalizeHTTPFields(coveredHeaders);
         signaturebase = createSignatureBaseForMessage(response, params);
     }
 
@@ -89,7 +87,7 @@ public class SignaturBaseCreatorResponse extends SignaturBaseCreator {
         while (coveredHeadersIterator.hasNext()) {
             Component item = coveredHeadersIterator.next();
             if (item.getComponentId().contains("@status")) {
-                item.setValue("" + response.getStatusLine().getStatusCode());
+                item.setValue("" + response.getStatusCode());
             }
         }
 
@@ -97,13 +95,12 @@ public class SignaturBaseCreatorResponse extends SignaturBaseCreator {
 
     /**
      * add the related header components of a connected request (Request-Response Signature Binding)
-     * @param response
-     * @param headerList
+     * @param request related request
+     * @throws MissingComponentException if a covered field or signature is not contained in the request
      */
-    private void relatedComponents(SignedHttpResponse response) {
-        HttpRequest request = response.getRelatedHttpRequest();
-        //request has to be canonicalize
-        request = (HttpRequest) HttpFieldTransformer.canonicalizeHTTPHeader(request);
+    private void relatedComponents(SignableMessage request) {
+        //canonical view of the related fields, the request itself is not changed
+        CanonicalHeaderView requestHeaders = HttpFieldTransformer.relatedHeaderView(request, coveredHeaders);
         // iterate throw coveredHeaders
         Iterator<Component> coveredHeadersIterator = coveredHeaders.iterator();
         while (coveredHeadersIterator.hasNext()) {
@@ -123,18 +120,15 @@ public class SignaturBaseCreatorResponse extends SignaturBaseCreator {
                         }
                     }
 
-                    HeaderElement[] ele = request.getFirstHeader("Signature").getElements();
-                    for (HeaderElement element : ele) {
-                        if (element.getName().equals(sigLabel)) {
-                            value = element.getValue();
-                            component.setValue(value);
-
-                        }
-                    }
+                    value = requestHeaders.getDictionaryMember("signature", sigLabel);
                 } else {
-                    value = request.getFirstHeader(componentId).getValue();
-                    component.setValue(value);
+                    value = requestHeaders.get(componentId);
+                }
+                if (value == null) {
+                    throw new MissingComponentException("Covered component is not contained in the request",
+                            componentId);
                 }
+                component.setValue(value);
 
             }
 
@@ -144,19 +138,14 @@ public class SignaturBaseCreatorResponse extends SignaturBaseCreator {
 
     /**
      * add the derived components of a connected request (Request-Response Signature Binding)
-     * @param response
-     * @param headerList List of all message headers.
-     * @throws URISyntaxException
-     * @throws Exception
-     *
+     * @param request related request
      */
-    private void relatedDerivedComponents(SignedHttpResponse response) throws URISyntaxException {
+    private void relatedDerivedComponents(SignableMessage request) {
 
         HashMap<String, String> allQueryParams;
-        HttpRequest request = response.getRelatedHttpRequest();
 
-        URI uri = new URI(request.getRequestLine().getUri());
-        allQueryParams = getQueryParams(request);
+        URI uri = request.getTargetUri();
+        allQueryParams = getQueryParams(uri);
 
         for (Component component : coveredHeaders) {
             String componentId = component.getComponentId();
@@ -164,13 +153,13 @@ public class SignaturBaseCreatorResponse extends SignaturBaseCreator {
             if (component.isReq()) {
                 if (componentId.contains("@method")) {
 
-                    component.setValue(request.getRequestLine().getMethod());
+                    component.setValue(request.getMethod());
 
                 }
 
                 if (componentId.contains("@target-uri")) {
 
-                    component.setValue(request.getRequestLine().getUri().toLowerCase());
+                    component.setValue(uri.toString().toLowerCase());
 
                 }
 
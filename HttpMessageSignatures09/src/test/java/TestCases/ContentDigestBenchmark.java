@@ -0,0 +1,122 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import signature.components.DigestAlgorithm;
+import signature.components.SHAEncoder;
+
+/**
+ * Compares the Content-Digest computation of file-backed bodies: buffered stream reads against the
+ * memory-mapped file channel. Not a unit test, run it with the size of the largest file in MB as argument
+ * (default 4096):
+ * java TestCases.ContentDigestBenchmark 4096
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class ContentDigestBenchmark {
+
+    /** one megabyte */
+    private static final long MB = 1024L * 1024;
+
+    /**
+     * @param args size of the largest file in MB
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        long maxSize = (args.length > 0 ? Long.parseLong(args[0]) : 4096) * MB;
+        for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+            System.out.println(algorithm.getKey());
+            System.out.println(String.format("%10s %14s %14s", "size [MB]", "stream [MB/s]", "mapped [MB/s]"));
+            for (long size = MB; size <= maxSize; size *= 4) {
+                Path file = createFile(size);
+                try {
+                    //warm up
+                    streamDigest(algorithm, file);
+                    SHAEncoder.digest(algorithm, file);
+
+                    long start = System.nanoTime();
+                    byte[] streamed = streamDigest(algorithm, file);
+                    long streamTime = System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    byte[] mapped = SHAEncoder.digest(algorithm, file);
+                    long mappedTime = System.nanoTime() - start;
+
+                    if (!MessageDigest.isEqual(streamed, mapped)) {
+                        throw new IllegalStateException("Digests differ for " + size + " bytes");
+                    }
+                    System.out.println(String.format("%10d %14.1f %14.1f", size / MB, throughput(size, streamTime),
+                            throughput(size, mappedTime)));
+                } finally {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param algorithm
+     * @param file
+     * @return digest of the file read through the buffered stream
+     * @throws NoSuchAlgorithmException
+     * @throws IOException
+     */
+    private static byte[] streamDigest(DigestAlgorithm algorithm, Path file)
+            throws NoSuchAlgorithmException, IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return SHAEncoder.digest(algorithm, input);
+        }
+    }
+
+    /**
+     * @param size
+     * @return temporary file of the given size with random content
+     * @throws IOException
+     */
+    private static Path createFile(long size) throws IOException {
+        Path file = Files.createTempFile("content-digest", ".bin");
+        byte[] block = new byte[(int) MB];
+        new Random(size).nextBytes(block);
+        try (OutputStream output = Files.newOutputStream(file)) {
+            for (long written = 0; written < size; written += block.length) {
+                output.write(block, 0, (int) Math.min(block.length, size - written));
+            }
+        }
+        return file;
+    }
+
+    /**
+     * @param size in bytes
+     * @param nanos
+     * @return throughput in MB/s
+     */
+    private static double throughput(long size, long nanos) {
+        return (size / (double) MB) / (nanos / 1e9);
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import signature.components.DigestAlgorithm;
+import signature.components.SHAEncoder;
+
+/**
+ * Measures the throughput of the Content-Digest algorithms on the current CPU and recommends the faster one
+ * for SignatureParameter.setContentDigestAlgorithm. Not a unit test, run it with the body size in MB as argument
+ * (default 64):
+ * java TestCases.DigestAlgorithmBenchmark 64
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class DigestAlgorithmBenchmark {
+
+    /** one megabyte */
+    private static final int MB = 1024 * 1024;
+    /** measured runs per algorithm, the fastest run counts */
+    private static final int RUNS = 5;
+
+    /**
+     * @param args body size in MB
+     * @throws Exception
+     */
+    public static void main(String[] args) throws Exception {
+        int size = (args.length > 0 ? Integer.parseInt(args[0]) : 64) * MB;
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        ByteBuffer body = ByteBuffer.wrap(content);
+
+        System.out.println(System.getProperty("os.arch") + ", " + System.getProperty("java.vm.name") + " "
+                + System.getProperty("java.version"));
+        DigestAlgorithm fastest = null;
+        double fastestThroughput = 0;
+        for (DigestAlgorithm algorithm : DigestAlgorithm.values()) {
+            //warm up
+            SHAEncoder.digest(algorithm, body);
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                SHAEncoder.digest(algorithm, body);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            double throughput = (size / (double) MB) / (best / 1e9);
+            System.out.println(String.format("%-8s %10.1f MB/s", algorithm.getKey(), throughput));
+            if (throughput > fastestThroughput) {
+                fastest = algorithm;
+                fastestThroughput = throughput;
+            }
+        }
+        System.out.println("recommended content-digest algorithm: " + fastest.getKey());
+    }
+
+}
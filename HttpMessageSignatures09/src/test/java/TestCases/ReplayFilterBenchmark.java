@@ -0,0 +1,113 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import java.util.function.LongSupplier;
+
+import signature.replay.BloomReplayFilter;
+import signature.replay.ReplayStore;
+import signature.replay.ShardedReplayCache;
+
+/**
+ * Compares the replay stores at a fixed nonce rate: memory per million nonces in the validity window, the rate of
+ * new nonces rejected as replay and the time per nonce. The window is filled twice, the second round is measured.
+ * Not a unit test, run it with the number of nonces in the window in millions as argument (default 1):
+ * java TestCases.ReplayFilterBenchmark 1
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class ReplayFilterBenchmark {
+
+    /** validity of a signature in seconds */
+    private static final long VALIDITY = 300;
+    /** length of a bucket in seconds */
+    private static final long BUCKET = 10;
+
+    /**
+     * @param args number of nonces in the validity window in millions
+     */
+    public static void main(String[] args) {
+        long nonces = (long) ((args.length > 0 ? Double.parseDouble(args[0]) : 1) * 1_000_000);
+        long rate = Math.max(1, nonces / VALIDITY);
+        System.out.println(String.format("%d nonces per second, %d s validity", rate, VALIDITY));
+        System.out.println(String.format("%-22s %14s %14s %10s", "store", "MB per million", "false rejects",
+                "ns/nonce"));
+
+        TestClock clock = new TestClock();
+        long before = usedMemory();
+        ShardedReplayCache cache = new ShardedReplayCache(1, clock);
+        //the nonces of the window are still referenced by the cache
+        run("exact", cache, rate, clock, () -> usedMemory() - before);
+
+        for (double falsePositiveRate : new double[] {1e-2, 1e-3, 1e-4, 1e-6}) {
+            clock = new TestClock();
+            BloomReplayFilter filter = new BloomReplayFilter(VALIDITY, BUCKET, rate, falsePositiveRate, clock);
+            String name = String.format("bloom p=%.0e k=%d", falsePositiveRate, filter.getHashCount());
+            run(name, filter, rate, clock, filter::getMemoryBytes);
+        }
+    }
+
+    /**
+     * Records new nonces at the given rate for two validity windows and prints the results of the second.
+     * @param name
+     * @param store
+     * @param rate nonces per second
+     * @param clock
+     * @param memory size of the store in bytes
+     */
+    private static void run(String name, ReplayStore store, long rate, TestClock clock,
+            LongSupplier memory) {
+        long counter = 0;
+        long rejected = 0;
+        long measured = 0;
+        long nanos = 0;
+        for (long second = 0; second < 2 * VALIDITY; second++) {
+            clock.advanceSeconds(1);
+            long start = System.nanoTime();
+            for (long i = 0; i < rate; i++) {
+                boolean accepted = store.checkAndRecord("key", Long.toString(counter++), clock.epochSecond() + VALIDITY);
+                if (second >= VALIDITY) {
+                    measured++;
+                    if (!accepted) {
+                        rejected++;
+                    }
+                }
+            }
+            if (second >= VALIDITY) {
+                nanos += System.nanoTime() - start;
+            }
+        }
+        double megabytes = memory.getAsLong() / (1024.0 * 1024);
+        double millions = (rate * VALIDITY) / 1e6;
+        System.out.println(String.format("%-22s %14.1f %14.2e %10.0f", name, megabytes / millions,
+                rejected / (double) measured, nanos / (double) measured));
+    }
+
+    /**
+     * @return used heap in bytes after a garbage collection
+     */
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Clock set by the test classes and benchmarks, it only moves when it is advanced.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestClock extends Clock {
+
+    /** current time in epoch milliseconds */
+    private volatile long millis;
+
+    /**
+     * Constructor, the clock starts at epoch second 1000000.
+     */
+    public TestClock() {
+        this(1_000_000);
+    }
+
+    /**
+     * @param epochSecond time the clock starts at
+     */
+    public TestClock(long epochSecond) {
+        this.millis = epochSecond * 1000;
+    }
+
+    /**
+     * @return current time in epoch seconds
+     */
+    public long epochSecond() {
+        return Math.floorDiv(millis, 1000L);
+    }
+
+    /**
+     * @param seconds time the clock is moved forward
+     */
+    public void advanceSeconds(long seconds) {
+        millis += seconds * 1000;
+    }
+
+    /**
+     * @param milliseconds time the clock is moved forward
+     */
+    public void advanceMillis(long milliseconds) {
+        millis += milliseconds;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public long millis() {
+        return millis;
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis);
+    }
+
+}
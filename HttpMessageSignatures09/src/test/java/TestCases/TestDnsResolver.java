@@ -0,0 +1,212 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+import signature.components.Component;
+import signature.components.SignatureParameter;
+import signature.dns.AsyncResolver;
+import signature.dns.DnsResolver;
+import signature.messages.SignedHttpRequest;
+
+/**
+ * Tests for the cached lookups of the dns-target parameter.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestDnsResolver {
+
+    /*
+     * A cached host is not looked up again until its TTL has passed, then the expired addresses are returned
+     * while they are refreshed.
+     */
+    @Test
+    public void testCachedLookup() throws Exception {
+        TestClock clock = new TestClock();
+        TestResolver resolver = new TestResolver();
+        DnsResolver dns = new DnsResolver(resolver, Runnable::run, 30, 10, 1000, 60, clock);
+
+        CompletableFuture<List<InetAddress>> first = dns.resolveAsync("example.com");
+        assertEquals(1, resolver.lookups.size());
+        resolver.complete(0, "192.0.2.1");
+        assertEquals("192.0.2.1", first.get().get(0).getHostAddress());
+
+        clock.advanceMillis(29_000);
+        assertEquals("192.0.2.1", dns.getHostAddress("example.com"));
+        assertEquals(1, resolver.lookups.size());
+
+        clock.advanceMillis(1_000);
+        assertEquals("192.0.2.1", dns.getHostAddress("example.com"));
+        assertEquals("192.0.2.1", dns.getHostAddress("example.com"));
+        //one refresh for both expired lookups
+        assertEquals(2, resolver.lookups.size());
+        resolver.complete(1, "192.0.2.2");
+        assertEquals("192.0.2.2", dns.getHostAddress("example.com"));
+    }
+
+    @Test
+    public void testFailedLookupCached() {
+        TestClock clock = new TestClock();
+        TestResolver resolver = new TestResolver();
+        DnsResolver dns = new DnsResolver(resolver, Runnable::run, 30, 10, 1000, 60, clock);
+
+        CompletableFuture<List<InetAddress>> lookup = dns.resolveAsync("unknown.invalid");
+        resolver.lookups.get(0).completeExceptionally(new UnknownHostException("unknown.invalid"));
+        assertTrue(lookup.join().isEmpty());
+        assertNull(dns.getHostAddress("unknown.invalid"));
+        assertEquals(1, resolver.lookups.size());
+
+        clock.advanceMillis(10_000);
+        dns.resolve("unknown.invalid");
+        assertEquals(2, resolver.lookups.size());
+    }
+
+    /*
+     * The first lookup of a host waits for the resolver at most for the lookup timeout.
+     */
+    @Test
+    public void testLookupTimeout() throws Exception {
+        TestResolver resolver = new TestResolver();
+        DnsResolver dns = new DnsResolver(resolver, Runnable::run, 30, 10, 10, 60, new TestClock());
+        assertTrue(dns.resolve("slow.example").isEmpty());
+        resolver.complete(0, "192.0.2.3");
+        assertEquals("192.0.2.3", dns.getHostAddress("slow.example"));
+    }
+
+    /*
+     * A lookup waits for the pending first lookup of another thread instead of returning no addresses.
+     */
+    @Test
+    public void testPendingFirstLookup() throws Exception {
+        TestResolver resolver = new TestResolver();
+        DnsResolver dns = new DnsResolver(resolver, Runnable::run, 30, 10, 5000, 60, new TestClock());
+        CompletableFuture<List<InetAddress>> first = dns.resolveAsync("example.com");
+        assertFalse(first.isDone());
+        //pending, not a completed empty list
+        assertFalse(dns.resolveAsync("example.com").isDone());
+
+        Thread completing = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+                resolver.complete(0, "192.0.2.1");
+            } catch (InterruptedException | UnknownHostException e) {
+                first.completeExceptionally(e);
+            }
+        });
+        completing.start();
+        try {
+            assertEquals("192.0.2.1", dns.getHostAddress("example.com"));
+            assertEquals(1, resolver.lookups.size());
+        } finally {
+            completing.join();
+        }
+    }
+
+    /*
+     * A failed refresh keeps the expired addresses, the refresh is retried after the negative TTL.
+     */
+    @Test
+    public void testFailedRefreshKeepsAddresses() throws Exception {
+        TestClock clock = new TestClock();
+        TestResolver resolver = new TestResolver();
+        DnsResolver dns = new DnsResolver(resolver, Runnable::run, 30, 10, 1000, 60, clock);
+        dns.resolveAsync("example.com");
+        resolver.complete(0, "192.0.2.1");
+
+        clock.advanceMillis(30_000);
+        assertEquals("192.0.2.1", dns.getHostAddress("example.com"));
+        resolver.lookups.get(1).completeExceptionally(new UnknownHostException("example.com"));
+        assertEquals("192.0.2.1", dns.getHostAddress("example.com"));
+        assertEquals(2, resolver.lookups.size());
+
+        clock.advanceMillis(10_000);
+        assertEquals("192.0.2.1", dns.getHostAddress("example.com"));
+        assertEquals(3, resolver.lookups.size());
+        resolver.complete(2, "192.0.2.2");
+        assertEquals("192.0.2.2", dns.getHostAddress("example.com"));
+    }
+
+    @Test
+    public void testLocalAddresses() throws Exception {
+        DnsResolver dns = new DnsResolver(host -> CompletableFuture.completedFuture(Collections.emptyList()),
+                Runnable::run, 30, 10, 1000, 60, new TestClock());
+        String loopback = InetAddress.getByName("localhost").getHostAddress();
+        assertTrue(dns.isLocalAddress(loopback, "localhost"));
+        assertFalse(dns.isLocalAddress("192.0.2.1", "localhost"));
+        assertFalse(dns.isLocalAddress("192.0.2.1", "example.com"));
+    }
+
+    /*
+     * The origin-form target of a request has no host, it refers to the loopback address like
+     * InetAddress.getByName(null) without a lookup.
+     */
+    @Test
+    public void testRelativeTarget() throws Exception {
+        TestResolver resolver = new TestResolver();
+        DnsResolver dns = new DnsResolver(resolver, Runnable::run, 30, 10, 1000, 60, new TestClock());
+        SignedHttpRequest request = new SignedHttpRequest("GET", "/foo", new SignatureParameter("hmac-sha256",
+                "test-shared-secret", "sig-b26", Arrays.asList(new Component("@method"))));
+        request.setDnsTarget(dns);
+        String loopback = InetAddress.getLoopbackAddress().getHostAddress();
+        assertEquals(loopback, request.getSignatureParams().getDnsTarget());
+        assertEquals(loopback, dns.resolveAsync(null).get().get(0).getHostAddress());
+        assertTrue(resolver.lookups.isEmpty());
+        assertTrue(dns.isLocalAddress(loopback, null));
+    }
+
+    /**
+     * Resolver completed by the test.
+     */
+    private static final class TestResolver implements AsyncResolver {
+
+        /** started lookups */
+        final List<CompletableFuture<List<InetAddress>>> lookups = new ArrayList<>();
+
+        @Override
+        public CompletableFuture<List<InetAddress>> resolve(String host) {
+            CompletableFuture<List<InetAddress>> lookup = new CompletableFuture<>();
+            lookups.add(lookup);
+            return lookup;
+        }
+
+        /**
+         * @param index of the lookup
+         * @param address resolved address
+         * @throws UnknownHostException
+         */
+        void complete(int index, String address) throws UnknownHostException {
+            lookups.get(index).complete(Collections.singletonList(InetAddress.getByName(address)));
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import signaturebase.FieldValueCanonicalizer;
+
+/**
+ * Compares the single-pass canonicalization of field values with the previous string based implementation.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestFieldCanonicalization {
+
+    /** characters of the generated field values */
+    private static final char[] ALPHABET = {' ', ' ', ' ', '\t', 'a', 'b', ',', ';', '=', '"'};
+
+    /*
+     * Random values without line breaks must be canonicalized exactly like before.
+     */
+    @Test
+    public void testFuzzSingleValue() {
+        Random random = new Random(4711);
+        for (int i = 0; i < 100000; i++) {
+            String value = randomValue(random);
+            assertEquals("value [" + value + "]", previousCanonicalization(value),
+                    FieldValueCanonicalizer.canonicalize(value));
+        }
+    }
+
+    /*
+     * Joining multiple values must give the same result as combining the values first.
+     */
+    @Test
+    public void testFuzzMultipleValues() {
+        Random random = new Random(815);
+        for (int i = 0; i < 50000; i++) {
+            List<String> values = new ArrayList<>();
+            int count = 1 + random.nextInt(4);
+            for (int j = 0; j < count; j++) {
+                values.add(randomValue(random));
+            }
+            assertEquals("values " + values, previousCanonicalization(String.join(", ", values)),
+                    FieldValueCanonicalizer.canonicalize(values));
+        }
+    }
+
+    /*
+     * The octet based canonicalization must match the character based one.
+     */
+    @Test
+    public void testFuzzBytes() {
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            String value = randomValue(random);
+            byte[] bytes = ("xx" + value + "yy").getBytes(StandardCharsets.ISO_8859_1);
+            assertEquals(FieldValueCanonicalizer.canonicalize(value),
+                    FieldValueCanonicalizer.canonicalize(bytes, 2, bytes.length - 4));
+        }
+    }
+
+    @Test
+    public void testObsFold() {
+        assertEquals("text/plain; charset=utf-8",
+                FieldValueCanonicalizer.canonicalize("text/plain;\r\n charset=utf-8"));
+        assertEquals("a b", FieldValueCanonicalizer.canonicalize("a\r\n\t b"));
+        assertEquals("a", FieldValueCanonicalizer.canonicalize("\r\n a\r\n "));
+        assertEquals("a\r\nb", FieldValueCanonicalizer.canonicalize("a\r\nb"));
+    }
+
+    @Test
+    public void testMultipleValues() {
+        assertEquals("Tue, 20 Apr 2021 02:07:55 GMT, Tue, 21 Apr 2021 02:07:55 GMT", FieldValueCanonicalizer
+                .canonicalize(Arrays.asList("  Tue, 20 Apr 2021 02:07:55 GMT", "Tue, 21 Apr 2021 02:07:55 GMT  ")));
+        assertEquals("", FieldValueCanonicalizer.canonicalize((String) null));
+    }
+
+    /**
+     * @param random
+     * @return field value of up to 16 characters
+     */
+    private static String randomValue(Random random) {
+        int length = random.nextInt(17);
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            value.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return value.toString();
+    }
+
+    /**
+     * String based canonicalization as used before the single-pass implementation.
+     * @param value
+     * @return canonicalized value
+     */
+    private static String previousCanonicalization(String value) {
+        if (value == null) {
+            value = " ";
+        }
+        while (value.startsWith(" ") && (value.length() > 1)) {
+            value = value.replaceFirst(" ", "");
+        }
+        while (value.endsWith(" ")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        value = value.replaceAll("\t", "");
+        return value;
+    }
+
+}
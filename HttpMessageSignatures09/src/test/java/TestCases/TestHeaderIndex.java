@@ -0,0 +1,131 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.junit.Test;
+
+import httpmessagesignatures.SignedHttpMessageFactory;
+import signature.components.Component;
+import signature.components.SignatureParameter;
+import signature.messages.HeaderIndex;
+import signature.messages.SignedHttpRequest;
+
+/**
+ * Tests for the header index of a message.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestHeaderIndex {
+
+    @Test
+    public void testCaseInsensitiveLookup() {
+        HeaderIndex index = new HeaderIndex(new Header[] {new BasicHeader("Content-Type", "application/json"),
+            new BasicHeader("X-Custom", "a")});
+        assertTrue(index.contains("content-type"));
+        assertTrue(index.contains("CONTENT-TYPE"));
+        assertEquals("application/json", index.getFirstValue("cOnTeNt-TyPe"));
+        assertEquals("a", index.getCombinedValue("x-custom"));
+        assertFalse(index.contains("content-length"));
+        assertNull(index.getFirstValue("content-length"));
+        assertNull(index.getCombinedValue(null));
+        assertEquals(Arrays.asList("content-type", "x-custom"), index.getNames());
+    }
+
+    /*
+     * Values of repeated fields keep their message order, also if other fields are in between.
+     */
+    @Test
+    public void testDuplicateOrder() {
+        HeaderIndex index = new HeaderIndex(new Header[] {new BasicHeader("Cache-Control", "max-age=60"),
+            new BasicHeader("Date", "Tue, 20 Apr 2021 02:07:55 GMT"), new BasicHeader("cache-control", "must-revalidate"),
+            new BasicHeader("CACHE-CONTROL", "no-transform")});
+        assertEquals(2, index.size());
+        assertEquals(Arrays.asList("max-age=60", "must-revalidate", "no-transform"), index.getValues("Cache-Control"));
+        assertEquals("max-age=60", index.getFirstValue("cache-control"));
+        assertEquals("max-age=60, must-revalidate, no-transform", index.getCombinedValue("cache-control"));
+        assertTrue(index.getValues("missing").isEmpty());
+    }
+
+    /*
+     * The length of a repeated field includes the separators of the combined value.
+     */
+    @Test
+    public void testValueLength() {
+        HeaderIndex index = new HeaderIndex(new Header[] {new BasicHeader("Signature", "a=:AA==:"),
+            new BasicHeader("Signature", "b=:BB==:"), new BasicHeader("Date", "x")});
+        assertEquals(index.getCombinedValue("signature").length(), index.getValueLength("signature"));
+        assertEquals(18, index.getValueLength("Signature"));
+        assertEquals(1, index.getValueLength("date"));
+        assertEquals(0, index.getValueLength("missing"));
+    }
+
+    @Test
+    public void testManyFields() {
+        Header[] headers = new Header[100];
+        for (int i = 0; i < headers.length; i++) {
+            headers[i] = new BasicHeader("Field-" + (i % 40), Integer.toString(i));
+        }
+        HeaderIndex index = new HeaderIndex(headers);
+        assertEquals(40, index.size());
+        assertEquals(Arrays.asList("7", "47", "87"), index.getValues("field-7"));
+        assertEquals("39, 79", index.getCombinedValue("FIELD-39"));
+    }
+
+    /*
+     * The index of a signed message is rebuilt after its headers have changed.
+     */
+    @Test
+    public void testInvalidation() throws Exception {
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-b26",
+                Arrays.asList(new Component("@method")));
+        SignedHttpRequest request = SignedHttpMessageFactory
+                .createSignedHttpRequest(TestMessagProvider.getTestRequest(), params);
+        HeaderIndex index = request.getHeaderIndex();
+        assertSame(index, request.getHeaderIndex());
+        assertEquals("application/json", index.getFirstValue("content-type"));
+
+        request.addHeader("X-Added", "1");
+        assertNotSame(index, request.getHeaderIndex());
+        assertEquals("1", request.getHeaderIndex().getFirstValue("x-added"));
+
+        request.setHeader("Content-Type", "text/plain");
+        assertEquals("text/plain", request.getHeaderIndex().getFirstValue("content-type"));
+
+        request.addHeader("x-added", "2");
+        assertEquals("1, 2", request.getHeaderIndex().getCombinedValue("X-Added"));
+
+        request.removeHeaders("X-Added");
+        assertFalse(request.getHeaderIndex().contains("x-added"));
+
+        request.setHeaders(new Header[] {new BasicHeader("Host", "example.org")});
+        assertEquals(Arrays.asList("host"), request.getHeaderIndex().getNames());
+    }
+
+}
@@ -18,8 +18,12 @@ package TestCases;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.net.URI;
+import java.security.InvalidKeyException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -32,8 +36,16 @@ import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 import org.junit.Test;
 
+import exceptions.MissingComponentException;
+import exceptions.SignatureParseException;
 import httpmessagesignatures.HttpMessageSignerFacade;
 import httpmessagesignatures.SignedHttpMessageFactory;
+import httpmessagesignatures.VerificationResult;
+import httpmessagesignatures.VerificationResult.FailureReason;
+import httpmessagesignatures.VerificationResult.Phase;
+import httpmessagesignatures.VerificationResult.Status;
+import httpmessagesignatures.VerificationSettings;
+import httpmessagesignatures.VerificationStage;
 import signature.components.Component;
 import signature.components.KeyMap;
 import signature.components.SignatureParameter;
@@ -89,6 +101,160 @@ public class TestInvalidSignatures {
         assertFalse(verify);
     }
 
+    /*
+     * The expired signature is rejected by the TIME_WINDOW stage, before the key is looked up.
+     */
+    @Test
+    public void testExpiredSignatureRejectedFirst() throws Exception {
+        SignedHttpRequest signedRequest = expiredHmacRequest();
+        assertFalse(HttpMessageSignerFacade.verifyRequest(signedRequest, new ArrayList<>()));
+    }
+
+    /*
+     * With the key stage first, the missing key is detected before the expiry.
+     */
+    @Test(expected = InvalidKeyException.class)
+    public void testStageOrder() throws Exception {
+        VerificationSettings settings = new VerificationSettings();
+        settings.setStageOrder(Arrays.asList(VerificationStage.KEY, VerificationStage.TIME_WINDOW));
+        //the parse stage is always first, no stage is skipped
+        assertEquals(VerificationStage.PARSE, settings.getStageOrder().get(0));
+        assertEquals(VerificationStage.values().length, settings.getStageOrder().size());
+
+        SignedHttpRequest signedRequest = expiredHmacRequest();
+        HttpMessageSignerFacade.verifyRequest(signedRequest, new ArrayList<>(), settings);
+    }
+
+    @Test
+    public void testAlgorithmNotAllowed() throws Exception {
+        SignedHttpRequest signedRequest = signedHmacRequest();
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+        assertTrue(HttpMessageSignerFacade.verifyRequest(signedRequest, keys));
+
+        VerificationSettings settings = new VerificationSettings();
+        settings.setAllowedAlgorithms(Arrays.asList("ed25519", "ecdsa-p256-sha256"));
+        assertFalse(HttpMessageSignerFacade.verifyRequest(signedRequest, keys, settings));
+    }
+
+    @Test
+    public void testVerificationResult() throws Exception {
+        SignedHttpRequest signedRequest = signedHmacRequest();
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+        VerificationSettings settings = new VerificationSettings();
+
+        VerificationResult result = HttpMessageSignerFacade.verifyRequestResult(signedRequest, keys, settings);
+        assertTrue(result.isValid());
+        assertNull(result.getReason());
+        assertEquals(Status.VALID, result.getLabelResult("sig-b26").getStatus());
+        assertTrue(result.getNanos(Phase.CRYPTO) > 0);
+
+        //rejections without exceptions
+        result = HttpMessageSignerFacade.verifyRequestResult(signedRequest, new ArrayList<>(), settings);
+        assertFalse(result.isValid());
+        assertEquals(FailureReason.UNKNOWN_KEY, result.getReason());
+        assertEquals(VerificationStage.KEY, result.getLabelResult("sig-b26").getStage());
+
+        List<KeyMap> wrongKeys = Arrays.asList(new KeyMap("test-shared-secret", new byte[32]));
+        result = HttpMessageSignerFacade.verifyRequestResult(signedRequest, wrongKeys, settings);
+        assertEquals(FailureReason.SIGNATURE_MISMATCH, result.getReason());
+        assertEquals(VerificationStage.SIGNATURE, result.getLabelResult("sig-b26").getStage());
+
+        result = HttpMessageSignerFacade.verifyRequestResult(expiredHmacRequest(), keys, settings);
+        assertEquals(FailureReason.EXPIRED, result.getReason());
+        //the signature base is not created for an expired signature
+        assertEquals(0, result.getNanos(Phase.BASE));
+    }
+
+    @Test
+    public void testVerificationResultMalformedFields() throws Exception {
+        SignedHttpRequest signedRequest = signedHmacRequest();
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+        VerificationSettings settings = new VerificationSettings();
+
+        signedRequest.setHeader("Signature-Input", "sig-b26=(\"@method\";created=1");
+        VerificationResult result = HttpMessageSignerFacade.verifyRequestResult(signedRequest, keys, settings);
+        assertEquals(FailureReason.MALFORMED_FIELDS, result.getReason());
+        assertEquals(SignatureParseException.Reason.MALFORMED_FIELD, result.getParseReason());
+
+        signedRequest.setHeader("Signature-Input", "sig-b26=(\"@method\");keyid=\"test-shared-secret\"");
+        result = HttpMessageSignerFacade.verifyRequestResult(signedRequest, keys, settings);
+        assertEquals(FailureReason.MISSING_CREATED, result.getReason());
+
+        settings.getPolicy().setLabels(Arrays.asList("other"));
+        result = HttpMessageSignerFacade.verifyRequestResult(signedRequest, keys, settings);
+        assertEquals(FailureReason.NO_MATCHING_SIGNATURE, result.getReason());
+        assertTrue(result.getLabelResults().isEmpty());
+    }
+
+    /*
+     * A covered field that is missing cannot be signed or verified as an empty value, an empty field can.
+     */
+    @Test
+    public void testMissingCoveredField() throws Exception {
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+        try {
+            signedHmacRequest(new Component("x-missing"));
+            fail("Missing field signed");
+        } catch (MissingComponentException e) {
+            assertEquals("x-missing", e.getComponentId());
+        }
+        //member of a dictionary field
+        try {
+            signedHmacRequest(new Component("content-digest", new BasicNameValuePair("key", "sha-256"), false));
+            fail("Missing dictionary member signed");
+        } catch (MissingComponentException e) {
+            assertEquals("content-digest", e.getComponentId());
+        }
+
+        SignedHttpRequest signedRequest = signedHmacRequest(new Component("x-empty"));
+        assertTrue(HttpMessageSignerFacade.verifyRequest(signedRequest, keys, new VerificationSettings()));
+        signedRequest.removeHeaders("X-Empty");
+        VerificationResult result = HttpMessageSignerFacade.verifyRequestResult(signedRequest, keys,
+                new VerificationSettings());
+        assertFalse(result.isValid());
+        assertEquals(FailureReason.MISSING_COMPONENT, result.getReason());
+        assertEquals(VerificationStage.SIGNATURE, result.getLabelResult("sig-b26").getStage());
+    }
+
+    /**
+     * @param component covered component besides @method
+     * @return request with an empty X-Empty field signed with the shared secret
+     * @throws Exception
+     */
+    private static SignedHttpRequest signedHmacRequest(Component component) throws Exception {
+        HttpPost request = TestMessagProvider.getTestRequest();
+        request.addHeader("X-Empty", "");
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret",
+                Instant.now().getEpochSecond() + 100, "sig-b26", Arrays.asList(new Component("@method"), component));
+        SignedHttpRequest signedRequest = SignedHttpMessageFactory.createSignedHttpRequest(request, params);
+        return HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+    }
+
+    /**
+     * @return request signed with the shared secret, the signature expires in 100 seconds
+     * @throws Exception
+     */
+    private static SignedHttpRequest signedHmacRequest() throws Exception {
+        HttpPost request = TestMessagProvider.getTestRequest();
+        List<Component> coveredHeaders = Arrays.asList(new Component("@method"), new Component("@authority"));
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret",
+                Instant.now().getEpochSecond() + 100, "sig-b26", coveredHeaders);
+        SignedHttpRequest signedRequest = SignedHttpMessageFactory.createSignedHttpRequest(request, params);
+        return HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+    }
+
+    /**
+     * @return signed request whose expires parameter has been changed to the past
+     * @throws Exception
+     */
+    private static SignedHttpRequest expiredHmacRequest() throws Exception {
+        SignedHttpRequest signedRequest = signedHmacRequest();
+        String signatureInput = signedRequest.getFirstHeader("Signature-Input").getValue();
+        signedRequest.setHeader("Signature-Input",
+                signatureInput.replaceAll("expires=[0-9]+", "expires=" + (Instant.now().getEpochSecond() - 10)));
+        return signedRequest;
+    }
+
     /*
      * Equivalent to test case "Test Signing only QueryParasm" in Testclass TestQueryParams, but with invalid Signature.
      */
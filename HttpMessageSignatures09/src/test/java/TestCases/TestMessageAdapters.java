@@ -0,0 +1,578 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import exceptions.ContentDigestMismatchException;
+import exceptions.TrailerSignatureException;
+import httpmessagesignatures.HttpMessageSignerFacade;
+import httpmessagesignatures.SignedHttpMessageFactory;
+import httpmessagesignatures.TrailerSigningOutputStream;
+import httpmessagesignatures.TrailerVerifyingInputStream;
+import httpmessagesignatures.VerificationSettings;
+import signature.components.Component;
+import signature.components.DigestAlgorithm;
+import signature.components.DigestVerifyingInputStream;
+import signature.components.KeyMap;
+import signature.components.SHAEncoder;
+import signature.components.SignatureParameter;
+import signature.messages.HttpCoreMessage;
+import signature.messages.ServletMessage;
+import signature.messages.SignableMessage;
+import signature.messages.SignedHttpRequest;
+import signature.messages.SignedHttpResponse;
+
+/**
+ * Test cases verify messages of other HTTP libraries through a SignableMessage adapter, without copying them
+ * into a SignedHttpRequest.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestMessageAdapters {
+
+    /** body of the test request */
+    private static final String BODY = "{\"hello\": \"world\"}";
+
+    /*
+     * A signed request received as HttpCore request is verified in place, its body can still be read afterwards.
+     */
+    @Test
+    public void testVerifyHttpCoreRequest() throws Exception {
+        HttpPost received = signedRequest();
+        SignableMessage message = HttpCoreMessage.of(received);
+        assertEquals("POST", message.getMethod());
+        assertEquals(-1, message.getStatusCode());
+
+        assertTrue(HttpMessageSignerFacade.verifyRequest(message, keys()));
+        assertEquals(BODY, EntityUtils.toString(received.getEntity()));
+    }
+
+    @Test
+    public void testVerifyServletRequest() throws Exception {
+        HttpPost received = signedRequest();
+        SignableMessage message = ServletMessage.of(servletRequest(received, BODY.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("POST", message.getMethod());
+        assertEquals(-1, message.getStatusCode());
+        assertEquals("http://example.com/foo?param=Value&Pet=dog", message.getTargetUri().toString());
+        assertEquals("application/json", message.getHeaderIndex().getFirstValue("content-type"));
+        assertEquals(received.getFirstHeader("Signature").getValue(),
+                message.getHeaderIndex().getFirstValue("signature"));
+
+        assertTrue(HttpMessageSignerFacade.verifyRequest(message, keys()));
+
+        message = ServletMessage.of(servletRequest(received, "{\"hello\": \"moon\"}".getBytes(StandardCharsets.UTF_8)));
+        assertFalse(HttpMessageSignerFacade.verifyRequest(message, keys()));
+    }
+
+    /*
+     * The body of a servlet request is only held on the heap up to the maximum size.
+     */
+    @Test
+    public void testServletRequestBodyLimit() throws Exception {
+        HttpPost received = signedRequest();
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+        assertEquals(BODY, ServletMessage.of(servletRequest(received, body), body.length).getMessageBody());
+        try {
+            ServletMessage.of(servletRequest(received, body), body.length - 1).getMessageBody();
+            fail("Body exceeding the limit held");
+        } catch (UncheckedIOException e) {
+            assertEquals("Request body exceeds " + (body.length - 1) + " octets", e.getCause().getMessage());
+        }
+        //the content-digest does not need the body on the heap
+        assertTrue(HttpMessageSignerFacade.verifyRequest(
+                ServletMessage.of(servletRequest(received, body), body.length - 1), keys()));
+    }
+
+    @Test
+    public void testVerifyServletResponse() throws Exception {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity(BODY, StandardCharsets.UTF_8));
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-a1",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getSharedSecret());
+        HttpServletResponse servletResponse = servletResponse(signedResponse);
+
+        SignableMessage message = ServletMessage.of(servletResponse, BODY, null);
+        assertEquals(200, message.getStatusCode());
+        assertEquals(signedResponse.getFirstHeader("Content-Digest").getValue(),
+                message.getHeaderIndex().getFirstValue("content-digest"));
+        assertTrue(HttpMessageSignerFacade.verifyResponse(message, keys()));
+        assertTrue(HttpMessageSignerFacade.verifyResponse(
+                ServletMessage.of(servletResponse, BODY.getBytes(StandardCharsets.UTF_8), null), keys()));
+
+        assertFalse(HttpMessageSignerFacade.verifyResponse(ServletMessage.of(servletResponse, "{}", null), keys()));
+        assertFalse(HttpMessageSignerFacade.verifyResponse(
+                ServletMessage.of(servletResponse, "{}".getBytes(StandardCharsets.UTF_8), null), keys()));
+    }
+
+    @Test
+    public void testChangedBodyHttpCoreRequest() throws Exception {
+        HttpPost received = signedRequest();
+        received.setEntity(new InputStreamEntity(
+                new ByteArrayInputStream("{\"hello\": \"moon\"}".getBytes(StandardCharsets.ISO_8859_1))));
+        assertFalse(HttpMessageSignerFacade.verifyRequest(HttpCoreMessage.of(received), keys()));
+    }
+
+    /*
+     * Streaming verification: the signature is checked first, the body while the application reads it.
+     */
+    @Test
+    public void testStreamingVerification() throws Exception {
+        HttpPost received = signedRequest();
+        SignableMessage message = HttpCoreMessage.of(received);
+        assertTrue(HttpMessageSignerFacade.verifyRequestHeaders(message, keys(), new VerificationSettings()));
+
+        //the entity has not been touched by the first stage
+        try (InputStream body = HttpMessageSignerFacade.verifiedBodyStream(message,
+                received.getEntity().getContent())) {
+            assertEquals(BODY, new String(readAll(body), StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    @Test
+    public void testStreamingVerificationChangedBody() throws Exception {
+        HttpPost received = signedRequest();
+        received.setEntity(new InputStreamEntity(
+                new ByteArrayInputStream("{\"hello\": \"moon\"}".getBytes(StandardCharsets.ISO_8859_1))));
+        SignableMessage message = HttpCoreMessage.of(received);
+        //the header stage does not read the body
+        assertTrue(HttpMessageSignerFacade.verifyRequestHeaders(message, keys(), new VerificationSettings()));
+
+        InputStream body = HttpMessageSignerFacade.verifiedBodyStream(message, received.getEntity().getContent());
+        try {
+            readAll(body);
+            fail("Changed body not detected");
+        } catch (ContentDigestMismatchException e) {
+            assertFalse(((DigestVerifyingInputStream) body).isVerified());
+        }
+    }
+
+    @Test
+    public void testTrailerSignature() throws Exception {
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        SignedHttpResponse signedResponse = streamSignedResponse(sent, null);
+        assertEquals(BODY, new String(sent.toByteArray(), StandardCharsets.ISO_8859_1));
+        assertEquals("Content-Digest, Signature-Input, Signature", signedResponse.getFirstHeader("Trailer").getValue());
+        assertFalse(signedResponse.containsHeader("Signature"));
+
+        //the signature fields are only sent as trailers
+        Map<String, String> trailers = fieldsOf(signedResponse.getTrailers());
+        assertTrue(trailers.get("Content-Digest").startsWith("sha-256=:"));
+        assertTrue(trailers.get("Signature-Input").startsWith("sig-a1=(\"@status\" \"content-digest\";tr)"));
+        assertTrue(trailers.containsKey("Signature"));
+
+        //the buffered message with its trailers is verified like any other message
+        signedResponse.setMessageBody(BODY);
+        assertTrue(HttpMessageSignerFacade.verifyResponse(signedResponse, keys()));
+    }
+
+    @Test
+    public void testTrailerStreamingVerification() throws Exception {
+        SignedHttpResponse signedResponse = streamSignedResponse(new ByteArrayOutputStream(), null);
+        HttpResponse received = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        received.setHeaders(signedResponse.getAllHeaders());
+
+        TrailerVerifyingInputStream body = HttpMessageSignerFacade.verifiedTrailerStream(HttpCoreMessage.of(received),
+                new ByteArrayInputStream(BODY.getBytes(StandardCharsets.ISO_8859_1)), signedResponse::getTrailers,
+                keys(), new VerificationSettings());
+        assertEquals(BODY, new String(readAll(body), StandardCharsets.ISO_8859_1));
+        assertTrue(body.isVerified());
+
+        //changed body
+        body = HttpMessageSignerFacade.verifiedTrailerStream(HttpCoreMessage.of(received),
+                new ByteArrayInputStream("{\"hello\": \"moon\"}".getBytes(StandardCharsets.ISO_8859_1)),
+                signedResponse::getTrailers, keys(), new VerificationSettings());
+        try {
+            readAll(body);
+            fail("Changed body not detected");
+        } catch (ContentDigestMismatchException e) {
+            assertFalse(body.isVerified());
+        }
+
+        //changed signature trailer
+        Header[] trailers = signedResponse.getTrailers();
+        for (int i = 0; i < trailers.length; i++) {
+            if (trailers[i].getName().equals("Signature-Input")) {
+                trailers[i] = new BasicHeader("Signature-Input", trailers[i].getValue().replace("created=", "created=1"));
+            }
+        }
+        body = HttpMessageSignerFacade.verifiedTrailerStream(HttpCoreMessage.of(received),
+                new ByteArrayInputStream(BODY.getBytes(StandardCharsets.ISO_8859_1)), () -> trailers, keys(),
+                new VerificationSettings());
+        try {
+            readAll(body);
+            fail("Changed signature not detected");
+        } catch (TrailerSignatureException e) {
+            assertFalse(body.isVerified());
+        }
+    }
+
+    @Test
+    public void testTrailerDigestAlgorithms() throws Exception {
+        SignedHttpResponse signedResponse = streamSignedResponse(new ByteArrayOutputStream(), null);
+        HttpResponse received = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        received.setHeaders(signedResponse.getAllHeaders());
+
+        //only the algorithms the request asked for are digested
+        HttpPost request = new HttpPost("https://example.com/foo");
+        request.setHeader("Want-Content-Digest", "sha-256=3, sha-512=0");
+        TrailerVerifyingInputStream body = HttpMessageSignerFacade.verifiedTrailerStream(
+                HttpCoreMessage.of(received, request),
+                new ByteArrayInputStream(BODY.getBytes(StandardCharsets.ISO_8859_1)), signedResponse::getTrailers,
+                keys(), new VerificationSettings());
+        assertEquals(EnumSet.of(DigestAlgorithm.SHA_256), body.getDigestAlgorithms());
+        readAll(body);
+        assertTrue(body.isVerified());
+
+        //a content-digest with an algorithm that is not accepted is rejected
+        VerificationSettings settings = new VerificationSettings();
+        settings.setTrailerDigestAlgorithms(EnumSet.of(DigestAlgorithm.SHA_512));
+        body = HttpMessageSignerFacade.verifiedTrailerStream(HttpCoreMessage.of(received, request),
+                new ByteArrayInputStream(BODY.getBytes(StandardCharsets.ISO_8859_1)), signedResponse::getTrailers,
+                keys(), settings);
+        assertEquals(EnumSet.of(DigestAlgorithm.SHA_512), body.getDigestAlgorithms());
+        try {
+            readAll(body);
+            fail("Content-Digest with an algorithm that is not accepted");
+        } catch (ContentDigestMismatchException e) {
+            assertFalse(body.isVerified());
+        }
+    }
+
+    /*
+     * If the trailers cannot be signed, the failure is thrown again instead of returning a content-digest trailer
+     * without a signature.
+     */
+    @Test
+    public void testTrailerSignatureFailure() throws Exception {
+        List<Component> coveredHeaders = Arrays.asList(new Component("@status"), new Component("x-missing"),
+                new Component("content-digest", new BasicNameValuePair("tr", null), false));
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-a1",
+                coveredHeaders);
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory
+                .createSignedHttpResponse(new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK"), params);
+        TrailerSigningOutputStream body = HttpMessageSignerFacade.signResponseStreaming(signedResponse,
+                KeyProvider.getSharedSecret(), new ByteArrayOutputStream());
+        body.write(BODY.getBytes(StandardCharsets.ISO_8859_1));
+        IOException failure = null;
+        try {
+            body.finish();
+            fail("Trailers without signature created");
+        } catch (IOException e) {
+            failure = e;
+        }
+        try {
+            body.finish();
+            fail("Failed trailers finished again");
+        } catch (IOException e) {
+            assertSame(failure, e);
+        }
+        try {
+            body.getTrailerFields();
+            fail("Trailers without signature returned");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStreamingSignatureRequiresContentDigestTrailer() throws Exception {
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-a1",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        SignedHttpResponse response = SignedHttpMessageFactory
+                .createSignedHttpResponse(new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK"), params);
+        HttpMessageSignerFacade.signResponseStreaming(response, KeyProvider.getSharedSecret(),
+                new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void testGzipTrailerSignature() throws Exception {
+        ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        SignedHttpResponse signedResponse = streamSignedResponse(sent, "gzip");
+
+        //the content-digest covers the compressed octets
+        byte[] encoded = sent.toByteArray();
+        assertEquals(SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_256,
+                DigestAlgorithm.SHA_256.newMessageDigest().digest(encoded)),
+                fieldsOf(signedResponse.getTrailers()).get("Content-Digest"));
+        assertEquals(BODY, new String(readAll(new GZIPInputStream(new ByteArrayInputStream(encoded))),
+                StandardCharsets.ISO_8859_1));
+
+        HttpResponse received = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        received.setHeaders(signedResponse.getAllHeaders());
+        SignableMessage message = HttpCoreMessage.of(received);
+        TrailerVerifyingInputStream verified = HttpMessageSignerFacade.verifiedTrailerStream(message,
+                new ByteArrayInputStream(encoded), signedResponse::getTrailers, keys(), new VerificationSettings());
+        try (InputStream body = HttpMessageSignerFacade.decodedBodyStream(message, verified)) {
+            assertEquals(BODY, new String(readAll(body), StandardCharsets.ISO_8859_1));
+        }
+        assertTrue(verified.isVerified());
+    }
+
+    @Test
+    public void testCompressingEntity() throws Exception {
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new GzipCompressingEntity(new StringEntity(BODY, StandardCharsets.ISO_8859_1)));
+        response.addHeader(response.getEntity().getContentEncoding());
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-a1",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getSharedSecret());
+
+        //the body was compressed once, the compressed octets are digested and sent
+        byte[] encoded = EntityUtils.toByteArray(response.getEntity());
+        assertEquals(SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_256,
+                DigestAlgorithm.SHA_256.newMessageDigest().digest(encoded)),
+                signedResponse.getFirstHeader("Content-Digest").getValue());
+
+        HttpResponse received = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        received.setHeaders(signedResponse.getAllHeaders());
+        received.setEntity(new InputStreamEntity(new ByteArrayInputStream(encoded)));
+        SignableMessage message = HttpCoreMessage.of(received);
+        assertTrue(HttpMessageSignerFacade.verifyResponseHeaders(message, keys(), new VerificationSettings()));
+        try (InputStream body = HttpMessageSignerFacade.decodedBodyStream(message,
+                HttpMessageSignerFacade.verifiedBodyStream(message, received.getEntity().getContent()))) {
+            assertEquals(BODY, new String(readAll(body), StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    /**
+     * @param sent stream the body is sent to
+     * @param contentEncoding Content-Encoding of the response, may be null
+     * @return response signed while its body was streamed, the signature fields are trailers
+     * @throws Exception
+     */
+    private static SignedHttpResponse streamSignedResponse(OutputStream sent, String contentEncoding)
+            throws Exception {
+        List<Component> coveredHeaders = Arrays.asList(new Component("@status"),
+                new Component("content-digest", new BasicNameValuePair("tr", null), false));
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-a1",
+                coveredHeaders);
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.addHeader("Content-Type", "application/json");
+        if (contentEncoding != null) {
+            response.addHeader("Content-Encoding", contentEncoding);
+        }
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params);
+
+        try (TrailerSigningOutputStream body = HttpMessageSignerFacade.signResponseStreaming(signedResponse,
+                KeyProvider.getSharedSecret(), sent)) {
+            byte[] content = BODY.getBytes(StandardCharsets.ISO_8859_1);
+            body.write(content, 0, 7);
+            body.write(content, 7, content.length - 7);
+        }
+        return signedResponse;
+    }
+
+    /**
+     * @param fields
+     * @return the values of the fields by name
+     */
+    private static Map<String, String> fieldsOf(Header[] fields) {
+        Map<String, String> values = new HashMap<>();
+        for (Header field : fields) {
+            values.put(field.getName(), field.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * @param input
+     * @return the remaining content of the stream, read in small chunks
+     * @throws IOException
+     */
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[5];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            content.write(buffer, 0, read);
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * @return HttpCore request with the headers of a signed request and a non-repeatable entity
+     * @throws Exception
+     */
+    private static HttpPost signedRequest() throws Exception {
+        HttpPost request = TestSafeTransformation.getTestRequest();
+        request.removeHeaders("Content-Digest");
+        List<Component> coveredHeaders = Arrays.asList(new Component("@method"), new Component("@authority"),
+                new Component("content-digest"));
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-a1",
+                coveredHeaders);
+        SignedHttpRequest signedRequest = SignedHttpMessageFactory.createSignedHttpRequest(request, params, BODY);
+        signedRequest = HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+
+        HttpPost received = new HttpPost(request.getURI());
+        received.setHeaders(signedRequest.getAllHeaders());
+        received.setEntity(new InputStreamEntity(new ByteArrayInputStream(BODY.getBytes(StandardCharsets.ISO_8859_1))));
+        return received;
+    }
+
+    /**
+     * @param request request whose method, target URI and header fields are served
+     * @param body octets of the servlet input stream
+     * @return servlet request stub
+     */
+    private static HttpServletRequest servletRequest(HttpRequestBase request, byte[] body) {
+        URI uri = request.getURI();
+        ByteArrayInputStream content = new ByteArrayInputStream(body);
+        ServletInputStream input = new ServletInputStream() {
+
+            @Override
+            public int read() {
+                return content.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return content.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                throw new UnsupportedOperationException("setReadListener");
+            }
+        };
+        return (HttpServletRequest) Proxy.newProxyInstance(TestMessageAdapters.class.getClassLoader(),
+                new Class<?>[] {HttpServletRequest.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getMethod":
+                            return request.getMethod();
+                        case "getRequestURL":
+                            return new StringBuffer(uri.getScheme() + "://" + uri.getRawAuthority() + uri.getRawPath());
+                        case "getQueryString":
+                            return uri.getRawQuery();
+                        case "getHeaderNames":
+                            return Collections.enumeration(headerNames(request.getAllHeaders()));
+                        case "getHeaders":
+                            return Collections.enumeration(headerValues(request.getHeaders((String) args[0])));
+                        case "getInputStream":
+                            return input;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * @param response response whose status and header fields are served
+     * @return servlet response stub
+     */
+    private static HttpServletResponse servletResponse(HttpResponse response) {
+        return (HttpServletResponse) Proxy.newProxyInstance(TestMessageAdapters.class.getClassLoader(),
+                new Class<?>[] {HttpServletResponse.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getStatus":
+                            return response.getStatusLine().getStatusCode();
+                        case "getHeaderNames":
+                            return headerNames(response.getAllHeaders());
+                        case "getHeaders":
+                            return headerValues(response.getHeaders((String) args[0]));
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * @param headers
+     * @return distinct names of the header fields in their order
+     */
+    private static List<String> headerNames(Header[] headers) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Header header : headers) {
+            names.add(header.getName());
+        }
+        return new ArrayList<>(names);
+    }
+
+    /**
+     * @param headers
+     * @return values of the header fields
+     */
+    private static List<String> headerValues(Header[] headers) {
+        List<String> values = new ArrayList<>();
+        for (Header header : headers) {
+            values.add(header.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * @return key of the test signatures
+     * @throws Exception
+     */
+    private static List<KeyMap> keys() throws Exception {
+        return Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+    }
+
+}
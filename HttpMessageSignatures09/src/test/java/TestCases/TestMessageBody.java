@@ -16,27 +16,72 @@
 */
 package TestCases;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
-
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.entity.StringEntity;
 import org.apache.http.util.EntityUtils;
 import org.junit.Test;
 
+import exceptions.ContentDigestMismatchException;
+import exceptions.MissingComponentException;
 import httpmessagesignatures.HttpMessageSignerFacade;
 import httpmessagesignatures.SignedHttpMessageFactory;
+import httpmessagesignatures.VerificationResult.FailureReason;
+import httpmessagesignatures.VerificationResult.LabelResult;
+import httpmessagesignatures.VerificationSettings;
 import signature.components.Component;
+import signature.components.ContentDigestCache;
+import signature.components.ContentDigestVerifier;
+import signature.components.DigestAlgorithm;
 import signature.components.KeyMap;
 import signature.components.SHAEncoder;
 import signature.components.SignatureParameter;
+import signature.messages.BodyCharset;
+import signature.messages.DigestingHttpEntity;
+import signature.messages.HttpCoreMessage;
 import signature.messages.SignedHttpRequest;
 import signature.messages.SignedHttpResponse;
+import signature.structuredfields.StructuredFieldParser;
+import signaturebase.SignaturBaseCreator;
 
 /**
  * Test cases for signing the message body (based on draft 10).
@@ -48,6 +93,9 @@ import signature.messages.SignedHttpResponse;
  */
 public class TestMessageBody {
 
+    /** body of the test response */
+    private static final String RESPONSE_BODY = "{\"message\": \"good dog\"}";
+
     @Test
     public void testSHA256() throws Exception {
         String body = "{\"hello\": \"world\"}";
@@ -171,4 +219,552 @@ public class TestMessageBody {
         assertFalse(verify);
     }
 
+    /*
+     * The entity is not read if the message body is not covered by the signature.
+     */
+    @Test
+    public void testUncoveredResponseBodyNotRead() throws Exception {
+        HttpResponse response = TestMessagProvider.getResponse();
+        ByteArrayInputStream content = new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8));
+        HttpEntity entity = new InputStreamEntity(content);
+        response.setEntity(entity);
+
+        List<Component> coveredHeaders = Arrays.asList(new Component("@status"), new Component("content-type"));
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                coveredHeaders);
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+
+        assertTrue(HttpMessageSignerFacade.verifyResponse(signedResponse, eccKeys()));
+        assertSame(entity, response.getEntity());
+        assertEquals(RESPONSE_BODY.length(), content.available());
+    }
+
+    /*
+     * The content-digest of a body with a strong ETag is taken from the cache, the entity is not read on a hit.
+     */
+    @Test
+    public void testContentDigestCache() throws Exception {
+        ContentDigestCache cache = new ContentDigestCache(100, 1024 * 1024);
+        for (int i = 0; i < 3; i++) {
+            HttpResponse response = TestMessagProvider.getResponse();
+            response.removeHeaders("Content-Digest");
+            response.addHeader("ETag", "\"v1\"");
+            ByteArrayInputStream content = new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8));
+            response.setEntity(new InputStreamEntity(content));
+
+            SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                    Arrays.asList(new Component("@status"), new Component("content-digest")));
+            params.setContentDigestCache(cache);
+            SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params,
+                    new HttpGet("https://example.com/dogs/1"));
+            signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+
+            assertEquals("sha-256=:" + SHAEncoder.hash256(RESPONSE_BODY),
+                    signedResponse.getFirstHeader("content-digest").getValue());
+            //only the first response is read
+            assertEquals(i == 0 ? 0 : RESPONSE_BODY.length(), content.available());
+        }
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3, cache.getHitRate(), 0.0001);
+
+        //a weak ETag does not identify the octets of the body
+        assertNull(ContentDigestCache.etagKey("W/\"v1\"", "//example.com/dogs/1", null));
+    }
+
+    /*
+     * The same entity-tag of different resources or content codings does not share a cache entry.
+     */
+    @Test
+    public void testContentDigestCacheScope() throws Exception {
+        ContentDigestCache cache = new ContentDigestCache(100, 1024 * 1024);
+        String[] bodies = {"{\"message\": \"good dog\"}", "{\"message\": \"bad dog\"}"};
+        String[] uris = {"https://example.com/dogs/1", "https://example.com/dogs/2"};
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < uris.length; i++) {
+                HttpResponse response = TestMessagProvider.getResponse();
+                response.removeHeaders("Content-Digest");
+                response.addHeader("ETag", "\"1\"");
+                response.setEntity(new StringEntity(bodies[i], StandardCharsets.UTF_8));
+                SignedHttpResponse signedResponse = signWithCache(response, cache, new HttpGet(uris[i]));
+                assertEquals("sha-256=:" + SHAEncoder.hash256(bodies[i]),
+                        signedResponse.getFirstHeader("content-digest").getValue());
+            }
+        }
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+
+        //origin-form request line with Host field
+        HttpGet request = new HttpGet("/dogs/1");
+        request.setHeader("Host", "Example.com");
+        HttpResponse response = TestMessagProvider.getResponse();
+        response.addHeader("ETag", "\"1\"");
+        assertEquals(ContentDigestCache.etagKey("\"1\"", "//example.com/dogs/1", null),
+                SignedHttpMessageFactory.createSignedHttpResponse(response, null, request).getBodyIdentity());
+
+        //content coding
+        response.addHeader("Content-Encoding", "gzip");
+        assertNotEquals(ContentDigestCache.etagKey("\"1\"", "//example.com/dogs/1", null),
+                SignedHttpMessageFactory.createSignedHttpResponse(response, null, request).getBodyIdentity());
+
+        //without its request the resource of a response is not known
+        assertNull(SignedHttpMessageFactory.createSignedHttpResponse(response, null).getBodyIdentity());
+    }
+
+    /*
+     * A 304 or HEAD response with the ETag of a cached 200 response has no content, it gets no content-digest;
+     * the covered content-digest is missing then.
+     */
+    @Test
+    public void testContentDigestCacheWithoutContent() throws Exception {
+        ContentDigestCache cache = new ContentDigestCache(100, 1024 * 1024);
+        HttpResponse response = TestMessagProvider.getResponse();
+        response.removeHeaders("Content-Digest");
+        response.addHeader("ETag", "\"v1\"");
+        response.setEntity(new StringEntity(RESPONSE_BODY, StandardCharsets.UTF_8));
+        signWithCache(response, cache, new HttpGet("https://example.com/dogs/1"));
+        assertEquals(1, cache.size());
+
+        HttpResponse notModified = TestMessagProvider.getResponse();
+        notModified.setStatusCode(304);
+        notModified.removeHeaders("Content-Digest");
+        notModified.addHeader("ETag", "\"v1\"");
+        notModified.setEntity(null);
+        assertNull(signWithoutContent(notModified, cache, new HttpGet("https://example.com/dogs/1")));
+
+        HttpResponse head = TestMessagProvider.getResponse();
+        head.removeHeaders("Content-Digest");
+        head.addHeader("ETag", "\"v1\"");
+        head.setEntity(null);
+        assertNull(signWithoutContent(head, cache, new HttpHead("https://example.com/dogs/1")));
+        assertEquals(0, cache.getHitCount());
+    }
+
+    /**
+     * @param response response without content
+     * @param cache
+     * @param request
+     * @return the content-digest field added by the signer, null if there is none
+     * @throws Exception
+     */
+    private static Header signWithoutContent(HttpResponse response, ContentDigestCache cache, HttpRequest request)
+            throws Exception {
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        params.setContentDigestCache(cache);
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params,
+                request);
+        try {
+            HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+            fail("Missing content-digest signed");
+        } catch (MissingComponentException e) {
+            assertEquals("content-digest", e.getComponentId());
+        }
+        return signedResponse.getFirstHeader("content-digest");
+    }
+
+    /**
+     * @param response
+     * @param cache
+     * @param request
+     * @return the response signed with a covered content-digest
+     * @throws Exception
+     */
+    private static SignedHttpResponse signWithCache(HttpResponse response, ContentDigestCache cache,
+            HttpRequest request) throws Exception {
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        params.setContentDigestCache(cache);
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params,
+                request);
+        return HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+    }
+
+    @Test
+    public void testContentDigestCacheBounds() throws Exception {
+        ContentDigestCache cache = new ContentDigestCache(2, 1024 * 1024);
+        cache.put(ContentDigestCache.applicationKey("a"), DigestAlgorithm.SHA_256, "sha-256=:a:");
+        cache.put(ContentDigestCache.applicationKey("b"), DigestAlgorithm.SHA_256, "sha-256=:b:");
+        //a is the most recently used entry
+        assertEquals("sha-256=:a:", cache.get(ContentDigestCache.applicationKey("a"), DigestAlgorithm.SHA_256));
+        cache.put(ContentDigestCache.applicationKey("c"), DigestAlgorithm.SHA_256, "sha-256=:c:");
+        assertEquals(2, cache.size());
+        assertNull(cache.get(ContentDigestCache.applicationKey("b"), DigestAlgorithm.SHA_256));
+        assertEquals(1, cache.getEvictionCount());
+
+        //memory bound
+        ContentDigestCache small = new ContentDigestCache(100, 500);
+        for (int i = 0; i < 10; i++) {
+            small.put(ContentDigestCache.applicationKey("document-" + i), DigestAlgorithm.SHA_512, "sha-512=:x:");
+        }
+        assertTrue(small.getEstimatedBytes() <= 500);
+        assertTrue(small.size() < 10);
+    }
+
+    /*
+     * A non-repeatable entity is read once for the content-digest and can still be consumed afterwards.
+     */
+    @Test
+    public void testCoveredNonRepeatableResponseBody() throws Exception {
+        HttpResponse response = TestMessagProvider.getResponse();
+        response.removeHeaders("Content-Digest");
+        response.setEntity(new InputStreamEntity(
+                new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.UTF_8))));
+
+        List<Component> coveredHeaders = Arrays.asList(new Component("@status"), new Component("content-digest"));
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                coveredHeaders);
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+
+        assertEquals("sha-256=:" + SHAEncoder.hash256(RESPONSE_BODY),
+                signedResponse.getFirstHeader("content-digest").getValue());
+        assertTrue(HttpMessageSignerFacade.verifyResponse(signedResponse, eccKeys()));
+        assertEquals(RESPONSE_BODY, EntityUtils.toString(response.getEntity()));
+    }
+
+    /*
+     * A String body is encoded with one charset rule by all adapters: the charset parameter, otherwise UTF-8.
+     */
+    @Test
+    public void testBodyCharset() throws Exception {
+        String body = "Gr\u00fc\u00dfe";
+        assertEquals(StandardCharsets.UTF_8, BodyCharset.forContentType("text/plain"));
+        assertEquals(StandardCharsets.ISO_8859_1, BodyCharset.forContentType("text/plain; charset=ISO-8859-1"));
+        assertEquals(StandardCharsets.UTF_8, BodyCharset.forContentType("text/plain; charset=unknown-charset"));
+
+        SignedHttpRequest request = new SignedHttpRequest("POST", "https://example.com/", null);
+        request.addHeader("Content-Type", "text/plain");
+        request.setMessageBody(body);
+        HttpPost post = new HttpPost("https://example.com/");
+        post.addHeader("Content-Type", "text/plain");
+        post.setEntity(new ByteArrayEntity(body.getBytes(StandardCharsets.UTF_8)));
+        String expected = SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_256,
+                request.digestBody(DigestAlgorithm.SHA_256));
+        assertEquals("sha-256=:" + SHAEncoder.hash256(body), expected);
+        assertEquals(expected, SignaturBaseCreator.createContentDigestHeader(body, DigestAlgorithm.SHA_256));
+        assertEquals(expected, SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_256,
+                HttpCoreMessage.of(post).digestBody(DigestAlgorithm.SHA_256)));
+        assertEquals(body, HttpCoreMessage.of(post).getMessageBody());
+
+        request = new SignedHttpRequest("POST", "https://example.com/", null);
+        request.addHeader("Content-Type", "text/plain; charset=ISO-8859-1");
+        request.setMessageBody(body);
+        assertArrayEquals(DigestAlgorithm.SHA_256.newMessageDigest().digest(body.getBytes(StandardCharsets.ISO_8859_1)),
+                request.digestBody(DigestAlgorithm.SHA_256));
+    }
+
+    /*
+     * A large non-repeatable entity is digested while it is spooled to a file, it is not held on the heap. The file
+     * is deleted when the spooled entity is closed.
+     */
+    @Test
+    public void testLargeNonRepeatableResponseBody() throws Exception {
+        byte[] body = new byte[1024 * 1024];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) (i % 251);
+        }
+        HttpResponse response = TestMessagProvider.getResponse();
+        response.removeHeaders("Content-Digest");
+        response.removeHeaders("Content-Length");
+        response.setEntity(new InputStreamEntity(new ByteArrayInputStream(body)));
+
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+
+        assertEquals(SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_256,
+                SHAEncoder.digest(DigestAlgorithm.SHA_256, ByteBuffer.wrap(body))),
+                signedResponse.getFirstHeader("content-digest").getValue());
+        HttpEntity spooled = response.getEntity();
+        assertTrue(spooled.isRepeatable());
+        assertEquals(body.length, spooled.getContentLength());
+        try (InputStream content = spooled.getContent()) {
+            assertTrue(content instanceof FileInputStream);
+        }
+        assertTrue(HttpMessageSignerFacade.verifyResponse(signedResponse, eccKeys()));
+        assertArrayEquals(body, EntityUtils.toByteArray(spooled));
+
+        ((Closeable) spooled).close();
+        try {
+            spooled.getContent();
+            fail("Released spool file read");
+        } catch (IOException e) {
+            assertEquals("Spooled content has been released", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testStreamingDigest() throws Exception {
+        String body = "{\"hello\": \"world\"}";
+        byte[] digest = SHAEncoder.digest(DigestAlgorithm.SHA_256,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("sha-256=:" + SHAEncoder.hash256(body),
+                SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_256, digest));
+
+        //larger than the buffer and not a multiple of its size
+        byte[] large = new byte[(SHAEncoder.BUFFER_SIZE * 5) + 17];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) i;
+        }
+        assertEquals(SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_512,
+                DigestAlgorithm.SHA_512.newMessageDigest().digest(large)),
+                SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_512,
+                        SHAEncoder.digest(DigestAlgorithm.SHA_512, new ByteArrayEntity(large))));
+    }
+
+    /*
+     * File-backed bodies are hashed from the memory-mapped file.
+     */
+    @Test
+    public void testFileDigest() throws Exception {
+        byte[] content = new byte[(3 * 4096) + 5];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        Path file = Files.createTempFile("body", ".bin");
+        try {
+            Files.write(file, content);
+            String expected = SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_512,
+                    DigestAlgorithm.SHA_512.newMessageDigest().digest(content));
+            assertEquals(expected, SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_512,
+                    SHAEncoder.digest(DigestAlgorithm.SHA_512, file)));
+            assertEquals(expected, SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_512, SHAEncoder
+                    .digest(DigestAlgorithm.SHA_512, new FileEntity(file.toFile(), ContentType.APPLICATION_OCTET_STREAM))));
+            //several regions, the last one partial
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                assertEquals(expected, SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_512, SHAEncoder
+                        .digest(EnumSet.of(DigestAlgorithm.SHA_512), channel, 4096).get(DigestAlgorithm.SHA_512)));
+                //from the position of the channel, which is not changed
+                channel.position(4100);
+                assertArrayEquals(DigestAlgorithm.SHA_512.newMessageDigest().digest(
+                        Arrays.copyOfRange(content, 4100, content.length)),
+                        SHAEncoder.digest(EnumSet.of(DigestAlgorithm.SHA_512), channel, 4096)
+                                .get(DigestAlgorithm.SHA_512));
+                assertEquals(4100, channel.position());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /*
+     * The digesting entity computes the digest while the content is read or written by the application.
+     */
+    @Test
+    public void testDigestingEntity() throws Exception {
+        String expected = "sha-256=:" + SHAEncoder.hash256(RESPONSE_BODY);
+
+        DigestingHttpEntity entity = new DigestingHttpEntity(
+                new ByteArrayEntity(RESPONSE_BODY.getBytes(StandardCharsets.US_ASCII)), DigestAlgorithm.SHA_256);
+        assertNull(entity.getContentDigestMember());
+        try (InputStream content = entity.getContent()) {
+            assertEquals(RESPONSE_BODY, EntityUtils.toString(new InputStreamEntity(content)));
+        }
+        assertEquals(expected, entity.getContentDigestMember());
+
+        entity = new DigestingHttpEntity(new InputStreamEntity(
+                new ByteArrayInputStream(RESPONSE_BODY.getBytes(StandardCharsets.US_ASCII))), DigestAlgorithm.SHA_256);
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        entity.writeTo(written);
+        assertEquals(RESPONSE_BODY, new String(written.toByteArray(), StandardCharsets.US_ASCII));
+        assertEquals(expected, entity.getContentDigestMember());
+    }
+
+    /*
+     * The digest is computed over the original octets of a non-ASCII body.
+     */
+    @Test
+    public void testNonAsciiBody() throws Exception {
+        String body = "{\"gr\u00fc\u00dfe\": \"\u3053\u3093\u306b\u3061\u306f\"}";
+        byte[] octets = body.getBytes(StandardCharsets.UTF_8);
+        String expected = SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_256,
+                DigestAlgorithm.SHA_256.newMessageDigest().digest(octets));
+
+        HttpPost request = TestMessagProvider.getTestRequest();
+        request.removeHeaders("Content-Digest");
+        List<Component> coveredHeaders = Arrays.asList(new Component("@method"), new Component("content-digest"));
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                coveredHeaders);
+        SignedHttpRequest signedRequest = SignedHttpMessageFactory.createSignedHttpRequest(request, params, body);
+        signedRequest = HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getPrivateEccKey());
+        assertEquals(expected, signedRequest.getFirstHeader("content-digest").getValue());
+
+        //the received request carries the same octets
+        HttpPost received = new HttpPost(request.getURI());
+        received.setHeaders(signedRequest.getAllHeaders());
+        received.setEntity(new ByteArrayEntity(octets));
+        assertTrue(HttpMessageSignerFacade.verifyRequest(HttpCoreMessage.of(received), eccKeys()));
+        assertEquals(body, HttpCoreMessage.of(received).getMessageBody());
+    }
+
+    /*
+     * A body held in a direct buffer is digested without decoding it.
+     */
+    @Test
+    public void testDirectBufferBody() throws Exception {
+        byte[] octets = {0, (byte) 0xff, (byte) 0xc3, 0x28, 10, 13};
+        ByteBuffer direct = ByteBuffer.allocateDirect(octets.length);
+        direct.put(octets).flip();
+
+        HttpResponse response = TestMessagProvider.getResponse();
+        response.removeHeaders("Content-Digest");
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response,
+                new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                        Arrays.asList(new Component("@status"), new Component("content-digest"))));
+        signedResponse.setMessageBody(direct);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+
+        assertEquals(SHAEncoder.contentDigestMember(DigestAlgorithm.SHA_256,
+                DigestAlgorithm.SHA_256.newMessageDigest().digest(octets)),
+                signedResponse.getFirstHeader("content-digest").getValue());
+        assertEquals(octets.length, signedResponse.getMessageBodyBytes().remaining());
+        assertTrue(HttpMessageSignerFacade.verifyResponse(signedResponse, eccKeys()));
+    }
+
+    @Test
+    public void testSelectDigestAlgorithm() {
+        assertEquals(DigestAlgorithm.SHA_512, DigestAlgorithm
+                .select(StructuredFieldParser.parseDictionary("sha-256=3, sha-512=10"), DigestAlgorithm.SHA_256));
+        assertEquals(DigestAlgorithm.SHA_256, DigestAlgorithm
+                .select(StructuredFieldParser.parseDictionary("sha-512=0, sha-256=1"), DigestAlgorithm.SHA_512));
+        //tie and unsupported algorithms
+        assertEquals(DigestAlgorithm.SHA_512, DigestAlgorithm
+                .select(StructuredFieldParser.parseDictionary("sha-256=5, sha-512=5, md5=10"), DigestAlgorithm.SHA_512));
+        assertEquals(DigestAlgorithm.SHA_512, DigestAlgorithm
+                .select(StructuredFieldParser.parseDictionary("unixsum=1"), DigestAlgorithm.SHA_512));
+        assertEquals(DigestAlgorithm.SHA_256, DigestAlgorithm.select(null, DigestAlgorithm.SHA_256));
+    }
+
+    /*
+     * Weight 0 excludes an algorithm, the configured one included.
+     */
+    @Test
+    public void testSelectExcludedDigestAlgorithm() {
+        assertEquals(DigestAlgorithm.SHA_256, DigestAlgorithm
+                .select(StructuredFieldParser.parseDictionary("sha-512=0"), DigestAlgorithm.SHA_512));
+        assertEquals(DigestAlgorithm.SHA_512, DigestAlgorithm
+                .select(StructuredFieldParser.parseDictionary("sha-256=0, unixsum=3"), DigestAlgorithm.SHA_256));
+        assertEquals(DigestAlgorithm.SHA_256, DigestAlgorithm
+                .select(StructuredFieldParser.parseDictionary("sha-512=0, sha-256=0"), DigestAlgorithm.SHA_256));
+        //a not excluded configured algorithm is kept if the peer has no positive preference
+        assertEquals(DigestAlgorithm.SHA_512, DigestAlgorithm
+                .select(StructuredFieldParser.parseDictionary("sha-256=0"), DigestAlgorithm.SHA_512));
+    }
+
+    /*
+     * The configured algorithm is used unless the related request prefers another one.
+     */
+    @Test
+    public void testContentDigestAlgorithm() throws Exception {
+        HttpResponse response = TestMessagProvider.getResponse();
+        response.removeHeaders("Content-Digest");
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        params.setContentDigestAlgorithm(DigestAlgorithm.SHA_512);
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+        assertEquals("sha-512=:" + SHAEncoder.hash512(RESPONSE_BODY),
+                signedResponse.getFirstHeader("content-digest").getValue());
+        assertTrue(HttpMessageSignerFacade.verifyResponse(signedResponse, eccKeys()));
+
+        HttpPost request = TestMessagProvider.getTestRequest();
+        request.addHeader("Want-Content-Digest", "sha-512=0, sha-256=7");
+        response = TestMessagProvider.getResponse();
+        response.removeHeaders("Content-Digest");
+        params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        params.setContentDigestAlgorithm(DigestAlgorithm.SHA_512);
+        signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params, request);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+        assertEquals("sha-256=:" + SHAEncoder.hash256(RESPONSE_BODY),
+                signedResponse.getFirstHeader("content-digest").getValue());
+    }
+
+    /*
+     * A Content-Digest with several algorithms is verified member by member.
+     */
+    @Test
+    public void testMultipleContentDigests() throws Exception {
+        String both = "sha-256=:" + SHAEncoder.hash256(RESPONSE_BODY) + ", sha-512=:" + SHAEncoder.hash512(RESPONSE_BODY);
+        assertTrue(verifyContentDigest(both));
+        assertTrue(verifyContentDigest(both + ", unixsum=42"));
+        //one wrong member invalidates the field
+        assertFalse(verifyContentDigest("sha-256=:" + SHAEncoder.hash256(RESPONSE_BODY) + ", sha-512=:"
+                + SHAEncoder.hash512("{\"message\": \"bad dog\"}")));
+        assertFalse(verifyContentDigest("sha-256=?1, sha-512=:" + SHAEncoder.hash512(RESPONSE_BODY)));
+
+        ContentDigestVerifier verifier = ContentDigestVerifier.of(StructuredFieldParser.parseDictionary(both));
+        assertEquals(2, verifier.getAlgorithms().size());
+        assertFalse(verifier.verify(null));
+    }
+
+    @Test
+    public void testUnsupportedContentDigest() throws Exception {
+        ContentDigestVerifier verifier = ContentDigestVerifier.of(StructuredFieldParser.parseDictionary("md5=:AAAA:"));
+        assertFalse(verifier.isSupported());
+        assertTrue(verifier.getAlgorithms().isEmpty());
+        assertFalse(verifier.verify(new EnumMap<DigestAlgorithm, byte[]>(DigestAlgorithm.class)));
+
+        //a signature covering an unsupported-only field is invalid, not an error
+        assertFalse(verifyContentDigest("md5=:AAAA:"));
+        HttpResponse response = TestMessagProvider.getResponse();
+        response.setHeader("Content-Digest", "md5=:AAAA:");
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        SignedHttpResponse signedResponse = HttpMessageSignerFacade.signResponse(
+                SignedHttpMessageFactory.createSignedHttpResponse(response, params), KeyProvider.getPrivateEccKey());
+        LabelResult result = HttpMessageSignerFacade.verifyResponseResult(signedResponse, eccKeys(),
+                new VerificationSettings()).getLabelResult("sig-b22");
+        assertEquals(FailureReason.BODY_DIGEST_MISMATCH, result.getReason());
+        assertNull(result.getError());
+        try {
+            HttpMessageSignerFacade.verifiedBodyStream(signedResponse, new ByteArrayInputStream(new byte[0]));
+            fail("unsupported Content-Digest must be rejected");
+        } catch (ContentDigestMismatchException e) {
+            assertEquals("Content-Digest field has no supported algorithm", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testChunkedBufferDigest() throws Exception {
+        byte[] body = new byte[3 * SHAEncoder.BUFFER_SIZE + 17];
+        new Random(7).nextBytes(body);
+        ByteBuffer direct = ByteBuffer.allocateDirect(body.length + 4);
+        direct.put(new byte[] {1, 2}).put(body).put(new byte[] {3, 4});
+        direct.position(2).limit(2 + body.length);
+        Map<DigestAlgorithm, byte[]> digests = SHAEncoder.digest(EnumSet.allOf(DigestAlgorithm.class), direct);
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(body), digests.get(DigestAlgorithm.SHA_256));
+        assertArrayEquals(MessageDigest.getInstance("SHA-512").digest(body), digests.get(DigestAlgorithm.SHA_512));
+        //position and limit of the buffer are not changed
+        assertEquals(2, direct.position());
+        assertEquals(2 + body.length, direct.limit());
+    }
+
+    /**
+     * Signs the test response with the given content-digest field and verifies it.
+     * @param contentDigest
+     * @return verification result
+     * @throws Exception
+     */
+    private static boolean verifyContentDigest(String contentDigest) throws Exception {
+        HttpResponse response = TestMessagProvider.getResponse();
+        response.setHeader("Content-Digest", contentDigest);
+        SignatureParameter params = new SignatureParameter("ecdsa-p256-sha256", "test-key-ecc-p256", "sig-b22",
+                Arrays.asList(new Component("@status"), new Component("content-digest")));
+        SignedHttpResponse signedResponse = SignedHttpMessageFactory.createSignedHttpResponse(response, params);
+        signedResponse = HttpMessageSignerFacade.signResponse(signedResponse, KeyProvider.getPrivateEccKey());
+        return HttpMessageSignerFacade.verifyResponse(signedResponse, eccKeys());
+    }
+
+    /**
+     * @return public key of the ECC test signatures
+     * @throws Exception
+     */
+    private static List<KeyMap> eccKeys() throws Exception {
+        return Arrays.asList(new KeyMap("test-key-ecc-p256", KeyProvider.getPublicEccKey()));
+    }
+
 }
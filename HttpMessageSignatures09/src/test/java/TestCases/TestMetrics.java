@@ -0,0 +1,226 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import httpmessagesignatures.HttpMessageSignerFacade;
+import httpmessagesignatures.SignedHttpMessageFactory;
+import httpmessagesignatures.VerificationSettings;
+import signature.components.Component;
+import signature.components.ContentDigestCache;
+import signature.components.DigestAlgorithm;
+import signature.components.KeyMap;
+import signature.components.SignatureParameter;
+import signature.dns.DnsResolver;
+import signature.messages.SignedHttpRequest;
+import signature.metrics.Metrics;
+import signature.metrics.SignatureMetrics.Operation;
+import signature.metrics.SignatureMetrics.Phase;
+import signature.metrics.StripedMetrics;
+import signature.metrics.StripedMetrics.LatencyHistogram;
+
+/**
+ * Tests for the metrics of the signing and verification.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestMetrics {
+
+    @Test
+    public void testSignAndVerify() throws Exception {
+        StripedMetrics metrics = new StripedMetrics();
+        Metrics.set(metrics);
+        try {
+            HttpPost request = TestMessagProvider.getTestRequest();
+            List<Component> coveredHeaders = Arrays.asList(new Component("@method"), new Component("content-digest"));
+            SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret",
+                    Instant.now().getEpochSecond() + 100, "sig-b26", coveredHeaders);
+            SignedHttpRequest signedRequest = SignedHttpMessageFactory.createSignedHttpRequest(request, params,
+                    EntityUtils.toString(request.getEntity()));
+            signedRequest = HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+            List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+            assertTrue(HttpMessageSignerFacade.verifyRequest(signedRequest, keys, new VerificationSettings()));
+
+            assertEquals(1, metrics.getLatency(Operation.SIGN, "hmac-sha256").getCount());
+            assertEquals(1, metrics.getLatency(Operation.VERIFY, "hmac-sha256").getCount());
+            assertNotNull(metrics.getPhase(Operation.SIGN, Phase.BASE, "hmac-sha256"));
+            assertNotNull(metrics.getPhase(Operation.SIGN, Phase.CRYPTO, "hmac-sha256"));
+            assertNotNull(metrics.getPhase(Operation.VERIFY, Phase.DIGEST, "hmac-sha256"));
+            assertNotNull(metrics.getPhase(Operation.VERIFY, Phase.CRYPTO, "hmac-sha256"));
+            assertNotNull(metrics.getPhase(Operation.VERIFY, Phase.PARSE, null));
+            assertEquals(Long.valueOf(1), metrics.getKeyIdCounts(Operation.VERIFY).get("test-shared-secret"));
+            //the content-digest field of the test request is verified against the body
+            assertTrue(metrics.getBodyBytes() > 0);
+        } finally {
+            Metrics.set(null);
+        }
+    }
+
+    @Test
+    public void testSignDigestAlgorithm() throws Exception {
+        StripedMetrics metrics = new StripedMetrics();
+        Metrics.set(metrics);
+        try {
+            HttpPost request = TestMessagProvider.getTestRequest();
+            //the signer creates the content-digest field
+            request.removeHeaders("Content-Digest");
+            List<Component> coveredHeaders = Arrays.asList(new Component("@method"), new Component("content-digest"));
+            SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret",
+                    Instant.now().getEpochSecond() + 100, "sig-b26", coveredHeaders);
+            SignedHttpRequest signedRequest = SignedHttpMessageFactory.createSignedHttpRequest(request, params,
+                    EntityUtils.toString(request.getEntity()));
+            HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+
+            assertNotNull(metrics.getPhase(Operation.SIGN, Phase.DIGEST, "sha-256"));
+            assertNull(metrics.getPhase(Operation.SIGN, Phase.DIGEST, "hmac-sha256"));
+        } finally {
+            Metrics.set(null);
+        }
+    }
+
+    @Test
+    public void testFailures() throws Exception {
+        StripedMetrics metrics = new StripedMetrics();
+        Metrics.set(metrics);
+        try {
+            SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-b26",
+                    Arrays.asList(new Component("@method")));
+            SignedHttpRequest signedRequest = SignedHttpMessageFactory
+                    .createSignedHttpRequest(TestMessagProvider.getTestRequest(), params);
+            signedRequest = HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+
+            assertFalse(HttpMessageSignerFacade
+                    .verifyRequestResult(signedRequest, new ArrayList<>(), new VerificationSettings()).isValid());
+            assertEquals(1, metrics.getFailureCount("UNKNOWN_KEY"));
+
+            signedRequest.setHeader("Signature-Input", "sig-b26=(\"@method\";created=1");
+            assertFalse(HttpMessageSignerFacade
+                    .verifyRequestResult(signedRequest, new ArrayList<>(), new VerificationSettings()).isValid());
+            assertEquals(1, metrics.getFailureCount("MALFORMED_FIELDS"));
+            assertEquals(1, metrics.getLatency(Operation.VERIFY, "hmac-sha256").getCount());
+        } finally {
+            Metrics.set(null);
+        }
+    }
+
+    /*
+     * The alg parameter is chosen by the client, unsupported values share one tag so that they cannot add
+     * histograms without a bound.
+     */
+    @Test
+    public void testUnsupportedAlgorithms() throws Exception {
+        StripedMetrics metrics = new StripedMetrics();
+        Metrics.set(metrics);
+        try {
+            SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-b26",
+                    Arrays.asList(new Component("@method")));
+            SignedHttpRequest signedRequest = SignedHttpMessageFactory
+                    .createSignedHttpRequest(TestMessagProvider.getTestRequest(), params);
+            signedRequest = HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+            List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+            for (int i = 0; i < 100; i++) {
+                signedRequest.setHeader("Signature-Input",
+                        "sig-b26=(\"@method\");alg=\"alg-" + i + "\";keyid=\"test-shared-secret\"");
+                assertFalse(HttpMessageSignerFacade
+                        .verifyRequestResult(signedRequest, keys, new VerificationSettings()).isValid());
+            }
+            assertEquals(100, metrics.getLatency(Operation.VERIFY, "other").getCount());
+            assertNull(metrics.getLatency(Operation.VERIFY, "alg-0"));
+            assertNull(metrics.getLatency(Operation.VERIFY, "alg-99"));
+        } finally {
+            Metrics.set(null);
+        }
+    }
+
+    @Test
+    public void testCacheHitRate() {
+        StripedMetrics metrics = new StripedMetrics();
+        Metrics.set(metrics);
+        try {
+            ContentDigestCache cache = new ContentDigestCache(10, 1024 * 1024);
+            String key = ContentDigestCache.applicationKey("a");
+            cache.get(key, DigestAlgorithm.SHA_256);
+            cache.put(key, DigestAlgorithm.SHA_256, "sha-256=:a:");
+            cache.get(key, DigestAlgorithm.SHA_256);
+            cache.get(key, DigestAlgorithm.SHA_256);
+            cache.get(key, DigestAlgorithm.SHA_256);
+            assertEquals(0.75, metrics.getHitRate("content-digest"), 0.0001);
+            assertEquals(0, metrics.getHitRate("dns"), 0);
+        } finally {
+            Metrics.set(null);
+        }
+    }
+
+    @Test
+    public void testDnsHitRate() throws Exception {
+        StripedMetrics metrics = new StripedMetrics();
+        Metrics.set(metrics);
+        try {
+            TestClock clock = new TestClock();
+            List<InetAddress> addresses = Arrays
+                    .asList(InetAddress.getByAddress("example.org", new byte[] { 1, 2, 3, 4 }));
+            DnsResolver dns = new DnsResolver(host -> CompletableFuture.completedFuture(addresses), Runnable::run, 30,
+                    10, 1000, 60, clock);
+            dns.resolve("example.org");
+            dns.resolve("example.org");
+            dns.resolveAsync("example.org").get();
+            //the expired entry is refreshed and not counted as a hit
+            clock.advanceSeconds(31);
+            dns.resolve("example.org");
+            assertEquals(0.5, metrics.getHitRate("dns"), 0.0001);
+        } finally {
+            Metrics.set(null);
+        }
+    }
+
+    @Test
+    public void testLatencyHistogram() {
+        StripedMetrics metrics = new StripedMetrics();
+        for (int i = 0; i < 90; i++) {
+            metrics.recordLatency(Operation.VERIFY, "ed25519", null, true, 100);
+        }
+        for (int i = 0; i < 10; i++) {
+            metrics.recordLatency(Operation.VERIFY, "ed25519", null, true, 1_000_000);
+        }
+        LatencyHistogram histogram = metrics.getLatency(Operation.VERIFY, "ed25519");
+        assertEquals(100, histogram.getCount());
+        assertEquals(90 * 100 + 10 * 1_000_000, histogram.getTotalNanos());
+        //upper bounds of the power of two buckets
+        assertEquals(127, histogram.getPercentileNanos(50));
+        assertEquals(127, histogram.getPercentileNanos(90));
+        assertEquals((1 << 20) - 1, histogram.getPercentileNanos(99));
+    }
+
+}
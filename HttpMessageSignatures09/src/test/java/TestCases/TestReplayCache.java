@@ -0,0 +1,341 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.InputStreamEntity;
+import org.junit.Test;
+
+import httpmessagesignatures.HttpMessageSignerFacade;
+import httpmessagesignatures.SignedHttpMessageFactory;
+import httpmessagesignatures.VerificationResult.FailureReason;
+import httpmessagesignatures.VerificationResult.LabelResult;
+import httpmessagesignatures.VerificationSettings;
+import httpmessagesignatures.VerificationStage;
+import signature.components.Component;
+import signature.components.KeyMap;
+import signature.components.SignatureParameter;
+import signature.messages.HttpCoreMessage;
+import signature.messages.SignableMessage;
+import signature.messages.SignedHttpRequest;
+import signature.replay.BloomReplayFilter;
+import signature.replay.MappedReplayStore;
+import signature.replay.ShardedReplayCache;
+
+/**
+ * Tests for the replay protection with the nonce of a signature.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestReplayCache {
+
+    @Test
+    public void testReplayedRequest() throws Exception {
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "nonce-1", null,
+                "sig-b26", Arrays.asList(new Component("@method"), new Component("@authority")));
+        SignedHttpRequest signedRequest = SignedHttpMessageFactory
+                .createSignedHttpRequest(TestMessagProvider.getTestRequest(), params);
+        signedRequest = HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+
+        VerificationSettings settings = new VerificationSettings();
+        settings.setReplayStore(new ShardedReplayCache());
+        assertTrue(HttpMessageSignerFacade.verifyRequest(signedRequest, keys, settings));
+        assertFalse(HttpMessageSignerFacade.verifyRequest(signedRequest, keys, settings));
+    }
+
+    /*
+     * The body of a message without Content-Length is digested after the signature, but before the nonce is
+     * recorded: a tampered copy does not use up the nonce of the genuine message.
+     */
+    @Test
+    public void testTamperedBodyDoesNotRecordNonce() throws Exception {
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "nonce-1", null,
+                "sig-b26", Arrays.asList(new Component("@method"), new Component("content-digest")));
+        HttpPost request = TestMessagProvider.getTestRequest();
+        request.removeHeaders("Content-Length");
+        SignedHttpRequest signedRequest = HttpMessageSignerFacade.signRequest(
+                SignedHttpMessageFactory.createSignedHttpRequest(request, params), KeyProvider.getSharedSecret());
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+        VerificationSettings settings = new VerificationSettings();
+        settings.setReplayStore(new ShardedReplayCache());
+
+        LabelResult tampered = HttpMessageSignerFacade
+                .verifyRequestResult(received(signedRequest, "{\"hello\": \"moon\"}"), keys, settings)
+                .getLabelResult("sig-b26");
+        assertEquals(FailureReason.BODY_DIGEST_MISMATCH, tampered.getReason());
+        assertEquals(VerificationStage.BODY_DIGEST, tampered.getStage());
+        assertTrue(HttpMessageSignerFacade.verifyRequest(received(signedRequest, "{\"hello\": \"world\"}"), keys,
+                settings));
+        assertFalse(HttpMessageSignerFacade.verifyRequest(received(signedRequest, "{\"hello\": \"world\"}"), keys,
+                settings));
+    }
+
+    @Test
+    public void testNonceRequired() throws Exception {
+        SignatureParameter params = new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-b26",
+                Arrays.asList(new Component("@method")));
+        SignedHttpRequest signedRequest = SignedHttpMessageFactory
+                .createSignedHttpRequest(TestMessagProvider.getTestRequest(), params);
+        signedRequest = HttpMessageSignerFacade.signRequest(signedRequest, KeyProvider.getSharedSecret());
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()));
+
+        VerificationSettings settings = new VerificationSettings();
+        settings.setReplayStore(new ShardedReplayCache());
+        assertTrue(HttpMessageSignerFacade.verifyRequest(signedRequest, keys, settings));
+        settings.setNonceRequired(true);
+        assertFalse(HttpMessageSignerFacade.verifyRequest(signedRequest, keys, settings));
+    }
+
+    @Test
+    public void testNoncePerKeyId() {
+        ShardedReplayCache cache = new ShardedReplayCache(4, Clock.systemUTC());
+        long retainUntil = Instant.now().getEpochSecond() + 60;
+        assertTrue(cache.checkAndRecord("key-a", "n1", retainUntil));
+        assertTrue(cache.checkAndRecord("key-b", "n1", retainUntil));
+        assertFalse(cache.checkAndRecord("key-a", "n1", retainUntil));
+        assertEquals(4, cache.getShardCount());
+    }
+
+    /*
+     * Nonces expire through all levels of the timing wheel, stepping second by second.
+     */
+    @Test
+    public void testExpiry() {
+        TestClock clock = new TestClock(1_000_000);
+        ShardedReplayCache cache = new ShardedReplayCache(2, clock);
+        long[] retention = {1, 10, 63, 64, 100, 4095, 4096, 5000};
+        for (int i = 0; i < retention.length; i++) {
+            assertTrue(cache.checkAndRecord("key", "n" + i, clock.epochSecond() + retention[i]));
+        }
+        long start = clock.epochSecond();
+        for (long t = 1; t <= 5001; t++) {
+            clock.advanceSeconds(1);
+            cache.purgeExpired();
+            for (int i = 0; i < retention.length; i++) {
+                //a nonce is a replay until its retention has passed
+                if ((t == retention[i]) || (t == retention[i] + 1)) {
+                    assertEquals("nonce n" + i + " at " + t, t > retention[i],
+                            cache.checkAndRecord("key", "n" + i, start + retention[i]));
+                }
+            }
+        }
+        //the nonces recorded again have expired as well
+        clock.advanceSeconds(1);
+        cache.purgeExpired();
+        assertEquals(0, cache.size());
+    }
+
+    /*
+     * After a long idle time the wheel is rebuilt.
+     */
+    @Test
+    public void testIdleShard() {
+        TestClock clock = new TestClock(1_000_000);
+        ShardedReplayCache cache = new ShardedReplayCache(1, clock);
+        assertTrue(cache.checkAndRecord("key", "short", clock.epochSecond() + 10));
+        assertTrue(cache.checkAndRecord("key", "long", clock.epochSecond() + 100_000));
+        clock.advanceSeconds(50_000);
+        cache.purgeExpired();
+        assertEquals(1, cache.size());
+        assertFalse(cache.checkAndRecord("key", "long", clock.epochSecond()));
+        clock.advanceSeconds(50_001);
+        cache.purgeExpired();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        ShardedReplayCache cache = new ShardedReplayCache();
+        long retainUntil = Instant.now().getEpochSecond() + 60;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> {
+                    int accepted = 0;
+                    for (int i = 0; i < 10_000; i++) {
+                        if (cache.checkAndRecord("key", Integer.toString(i), retainUntil)) {
+                            accepted++;
+                        }
+                    }
+                    return accepted;
+                }));
+            }
+            int accepted = 0;
+            for (Future<Integer> result : results) {
+                accepted += result.get();
+            }
+            //every nonce is accepted exactly once
+            assertEquals(10_000, accepted);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /*
+     * The nonces of a mapped store are still known after it is opened again.
+     */
+    @Test
+    public void testMappedStoreSurvivesRestart() throws Exception {
+        Path directory = Files.createTempDirectory("replay");
+        TestClock clock = new TestClock(1_000_000);
+        try (MappedReplayStore store = new MappedReplayStore(directory, 1024, clock)) {
+            assertTrue(store.checkAndRecord("key-a", "n1", clock.epochSecond() + 30));
+            assertTrue(store.checkAndRecord("key-b", "n1", clock.epochSecond() + 90));
+            assertFalse(store.checkAndRecord("key-a", "n1", clock.epochSecond() + 30));
+        }
+        try (MappedReplayStore store = new MappedReplayStore(directory, 1024, clock)) {
+            assertFalse(store.checkAndRecord("key-a", "n1", clock.epochSecond() + 30));
+            assertFalse(store.checkAndRecord("key-b", "n1", clock.epochSecond() + 90));
+            assertTrue(store.checkAndRecord("key-a", "n2", clock.epochSecond() + 30));
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /*
+     * The slot of an expired nonce is reused, a closed store cannot be used anymore.
+     */
+    @Test
+    public void testMappedStoreExpiry() throws Exception {
+        Path directory = Files.createTempDirectory("replay");
+        TestClock clock = new TestClock(1_000_000);
+        try {
+            MappedReplayStore store = new MappedReplayStore(directory, 4096, clock);
+            for (int round = 0; round < 10; round++) {
+                for (int i = 0; i < 1000; i++) {
+                    assertTrue(store.checkAndRecord("key", "n" + i, clock.epochSecond() + 10));
+                }
+                assertFalse(store.checkAndRecord("key", "n0", clock.epochSecond()));
+                clock.advanceSeconds(11);
+            }
+            //every round fits into the slots of the expired round
+            assertEquals(4096, store.getSlotCount());
+            store.close();
+            try {
+                store.checkAndRecord("key", "n0", clock.epochSecond() + 10);
+                fail("closed store used");
+            } catch (IllegalStateException e) {
+                assertEquals("Replay store is closed", e.getMessage());
+            }
+            assertEquals(1, directory.toFile().list().length);
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    /*
+     * A table whose probed slots are all live grows, the replaced table file is unmapped and deleted.
+     */
+    @Test
+    public void testMappedStoreGrowth() throws Exception {
+        Path directory = Files.createTempDirectory("replay");
+        TestClock clock = new TestClock(1_000_000);
+        try {
+            try (MappedReplayStore store = new MappedReplayStore(directory, 256, clock)) {
+                for (int i = 0; i < 20_000; i++) {
+                    assertTrue(store.checkAndRecord("key", "n" + i, clock.epochSecond() + 60));
+                }
+                assertTrue(store.getSlotCount() > 4096);
+                for (int i = 0; i < 20_000; i++) {
+                    assertFalse(store.checkAndRecord("key", "n" + i, clock.epochSecond() + 60));
+                }
+                assertEquals(1, directory.toFile().list().length);
+            }
+            try (MappedReplayStore store = new MappedReplayStore(directory, 256, clock)) {
+                assertFalse(store.checkAndRecord("key", "n19999", clock.epochSecond() + 60));
+            }
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    public void testBloomReplayFilter() {
+        TestClock clock = new TestClock(1_000_000);
+        BloomReplayFilter filter = new BloomReplayFilter(300, 10, 1000, 0.01, clock);
+        assertEquals(31, filter.getBucketCount());
+        int falseRejects = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (!filter.checkAndRecord("key", "n" + i, clock.epochSecond() + 60)) {
+                falseRejects++;
+            }
+        }
+        assertTrue("false rejects " + falseRejects, falseRejects < 100);
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(filter.checkAndRecord("key", "n" + i, clock.epochSecond() + 60));
+        }
+        //the bucket of the nonces is cleared when its time has passed
+        clock.advanceSeconds(70);
+        assertTrue(filter.checkAndRecord("key", "n0", clock.epochSecond() + 60));
+
+        //a nonce is remembered up to the maximum validity, a longer retention is rejected instead of shortened
+        assertFalse(filter.checkAndRecord("key", "long", clock.epochSecond() + 301));
+        assertTrue(filter.checkAndRecord("key", "long", clock.epochSecond() + 300));
+        clock.advanceSeconds(299);
+        assertFalse(filter.checkAndRecord("key", "long", clock.epochSecond() + 1));
+    }
+
+    /**
+     * @param directory directory of a test with its files
+     */
+    private static void deleteDirectory(Path directory) {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.toFile().delete();
+    }
+
+    /**
+     * @param signedRequest
+     * @param body
+     * @return the signed request as received with a streamed body without Content-Length
+     * @throws Exception
+     */
+    private static SignableMessage received(SignedHttpRequest signedRequest, String body) throws Exception {
+        HttpPost received = new HttpPost(signedRequest.getTargetUri());
+        received.setHeaders(signedRequest.getAllHeaders());
+        received.setEntity(new InputStreamEntity(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))));
+        return HttpCoreMessage.of(received);
+    }
+
+}
@@ -124,6 +124,36 @@ public class TestSafeTransformation {
         assertTrue(verify);
     }
 
+    /*
+     * Signing and verifying must not rewrite the header fields of the message.
+     */
+    @Test
+    public void testHeadersNotChanged() throws Exception {
+        HttpPost request = getTestRequest();
+
+        List<Component> coveredHeaders = Arrays.asList(new Component("@authority"), new Component("example"));
+        SignatureParameter params = new SignatureParameter("rsa-pss-sha512", "test-key-rsa-pss", "sig-b22",
+                coveredHeaders);
+
+        request.addHeader("Example", "en=\"Applepie\"");
+        request.addHeader("Example", "da=:w4ZibGV0w6ZydGU=:");
+
+        SignedHttpRequest signedRequest = SignedHttpMessageFactory.createSignedHttpRequest(request, params);
+
+        byte[] privateKey = KeyProvider.getRsaPssPrivateKey();
+        signedRequest = HttpMessageSignerFacade.signRequest(signedRequest, privateKey);
+
+        byte[] publicKey = KeyProvider.getRsaPssPublicKey();
+        List<KeyMap> listeKeys = new ArrayList<>();
+        KeyMap map = new KeyMap("test-key-rsa-pss", publicKey);
+        listeKeys.add(map);
+        boolean verify = HttpMessageSignerFacade.verifyRequest(signedRequest, listeKeys);
+        assertTrue(verify);
+
+        assertEquals(2, signedRequest.getHeaders("Example").length);
+        assertEquals("Content-Type", signedRequest.getFirstHeader("content-type").getName());
+    }
+
     /*
      * Conversion between different versions of the HTTP protocol.
      */
@@ -0,0 +1,141 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.junit.Test;
+
+import exceptions.SignatureParseException;
+import exceptions.SignatureParseException.Reason;
+import signature.components.Component;
+import signature.components.SignatureEntry;
+import signature.messages.HeaderIndex;
+import signature.structuredfields.StructuredFieldLimits;
+
+/**
+ * Tests for the per-label model of the Signature and Signature-Input fields.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestSignatureEntries {
+
+    /*
+     * Every label must get its own list of covered components.
+     */
+    @Test
+    public void testMultipleLabels() throws Exception {
+        HeaderIndex headers = new HeaderIndex(new Header[] {
+            new BasicHeader("Signature-Input",
+                    "sig1=(\"@method\" \"content-digest\");created=1618884473;keyid=\"key-a\";alg=\"hmac-sha256\""),
+            new BasicHeader("Signature-Input",
+                    "sig2=(\"@authority\" \"signature\";req;key=\"sig1\");created=1618884475;keyid=\"key-b\""),
+            new BasicHeader("Signature", "sig1=:AQID:, sig2=:BAU=:")});
+
+        Map<String, SignatureEntry> entries = SignatureEntry.parse(headers);
+        assertEquals(2, entries.size());
+
+        SignatureEntry first = entries.get("sig1");
+        assertEquals("hmac-sha256", first.getAlgorithm());
+        assertEquals("key-a", first.getKeyId());
+        assertEquals(Long.valueOf(1618884473), first.getCreated());
+        assertNull(first.getExpires());
+        assertArrayEquals(new byte[] {1, 2, 3}, first.getSignature());
+        List<Component> firstComponents = first.getCoveredComponents();
+        assertEquals(2, firstComponents.size());
+        assertEquals("content-digest", firstComponents.get(1).getComponentId());
+
+        SignatureEntry second = entries.get("sig2");
+        assertEquals("key-b", second.getKeyId());
+        assertArrayEquals(new byte[] {4, 5}, second.getSignature());
+        List<Component> secondComponents = second.getCoveredComponents();
+        assertEquals("@authority", secondComponents.get(0).getComponentId());
+        Component related = secondComponents.get(1);
+        assertEquals("signature", related.getComponentId());
+        assertTrue(related.isReq());
+        assertEquals("sig1", related.getParameter()[1].getValue());
+    }
+
+    /*
+     * The components are copied, values set during verification do not leak into the model.
+     */
+    @Test
+    public void testComponentsAreCopied() throws Exception {
+        HeaderIndex headers = new HeaderIndex(new Header[] {
+            new BasicHeader("Signature-Input", "sig1=(\"date\");created=1"), new BasicHeader("Signature", "sig1=::")});
+        SignatureEntry entry = SignatureEntry.parse(headers).get("sig1");
+        entry.getCoveredComponents().get(0).setValue("changed");
+        assertNull(entry.getCoveredComponents().get(0).getValue());
+        assertEquals(0, entry.getSignature().length);
+    }
+
+    @Test
+    public void testMissingSignature() throws Exception {
+        HeaderIndex headers = new HeaderIndex(new Header[] {new BasicHeader("Signature-Input", "sig1=();created=1")});
+        assertNull(SignatureEntry.parse(headers).get("sig1").getSignature());
+        assertTrue(SignatureEntry.parse(new HeaderIndex(new Header[0])).isEmpty());
+        assertTrue(SignatureEntry.parse(headers).get("sig1").getCoveredComponents().isEmpty());
+    }
+
+    /*
+     * Hostile fields are rejected with a typed reason as soon as a limit is exceeded.
+     */
+    @Test
+    public void testLimits() {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            labels.append(i > 0 ? ", " : "").append("sig").append(i).append("=();created=1");
+        }
+        StructuredFieldLimits limits = new StructuredFieldLimits(8, 4, 3);
+        assertReason(Reason.TOO_MANY_LABELS, labels.toString(), limits, 100000);
+        assertReason(Reason.HEADER_TOO_LARGE, labels.toString(), limits, 1024);
+        assertReason(Reason.TOO_MANY_COMPONENTS, "sig1=(\"a\" \"b\" \"c\" \"d\" \"e\");created=1", limits, 1024);
+        assertReason(Reason.TOO_MANY_PARAMETERS, "sig1=(\"a\");created=1;keyid=\"k\";alg=\"x\";nonce=\"n\"", limits,
+                1024);
+        assertReason(Reason.MALFORMED_FIELD, "sig1=(\"a\";created=1", limits, 1024);
+        assertReason(Reason.INVALID_MEMBER, "sig1=\"a\"", limits, 1024);
+    }
+
+    /**
+     * @param expected
+     * @param signatureInput
+     * @param limits
+     * @param maxLength
+     */
+    private static void assertReason(Reason expected, String signatureInput, StructuredFieldLimits limits,
+            int maxLength) {
+        HeaderIndex headers = new HeaderIndex(new Header[] {new BasicHeader("Signature-Input", signatureInput)});
+        try {
+            SignatureEntry.parse(headers, limits, maxLength);
+            fail("expected " + expected);
+        } catch (SignatureParseException e) {
+            assertEquals(expected, e.getReason());
+        }
+    }
+
+}
@@ -0,0 +1,151 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.math.BigDecimal;
+
+import org.apache.http.Header;
+import org.apache.http.message.BasicHeader;
+import org.junit.Test;
+
+import exceptions.StructuredFieldParseException;
+import signature.messages.HeaderIndex;
+import signature.structuredfields.SfByteSequence;
+import signature.structuredfields.SfDictionary;
+import signature.structuredfields.SfInnerList;
+import signature.structuredfields.SfItem;
+import signature.structuredfields.SfList;
+import signature.structuredfields.SfToken;
+import signature.structuredfields.StructuredField;
+import signature.structuredfields.StructuredFieldParser;
+import signature.structuredfields.StructuredFieldType;
+
+/**
+ * Tests for parsing and serialization of structured fields (RFC 8941).
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestStructuredFieldParser {
+
+    @Test
+    public void testDictionary() {
+        SfDictionary dictionary = StructuredFieldParser.parseDictionary("  a=1,   b;x=?0,c=(\"x\" tok);p=:AQID:  ");
+        assertEquals(Long.valueOf(1), ((SfItem) dictionary.get("a")).getValue());
+        assertEquals(Boolean.TRUE, ((SfItem) dictionary.get("b")).getValue());
+        assertEquals(Boolean.FALSE, dictionary.get("b").getParameters().get("x"));
+        SfInnerList inner = (SfInnerList) dictionary.get("c");
+        assertEquals("x", inner.getItems().get(0).getValue());
+        assertEquals(new SfToken("tok"), inner.getItems().get(1).getValue());
+        assertArrayEquals(new byte[] {1, 2, 3}, ((SfByteSequence) inner.getParameters().get("p")).getBytes());
+        assertEquals("a=1, b;x=?0, c=(\"x\" tok);p=:AQID:", dictionary.serialize());
+    }
+
+    @Test
+    public void testSignatureInput() {
+        String value = "sig1=(\"@method\" \"content-digest\";req);created=1618884473;keyid=\"test-key-rsa-pss\"";
+        SfDictionary dictionary = StructuredFieldParser.parseDictionary(value);
+        assertEquals(value, dictionary.serialize());
+    }
+
+    @Test
+    public void testListAndItem() {
+        SfList list = StructuredFieldParser.parseList("sugar, tea,\trum;q=0.50");
+        assertEquals(3, list.getMembers().size());
+        assertEquals("sugar, tea, rum;q=0.5", list.serialize());
+        SfItem item = StructuredFieldParser.parseItem("-12.345");
+        assertEquals(new BigDecimal("-12.345"), item.getValue());
+        assertEquals("\"a\\\"b\"", StructuredFieldParser.parseItem("\"a\\\"b\"").serialize());
+    }
+
+    @Test
+    public void testInvalidValues() {
+        String[] invalid = {"a=1,", "a=\"unterminated", "A=1", "a=1.2345", "a=1234567890123456", "a=(1 2", "a=:AB*:",
+            "a=?2", "a=1 b=2"};
+        for (String value : invalid) {
+            StructuredFieldParser parser = new StructuredFieldParser(value);
+            assertNull(value, parser.dictionary());
+        }
+    }
+
+    @Test(expected = StructuredFieldParseException.class)
+    public void testInvalidItemThrows() {
+        StructuredFieldParser.parseItem("1 2");
+    }
+
+    /*
+     * A field is parsed once per message, multiple fields with the same name are combined first.
+     */
+    @Test
+    public void testParseCache() {
+        HeaderIndex index = new HeaderIndex(new Header[] {new BasicHeader("Example-Dict", " a=1,  b=2"),
+            new BasicHeader("example-dict", "c=\"x\" "), new BasicHeader("Content-Digest", "sha-256=:AAAA:")});
+        StructuredField field = index.getStructuredField("example-dict");
+        assertEquals(StructuredFieldType.DICTIONARY, field.getType());
+        assertEquals("a=1, b=2, c=\"x\"", field.serialize());
+        assertSame(field, index.getStructuredField("Example-Dict"));
+        SfDictionary digest = (SfDictionary) index.getStructuredField("content-digest");
+        assertEquals("AAAA", ((SfByteSequence) ((SfItem) digest.get("sha-256")).getValue()).getBase64());
+        assertNull(index.getStructuredField("missing"));
+    }
+
+    /*
+     * The type of an unknown field is guessed from the most specific type: item, list, dictionary.
+     */
+    @Test
+    public void testGuessedType() {
+        HeaderIndex index = new HeaderIndex(new Header[] {new BasicHeader("X-Token", "foo;a=1"),
+            new BasicHeader("X-List", "foo, bar"), new BasicHeader("X-Dict", "a=1, b")});
+        assertEquals(StructuredFieldType.ITEM, index.getStructuredField("x-token").getType());
+        assertEquals(StructuredFieldType.LIST, index.getStructuredField("x-list").getType());
+        assertEquals(StructuredFieldType.DICTIONARY, index.getStructuredField("x-dict").getType());
+        //a known field keeps its registered type
+        index = new HeaderIndex(new Header[] {new BasicHeader("Priority", "u")});
+        assertEquals(StructuredFieldType.DICTIONARY, index.getStructuredField("priority").getType());
+    }
+
+    /*
+     * A cached parse failure is thrown as new exception on every call.
+     */
+    @Test
+    public void testCachedFailure() {
+        HeaderIndex index = new HeaderIndex(new Header[] {new BasicHeader("Content-Digest", "sha-256=:AAAA")});
+        StructuredFieldParseException first = null;
+        StructuredFieldParseException second = null;
+        try {
+            index.getStructuredField("content-digest", StructuredFieldType.DICTIONARY);
+        } catch (StructuredFieldParseException e) {
+            first = e;
+        }
+        try {
+            index.getStructuredField("content-digest", StructuredFieldType.DICTIONARY);
+        } catch (StructuredFieldParseException e) {
+            second = e;
+        }
+        assertNotSame(first, second);
+        assertEquals(first.getMessage(), second.getMessage());
+        assertEquals(first.getPosition(), second.getPosition());
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+* This file is part of a Koerber Pharma Software GmbH project.
+*
+* Copyright (c)
+*    Koerber Pharma Software GmbH
+*    All rights reserved.
+*
+* This source file may be managed in different Java package structures,
+* depending on actual usage of the source file by the Copyright holders:
+*
+* for Koerber:  com.werum.* or any other Werum owned Internet domain
+*
+* Any use of this file as part of a software system by none Copyright holders
+* is subject to license terms.
+*
+*/
+package TestCases;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.http.client.methods.HttpPost;
+import org.junit.Test;
+
+import httpmessagesignatures.HttpMessageSignerFacade;
+import httpmessagesignatures.SignedHttpMessageFactory;
+import httpmessagesignatures.VerificationPolicy;
+import httpmessagesignatures.VerificationResult;
+import httpmessagesignatures.VerificationResult.FailureReason;
+import httpmessagesignatures.VerificationResult.Status;
+import httpmessagesignatures.VerificationSettings;
+import signature.components.Component;
+import signature.components.KeyMap;
+import signature.components.SignatureParameter;
+import signature.messages.HttpCoreMessage;
+import signature.messages.SignableMessage;
+import signature.messages.SignedHttpRequest;
+
+/**
+ * Tests for the selection of the verified signatures by a verification policy.
+ *
+ * @author annika_weisser
+ * @company Koerber Pharma Software GmbH
+ * @created 19.10.2026
+ */
+public class TestVerificationPolicy {
+
+    /*
+     * All signatures have to be valid by default, independent of their order.
+     */
+    @Test
+    public void testDefaultRequiresAllSignatures() throws Exception {
+        assertFalse(HttpMessageSignerFacade.verifyRequest(twoSignatures(), allKeys()));
+    }
+
+    /*
+     * The invalid HMAC signature is verified first because it is cheaper, the valid Ed25519 signature satisfies
+     * the policy.
+     */
+    @Test
+    public void testRequireAny() throws Exception {
+        VerificationSettings settings = new VerificationSettings();
+        settings.setPolicy(VerificationPolicy.requireAny());
+        assertTrue(HttpMessageSignerFacade.verifyRequest(twoSignatures(), allKeys(), settings));
+    }
+
+    /*
+     * The keyid of the HMAC signature verified first is not known: it is one failed candidate, the valid Ed25519
+     * signature still satisfies the policy.
+     */
+    @Test
+    public void testRequireAnyWithUnknownKey() throws Exception {
+        VerificationSettings settings = new VerificationSettings();
+        settings.setPolicy(VerificationPolicy.requireAny());
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-key-ed25519", KeyProvider.getEd25519PublicKey()));
+        assertTrue(HttpMessageSignerFacade.verifyRequest(twoSignatures(), keys, settings));
+
+        VerificationResult result = HttpMessageSignerFacade.verifyRequestResult(twoSignatures(), keys, settings);
+        assertTrue(result.isValid());
+        assertEquals(FailureReason.UNKNOWN_KEY, result.getLabelResult("sig-a").getReason());
+        assertEquals(Status.VALID, result.getLabelResult("sig-b").getStatus());
+    }
+
+    /*
+     * Only the signature of the accepted keyid is verified, the other keyid is not known.
+     */
+    @Test
+    public void testKeyIdSelection() throws Exception {
+        VerificationSettings settings = new VerificationSettings();
+        VerificationPolicy policy = VerificationPolicy.requireAll();
+        policy.setKeyIds(Arrays.asList("test-key-ed25519"));
+        settings.setPolicy(policy);
+        List<KeyMap> keys = Arrays.asList(new KeyMap("test-key-ed25519", KeyProvider.getEd25519PublicKey()));
+        assertTrue(HttpMessageSignerFacade.verifyRequest(twoSignatures(), keys, settings));
+    }
+
+    @Test
+    public void testRequiredComponents() throws Exception {
+        VerificationSettings settings = new VerificationSettings();
+        VerificationPolicy policy = VerificationPolicy.requireAny();
+        policy.setRequiredComponents(Arrays.asList("@method", "@authority"));
+        settings.setPolicy(policy);
+        assertTrue(HttpMessageSignerFacade.verifyRequest(twoSignatures(), allKeys(), settings));
+
+        //no signature covers content-digest
+        policy.setRequiredComponents(Arrays.asList("@method", "content-digest"));
+        assertFalse(HttpMessageSignerFacade.verifyRequest(twoSignatures(), allKeys(), settings));
+    }
+
+    /**
+     * @return request with an invalid HMAC signature sig-a and a valid Ed25519 signature sig-b
+     * @throws Exception
+     */
+    private static SignableMessage twoSignatures() throws Exception {
+        SignedHttpRequest hmac = sign(new SignatureParameter("hmac-sha256", "test-shared-secret", "sig-a",
+                Arrays.asList(new Component("@method"))), KeyProvider.getSharedSecret());
+        SignedHttpRequest ed25519 = sign(new SignatureParameter("ed25519", "test-key-ed25519", "sig-b",
+                Arrays.asList(new Component("@method"), new Component("@authority"))),
+                KeyProvider.getEd25519PrivateKey());
+
+        HttpPost received = TestMessagProvider.getTestRequest();
+        received.setHeader("Signature-Input", hmac.getFirstHeader("Signature-Input").getValue() + ", "
+                + ed25519.getFirstHeader("Signature-Input").getValue());
+        received.setHeader("Signature", "sig-a=:AAAA:, " + ed25519.getFirstHeader("Signature").getValue());
+        return HttpCoreMessage.of(received);
+    }
+
+    /**
+     * @param params
+     * @param privateKey
+     * @return signed test request
+     * @throws Exception
+     */
+    private static SignedHttpRequest sign(SignatureParameter params, byte[] privateKey) throws Exception {
+        SignedHttpRequest signedRequest = SignedHttpMessageFactory
+                .createSignedHttpRequest(TestMessagProvider.getTestRequest(), params);
+        return HttpMessageSignerFacade.signRequest(signedRequest, privateKey);
+    }
+
+    /**
+     * @return keys of both signatures
+     * @throws Exception
+     */
+    private static List<KeyMap> allKeys() throws Exception {
+        return Arrays.asList(new KeyMap("test-shared-secret", KeyProvider.getSharedSecret()),
+                new KeyMap("test-key-ed25519", KeyProvider.getEd25519PublicKey()));
+    }
+
+}